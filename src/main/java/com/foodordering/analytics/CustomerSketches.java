@@ -0,0 +1,125 @@
+package com.foodordering.analytics;
+
+import com.foodordering.model.entity.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Distinct-customer {@link HyperLogLog}s of live orders, per month and per menu item
+ * and month, for the dashboard. Cancelled orders are left out, as everywhere on the
+ * dashboard.
+ * <p>
+ * New orders, and orders entering a counted status, are added as they arrive
+ * through {@link OrderFactListener}. A HyperLogLog cannot forget a customer, so a
+ * cancellation, edit or removal (including archival) marks the month stale. The
+ * month is rebuilt from the fact table the next time it is read. Archived months
+ * live in the rollups' persisted registers instead.
+ * <p>
+ * Listener callbacks hold the fact store's write lock. {@link #month} must be
+ * called inside {@link OrderFactStore#read}; it synchronizes the rebuilds that
+ * concurrent readers may trigger.
+ */
+@Component
+public class CustomerSketches implements OrderFactListener {
+
+    private static final int COUNTED_STATUSES = OrderFactTable.statusMaskExcluding(Order.OrderStatus.CANCELLED);
+
+    // Keyed by the epoch day of the month's first day
+    private final Map<Integer, MonthCustomers> months = new HashMap<>();
+    private final Set<Integer> staleMonths = new HashSet<>();
+
+    @Override
+    public void orderAdded(OrderFactTable table, int ordinal) {
+        if (OrderFactTable.inMask(COUNTED_STATUSES, table.orderStatuses()[ordinal])) {
+            add(table, ordinal);
+        }
+    }
+
+    @Override
+    public void orderRemoving(OrderFactTable table, int ordinal) {
+        if (OrderFactTable.inMask(COUNTED_STATUSES, table.orderStatuses()[ordinal])) {
+            staleMonths.add(monthStart(table.orderDays()[ordinal]));
+        }
+    }
+
+    @Override
+    public void orderStatusChanged(OrderFactTable table, int ordinal, byte previousStatus) {
+        boolean wasCounted = OrderFactTable.inMask(COUNTED_STATUSES, previousStatus);
+        boolean counted = OrderFactTable.inMask(COUNTED_STATUSES, table.orderStatuses()[ordinal]);
+        if (!wasCounted && counted) {
+            add(table, ordinal);
+        } else if (wasCounted && !counted) {
+            staleMonths.add(monthStart(table.orderDays()[ordinal]));
+        }
+    }
+
+    @Override
+    public void tableLoaded(OrderFactTable table) {
+        months.clear();
+        staleMonths.clear();
+        for (int ordinal = 0; ordinal < table.orderSlots(); ordinal++) {
+            if (OrderFactTable.inMask(COUNTED_STATUSES, table.orderStatuses()[ordinal])) {
+                add(table, ordinal);
+            }
+        }
+    }
+
+    /**
+     * Customers of live orders created in the month, or null if there are none. The
+     * sketches are shared: read (merge) them before the read lock is released.
+     */
+    public synchronized MonthCustomers month(OrderFactTable table, YearMonth month) {
+        int start = (int) month.atDay(1).toEpochDay();
+        if (staleMonths.remove(start)) {
+            rebuild(table, start, (int) month.atEndOfMonth().toEpochDay());
+        }
+        return months.get(start);
+    }
+
+    private void add(OrderFactTable table, int ordinal) {
+        MonthCustomers customers = months.computeIfAbsent(monthStart(table.orderDays()[ordinal]), start -> new MonthCustomers());
+        long customer = table.orderAccountHashes()[ordinal];
+        customers.all.add(customer);
+        int[] lineMenuItems = table.lineMenuItems();
+        int first = table.orderFirstLines()[ordinal];
+        for (int row = first, end = first + table.orderLineCounts()[ordinal]; row < end; row++) {
+            customers.byMenuItem.computeIfAbsent(lineMenuItems[row], item -> new HyperLogLog()).add(customer);
+        }
+    }
+
+    private void rebuild(OrderFactTable table, int firstDay, int lastDay) {
+        months.remove(firstDay);
+        int[] orderDays = table.orderDays();
+        byte[] orderStatuses = table.orderStatuses();
+        for (int ordinal = 0; ordinal < table.orderSlots(); ordinal++) {
+            int day = orderDays[ordinal];
+            if (day >= firstDay && day <= lastDay && OrderFactTable.inMask(COUNTED_STATUSES, orderStatuses[ordinal])) {
+                add(table, ordinal);
+            }
+        }
+    }
+
+    private static int monthStart(int day) {
+        return (int) LocalDate.ofEpochDay(day).withDayOfMonth(1).toEpochDay();
+    }
+
+    public static final class MonthCustomers {
+        private final HyperLogLog all = new HyperLogLog();
+        // Keyed by the fact table's menu item ordinal
+        private final Map<Integer, HyperLogLog> byMenuItem = new HashMap<>();
+
+        public HyperLogLog getAll() {
+            return all;
+        }
+
+        public Map<Integer, HyperLogLog> getByMenuItem() {
+            return byMenuItem;
+        }
+    }
+}
@@ -0,0 +1,118 @@
+package com.foodordering.analytics;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.io.Serial;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Fork-join runner for dashboard aggregation over row ranges.
+ * <p>
+ * A range is split in halves down to leaves of at least analytics.parallel-min-rows
+ * rows. Each leaf fills its own {@link DashboardAggregator#emptyCopy()}, and the
+ * partials are merged pairwise on the way back up. The merged sums are the same
+ * as a sequential run. Small ranges, and analytics.parallelism=1, skip the pool
+ * and go straight into the target aggregator.
+ * <p>
+ * The pool is dedicated, so long scans do not take workers from the common pool
+ * that parallel streams elsewhere rely on. Callers keep holding the fact store's
+ * read lock while the pool runs, so the workers see a table that cannot change
+ * under them.
+ */
+@Component
+public class DashboardAggregationPool {
+
+    @Value("${analytics.parallelism:0}")
+    private int parallelism;
+
+    @Value("${analytics.parallel-min-rows:250000}")
+    private int minRowsPerTask;
+
+    private ForkJoinPool pool;
+
+    /**
+     * Accumulates rows [fromRow, toRow) into a partial.
+     */
+    @FunctionalInterface
+    public interface RangeAggregation {
+        void accumulate(DashboardAggregator partial, int fromRow, int toRow);
+    }
+
+    @PostConstruct
+    void start() {
+        if (parallelism <= 0) {
+            parallelism = Runtime.getRuntime().availableProcessors();
+        }
+        if (parallelism > 1) {
+            AtomicInteger threads = new AtomicInteger();
+            pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+                ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+                thread.setName("dashboard-aggregation-" + threads.incrementAndGet());
+                thread.setDaemon(true);
+                return thread;
+            }, null, false);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        if (pool != null) {
+            pool.shutdownNow();
+        }
+    }
+
+    /**
+     * Runs aggregation over rows [0, rows) and adds the result to target.
+     */
+    public void aggregate(DashboardAggregator target, int rows, RangeAggregation aggregation) {
+        if (pool == null || rows < 2L * minRowsPerTask) {
+            aggregation.accumulate(target, 0, rows);
+            return;
+        }
+        // A few leaves per worker evens out ranges that select very different row counts
+        int leafRows = Math.max(minRowsPerTask, (int) Math.min(Integer.MAX_VALUE, (long) rows / (parallelism * 4L) + 1));
+        target.merge(pool.invoke(new RangeTask(target, aggregation, 0, rows, leafRows)));
+    }
+
+    private static final class RangeTask extends RecursiveTask<DashboardAggregator> {
+
+        @Serial
+        private static final long serialVersionUID = 1L;
+
+        private final DashboardAggregator template;
+        private final RangeAggregation aggregation;
+        private final int fromRow;
+        private final int toRow;
+        private final int leafRows;
+
+        private RangeTask(DashboardAggregator template, RangeAggregation aggregation,
+                          int fromRow, int toRow, int leafRows) {
+            this.template = template;
+            this.aggregation = aggregation;
+            this.fromRow = fromRow;
+            this.toRow = toRow;
+            this.leafRows = leafRows;
+        }
+
+        @Override
+        protected DashboardAggregator compute() {
+            if (toRow - fromRow <= leafRows) {
+                DashboardAggregator partial = template.emptyCopy();
+                aggregation.accumulate(partial, fromRow, toRow);
+                return partial;
+            }
+            int middle = (fromRow + toRow) >>> 1;
+            RangeTask right = new RangeTask(template, aggregation, middle, toRow, leafRows);
+            right.fork();
+            DashboardAggregator left = new RangeTask(template, aggregation, fromRow, middle, leafRows).compute();
+            left.merge(right.join());
+            return left;
+        }
+    }
+}
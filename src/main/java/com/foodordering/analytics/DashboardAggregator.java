@@ -0,0 +1,377 @@
+package com.foodordering.analytics;
+
+import com.foodordering.dto.response.DashboardResponse;
+import com.foodordering.model.entity.OrderMonthlyRollup;
+import com.foodordering.model.value.Money;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Menu item x month dashboard statistics over dense ordinals.
+ * <p>
+ * Menu items use the fact table's ordinals; items that only appear in archived
+ * rollups get ordinals after those. Months are offsets from the first month of
+ * the range, and a day-to-month lookup table replaces per-line date
+ * arithmetic. Counts and revenue sit in flat item-major int[]/long[] matrices,
+ * so adding a line or an order does not allocate.
+ * <p>
+ * Build it with the fact store's read lock held, because the constructor copies
+ * the table's menu item dictionary. The add methods and {@link #toResponse} only
+ * touch the aggregator's own arrays, except for the ones that take the table.
+ * <p>
+ * For parallel runs, each worker fills its own {@link #emptyCopy()} and the
+ * partials are {@link #merge merged} back. All sums are integer sums, so the
+ * result does not depend on how the rows were split.
+ * <p>
+ * Distinct customers come from {@link HyperLogLog} sketches, merged per month and
+ * per item across the range from {@link CustomerSketches} and the rollups.
+ */
+public final class DashboardAggregator {
+
+    private final YearMonth firstMonth;
+    private final int monthCount;
+    private final int firstDay;
+    private final int[] monthOfDay;
+
+    private final int itemCount;
+    private final String[] itemIds;
+    private final String[] itemNames;
+    private final Map<String, Integer> rollupItemOrdinals;
+
+    // Item-major matrices: index = item * monthCount + month
+    private final int[] lineCounts;
+    private final int[] quantities;
+    private final long[] revenue;
+
+    private final int[] monthOrders;
+    private final int[] monthLines;
+    private final long[] monthRevenue;
+
+    // Distinct customers per month and per item over the whole range, created on first use
+    private final HyperLogLog[] monthCustomers;
+    private final HyperLogLog[] itemCustomers;
+
+    public DashboardAggregator(OrderFactTable table, List<OrderMonthlyRollup> rollups,
+                               YearMonth firstMonth, YearMonth lastMonth) {
+        this.firstMonth = firstMonth;
+        this.monthCount = (int) (monthIndex(lastMonth) - monthIndex(firstMonth) + 1);
+
+        LocalDate start = firstMonth.atDay(1);
+        this.firstDay = (int) start.toEpochDay();
+        this.monthOfDay = new int[(int) (lastMonth.atEndOfMonth().toEpochDay() - firstDay + 1)];
+        for (int month = 0; month < monthCount; month++) {
+            YearMonth yearMonth = firstMonth.plusMonths(month);
+            int from = (int) (yearMonth.atDay(1).toEpochDay() - firstDay);
+            Arrays.fill(monthOfDay, from, from + yearMonth.lengthOfMonth(), month);
+        }
+
+        // Table ordinals first, then items only known from rollups
+        int tableItems = table.menuItemCount();
+        Map<String, Integer> tableOrdinals = new HashMap<>(tableItems * 2);
+        List<String> ids = new ArrayList<>(tableItems);
+        List<String> names = new ArrayList<>(tableItems);
+        for (int ordinal = 0; ordinal < tableItems; ordinal++) {
+            ids.add(table.menuItemId(ordinal));
+            names.add(table.menuItemName(ordinal));
+            tableOrdinals.put(table.menuItemId(ordinal), ordinal);
+        }
+        this.rollupItemOrdinals = new HashMap<>();
+        for (OrderMonthlyRollup rollup : rollups) {
+            for (Map.Entry<String, OrderMonthlyRollup.ItemRollup> entry : rollup.getItems().entrySet()) {
+                String menuItemId = entry.getKey();
+                if (rollupItemOrdinals.containsKey(menuItemId)) {
+                    continue;
+                }
+                Integer ordinal = tableOrdinals.get(menuItemId);
+                if (ordinal == null) {
+                    ordinal = ids.size();
+                    ids.add(menuItemId);
+                    names.add(null);
+                }
+                rollupItemOrdinals.put(menuItemId, ordinal);
+            }
+        }
+
+        this.itemCount = ids.size();
+        this.itemIds = ids.toArray(new String[0]);
+        this.itemNames = names.toArray(new String[0]);
+        this.lineCounts = new int[itemCount * monthCount];
+        this.quantities = new int[itemCount * monthCount];
+        this.revenue = new long[itemCount * monthCount];
+        this.monthOrders = new int[monthCount];
+        this.monthLines = new int[monthCount];
+        this.monthRevenue = new long[monthCount];
+        this.monthCustomers = new HyperLogLog[monthCount];
+        this.itemCustomers = new HyperLogLog[itemCount];
+    }
+
+    private DashboardAggregator(DashboardAggregator template) {
+        // Copies share the dimensions and dictionaries; a partial only writes its own count arrays
+        this.firstMonth = template.firstMonth;
+        this.monthCount = template.monthCount;
+        this.firstDay = template.firstDay;
+        this.monthOfDay = template.monthOfDay;
+        this.itemCount = template.itemCount;
+        this.itemIds = template.itemIds;
+        this.itemNames = template.itemNames;
+        this.rollupItemOrdinals = template.rollupItemOrdinals;
+        this.lineCounts = new int[itemCount * monthCount];
+        this.quantities = new int[itemCount * monthCount];
+        this.revenue = new long[itemCount * monthCount];
+        this.monthOrders = new int[monthCount];
+        this.monthLines = new int[monthCount];
+        this.monthRevenue = new long[monthCount];
+        this.monthCustomers = new HyperLogLog[monthCount];
+        this.itemCustomers = new HyperLogLog[itemCount];
+    }
+
+    /**
+     * A zeroed aggregator over the same months and items, for one parallel partial.
+     */
+    public DashboardAggregator emptyCopy() {
+        return new DashboardAggregator(this);
+    }
+
+    /**
+     * Adds the counts of a partial made by {@link #emptyCopy()} of this aggregator (or of its template).
+     */
+    public void merge(DashboardAggregator partial) {
+        if (partial.monthOfDay != monthOfDay || partial.itemIds != itemIds) {
+            throw new IllegalArgumentException("Partial was not copied from this aggregator");
+        }
+        for (int cell = 0; cell < lineCounts.length; cell++) {
+            lineCounts[cell] += partial.lineCounts[cell];
+            quantities[cell] += partial.quantities[cell];
+            revenue[cell] += partial.revenue[cell];
+        }
+        for (int month = 0; month < monthCount; month++) {
+            monthOrders[month] += partial.monthOrders[month];
+            monthLines[month] += partial.monthLines[month];
+            monthRevenue[month] += partial.monthRevenue[month];
+            mergeCustomers(monthCustomers, month, partial.monthCustomers[month]);
+        }
+        for (int item = 0; item < itemCount; item++) {
+            mergeCustomers(itemCustomers, item, partial.itemCustomers[item]);
+        }
+    }
+
+    /**
+     * Adds a month's distinct customers of live orders; byMenuItem is keyed by the table's ordinals.
+     */
+    public void addCustomers(YearMonth month, HyperLogLog customers, Map<Integer, HyperLogLog> byMenuItem) {
+        int index = (int) (monthIndex(month) - monthIndex(firstMonth));
+        if (index < 0 || index >= monthCount) {
+            return;
+        }
+        mergeCustomers(monthCustomers, index, customers);
+        byMenuItem.forEach((item, itemSketch) -> mergeCustomers(itemCustomers, item, itemSketch));
+    }
+
+    private static void mergeCustomers(HyperLogLog[] sketches, int index, HyperLogLog customers) {
+        if (customers == null) {
+            return;
+        }
+        if (sketches[index] == null) {
+            sketches[index] = new HyperLogLog();
+        }
+        sketches[index].merge(customers);
+    }
+
+    private static void mergeCustomers(HyperLogLog[] sketches, int index, Map<String, Integer> sparseRegisters) {
+        if (sparseRegisters == null || sparseRegisters.isEmpty()) {
+            return;
+        }
+        if (sketches[index] == null) {
+            sketches[index] = new HyperLogLog();
+        }
+        sketches[index].merge(sparseRegisters);
+    }
+
+    /**
+     * Adds the selected line rows. Their days must fall inside the aggregator's months.
+     */
+    public void addLines(OrderFactTable table, int[] rows, int count) {
+        addLines(table, rows, 0, count);
+    }
+
+    /**
+     * Adds the line rows in rows[offset, offset + count).
+     */
+    public void addLines(OrderFactTable table, int[] rows, int offset, int count) {
+        int[] lineMenuItems = table.lineMenuItems();
+        int[] lineDays = table.lineDays();
+        int[] lineQuantities = table.lineQuantities();
+        long[] lineAmounts = table.lineAmounts();
+        for (int i = offset, end = offset + count; i < end; i++) {
+            int row = rows[i];
+            int cell = lineMenuItems[row] * monthCount + monthOfDay[lineDays[row] - firstDay];
+            lineCounts[cell]++;
+            quantities[cell] += lineQuantities[row];
+            revenue[cell] += lineAmounts[row];
+        }
+    }
+
+    /**
+     * Adds the selected order slots to the monthly summary.
+     */
+    public void addOrders(OrderFactTable table, int[] ordinals, int count) {
+        addOrders(table, ordinals, 0, count);
+    }
+
+    /**
+     * Adds the order slots in ordinals[offset, offset + count).
+     */
+    public void addOrders(OrderFactTable table, int[] ordinals, int offset, int count) {
+        int[] orderDays = table.orderDays();
+        long[] orderAmounts = table.orderAmounts();
+        int[] orderLineCounts = table.orderLineCounts();
+        for (int i = offset, end = offset + count; i < end; i++) {
+            int ordinal = ordinals[i];
+            int month = monthOfDay[orderDays[ordinal] - firstDay];
+            monthOrders[month]++;
+            monthLines[month] += orderLineCounts[ordinal];
+            monthRevenue[month] += orderAmounts[ordinal];
+        }
+    }
+
+    /**
+     * Adds archived months. Only rollups passed to the constructor are known.
+     */
+    public void addRollups(List<OrderMonthlyRollup> rollups) {
+        for (OrderMonthlyRollup rollup : rollups) {
+            int month = (int) (monthIndex(YearMonth.parse(rollup.getMonth())) - monthIndex(firstMonth));
+            if (month < 0 || month >= monthCount) {
+                continue;
+            }
+            monthOrders[month] += rollup.getTotalOrders() != null ? rollup.getTotalOrders() : 0;
+            monthLines[month] += rollup.getTotalMenuItemsOrdered() != null ? rollup.getTotalMenuItemsOrdered() : 0;
+            monthRevenue[month] += rollup.getTotalRevenue() != null ? rollup.getTotalRevenue().getAmount() : 0L;
+            mergeCustomers(monthCustomers, month, rollup.getCustomers());
+
+            for (Map.Entry<String, OrderMonthlyRollup.ItemRollup> entry : rollup.getItems().entrySet()) {
+                int item = rollupItemOrdinals.get(entry.getKey());
+                OrderMonthlyRollup.ItemRollup itemRollup = entry.getValue();
+                int cell = item * monthCount + month;
+                lineCounts[cell] += itemRollup.getOrders() != null ? itemRollup.getOrders() : 0;
+                quantities[cell] += itemRollup.getQuantity() != null ? itemRollup.getQuantity() : 0;
+                revenue[cell] += itemRollup.getRevenue() != null ? itemRollup.getRevenue().getAmount() : 0L;
+                mergeCustomers(itemCustomers, item, itemRollup.getCustomers());
+                if (itemNames[item] == null && itemRollup.getName() != null) {
+                    itemNames[item] = itemRollup.getName();
+                }
+            }
+        }
+    }
+
+    /**
+     * Builds the response. nameLookup is called for items without a name snapshot.
+     */
+    public DashboardResponse toResponse(String currency, Function<String, String> nameLookup) {
+        DashboardResponse response = new DashboardResponse();
+        String[] monthKeys = new String[monthCount];
+        for (int month = 0; month < monthCount; month++) {
+            monthKeys[month] = firstMonth.plusMonths(month).toString(); // Format: "YYYY-MM"
+        }
+
+        List<DashboardResponse.MenuItemOrderStats> menuItemStats = new ArrayList<>();
+        for (int item = 0; item < itemCount; item++) {
+            int base = item * monthCount;
+            int totalOrders = 0;
+            int totalQuantity = 0;
+            long totalRevenue = 0L;
+            Map<String, Integer> ordersByMonth = new HashMap<>();
+            for (int month = 0; month < monthCount; month++) {
+                int orders = lineCounts[base + month];
+                if (orders == 0) {
+                    continue;
+                }
+                ordersByMonth.put(monthKeys[month], orders);
+                totalOrders += orders;
+                totalQuantity += quantities[base + month];
+                totalRevenue += revenue[base + month];
+            }
+            if (totalOrders == 0) {
+                continue;
+            }
+
+            String name = itemNames[item] != null ? itemNames[item] : nameLookup.apply(itemIds[item]);
+            DashboardResponse.MenuItemOrderStats stats = new DashboardResponse.MenuItemOrderStats();
+            stats.setMenuItemId(itemIds[item]);
+            stats.setMenuItemName(name != null ? name : "Unknown Item");
+            stats.setOrdersByMonth(ordersByMonth);
+            stats.setTotalOrders(totalOrders);
+            stats.setTotalQuantity(totalQuantity);
+            stats.setTotalRevenue(Money.of(totalRevenue, currency));
+            if (itemCustomers[item] != null) {
+                long uniqueCustomers = itemCustomers[item].estimate();
+                stats.setUniqueCustomers(uniqueCustomers);
+                stats.setRepeatPurchaseRate(repeatPurchaseRate(totalOrders, uniqueCustomers));
+            }
+            menuItemStats.add(stats);
+        }
+
+        // Sort by total orders descending
+        menuItemStats.sort((a, b) -> Integer.compare(b.getTotalOrders(), a.getTotalOrders()));
+        response.setMenuItemStats(menuItemStats);
+
+        Map<String, DashboardResponse.MonthlyStats> monthlySummary = new LinkedHashMap<>();
+        int totalOrders = 0;
+        long totalRevenue = 0L;
+        HyperLogLog rangeCustomers = null;
+        for (int month = 0; month < monthCount; month++) {
+            if (monthOrders[month] == 0) {
+                continue;
+            }
+            DashboardResponse.MonthlyStats monthStats = new DashboardResponse.MonthlyStats(monthKeys[month]);
+            monthStats.setTotalOrders(monthOrders[month]);
+            monthStats.setTotalMenuItemsOrdered(monthLines[month]);
+            monthStats.setTotalRevenue(Money.of(monthRevenue[month], currency));
+            if (monthCustomers[month] != null) {
+                long uniqueCustomers = monthCustomers[month].estimate();
+                monthStats.setUniqueCustomers(uniqueCustomers);
+                monthStats.setRepeatPurchaseRate(repeatPurchaseRate(monthOrders[month], uniqueCustomers));
+                if (rangeCustomers == null) {
+                    rangeCustomers = new HyperLogLog();
+                }
+                rangeCustomers.merge(monthCustomers[month]);
+            }
+            monthlySummary.put(monthKeys[month], monthStats);
+            totalOrders += monthOrders[month];
+            totalRevenue += monthRevenue[month];
+        }
+        response.setMonthlySummary(monthlySummary);
+        response.setTotalOrders(totalOrders);
+        response.setTotalRevenue(Money.of(totalRevenue, currency));
+        if (rangeCustomers != null) {
+            long uniqueCustomers = rangeCustomers.estimate();
+            response.setUniqueCustomers(uniqueCustomers);
+            response.setRepeatPurchaseRate(repeatPurchaseRate(totalOrders, uniqueCustomers));
+        }
+        return response;
+    }
+
+    /**
+     * Share of purchases made by a customer who had already bought in the range:
+     * (purchases - distinct customers) / purchases, rounded to four places.
+     */
+    private static Double repeatPurchaseRate(long purchases, long uniqueCustomers) {
+        if (purchases <= 0) {
+            return null;
+        }
+        // The customer count is an estimate and may come out above the purchase count
+        double rate = Math.max(0.0, Math.min(1.0, (purchases - uniqueCustomers) / (double) purchases));
+        return Math.round(rate * 10000) / 10000.0;
+    }
+
+    private static long monthIndex(YearMonth month) {
+        return month.getYear() * 12L + month.getMonthValue() - 1;
+    }
+}
@@ -0,0 +1,193 @@
+package com.foodordering.analytics;
+
+import com.foodordering.cache.CollectionChangeListener;
+import com.foodordering.cache.SingleFlight;
+import com.foodordering.model.entity.Order;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Results of dashboard queries, keyed by query (range, limit) and tagged with the
+ * months they cover.
+ * <p>
+ * A write only drops the entries whose months contain the changed order, so the
+ * closed past months stay cached while new orders keep landing in the current one.
+ * Changes arrive through {@link OrderFactListener}, which covers local events,
+ * other nodes, archival and resets of the orders collection alike, and through
+ * rollup documents for changes that only touch archived months. Status changes that keep an order counted (anything
+ * but CANCELLED) change no statistic and keep the cache.
+ * <p>
+ * Misses load through {@link SingleFlight}, so a burst of refreshes after a write
+ * runs the query once. A load is only kept when no write touched its months while
+ * it ran. Cached results are shared between callers and must not be modified.
+ */
+@Component
+public class DashboardResultCache implements OrderFactListener, CollectionChangeListener {
+
+    private static final int COUNTED_STATUSES = OrderFactTable.statusMaskExcluding(Order.OrderStatus.CANCELLED);
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Value("${analytics.dashboard-cache.max-entries:256}")
+    private int maxEntries;
+
+    private final AtomicLong writeSequence = new AtomicLong();
+    // Month -> sequence of the last write that touched it
+    private final Map<YearMonth, Long> monthWrites = new ConcurrentHashMap<>();
+    private volatile long resetSequence;
+    private final Map<String, Entry> entries = new ConcurrentHashMap<>();
+
+    /**
+     * Cached result of key, which covers the months [firstMonth, lastMonth], loading it on a miss.
+     */
+    @SuppressWarnings("unchecked")
+    public <T> T get(String key, YearMonth firstMonth, YearMonth lastMonth, Supplier<T> loader) {
+        Entry entry = entries.get(key);
+        if (entry != null) {
+            entry.lastUsed = System.nanoTime();
+            return (T) entry.value;
+        }
+        return singleFlight.execute("dashboard", key, () -> {
+            Entry cached = entries.get(key);
+            if (cached != null) {
+                return (T) cached.value;
+            }
+            long sequence = writeSequence.get();
+            T value = loader.get();
+            if (writtenSince(firstMonth, lastMonth, sequence)) {
+                return value;
+            }
+            if (entries.size() >= maxEntries) {
+                evictLeastRecentlyUsed();
+            }
+            Entry loaded = new Entry(firstMonth, lastMonth, value);
+            entries.put(key, loaded);
+            // A write that finished between the check and the put has missed this entry
+            if (writtenSince(firstMonth, lastMonth, sequence)) {
+                entries.remove(key, loaded);
+            }
+            return value;
+        });
+    }
+
+    public void invalidateAll() {
+        resetSequence = writeSequence.incrementAndGet();
+        entries.clear();
+    }
+
+    public void invalidate(YearMonth month) {
+        monthWrites.put(month, writeSequence.incrementAndGet());
+        if (!entries.isEmpty()) {
+            entries.values().removeIf(entry -> entry.covers(month));
+        }
+    }
+
+    public int size() {
+        return entries.size();
+    }
+
+    @Override
+    public void orderAdded(OrderFactTable table, int ordinal) {
+        if (OrderFactTable.inMask(COUNTED_STATUSES, table.orderStatuses()[ordinal])) {
+            invalidate(month(table, ordinal));
+        }
+    }
+
+    @Override
+    public void orderRemoving(OrderFactTable table, int ordinal) {
+        if (OrderFactTable.inMask(COUNTED_STATUSES, table.orderStatuses()[ordinal])) {
+            invalidate(month(table, ordinal));
+        }
+    }
+
+    @Override
+    public void orderStatusChanged(OrderFactTable table, int ordinal, byte previousStatus) {
+        boolean wasCounted = OrderFactTable.inMask(COUNTED_STATUSES, previousStatus);
+        boolean counted = OrderFactTable.inMask(COUNTED_STATUSES, table.orderStatuses()[ordinal]);
+        if (wasCounted != counted) {
+            invalidate(month(table, ordinal));
+        }
+    }
+
+    @Override
+    public void tableLoaded(OrderFactTable table) {
+        invalidateAll();
+    }
+
+    @Override
+    public void tableUnloaded() {
+        // Hits never touch the store, so they would keep serving the dropped table until a miss reloads it
+        invalidateAll();
+    }
+
+    @Override
+    public Set<String> getWatchedCollections() {
+        return Set.of("order_monthly_rollups");
+    }
+
+    @Override
+    public void onDocumentChanged(String collection, String id) {
+        // Rollups are keyed by their month
+        try {
+            invalidate(YearMonth.parse(id));
+        } catch (DateTimeParseException e) {
+            invalidateAll();
+        }
+    }
+
+    @Override
+    public void onCollectionReset(String collection) {
+        invalidateAll();
+    }
+
+    private boolean writtenSince(YearMonth firstMonth, YearMonth lastMonth, long sequence) {
+        if (resetSequence > sequence) {
+            return true;
+        }
+        for (Map.Entry<YearMonth, Long> write : monthWrites.entrySet()) {
+            if (write.getValue() > sequence
+                    && !write.getKey().isBefore(firstMonth) && !write.getKey().isAfter(lastMonth)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void evictLeastRecentlyUsed() {
+        entries.entrySet().stream()
+                .min((a, b) -> Long.compare(a.getValue().lastUsed, b.getValue().lastUsed))
+                .ifPresent(eldest -> entries.remove(eldest.getKey(), eldest.getValue()));
+    }
+
+    private static YearMonth month(OrderFactTable table, int ordinal) {
+        return YearMonth.from(LocalDate.ofEpochDay(table.orderDays()[ordinal]));
+    }
+
+    private static final class Entry {
+        private final YearMonth firstMonth;
+        private final YearMonth lastMonth;
+        private final Object value;
+        private volatile long lastUsed = System.nanoTime();
+
+        private Entry(YearMonth firstMonth, YearMonth lastMonth, Object value) {
+            this.firstMonth = firstMonth;
+            this.lastMonth = lastMonth;
+            this.value = value;
+        }
+
+        private boolean covers(YearMonth month) {
+            return !month.isBefore(firstMonth) && !month.isAfter(lastMonth);
+        }
+    }
+}
@@ -0,0 +1,175 @@
+package com.foodordering.analytics;
+
+import com.foodordering.model.entity.Order;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Day-of-week x hour-of-day demand counters for the whole restaurant, each menu
+ * item and each category, in the restaurant's time zone.
+ * <p>
+ * Counters are kept at two grains. Hourly buckets are stored as one 24-slot array
+ * per day. They roll up into one 7x24 matrix per month. A range query adds the
+ * matrices of whole months, the hourly arrays of whole days at the edges, and
+ * single hours for a partial first or last day. The cost depends on the number
+ * of months and edge days, not on order volume.
+ * <p>
+ * Counters are exact, so changes are applied as increments and decrements
+ * through {@link OrderFactListener}. Like the fact table, they cover live orders
+ * only; archived orders keep no hour of day. Cancelled orders are not counted.
+ * Callbacks hold the fact store's write lock, and {@link #heatmap} must be
+ * called inside {@link OrderFactStore#read}.
+ */
+@Component
+public class DemandHeatmap implements OrderFactListener {
+
+    public static final int HOURS = 24;
+    public static final int CELLS = 7 * HOURS;
+
+    private static final int COUNTED_STATUSES = OrderFactTable.statusMaskExcluding(Order.OrderStatus.CANCELLED);
+
+    private Counters restaurant = new Counters();
+    // Keyed by the fact table's menu item and category ordinals
+    private final Map<Integer, Counters> byMenuItem = new HashMap<>();
+    private final Map<Integer, Counters> byCategory = new HashMap<>();
+
+    @Override
+    public void orderAdded(OrderFactTable table, int ordinal) {
+        if (OrderFactTable.inMask(COUNTED_STATUSES, table.orderStatuses()[ordinal])) {
+            apply(table, ordinal, 1);
+        }
+    }
+
+    @Override
+    public void orderRemoving(OrderFactTable table, int ordinal) {
+        if (OrderFactTable.inMask(COUNTED_STATUSES, table.orderStatuses()[ordinal])) {
+            apply(table, ordinal, -1);
+        }
+    }
+
+    @Override
+    public void orderStatusChanged(OrderFactTable table, int ordinal, byte previousStatus) {
+        boolean wasCounted = OrderFactTable.inMask(COUNTED_STATUSES, previousStatus);
+        boolean counted = OrderFactTable.inMask(COUNTED_STATUSES, table.orderStatuses()[ordinal]);
+        if (wasCounted != counted) {
+            apply(table, ordinal, counted ? 1 : -1);
+        }
+    }
+
+    @Override
+    public void tableLoaded(OrderFactTable table) {
+        restaurant = new Counters();
+        byMenuItem.clear();
+        byCategory.clear();
+        for (int ordinal = 0; ordinal < table.orderSlots(); ordinal++) {
+            orderAdded(table, ordinal);
+        }
+    }
+
+    /**
+     * Demand over local hours [fromHour, toHour] (epoch day * 24 + hour of day), as
+     * CELLS values indexed by (day of week - 1) * 24 + hour. Filters by menuItemId or
+     * categoryId when one is given. metric must be ORDERS (order lines) or QUANTITY.
+     */
+    public int[] heatmap(OrderFactTable table, String menuItemId, String categoryId,
+                         long fromHour, long toHour, MenuItemMetric metric) {
+        Counters counters;
+        if (menuItemId != null) {
+            counters = byMenuItem.get(table.menuItemOrdinal(menuItemId));
+        } else if (categoryId != null) {
+            counters = byCategory.get(table.categoryOrdinal(categoryId));
+        } else {
+            counters = restaurant;
+        }
+        int[] cells = new int[CELLS];
+        if (counters == null || counters.days.isEmpty() || fromHour > toHour) {
+            return cells;
+        }
+
+        // Clamp open-ended ranges to the data so the month walk stays short
+        long firstHour = Math.max(fromHour, counters.days.firstKey() * (long) HOURS);
+        long lastHour = Math.min(toHour, counters.days.lastKey() * (long) HOURS + HOURS - 1);
+        if (firstHour > lastHour) {
+            return cells;
+        }
+        int fromDay = (int) Math.floorDiv(firstHour, HOURS);
+        int toDay = (int) Math.floorDiv(lastHour, HOURS);
+        boolean quantity = metric == MenuItemMetric.QUANTITY;
+
+        for (Map.Entry<Integer, int[]> month : counters.months.subMap(monthStart(fromDay), true, toDay, true).entrySet()) {
+            int monthStart = month.getKey();
+            int monthEnd = (int) LocalDate.ofEpochDay(monthStart).plusMonths(1).toEpochDay() - 1;
+            if (monthStart * (long) HOURS >= firstHour && monthEnd * (long) HOURS + HOURS - 1 <= lastHour) {
+                int offset = quantity ? CELLS : 0;
+                int[] matrix = month.getValue();
+                for (int cell = 0; cell < CELLS; cell++) {
+                    cells[cell] += matrix[offset + cell];
+                }
+                continue;
+            }
+            for (Map.Entry<Integer, int[]> day : counters.days
+                    .subMap(Math.max(monthStart, fromDay), true, Math.min(monthEnd, toDay), true).entrySet()) {
+                int epochDay = day.getKey();
+                int firstSlot = epochDay == fromDay ? (int) (firstHour - epochDay * (long) HOURS) : 0;
+                int lastSlot = epochDay == toDay ? (int) (lastHour - epochDay * (long) HOURS) : HOURS - 1;
+                int row = dayOfWeek(epochDay) * HOURS;
+                int offset = quantity ? HOURS : 0;
+                int[] hours = day.getValue();
+                for (int hour = firstSlot; hour <= lastSlot; hour++) {
+                    cells[row + hour] += hours[offset + hour];
+                }
+            }
+        }
+        return cells;
+    }
+
+    private void apply(OrderFactTable table, int ordinal, int sign) {
+        int day = table.orderDays()[ordinal];
+        int hour = table.orderHours()[ordinal];
+        int monthStart = monthStart(day);
+        int cell = dayOfWeek(day) * HOURS + hour;
+        int[] lineMenuItems = table.lineMenuItems();
+        int[] lineCategories = table.lineCategories();
+        int[] lineQuantities = table.lineQuantities();
+        int first = table.orderFirstLines()[ordinal];
+        for (int row = first, end = first + table.orderLineCounts()[ordinal]; row < end; row++) {
+            int quantity = lineQuantities[row] * sign;
+            restaurant.add(day, monthStart, hour, cell, sign, quantity);
+            byMenuItem.computeIfAbsent(lineMenuItems[row], item -> new Counters())
+                    .add(day, monthStart, hour, cell, sign, quantity);
+            if (lineCategories[row] >= 0) {
+                byCategory.computeIfAbsent(lineCategories[row], category -> new Counters())
+                        .add(day, monthStart, hour, cell, sign, quantity);
+            }
+        }
+    }
+
+    private static int monthStart(int day) {
+        return (int) LocalDate.ofEpochDay(day).withDayOfMonth(1).toEpochDay();
+    }
+
+    // Monday = 0
+    private static int dayOfWeek(int day) {
+        return LocalDate.ofEpochDay(day).getDayOfWeek().getValue() - 1;
+    }
+
+    private static final class Counters {
+        // Epoch day -> [lines by hour, quantity by hour]
+        private final TreeMap<Integer, int[]> days = new TreeMap<>();
+        // Epoch day of the month's first day -> [lines by cell, quantity by cell]
+        private final TreeMap<Integer, int[]> months = new TreeMap<>();
+
+        private void add(int day, int monthStart, int hour, int cell, int lines, int quantity) {
+            int[] hours = days.computeIfAbsent(day, d -> new int[2 * HOURS]);
+            hours[hour] += lines;
+            hours[HOURS + hour] += quantity;
+            int[] matrix = months.computeIfAbsent(monthStart, m -> new int[2 * CELLS]);
+            matrix[cell] += lines;
+            matrix[CELLS + cell] += quantity;
+        }
+    }
+}
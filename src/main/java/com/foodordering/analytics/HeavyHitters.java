@@ -0,0 +1,136 @@
+package com.foodordering.analytics;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Immutable top-K summary: items ranked by estimated value, each with a lower
+ * bound, plus a bound on the value of every item that is not listed.
+ * <p>
+ * Every true value lies in [lowerBound, estimate]. Summaries over disjoint
+ * inputs (days, months) are combined with {@link #merge}. In each part, a
+ * missing item is charged that part's unlisted bound, so the merged estimates
+ * remain upper bounds.
+ */
+public final class HeavyHitters {
+
+    public static final HeavyHitters EMPTY = new HeavyHitters(new String[0], new long[0], new long[0], 0L);
+
+    private final String[] ids;
+    private final long[] estimates;
+    private final long[] lowerBounds;
+    private final long unlistedBound;
+
+    private HeavyHitters(String[] ids, long[] estimates, long[] lowerBounds, long unlistedBound) {
+        this.ids = ids;
+        this.estimates = estimates;
+        this.lowerBounds = lowerBounds;
+        this.unlistedBound = unlistedBound;
+    }
+
+    /**
+     * Ranks the first count entries of the arrays, highest estimate first (ties by id).
+     */
+    static HeavyHitters of(String[] ids, long[] estimates, long[] lowerBounds, long unlistedBound, int count) {
+        Integer[] order = new Integer[count];
+        for (int i = 0; i < count; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, Comparator.<Integer>comparingLong(i -> -estimates[i]).thenComparing(i -> ids[i]));
+
+        String[] rankedIds = new String[count];
+        long[] rankedEstimates = new long[count];
+        long[] rankedLowerBounds = new long[count];
+        for (int rank = 0; rank < count; rank++) {
+            rankedIds[rank] = ids[order[rank]];
+            rankedEstimates[rank] = estimates[order[rank]];
+            rankedLowerBounds[rank] = lowerBounds[order[rank]];
+        }
+        return new HeavyHitters(rankedIds, rankedEstimates, rankedLowerBounds, unlistedBound);
+    }
+
+    /**
+     * Summary of exactly known values, keeping the capacity largest.
+     */
+    public static HeavyHitters exact(Map<String, Long> values, int capacity) {
+        String[] ids = new String[values.size()];
+        long[] estimates = new long[values.size()];
+        int count = 0;
+        for (Map.Entry<String, Long> entry : values.entrySet()) {
+            if (entry.getValue() > 0) {
+                ids[count] = entry.getKey();
+                estimates[count] = entry.getValue();
+                count++;
+            }
+        }
+        return of(ids, estimates, estimates.clone(), 0L, count).truncate(capacity);
+    }
+
+    /**
+     * Combines summaries of disjoint inputs, keeping the capacity highest estimates.
+     */
+    public static HeavyHitters merge(List<HeavyHitters> parts, int capacity) {
+        if (parts.size() == 1) {
+            return parts.get(0).truncate(capacity);
+        }
+        long totalUnlistedBound = 0L;
+        // Per item: sum of (estimate - part's unlisted bound) and sum of lower bounds over the parts listing it
+        Map<String, long[]> sums = new HashMap<>();
+        for (HeavyHitters part : parts) {
+            totalUnlistedBound += part.unlistedBound;
+            for (int rank = 0; rank < part.ids.length; rank++) {
+                long[] itemSums = sums.computeIfAbsent(part.ids[rank], id -> new long[2]);
+                itemSums[0] += part.estimates[rank] - part.unlistedBound;
+                itemSums[1] += part.lowerBounds[rank];
+            }
+        }
+
+        String[] ids = new String[sums.size()];
+        long[] estimates = new long[sums.size()];
+        long[] lowerBounds = new long[sums.size()];
+        int count = 0;
+        for (Map.Entry<String, long[]> entry : sums.entrySet()) {
+            ids[count] = entry.getKey();
+            estimates[count] = totalUnlistedBound + entry.getValue()[0];
+            lowerBounds[count] = entry.getValue()[1];
+            count++;
+        }
+        return of(ids, estimates, lowerBounds, totalUnlistedBound, count).truncate(capacity);
+    }
+
+    private HeavyHitters truncate(int capacity) {
+        if (ids.length <= capacity) {
+            return this;
+        }
+        // Dropped items are bounded by the largest dropped estimate
+        long bound = Math.max(unlistedBound, estimates[capacity]);
+        return new HeavyHitters(Arrays.copyOf(ids, capacity), Arrays.copyOf(estimates, capacity),
+                Arrays.copyOf(lowerBounds, capacity), bound);
+    }
+
+    public int size() {
+        return ids.length;
+    }
+
+    public String id(int rank) {
+        return ids[rank];
+    }
+
+    public long estimate(int rank) {
+        return estimates[rank];
+    }
+
+    public long lowerBound(int rank) {
+        return lowerBounds[rank];
+    }
+
+    /**
+     * Upper bound on the value of any item not listed.
+     */
+    public long unlistedBound() {
+        return unlistedBound;
+    }
+}
@@ -0,0 +1,115 @@
+package com.foodordering.analytics;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * HyperLogLog distinct counter with 2^10 one-byte registers (about 3% standard
+ * error), used to count distinct customers.
+ * <p>
+ * Sketches of different months or items merge by taking the register-wise
+ * maximum. The persisted form is a sparse map from register index (as a
+ * string) to value, so Mongo's $max can merge it in place, see
+ * {@link #registerIndex} and {@link #rank}. Not thread-safe.
+ */
+public final class HyperLogLog {
+
+    public static final int PRECISION = 10;
+    private static final int REGISTERS = 1 << PRECISION;
+    private static final double ALPHA = 0.7213 / (1 + 1.079 / REGISTERS);
+
+    private final byte[] registers = new byte[REGISTERS];
+
+    /**
+     * 64-bit hash of a customer id: FNV-1a, finished with MurmurHash3's fmix64 so the high
+     * bits (the register index) are well mixed. Null ids hash to 0, which {@link #add} ignores.
+     */
+    public static long hash(String value) {
+        if (value == null) {
+            return 0L;
+        }
+        long hash = 0xcbf29ce484222325L;
+        for (int i = 0; i < value.length(); i++) {
+            hash ^= value.charAt(i);
+            hash *= 0x100000001b3L;
+        }
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+
+    public static int registerIndex(long hash) {
+        return (int) (hash >>> (64 - PRECISION));
+    }
+
+    /**
+     * Position of the first set bit after the index bits, capped at 64 - PRECISION + 1.
+     */
+    public static int rank(long hash) {
+        return Long.numberOfLeadingZeros((hash << PRECISION) | (1L << (PRECISION - 1))) + 1;
+    }
+
+    public void add(long hash) {
+        if (hash == 0L) {
+            return;
+        }
+        int index = registerIndex(hash);
+        int rank = rank(hash);
+        if (rank > registers[index]) {
+            registers[index] = (byte) rank;
+        }
+    }
+
+    public void merge(HyperLogLog other) {
+        for (int i = 0; i < REGISTERS; i++) {
+            if (other.registers[i] > registers[i]) {
+                registers[i] = other.registers[i];
+            }
+        }
+    }
+
+    /**
+     * Merges the persisted sparse form; entries outside the register range are ignored.
+     */
+    public void merge(Map<String, Integer> sparseRegisters) {
+        if (sparseRegisters == null) {
+            return;
+        }
+        sparseRegisters.forEach((index, rank) -> {
+            int i = Integer.parseInt(index);
+            if (i >= 0 && i < REGISTERS && rank != null && rank > registers[i]) {
+                registers[i] = (byte) Math.min(rank, 64 - PRECISION + 1);
+            }
+        });
+    }
+
+    public Map<String, Integer> toSparseRegisters() {
+        Map<String, Integer> sparse = new HashMap<>();
+        for (int i = 0; i < REGISTERS; i++) {
+            if (registers[i] != 0) {
+                sparse.put(Integer.toString(i), (int) registers[i]);
+            }
+        }
+        return sparse;
+    }
+
+    public long estimate() {
+        double sum = 0;
+        int zeros = 0;
+        for (byte register : registers) {
+            sum += 1.0 / (1L << register);
+            if (register == 0) {
+                zeros++;
+            }
+        }
+        double estimate = ALPHA * REGISTERS * REGISTERS / sum;
+        // Small cardinalities: linear counting over the empty registers is more accurate
+        if (estimate <= 2.5 * REGISTERS && zeros > 0) {
+            estimate = REGISTERS * Math.log((double) REGISTERS / zeros);
+        }
+        return Math.round(estimate);
+    }
+}
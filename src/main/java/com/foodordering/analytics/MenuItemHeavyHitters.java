@@ -0,0 +1,281 @@
+package com.foodordering.analytics;
+
+import com.foodordering.cache.CollectionChangeListener;
+import com.foodordering.event.OrdersArchivedEvent;
+import com.foodordering.model.entity.Order;
+import com.foodordering.model.entity.OrderMonthlyRollup;
+import com.foodordering.repository.OrderMonthlyRollupRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Streaming top-K menu items for arbitrary date ranges.
+ * <p>
+ * Each day holds one {@link SpaceSavingSketch} per {@link MenuItemMetric}, keyed by the fact
+ * table's menu item ordinals. The sketches are fed through {@link OrderFactListener}: new
+ * orders and orders entering a counted status are added, and cancelled, edited or removed
+ * orders are subtracted. Cancelled orders are not counted, as on the dashboard. A range query
+ * merges one cached summary per fully covered month and day summaries for the partial months
+ * at its ends, so the cost depends on the number of months, not on order volume.
+ * <p>
+ * Archived orders exist only as exact monthly rollups. {@link #archivedTopItems} summarizes
+ * them for whole months and reloads after every archive run.
+ * <p>
+ * The live state is guarded by the fact store lock. Listener callbacks hold the write lock,
+ * and {@link #liveTopItems} must be called inside {@link OrderFactStore#read}.
+ */
+@Component
+public class MenuItemHeavyHitters implements OrderFactListener, CollectionChangeListener {
+
+    private static final int COUNTED_STATUSES = OrderFactTable.statusMaskExcluding(Order.OrderStatus.CANCELLED);
+    private static final MenuItemMetric[] METRICS = MenuItemMetric.values();
+
+    @Autowired
+    private OrderMonthlyRollupRepository orderMonthlyRollupRepository;
+
+    @Value("${analytics.top-items.capacity:200}")
+    private int capacity;
+
+    private final TreeMap<Integer, SpaceSavingSketch[]> days = new TreeMap<>();
+    // Merged day summaries of a month, filled by readers and dropped when one of its days changes
+    private final Map<Integer, HeavyHitters[]> monthSummaries = new ConcurrentHashMap<>();
+
+    private volatile ArchivedMonths archivedMonths;
+    private final AtomicLong archiveVersion = new AtomicLong();
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    @Override
+    public void orderAdded(OrderFactTable table, int ordinal) {
+        if (OrderFactTable.inMask(COUNTED_STATUSES, table.orderStatuses()[ordinal])) {
+            apply(table, ordinal, true);
+        }
+    }
+
+    @Override
+    public void orderRemoving(OrderFactTable table, int ordinal) {
+        if (OrderFactTable.inMask(COUNTED_STATUSES, table.orderStatuses()[ordinal])) {
+            apply(table, ordinal, false);
+        }
+    }
+
+    @Override
+    public void orderStatusChanged(OrderFactTable table, int ordinal, byte previousStatus) {
+        boolean wasCounted = OrderFactTable.inMask(COUNTED_STATUSES, previousStatus);
+        boolean counted = OrderFactTable.inMask(COUNTED_STATUSES, table.orderStatuses()[ordinal]);
+        if (wasCounted != counted) {
+            apply(table, ordinal, counted);
+        }
+    }
+
+    @Override
+    public void tableLoaded(OrderFactTable table) {
+        // Exact per-day totals first, so a reload does not add sketch error of its own.
+        // Kept sparse: a day only holds the items ordered on it, not a slot for every item.
+        Map<Integer, Map<Integer, long[]>> totalsByDay = new HashMap<>();
+        int[] orderDays = table.orderDays();
+        byte[] orderStatuses = table.orderStatuses();
+        int[] orderFirstLines = table.orderFirstLines();
+        int[] orderLineCounts = table.orderLineCounts();
+        int[] lineMenuItems = table.lineMenuItems();
+        int[] lineQuantities = table.lineQuantities();
+        long[] lineAmounts = table.lineAmounts();
+        for (int ordinal = 0; ordinal < table.orderSlots(); ordinal++) {
+            if (!OrderFactTable.inMask(COUNTED_STATUSES, orderStatuses[ordinal])) {
+                continue;
+            }
+            Map<Integer, long[]> dayTotals = totalsByDay.computeIfAbsent(orderDays[ordinal], day -> new HashMap<>());
+            for (int row = orderFirstLines[ordinal], end = row + orderLineCounts[ordinal]; row < end; row++) {
+                long[] totals = dayTotals.computeIfAbsent(lineMenuItems[row], item -> new long[METRICS.length]);
+                totals[MenuItemMetric.ORDERS.ordinal()]++;
+                totals[MenuItemMetric.QUANTITY.ordinal()] += lineQuantities[row];
+                totals[MenuItemMetric.REVENUE.ordinal()] += lineAmounts[row];
+            }
+        }
+
+        days.clear();
+        monthSummaries.clear();
+        totalsByDay.forEach((day, dayTotals) -> {
+            SpaceSavingSketch[] sketches = newSketches();
+            dayTotals.forEach((item, totals) -> {
+                for (MenuItemMetric metric : METRICS) {
+                    sketches[metric.ordinal()].add(item, totals[metric.ordinal()]);
+                }
+            });
+            days.put(day, sketches);
+        });
+    }
+
+    /**
+     * Top items among live orders created in [fromDay, toDay] (epoch days).
+     */
+    public HeavyHitters liveTopItems(OrderFactTable table, int fromDay, int toDay, MenuItemMetric metric) {
+        if (fromDay > toDay) {
+            return HeavyHitters.EMPTY;
+        }
+        List<HeavyHitters> parts = new ArrayList<>();
+        int previousMonth = Integer.MIN_VALUE;
+        for (Map.Entry<Integer, SpaceSavingSketch[]> entry : days.subMap(fromDay, true, toDay, true).entrySet()) {
+            int day = entry.getKey();
+            YearMonth month = YearMonth.from(LocalDate.ofEpochDay(day));
+            int monthStart = (int) month.atDay(1).toEpochDay();
+            int monthEnd = (int) month.atEndOfMonth().toEpochDay();
+            if (monthStart >= fromDay && monthEnd <= toDay) {
+                if (monthStart != previousMonth) {
+                    parts.add(monthSummary(table, monthStart, monthEnd)[metric.ordinal()]);
+                    previousMonth = monthStart;
+                }
+            } else {
+                parts.add(entry.getValue()[metric.ordinal()].summary(table::menuItemId));
+            }
+        }
+        return parts.isEmpty() ? HeavyHitters.EMPTY : HeavyHitters.merge(parts, capacity);
+    }
+
+    /**
+     * Top items among archived orders of the months in [firstMonth, lastMonth].
+     */
+    public HeavyHitters archivedTopItems(YearMonth firstMonth, YearMonth lastMonth, MenuItemMetric metric) {
+        if (firstMonth.isAfter(lastMonth)) {
+            return HeavyHitters.EMPTY;
+        }
+        ArchivedMonths archived = loadArchivedMonths();
+        List<HeavyHitters> parts = new ArrayList<>();
+        archived.summaries.subMap(firstMonth.toString(), true, lastMonth.toString(), true)
+                .values().forEach(summaries -> parts.add(summaries[metric.ordinal()]));
+        return parts.isEmpty() ? HeavyHitters.EMPTY : HeavyHitters.merge(parts, capacity);
+    }
+
+    /**
+     * Latest name snapshot of a menu item in the archived rollups, or null.
+     */
+    public String archivedName(String menuItemId) {
+        return loadArchivedMonths().names.get(menuItemId);
+    }
+
+    @EventListener
+    public void onOrdersArchived(OrdersArchivedEvent event) {
+        invalidateArchivedMonths();
+    }
+
+    @Override
+    public Set<String> getWatchedCollections() {
+        return Set.of("order_monthly_rollups");
+    }
+
+    @Override
+    public void onDocumentChanged(String collection, String id) {
+        invalidateArchivedMonths();
+    }
+
+    @Override
+    public void onCollectionReset(String collection) {
+        invalidateArchivedMonths();
+    }
+
+    private void invalidateArchivedMonths() {
+        archiveVersion.incrementAndGet();
+        archivedMonths = null;
+    }
+
+    private void apply(OrderFactTable table, int ordinal, boolean add) {
+        int day = table.orderDays()[ordinal];
+        SpaceSavingSketch[] sketches = days.computeIfAbsent(day, d -> newSketches());
+        int[] lineMenuItems = table.lineMenuItems();
+        int[] lineQuantities = table.lineQuantities();
+        long[] lineAmounts = table.lineAmounts();
+        int first = table.orderFirstLines()[ordinal];
+        for (int row = first, end = first + table.orderLineCounts()[ordinal]; row < end; row++) {
+            int item = lineMenuItems[row];
+            if (add) {
+                sketches[MenuItemMetric.ORDERS.ordinal()].add(item, 1);
+                sketches[MenuItemMetric.QUANTITY.ordinal()].add(item, lineQuantities[row]);
+                sketches[MenuItemMetric.REVENUE.ordinal()].add(item, lineAmounts[row]);
+            } else {
+                sketches[MenuItemMetric.ORDERS.ordinal()].subtract(item, 1);
+                sketches[MenuItemMetric.QUANTITY.ordinal()].subtract(item, lineQuantities[row]);
+                sketches[MenuItemMetric.REVENUE.ordinal()].subtract(item, lineAmounts[row]);
+            }
+        }
+        monthSummaries.remove((int) YearMonth.from(LocalDate.ofEpochDay(day)).atDay(1).toEpochDay());
+    }
+
+    private HeavyHitters[] monthSummary(OrderFactTable table, int monthStart, int monthEnd) {
+        return monthSummaries.computeIfAbsent(monthStart, start -> {
+            NavigableMap<Integer, SpaceSavingSketch[]> monthDays = days.subMap(monthStart, true, monthEnd, true);
+            HeavyHitters[] summaries = new HeavyHitters[METRICS.length];
+            for (MenuItemMetric metric : METRICS) {
+                List<HeavyHitters> parts = new ArrayList<>(monthDays.size());
+                monthDays.values().forEach(sketches -> parts.add(sketches[metric.ordinal()].summary(table::menuItemId)));
+                summaries[metric.ordinal()] = HeavyHitters.merge(parts, capacity);
+            }
+            return summaries;
+        });
+    }
+
+    private SpaceSavingSketch[] newSketches() {
+        SpaceSavingSketch[] sketches = new SpaceSavingSketch[METRICS.length];
+        for (MenuItemMetric metric : METRICS) {
+            sketches[metric.ordinal()] = new SpaceSavingSketch(capacity);
+        }
+        return sketches;
+    }
+
+    private ArchivedMonths loadArchivedMonths() {
+        ArchivedMonths cached = archivedMonths;
+        if (cached != null) {
+            return cached;
+        }
+        long version = archiveVersion.get();
+        ArchivedMonths archived = new ArchivedMonths();
+        for (OrderMonthlyRollup rollup : orderMonthlyRollupRepository.findAll()) {
+            List<Map<String, Long>> values = new ArrayList<>();
+            for (MenuItemMetric metric : METRICS) {
+                values.add(new HashMap<>());
+            }
+            rollup.getItems().forEach((menuItemId, item) -> {
+                values.get(MenuItemMetric.ORDERS.ordinal()).put(menuItemId,
+                        item.getOrders() != null ? item.getOrders().longValue() : 0L);
+                values.get(MenuItemMetric.QUANTITY.ordinal()).put(menuItemId,
+                        item.getQuantity() != null ? item.getQuantity().longValue() : 0L);
+                values.get(MenuItemMetric.REVENUE.ordinal()).put(menuItemId,
+                        item.getRevenue() != null ? item.getRevenue().getAmount() : 0L);
+                if (item.getName() != null) {
+                    archived.names.put(menuItemId, item.getName());
+                }
+            });
+            HeavyHitters[] summaries = new HeavyHitters[METRICS.length];
+            for (MenuItemMetric metric : METRICS) {
+                summaries[metric.ordinal()] = HeavyHitters.exact(values.get(metric.ordinal()), capacity);
+            }
+            archived.summaries.put(rollup.getMonth(), summaries);
+        }
+        // Keep it only if no archive run finished while loading
+        if (archiveVersion.get() == version) {
+            archivedMonths = archived;
+        }
+        return archived;
+    }
+
+    private static final class ArchivedMonths {
+        // Keyed by "YYYY-MM", so month ranges are string ranges
+        private final TreeMap<String, HeavyHitters[]> summaries = new TreeMap<>();
+        private final Map<String, String> names = new HashMap<>();
+    }
+}
@@ -0,0 +1,13 @@
+package com.foodordering.analytics;
+
+/**
+ * What a menu item ranking is by.
+ */
+public enum MenuItemMetric {
+    /** Order lines containing the item, as in the dashboard's per-item totalOrders. */
+    ORDERS,
+    /** Units ordered. */
+    QUANTITY,
+    /** Line subtotals, in minor units of the store currency. */
+    REVENUE
+}
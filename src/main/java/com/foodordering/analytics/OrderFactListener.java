@@ -0,0 +1,37 @@
+package com.foodordering.analytics;
+
+/**
+ * Implemented by structures derived incrementally from the order fact table.
+ * {@link OrderFactStore} calls these with its write lock held, for every change
+ * whatever its source (local events, other nodes, archival), so implementations
+ * must be quick and must not call back into the store.
+ */
+public interface OrderFactListener {
+
+    /**
+     * The order in slot ordinal was added, or replaced with new lines.
+     */
+    void orderAdded(OrderFactTable table, int ordinal);
+
+    /**
+     * The order in slot ordinal is about to be removed or replaced; its old lines are still readable.
+     */
+    void orderRemoving(OrderFactTable table, int ordinal);
+
+    /**
+     * Only the status of the order in slot ordinal changed; its lines are the same.
+     */
+    void orderStatusChanged(OrderFactTable table, int ordinal, byte previousStatus);
+
+    /**
+     * The table was (re)loaded from Mongo; rebuild everything derived from it.
+     */
+    void tableLoaded(OrderFactTable table);
+
+    /**
+     * The table was dropped because the orders collection was reset; it reloads on the next read.
+     * Anything served without reading the store (a result cache) must be discarded here.
+     */
+    default void tableUnloaded() {
+    }
+}
@@ -0,0 +1,278 @@
+package com.foodordering.analytics;
+
+import com.foodordering.cache.CollectionChangeListener;
+import com.foodordering.event.OrderChangedEvent;
+import com.foodordering.event.OrdersArchivedEvent;
+import com.foodordering.model.entity.Order;
+import com.foodordering.repository.OrderRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+
+import java.time.Instant;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+import java.util.stream.Stream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * In-memory columnar copy of the live (not archived, not soft-deleted) orders,
+ * for analytics scans. See {@link OrderFactTable} for the layout.
+ * <p>
+ * The table is streamed from Mongo on first use (warmed up at start-up) and
+ * then kept current by {@link OrderChangedEvent}, {@link OrdersArchivedEvent}
+ * and, for writes made elsewhere, the collection change watcher. Changes seen
+ * while a load is running are replayed on top of the loaded table.
+ * <p>
+ * Writers never wait for the write lock: a change is queued and applied by
+ * whichever thread gets the lock first, at the latest by the dashboard scan that
+ * holds it when the scan finishes. A read applies the queued changes before it
+ * scans, so it sees every write that completed before it started.
+ * <p>
+ * {@link OrderFactListener} beans are told about every change under the write
+ * lock, so structures derived from the table stay in step with it.
+ * <p>
+ * Days and hours are local to analytics.zone-id, the restaurant's time zone, so
+ * the dashboard's month buckets follow the restaurant's calendar.
+ */
+@Component
+public class OrderFactStore implements CollectionChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderFactStore.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired(required = false)
+    private List<OrderFactListener> listeners = List.of();
+
+    @Autowired
+    private ZoneId analyticsZoneId;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Object loadLock = new Object();
+    private OrderFactTable table = new OrderFactTable();
+    private volatile boolean loaded;
+
+    // Written under the write lock; non-null while a load is running
+    private volatile List<Runnable> changesDuringLoad;
+    private final Queue<Runnable> pendingChanges = new ConcurrentLinkedQueue<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            ensureLoaded();
+        } catch (RuntimeException e) {
+            log.warn("Order fact store not loaded at start-up, will retry on first read: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Runs reader against the table under the read lock. The reader must not keep
+     * references to the table's arrays after it returns.
+     */
+    public <T> T read(Function<OrderFactTable, T> reader) {
+        ensureLoaded();
+        if (!pendingChanges.isEmpty()) {
+            lock.writeLock().lock();
+            try {
+                applyPendingChanges();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        lock.readLock().lock();
+        try {
+            return reader.apply(table);
+        } finally {
+            lock.readLock().unlock();
+            tryApplyPendingChanges();
+        }
+    }
+
+    public int toDay(Instant instant) {
+        return (int) instant.atZone(analyticsZoneId).toLocalDate().toEpochDay();
+    }
+
+    public int toHour(Instant instant) {
+        return instant.atZone(analyticsZoneId).getHour();
+    }
+
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        Order order = event.getOrder();
+        apply(() -> upsertInternal(order));
+    }
+
+    @EventListener
+    public void onOrdersArchived(OrdersArchivedEvent event) {
+        List<String> orderIds = List.copyOf(event.getOrderIds());
+        apply(() -> orderIds.forEach(this::removeInternal));
+    }
+
+    @Override
+    public Set<String> getWatchedCollections() {
+        return Set.of("orders");
+    }
+
+    @Override
+    public void onDocumentChanged(String collection, String id) {
+        // The load in progress may already have read the old version of the document
+        if (!loaded && changesDuringLoad == null) {
+            return;
+        }
+        // findById skips soft-deleted orders, which leave the table as well
+        Order order = orderRepository.findById(id).orElse(null);
+        apply(() -> {
+            if (order != null) {
+                upsertInternal(order);
+            } else {
+                removeInternal(id);
+            }
+        });
+    }
+
+    @Override
+    public void onCollectionReset(String collection) {
+        lock.writeLock().lock();
+        try {
+            loaded = false;
+            listeners.forEach(OrderFactListener::tableUnloaded);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void apply(Runnable change) {
+        pendingChanges.add(change);
+        tryApplyPendingChanges();
+    }
+
+    /**
+     * Applies the queued changes unless another thread holds the lock. A writer
+     * that holds it re-checks the queue after unlocking, and so does a reader, so
+     * a change queued meanwhile is not left behind.
+     */
+    private void tryApplyPendingChanges() {
+        while (!pendingChanges.isEmpty() && lock.writeLock().tryLock()) {
+            try {
+                applyPendingChanges();
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    // Caller holds the write lock
+    private void applyPendingChanges() {
+        Runnable change;
+        while ((change = pendingChanges.poll()) != null) {
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(change);
+            }
+            if (loaded) {
+                change.run();
+            }
+        }
+    }
+
+    private void upsertInternal(Order order) {
+        if (order.isDeleted()) {
+            removeInternal(order.getId());
+            return;
+        }
+        if (order.getCreatedAt() == null) {
+            return;
+        }
+        OrderFactTable current = table;
+        int day = toDay(order.getCreatedAt());
+        int ordinal = current.orderOrdinal(order.getId());
+        if (ordinal >= 0) {
+            byte previousStatus = current.orderStatuses()[ordinal];
+            // Most changes only move the status along; keep the line run and tell listeners so
+            if (current.updateStatus(order, day)) {
+                if (current.orderStatuses()[ordinal] != previousStatus) {
+                    listeners.forEach(listener -> listener.orderStatusChanged(current, ordinal, previousStatus));
+                }
+                return;
+            }
+            listeners.forEach(listener -> listener.orderRemoving(current, ordinal));
+        }
+        current.upsert(order, day, toHour(order.getCreatedAt()));
+        int updated = current.orderOrdinal(order.getId());
+        listeners.forEach(listener -> listener.orderAdded(current, updated));
+    }
+
+    private void removeInternal(String orderId) {
+        OrderFactTable current = table;
+        int ordinal = current.orderOrdinal(orderId);
+        if (ordinal < 0) {
+            return;
+        }
+        listeners.forEach(listener -> listener.orderRemoving(current, ordinal));
+        current.remove(orderId);
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                changesDuringLoad = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            // Stream without holding the lock so order writes are not blocked by the load
+            OrderFactTable loading = new OrderFactTable();
+            try (Stream<Order> orders = mongoTemplate.stream(
+                    new Query(where("is_deleted").is(false)), Order.class)) {
+                orders.filter(order -> order.getCreatedAt() != null)
+                        .forEach(order -> loading.upsert(order, toDay(order.getCreatedAt()), toHour(order.getCreatedAt())));
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    changesDuringLoad = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                table = loading;
+                // Replay what happened during the stream; each change is idempotent
+                changesDuringLoad.forEach(Runnable::run);
+                changesDuringLoad = null;
+                listeners.forEach(listener -> listener.tableLoaded(loading));
+                loaded = true;
+                applyPendingChanges();
+            } finally {
+                lock.writeLock().unlock();
+            }
+            log.info("Order fact store loaded: {} orders, {} lines", loading.liveOrderCount(), loading.liveLineCount());
+        }
+    }
+}
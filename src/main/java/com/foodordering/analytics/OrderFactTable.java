@@ -0,0 +1,454 @@
+package com.foodordering.analytics;
+
+import com.foodordering.model.entity.Order;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Column storage behind {@link OrderFactStore}: one table of order facts and one
+ * of order-line facts, each a set of parallel primitive arrays.
+ * <p>
+ * Menu items and orders are interned to dense ordinals. An order's lines are
+ * appended as one contiguous run. When the order changes, the old run gets the
+ * {@link #REMOVED} status and a new run is appended. Dead lines are compacted
+ * away once they make up half of the table. Freed order ordinals are reused.
+ * <p>
+ * Status-only changes are written in place over the existing line run.
+ * <p>
+ * The array getters return the live backing arrays, which may be longer than
+ * the row count. Only read them inside {@link OrderFactStore#read}.
+ */
+public final class OrderFactTable {
+
+    /** Status code of a line or order slot that no longer holds live data. */
+    public static final byte REMOVED = -1;
+
+    private static final int INITIAL_CAPACITY = 1024;
+    private static final int MIN_COMPACTION_LINES = 4096;
+
+    // Menu item dictionary
+    private final Map<String, Integer> menuItemOrdinals = new HashMap<>();
+    private final List<String> menuItemIds = new ArrayList<>();
+    private final List<String> menuItemNames = new ArrayList<>();
+
+    // Category dictionary, from the lines' category snapshots
+    private final Map<String, Integer> categoryOrdinals = new HashMap<>();
+    private final List<String> categoryIds = new ArrayList<>();
+
+    // Order facts, indexed by order ordinal
+    private final Map<String, Integer> orderOrdinals = new HashMap<>();
+    private String[] orderIds = new String[INITIAL_CAPACITY];
+    private int[] orderDays = new int[INITIAL_CAPACITY];
+    private byte[] orderHours = new byte[INITIAL_CAPACITY];
+    private long[] orderAmounts = new long[INITIAL_CAPACITY];
+    private long[] orderAccountHashes = new long[INITIAL_CAPACITY];
+    private byte[] orderStatuses = new byte[INITIAL_CAPACITY];
+    private int[] orderFirstLines = new int[INITIAL_CAPACITY];
+    private int[] orderLineCounts = new int[INITIAL_CAPACITY];
+    private int[] freeOrders = new int[16];
+    private int freeOrderCount;
+    private int orderSlots;
+
+    // Line facts, indexed by row
+    private int[] lineOrders = new int[INITIAL_CAPACITY];
+    private int[] lineMenuItems = new int[INITIAL_CAPACITY];
+    private int[] lineCategories = new int[INITIAL_CAPACITY];
+    private int[] lineDays = new int[INITIAL_CAPACITY];
+    private int[] lineQuantities = new int[INITIAL_CAPACITY];
+    private long[] lineAmounts = new long[INITIAL_CAPACITY];
+    private byte[] lineStatuses = new byte[INITIAL_CAPACITY];
+    private int lineCount;
+    private int deadLines;
+
+    /**
+     * Bit mask selecting the given statuses, for the scan methods.
+     */
+    public static int statusMask(Order.OrderStatus... statuses) {
+        int mask = 0;
+        for (Order.OrderStatus status : statuses) {
+            mask |= 1 << status.ordinal();
+        }
+        return mask;
+    }
+
+    /**
+     * Bit mask selecting every status except the given ones.
+     */
+    public static int statusMaskExcluding(Order.OrderStatus... statuses) {
+        return statusMask(Order.OrderStatus.values()) & ~statusMask(statuses);
+    }
+
+    /**
+     * Whether a status code (an order slot or line status) is selected by the mask.
+     */
+    public static boolean inMask(int statusMask, byte status) {
+        return ((statusMask >>> (status & 31)) & 1) != 0;
+    }
+
+    /**
+     * Writes the rows of live lines whose day is in [fromDay, toDay] and whose
+     * status is in the mask into selection, and returns how many were written.
+     * selection must hold at least {@link #lineCount()} entries.
+     */
+    public int selectLines(int fromDay, int toDay, int statusMask, int[] selection) {
+        return select(lineDays, lineStatuses, lineCount, fromDay, toDay, statusMask, selection);
+    }
+
+    /**
+     * Same as {@link #selectLines} over order slots; selection must hold
+     * {@link #orderSlots()} entries.
+     */
+    public int selectOrders(int fromDay, int toDay, int statusMask, int[] selection) {
+        return select(orderDays, orderStatuses, orderSlots, fromDay, toDay, statusMask, selection);
+    }
+
+    /**
+     * Same as {@link #selectLines} restricted to rows [fromRow, toRow). The selected
+     * rows are written from selection[fromRow] on, so calls over disjoint row
+     * ranges can share one selection array.
+     */
+    public int selectLines(int fromRow, int toRow, int fromDay, int toDay, int statusMask, int[] selection) {
+        return select(lineDays, lineStatuses, fromRow, Math.min(toRow, lineCount), fromDay, toDay, statusMask,
+                selection);
+    }
+
+    private static int select(int[] days, byte[] statuses, int rows, int fromDay, int toDay, int statusMask,
+                              int[] selection) {
+        return select(days, statuses, 0, rows, fromDay, toDay, statusMask, selection);
+    }
+
+    private static int select(int[] days, byte[] statuses, int fromRow, int toRow, int fromDay, int toDay,
+                              int statusMask, int[] selection) {
+        int selected = fromRow;
+        for (int row = fromRow; row < toRow; row++) {
+            int day = days[row];
+            int status = statuses[row];
+            // Branch-free: REMOVED (-1) shifts the mask by 31 and reads the always-clear top bit
+            boolean keep = day >= fromDay & day <= toDay & ((statusMask >>> (status & 31)) & 1) != 0;
+            selection[selected] = row;
+            selected += keep ? 1 : 0;
+        }
+        return selected - fromRow;
+    }
+
+    public int menuItemCount() {
+        return menuItemIds.size();
+    }
+
+    public String menuItemId(int ordinal) {
+        return menuItemIds.get(ordinal);
+    }
+
+    /**
+     * Ordinal of a menu item id, or -1 if no line has referenced it.
+     */
+    public int menuItemOrdinal(String menuItemId) {
+        Integer ordinal = menuItemOrdinals.get(menuItemId);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    /**
+     * Latest name snapshot seen on an order line for the item, or null.
+     */
+    public String menuItemName(int ordinal) {
+        return menuItemNames.get(ordinal);
+    }
+
+    public int categoryCount() {
+        return categoryIds.size();
+    }
+
+    public String categoryId(int ordinal) {
+        return categoryIds.get(ordinal);
+    }
+
+    /**
+     * Ordinal of a category id, or -1 if no line has referenced it.
+     */
+    public int categoryOrdinal(String categoryId) {
+        Integer ordinal = categoryOrdinals.get(categoryId);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    public int orderSlots() {
+        return orderSlots;
+    }
+
+    public int liveOrderCount() {
+        return orderOrdinals.size();
+    }
+
+    /**
+     * Slot of a live order, or -1 if the table does not hold it.
+     */
+    public int orderOrdinal(String orderId) {
+        Integer ordinal = orderOrdinals.get(orderId);
+        return ordinal != null ? ordinal : -1;
+    }
+
+    public String orderId(int ordinal) {
+        return orderIds[ordinal];
+    }
+
+    public int[] orderDays() {
+        return orderDays;
+    }
+
+    /**
+     * Hour of day (0-23) the order was created at, in the same time zone as its day.
+     */
+    public byte[] orderHours() {
+        return orderHours;
+    }
+
+    public long[] orderAmounts() {
+        return orderAmounts;
+    }
+
+    /**
+     * {@link HyperLogLog#hash} of each order's account id.
+     */
+    public long[] orderAccountHashes() {
+        return orderAccountHashes;
+    }
+
+    public byte[] orderStatuses() {
+        return orderStatuses;
+    }
+
+    public int[] orderFirstLines() {
+        return orderFirstLines;
+    }
+
+    public int[] orderLineCounts() {
+        return orderLineCounts;
+    }
+
+    public int lineCount() {
+        return lineCount;
+    }
+
+    public int liveLineCount() {
+        return lineCount - deadLines;
+    }
+
+    public int[] lineOrders() {
+        return lineOrders;
+    }
+
+    public int[] lineMenuItems() {
+        return lineMenuItems;
+    }
+
+    /**
+     * Category ordinal of each line's snapshot, or -1 for lines without one.
+     */
+    public int[] lineCategories() {
+        return lineCategories;
+    }
+
+    public int[] lineDays() {
+        return lineDays;
+    }
+
+    public int[] lineQuantities() {
+        return lineQuantities;
+    }
+
+    public long[] lineAmounts() {
+        return lineAmounts;
+    }
+
+    public byte[] lineStatuses() {
+        return lineStatuses;
+    }
+
+    /**
+     * Adds or replaces an order. day and hour are the order's creation date (as an
+     * epoch day) and hour of day.
+     */
+    void upsert(Order order, int day, int hour) {
+        Integer existing = orderOrdinals.get(order.getId());
+        int ordinal;
+        if (existing != null) {
+            ordinal = existing;
+            killLines(ordinal);
+        } else {
+            ordinal = allocateOrder();
+            orderOrdinals.put(order.getId(), ordinal);
+        }
+
+        List<Order.OrderItem> items = order.getOrderItems() != null ? order.getOrderItems() : List.of();
+        byte status = (byte) order.getStatus().ordinal();
+        ensureLineCapacity(lineCount + items.size());
+
+        orderIds[ordinal] = order.getId();
+        orderDays[ordinal] = day;
+        orderHours[ordinal] = (byte) hour;
+        orderAmounts[ordinal] = order.getTotalAmount() != null ? order.getTotalAmount().getAmount() : 0L;
+        orderAccountHashes[ordinal] = HyperLogLog.hash(order.getAccountId());
+        orderStatuses[ordinal] = status;
+        orderFirstLines[ordinal] = lineCount;
+        orderLineCounts[ordinal] = items.size();
+
+        for (Order.OrderItem item : items) {
+            int row = lineCount++;
+            lineOrders[row] = ordinal;
+            lineMenuItems[row] = internMenuItem(item.getMenuItemId(), item.getMenuItemName());
+            lineCategories[row] = item.getCategoryId() != null ? internCategory(item.getCategoryId()) : -1;
+            lineDays[row] = day;
+            lineQuantities[row] = item.getQuantity() != null ? item.getQuantity() : 0;
+            lineAmounts[row] = item.getSubtotal() != null ? item.getSubtotal().getAmount() : 0L;
+            lineStatuses[row] = status;
+        }
+        compactIfSparse();
+    }
+
+    /**
+     * Applies a status-only change in place. If the table holds the order with the
+     * same day, account, total and lines, sets the new status on the order and its
+     * lines and returns true. Otherwise changes nothing and returns false.
+     */
+    boolean updateStatus(Order order, int day) {
+        Integer existing = orderOrdinals.get(order.getId());
+        if (existing == null) {
+            return false;
+        }
+        int ordinal = existing;
+        List<Order.OrderItem> items = order.getOrderItems() != null ? order.getOrderItems() : List.of();
+        long amount = order.getTotalAmount() != null ? order.getTotalAmount().getAmount() : 0L;
+        if (orderDays[ordinal] != day || orderAmounts[ordinal] != amount || orderLineCounts[ordinal] != items.size()
+                || orderAccountHashes[ordinal] != HyperLogLog.hash(order.getAccountId())) {
+            return false;
+        }
+        int first = orderFirstLines[ordinal];
+        for (int i = 0; i < items.size(); i++) {
+            Order.OrderItem item = items.get(i);
+            int row = first + i;
+            Integer menuItem = menuItemOrdinals.get(item.getMenuItemId());
+            int category = item.getCategoryId() != null ? categoryOrdinal(item.getCategoryId()) : -1;
+            int quantity = item.getQuantity() != null ? item.getQuantity() : 0;
+            long subtotal = item.getSubtotal() != null ? item.getSubtotal().getAmount() : 0L;
+            if (menuItem == null || lineMenuItems[row] != menuItem || lineQuantities[row] != quantity
+                    || lineAmounts[row] != subtotal || lineCategories[row] != category
+                    || (category < 0 && item.getCategoryId() != null)) {
+                return false;
+            }
+        }
+
+        byte status = (byte) order.getStatus().ordinal();
+        orderStatuses[ordinal] = status;
+        Arrays.fill(lineStatuses, first, first + items.size(), status);
+        return true;
+    }
+
+    void remove(String orderId) {
+        Integer ordinal = orderOrdinals.remove(orderId);
+        if (ordinal == null) {
+            return;
+        }
+        killLines(ordinal);
+        orderIds[ordinal] = null;
+        orderStatuses[ordinal] = REMOVED;
+        orderLineCounts[ordinal] = 0;
+        if (freeOrderCount == freeOrders.length) {
+            freeOrders = Arrays.copyOf(freeOrders, freeOrders.length * 2);
+        }
+        freeOrders[freeOrderCount++] = ordinal;
+        compactIfSparse();
+    }
+
+    private int internMenuItem(String menuItemId, String name) {
+        Integer ordinal = menuItemOrdinals.get(menuItemId);
+        if (ordinal == null) {
+            ordinal = menuItemIds.size();
+            menuItemOrdinals.put(menuItemId, ordinal);
+            menuItemIds.add(menuItemId);
+            menuItemNames.add(name);
+        } else if (name != null) {
+            menuItemNames.set(ordinal, name);
+        }
+        return ordinal;
+    }
+
+    private int internCategory(String categoryId) {
+        Integer ordinal = categoryOrdinals.get(categoryId);
+        if (ordinal == null) {
+            ordinal = categoryIds.size();
+            categoryOrdinals.put(categoryId, ordinal);
+            categoryIds.add(categoryId);
+        }
+        return ordinal;
+    }
+
+    private int allocateOrder() {
+        if (freeOrderCount > 0) {
+            return freeOrders[--freeOrderCount];
+        }
+        if (orderSlots == orderIds.length) {
+            int capacity = orderIds.length * 2;
+            orderIds = Arrays.copyOf(orderIds, capacity);
+            orderDays = Arrays.copyOf(orderDays, capacity);
+            orderHours = Arrays.copyOf(orderHours, capacity);
+            orderAmounts = Arrays.copyOf(orderAmounts, capacity);
+            orderAccountHashes = Arrays.copyOf(orderAccountHashes, capacity);
+            orderStatuses = Arrays.copyOf(orderStatuses, capacity);
+            orderFirstLines = Arrays.copyOf(orderFirstLines, capacity);
+            orderLineCounts = Arrays.copyOf(orderLineCounts, capacity);
+        }
+        return orderSlots++;
+    }
+
+    private void killLines(int ordinal) {
+        int first = orderFirstLines[ordinal];
+        int count = orderLineCounts[ordinal];
+        Arrays.fill(lineStatuses, first, first + count, REMOVED);
+        deadLines += count;
+    }
+
+    private void ensureLineCapacity(int required) {
+        if (required <= lineOrders.length) {
+            return;
+        }
+        int capacity = Math.max(lineOrders.length * 2, required);
+        lineOrders = Arrays.copyOf(lineOrders, capacity);
+        lineMenuItems = Arrays.copyOf(lineMenuItems, capacity);
+        lineCategories = Arrays.copyOf(lineCategories, capacity);
+        lineDays = Arrays.copyOf(lineDays, capacity);
+        lineQuantities = Arrays.copyOf(lineQuantities, capacity);
+        lineAmounts = Arrays.copyOf(lineAmounts, capacity);
+        lineStatuses = Arrays.copyOf(lineStatuses, capacity);
+    }
+
+    private void compactIfSparse() {
+        if (lineCount < MIN_COMPACTION_LINES || deadLines * 2 < lineCount) {
+            return;
+        }
+        int target = 0;
+        int previousOrder = -1;
+        for (int row = 0; row < lineCount; row++) {
+            if (lineStatuses[row] == REMOVED) {
+                continue;
+            }
+            int ordinal = lineOrders[row];
+            if (ordinal != previousOrder) {
+                orderFirstLines[ordinal] = target;
+                previousOrder = ordinal;
+            }
+            lineOrders[target] = ordinal;
+            lineMenuItems[target] = lineMenuItems[row];
+            lineCategories[target] = lineCategories[row];
+            lineDays[target] = lineDays[row];
+            lineQuantities[target] = lineQuantities[row];
+            lineAmounts[target] = lineAmounts[row];
+            lineStatuses[target] = lineStatuses[row];
+            target++;
+        }
+        lineCount = target;
+        deadLines = 0;
+    }
+}
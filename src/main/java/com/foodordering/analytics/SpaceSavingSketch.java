@@ -0,0 +1,131 @@
+package com.foodordering.analytics;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.IntFunction;
+
+/**
+ * Weighted Space-Saving heavy-hitters sketch over int item keys.
+ * <p>
+ * At most capacity items are monitored, each with an overestimated count and
+ * the maximum overestimate (error). When a new item arrives and the sketch is
+ * full, the item with the smallest count is evicted. The newcomer starts from
+ * {@link #floor}, which bounds the true count of every unmonitored item.
+ * <p>
+ * Decrements are applied to monitored items only. An unmonitored item keeps
+ * its bound, because floor never goes down. Not thread-safe.
+ */
+final class SpaceSavingSketch {
+
+    private final int capacity;
+    private final int[] items;
+    private final long[] counts;
+    private final long[] errors;
+    // Min-heap of slots by count, and each slot's position in it
+    private final int[] heap;
+    private final int[] heapPositions;
+    private final Map<Integer, Integer> slots;
+    private int size;
+    private long floor;
+
+    SpaceSavingSketch(int capacity) {
+        this.capacity = capacity;
+        this.items = new int[capacity];
+        this.counts = new long[capacity];
+        this.errors = new long[capacity];
+        this.heap = new int[capacity];
+        this.heapPositions = new int[capacity];
+        this.slots = new HashMap<>(capacity * 2);
+    }
+
+    void add(int item, long weight) {
+        if (weight <= 0) {
+            return;
+        }
+        Integer existing = slots.get(item);
+        if (existing != null) {
+            counts[existing] += weight;
+            siftDown(heapPositions[existing]);
+            return;
+        }
+
+        int slot;
+        if (size < capacity) {
+            slot = size;
+            heap[size] = slot;
+            heapPositions[slot] = size;
+            size++;
+        } else {
+            slot = heap[0];
+            floor = Math.max(floor, counts[slot]);
+            slots.remove(items[slot]);
+        }
+        items[slot] = item;
+        counts[slot] = floor + weight;
+        errors[slot] = floor;
+        slots.put(item, slot);
+        siftUp(heapPositions[slot]);
+        siftDown(heapPositions[slot]);
+    }
+
+    void subtract(int item, long weight) {
+        Integer existing = slots.get(item);
+        if (existing == null || weight <= 0) {
+            return;
+        }
+        counts[existing] -= weight;
+        siftUp(heapPositions[existing]);
+    }
+
+    /**
+     * Snapshot of the monitored items. itemIds maps item keys to the ids used in the summary.
+     */
+    HeavyHitters summary(IntFunction<String> itemIds) {
+        String[] ids = new String[size];
+        long[] estimates = new long[size];
+        long[] lowerBounds = new long[size];
+        for (int slot = 0; slot < size; slot++) {
+            ids[slot] = itemIds.apply(items[slot]);
+            estimates[slot] = counts[slot];
+            lowerBounds[slot] = Math.max(0L, counts[slot] - errors[slot]);
+        }
+        return HeavyHitters.of(ids, estimates, lowerBounds, floor, size);
+    }
+
+    private void siftUp(int position) {
+        int slot = heap[position];
+        while (position > 0) {
+            int parent = (position - 1) >>> 1;
+            if (counts[heap[parent]] <= counts[slot]) {
+                break;
+            }
+            place(heap[parent], position);
+            position = parent;
+        }
+        place(slot, position);
+    }
+
+    private void siftDown(int position) {
+        int slot = heap[position];
+        while (true) {
+            int child = position * 2 + 1;
+            if (child >= size) {
+                break;
+            }
+            if (child + 1 < size && counts[heap[child + 1]] < counts[heap[child]]) {
+                child++;
+            }
+            if (counts[heap[child]] >= counts[slot]) {
+                break;
+            }
+            place(heap[child], position);
+            position = child;
+        }
+        place(slot, position);
+    }
+
+    private void place(int slot, int position) {
+        heap[position] = slot;
+        heapPositions[slot] = position;
+    }
+}
@@ -0,0 +1,460 @@
+package com.foodordering.archive;
+
+import com.foodordering.analytics.HyperLogLog;
+import com.foodordering.event.OrdersArchivedEvent;
+import com.foodordering.model.entity.ArchivedOrder;
+import com.foodordering.model.entity.Order;
+import com.foodordering.model.entity.OrderMonthlyRollup;
+import com.foodordering.repository.ArchivedOrderRepository;
+import com.mongodb.MongoClientSettings;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonBinaryWriter;
+import org.bson.Document;
+import org.bson.RawBsonDocument;
+import org.bson.codecs.Codec;
+import org.bson.codecs.EncoderContext;
+import org.bson.io.BasicOutputBuffer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Optional cold-storage tier for completed orders (orders.archive.enabled).
+ *
+ * A background job moves DELIVERED and CANCELLED orders that have not changed for
+ * orders.archive.min-age-days from "orders" into "orders_archive", in batches:
+ * <ol>
+ *   <li>each order is upserted into the archive as gzip-compressed BSON;</li>
+ *   <li>archive documents not yet claimed are claimed with a batch id;</li>
+ *   <li>the claimed orders are added to the monthly rollups, and each month records
+ *       the batch id in the same write;</li>
+ *   <li>the batch's archive documents are marked rolled up;</li>
+ *   <li>the orders are removed from "orders".</li>
+ * </ol>
+ * Every step can be repeated after a crash: the upsert only inserts, a month skips
+ * a batch it has already recorded, and the delete is by id. Batches claimed but
+ * not marked rolled up are finished from the archive at the start of the next run,
+ * so each order is counted in the rollups exactly once.
+ * Archived orders are read back by id or account through {@link #find} and
+ * {@link #findByAccount}. Rollups from before distinct-customer counting are
+ * backfilled from the archive once at start-up ({@link #backfillCustomers}).
+ */
+@Component
+public class OrderArchiver {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderArchiver.class);
+
+    private static final List<String> ARCHIVABLE_STATUSES =
+            List.of(Order.OrderStatus.DELIVERED.name(), Order.OrderStatus.CANCELLED.name());
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private static final Codec<Document> DOCUMENT_CODEC =
+            MongoClientSettings.getDefaultCodecRegistry().get(Document.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ArchivedOrderRepository archivedOrderRepository;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${orders.archive.enabled:false}")
+    private boolean enabled;
+
+    @Value("${orders.archive.min-age-days:180}")
+    private long minAgeDays;
+
+    @Value("${orders.archive.batch-size:500}")
+    private int batchSize;
+
+    @Value("${orders.archive.interval-minutes:60}")
+    private long intervalMinutes;
+
+    @Value("${money.currency:VND}")
+    private String currency;
+
+    @Autowired
+    private ZoneId analyticsZoneId;
+
+    private final Object runLock = new Object();
+
+    private ScheduledExecutorService scheduler;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-archiver");
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.execute(this::backfillCustomersQuietly);
+        scheduler.scheduleWithFixedDelay(this::archiveQuietly, intervalMinutes, intervalMinutes, TimeUnit.MINUTES);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (scheduler != null) {
+            scheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Archives every eligible order and returns how many were moved.
+     */
+    public int archive() {
+        synchronized (runLock) {
+            finishInterruptedBatches();
+            Instant cutoff = Instant.now().minus(Duration.ofDays(minAgeDays));
+            int archived = 0;
+            while (true) {
+                Query eligible = query(where("status").in(ARCHIVABLE_STATUSES).and("modified_at").lt(cutoff))
+                        .with(Sort.by(Sort.Direction.ASC, "modified_at"))
+                        .limit(batchSize);
+                List<Order> batch = mongoTemplate.find(eligible, Order.class);
+                if (batch.isEmpty()) {
+                    break;
+                }
+                int moved = archiveBatch(batch);
+                archived += moved;
+                if (moved == 0 || batch.size() < batchSize) {
+                    // Nothing could be written, or this was the tail; try again on the next run
+                    break;
+                }
+            }
+            return archived;
+        }
+    }
+
+    /**
+     * Adds distinct-customer registers to rollups written before they existed, from the
+     * archived payloads of their month. $max makes a repeated or overlapping run harmless.
+     */
+    public void backfillCustomers() {
+        Query missing = query(where("customers").exists(false));
+        missing.fields().include("_id");
+        List<Document> months = mongoTemplate.find(missing, Document.class,
+                mongoTemplate.getCollectionName(OrderMonthlyRollup.class));
+        for (Document monthDocument : months) {
+            String month = monthDocument.get("_id").toString();
+            YearMonth yearMonth = YearMonth.parse(month);
+            Query archived = query(where("rolled_up").is(true)
+                    .and("status").ne(Order.OrderStatus.CANCELLED.name())
+                    .and("order_created_at").gte(yearMonth.atDay(1).atStartOfDay(analyticsZoneId).toInstant())
+                    .lt(yearMonth.plusMonths(1).atDay(1).atStartOfDay(analyticsZoneId).toInstant()));
+
+            Map<String, Integer> registers = new HashMap<>();
+            try (Stream<ArchivedOrder> archivedOrders = mongoTemplate.stream(archived, ArchivedOrder.class)) {
+                archivedOrders.map(this::decode)
+                        .filter(order -> !order.isDeleted())
+                        .forEach(order -> {
+                            long customer = HyperLogLog.hash(order.getAccountId());
+                            addRegister(registers, "customers.", customer);
+                            order.getOrderItems().forEach(item ->
+                                    addRegister(registers, "items." + item.getMenuItemId() + ".customers.", customer));
+                        });
+            }
+            Update update = new Update();
+            if (registers.isEmpty()) {
+                update.set("customers", Map.of());
+            } else {
+                registers.forEach(update::max);
+            }
+            mongoTemplate.updateFirst(query(where("_id").is(month)), update, OrderMonthlyRollup.class);
+            log.info("Backfilled distinct customers for rollup month {}", month);
+        }
+    }
+
+    private void backfillCustomersQuietly() {
+        try {
+            backfillCustomers();
+        } catch (RuntimeException e) {
+            log.warn("Customer backfill of monthly rollups failed, will retry on restart: {}", e.getMessage());
+        }
+    }
+
+    public Optional<Order> find(String id) {
+        return archivedOrderRepository.findById(id).map(this::decode);
+    }
+
+    public List<Order> findByAccount(String accountId) {
+        return archivedOrderRepository.findByAccountId(accountId).stream()
+                .map(this::decode)
+                .collect(Collectors.toList());
+    }
+
+    private void archiveQuietly() {
+        try {
+            int archived = archive();
+            if (archived > 0) {
+                log.info("Archived {} completed orders", archived);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Order archival failed, retrying on the next run: {}", e.getMessage());
+        }
+    }
+
+    private int archiveBatch(List<Order> batch) {
+        Instant now = Instant.now();
+
+        BulkOperations archiveOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, ArchivedOrder.class);
+        for (Order order : batch) {
+            archiveOps.upsert(query(where("_id").is(order.getId())), new Update()
+                    .setOnInsert("account_id", order.getAccountId())
+                    .setOnInsert("status", order.getStatus().name())
+                    .setOnInsert("order_created_at", order.getCreatedAt())
+                    .setOnInsert("payload", encode(order))
+                    .setOnInsert("rolled_up", false)
+                    .setOnInsert("is_deleted", order.isDeleted())
+                    .setOnInsert("created_at", now)
+                    .set("modified_at", now));
+        }
+
+        Set<String> failed = new HashSet<>();
+        try {
+            archiveOps.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                failed.add(batch.get(error.getIndex()).getId());
+            }
+            log.warn("Could not archive {} of {} orders: {}", failed.size(), batch.size(), e.getMessage());
+        }
+
+        List<Order> archived = batch.stream()
+                .filter(order -> !failed.contains(order.getId()))
+                .collect(Collectors.toList());
+        if (archived.isEmpty()) {
+            return 0;
+        }
+        List<String> ids = archived.stream().map(Order::getId).collect(Collectors.toList());
+
+        String batchId = UUID.randomUUID().toString();
+        Set<String> claimed = claim(ids, batchId, now);
+        rollUp(archived.stream().filter(order -> claimed.contains(order.getId())).collect(Collectors.toList()),
+                batchId, now);
+        markRolledUp(batchId, now);
+
+        mongoTemplate.remove(query(where("_id").in(ids).and("status").in(ARCHIVABLE_STATUSES)), Order.class);
+        eventPublisher.publishEvent(new OrdersArchivedEvent(ids));
+        return archived.size();
+    }
+
+    /**
+     * Tags archive documents that no batch has claimed yet with batchId and returns their ids.
+     * An order claimed by an earlier, interrupted run stays with that run's batch.
+     */
+    private Set<String> claim(List<String> ids, String batchId, Instant now) {
+        mongoTemplate.updateMulti(
+                query(where("_id").in(ids).and("rolled_up").is(false).and("rollup_batch").exists(false)),
+                new Update().set("rollup_batch", batchId).set("modified_at", now),
+                ArchivedOrder.class);
+
+        Query claimedQuery = query(where("rollup_batch").is(batchId));
+        claimedQuery.fields().include("_id");
+        return mongoTemplate.find(claimedQuery, Document.class, mongoTemplate.getCollectionName(ArchivedOrder.class))
+                .stream()
+                .map(document -> document.get("_id").toString())
+                .collect(Collectors.toSet());
+    }
+
+    private void markRolledUp(String batchId, Instant now) {
+        mongoTemplate.updateMulti(
+                query(where("rollup_batch").is(batchId).and("rolled_up").is(false)),
+                new Update().set("rolled_up", true).set("modified_at", now),
+                ArchivedOrder.class);
+    }
+
+    /**
+     * Rolls up batches whose run stopped between the claim and marking them rolled up,
+     * from their archived payloads. Months that already recorded a batch skip it.
+     */
+    private void finishInterruptedBatches() {
+        List<String> batchIds = mongoTemplate.findDistinct(
+                query(where("rolled_up").is(false).and("rollup_batch").exists(true)),
+                "rollup_batch", ArchivedOrder.class, String.class);
+        for (String batchId : batchIds) {
+            Instant now = Instant.now();
+            List<Order> orders = mongoTemplate.find(query(where("rollup_batch").is(batchId)), ArchivedOrder.class)
+                    .stream()
+                    .map(this::decode)
+                    .collect(Collectors.toList());
+            rollUp(orders, batchId, now);
+            markRolledUp(batchId, now);
+            log.info("Finished rollup of interrupted archive batch {} ({} orders)", batchId, orders.size());
+        }
+    }
+
+    /**
+     * Adds the orders of batchId to their monthly rollups. Each month document records
+     * the batch ids it has applied and only matches batches it has not, so applying a
+     * batch again changes nothing. The ids are kept; a month collects about one per
+     * archive batch of its orders.
+     */
+    private void rollUp(List<Order> orders, String batchId, Instant now) {
+        // Increments are summed per month first; Update.inc keeps only the last value per field
+        Map<String, Map<String, Number>> increments = new TreeMap<>();
+        Map<String, Map<String, String>> names = new HashMap<>();
+        // HyperLogLog registers of distinct customers, merged into the rollup with $max
+        Map<String, Map<String, Integer>> customerRegisters = new HashMap<>();
+        for (Order order : orders) {
+            if (order.isDeleted()
+                    || order.getStatus() == Order.OrderStatus.CANCELLED || order.getCreatedAt() == null) {
+                continue;
+            }
+            String month = YearMonth.from(order.getCreatedAt().atZone(analyticsZoneId)).toString();
+            Map<String, Number> monthIncrements = increments.computeIfAbsent(month, m -> new HashMap<>());
+            add(monthIncrements, "total_orders", 1);
+            add(monthIncrements, "total_menu_items_ordered", order.getOrderItems().size());
+            add(monthIncrements, "total_revenue.amount", order.getTotalAmount() != null ? order.getTotalAmount().getAmount() : 0L);
+            long customer = HyperLogLog.hash(order.getAccountId());
+            Map<String, Integer> monthRegisters = customerRegisters.computeIfAbsent(month, m -> new HashMap<>());
+            addRegister(monthRegisters, "customers.", customer);
+            for (Order.OrderItem item : order.getOrderItems()) {
+                String prefix = "items." + item.getMenuItemId() + ".";
+                add(monthIncrements, prefix + "orders", 1);
+                add(monthIncrements, prefix + "quantity", item.getQuantity() != null ? item.getQuantity() : 0);
+                add(monthIncrements, prefix + "revenue.amount", item.getSubtotal() != null ? item.getSubtotal().getAmount() : 0L);
+                addRegister(monthRegisters, prefix + "customers.", customer);
+                if (item.getMenuItemName() != null) {
+                    names.computeIfAbsent(month, m -> new HashMap<>()).put(prefix + "name", item.getMenuItemName());
+                }
+            }
+        }
+        if (increments.isEmpty()) {
+            return;
+        }
+
+        List<String> months = new ArrayList<>();
+        List<Update> updates = new ArrayList<>();
+        increments.forEach((month, monthIncrements) -> {
+            Update update = new Update()
+                    .setOnInsert("month", month)
+                    .setOnInsert("is_deleted", false)
+                    .setOnInsert("created_at", now)
+                    .set("modified_at", now)
+                    .addToSet("applied_batches", batchId);
+            monthIncrements.forEach((field, value) -> {
+                update.inc(field, value);
+                if (field.endsWith("revenue.amount")) {
+                    // Also covers items first seen after the month document was created
+                    update.set(field.substring(0, field.length() - "amount".length()) + "currency", currency);
+                }
+            });
+            names.getOrDefault(month, Map.of()).forEach(update::set);
+            customerRegisters.getOrDefault(month, Map.of()).forEach(update::max);
+            months.add(month);
+            updates.add(update);
+        });
+
+        BulkOperations rollupOps = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, OrderMonthlyRollup.class);
+        for (int i = 0; i < months.size(); i++) {
+            rollupOps.upsert(unappliedMonth(months.get(i), batchId), updates.get(i));
+        }
+        try {
+            rollupOps.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    // Left unmarked, so the next run finishes the batch
+                    throw new RuntimeException("Could not update monthly rollups for archive batch " + batchId
+                            + ": " + error.getMessage(), e);
+                }
+            }
+            // A duplicate key means the month exists: it either applied the batch already,
+            // or was created concurrently, in which case a plain update now matches
+            for (BulkWriteError error : e.getErrors()) {
+                mongoTemplate.updateFirst(unappliedMonth(months.get(error.getIndex()), batchId),
+                        updates.get(error.getIndex()), OrderMonthlyRollup.class);
+            }
+        }
+    }
+
+    private static Query unappliedMonth(String month, String batchId) {
+        return query(where("_id").is(month).and("applied_batches").ne(batchId));
+    }
+
+    private static void addRegister(Map<String, Integer> registers, String prefix, long customerHash) {
+        if (customerHash != 0L) {
+            registers.merge(prefix + HyperLogLog.registerIndex(customerHash), HyperLogLog.rank(customerHash), Math::max);
+        }
+    }
+
+    private static void add(Map<String, Number> increments, String field, int value) {
+        increments.merge(field, value, (a, b) -> a.intValue() + b.intValue());
+    }
+
+    private static void add(Map<String, Number> increments, String field, long value) {
+        increments.merge(field, value, (a, b) -> a.longValue() + b.longValue());
+    }
+
+    private byte[] encode(Order order) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(order, document);
+        BasicOutputBuffer buffer = new BasicOutputBuffer();
+        DOCUMENT_CODEC.encode(new BsonBinaryWriter(buffer), document, EncoderContext.builder().build());
+        byte[] bson = buffer.toByteArray();
+
+        ByteArrayOutputStream compressed = new ByteArrayOutputStream(bson.length / 2 + 64);
+        try (GZIPOutputStream gzip = new GZIPOutputStream(compressed)) {
+            gzip.write(bson);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not compress order " + order.getId(), e);
+        }
+        return compressed.toByteArray();
+    }
+
+    private Order decode(ArchivedOrder archivedOrder) {
+        byte[] bson;
+        try (GZIPInputStream gzip = new GZIPInputStream(new ByteArrayInputStream(archivedOrder.getPayload()))) {
+            bson = gzip.readAllBytes();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not read archived order " + archivedOrder.getId(), e);
+        }
+        Document document = new RawBsonDocument(bson).decode(DOCUMENT_CODEC);
+        return mongoTemplate.getConverter().read(Order.class, document);
+    }
+}
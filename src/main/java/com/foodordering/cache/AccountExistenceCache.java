@@ -0,0 +1,135 @@
+package com.foodordering.cache;
+
+import com.foodordering.model.abstraction.BaseEntity;
+import com.foodordering.repository.AccountRepository;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Answers "is this an active account?" for order validation without a Mongo round trip
+ * in steady state. Known active accounts live in a bounded LRU; other ids (unknown,
+ * deleted or deactivated) are remembered for a short time so a burst of bad ids does
+ * not hammer the accounts collection. AccountServiceImpl invalidates entries whenever
+ * an account is updated, deleted or restored.
+ * <p>
+ * Every invalidation bumps a generation. A lookup that raced with one may have read
+ * the old state, so its result is dropped again instead of being kept indefinitely.
+ */
+@Component
+public class AccountExistenceCache implements CollectionChangeListener {
+
+    @Autowired
+    private AccountRepository accountRepository;
+
+    @Value("${cache.account-existence.max-size:100000}")
+    private int maxSize;
+
+    @Value("${cache.account-existence.negative-max-size:10000}")
+    private int negativeMaxSize;
+
+    @Value("${cache.account-existence.negative-ttl-seconds:30}")
+    private long negativeTtlSeconds;
+
+    private ExpiringLruCache<String, Boolean> knownAccounts;
+    private ExpiringLruCache<String, Boolean> missingAccounts;
+    private final AtomicLong generation = new AtomicLong();
+
+    @PostConstruct
+    void init() {
+        knownAccounts = new ExpiringLruCache<>(maxSize, Duration.ZERO);
+        missingAccounts = new ExpiringLruCache<>(negativeMaxSize, Duration.ofSeconds(negativeTtlSeconds));
+    }
+
+    public boolean isActive(String accountId) {
+        if (accountId == null) {
+            return false;
+        }
+        if (knownAccounts.containsKey(accountId)) {
+            return true;
+        }
+        if (missingAccounts.containsKey(accountId)) {
+            return false;
+        }
+        long lookupGeneration = generation.get();
+        boolean active = accountRepository.existsActiveById(accountId);
+        remember(accountId, active, lookupGeneration);
+        return active;
+    }
+
+    /**
+     * Returns the subset of ids that are active accounts, resolving cache misses with a single $in query.
+     */
+    public Set<String> findActive(Collection<String> accountIds) {
+        Set<String> existing = new HashSet<>();
+        Set<String> unresolved = new HashSet<>();
+        for (String accountId : accountIds) {
+            if (knownAccounts.containsKey(accountId)) {
+                existing.add(accountId);
+            } else if (!missingAccounts.containsKey(accountId)) {
+                unresolved.add(accountId);
+            }
+        }
+
+        if (!unresolved.isEmpty()) {
+            long lookupGeneration = generation.get();
+            Set<String> found = accountRepository.findActiveByIdIn(unresolved).stream()
+                    .map(BaseEntity::getId)
+                    .collect(Collectors.toSet());
+            for (String accountId : unresolved) {
+                remember(accountId, found.contains(accountId), lookupGeneration);
+            }
+            existing.addAll(found);
+        }
+        return existing;
+    }
+
+    public void markActive(String accountId) {
+        missingAccounts.invalidate(accountId);
+        knownAccounts.put(accountId, Boolean.TRUE);
+    }
+
+    public void invalidate(String accountId) {
+        generation.incrementAndGet();
+        knownAccounts.invalidate(accountId);
+        missingAccounts.invalidate(accountId);
+    }
+
+    public void invalidateAll() {
+        generation.incrementAndGet();
+        knownAccounts.clear();
+        missingAccounts.clear();
+    }
+
+    @Override
+    public Set<String> getWatchedCollections() {
+        return Set.of("accounts");
+    }
+
+    @Override
+    public void onDocumentChanged(String collection, String id) {
+        invalidate(id);
+    }
+
+    @Override
+    public void onCollectionReset(String collection) {
+        invalidateAll();
+    }
+
+    private void remember(String accountId, boolean active, long lookupGeneration) {
+        ExpiringLruCache<String, Boolean> target = active ? knownAccounts : missingAccounts;
+        target.put(accountId, Boolean.TRUE);
+        // An invalidation since the lookup began may have been missed by it; one after this put removes it anyway
+        if (generation.get() != lookupGeneration) {
+            target.invalidate(accountId);
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.foodordering.cache;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PostConstruct;
+import jakarta.servlet.http.HttpServletResponse;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.context.request.WebRequest;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HexFormat;
+import java.util.Locale;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Caches the serialized bodies of catalog endpoints (menu items, categories) as
+ * ready-to-send UTF-8 and gzip byte arrays, so the hot GETs skip both the queries
+ * and Jackson. Entries are tagged with the catalog version, which menu item and
+ * category writes bump. Each body carries a strong ETag derived from its bytes,
+ * so unchanged catalogs are answered with 304 Not Modified. At most
+ * cache.catalog.max-entries bodies are kept, least recently used first out.
+ */
+@Component
+public class CatalogResponseCache implements CollectionChangeListener {
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${cache.catalog.max-entries:1000}")
+    private int maxEntries;
+
+    private final AtomicLong catalogVersion = new AtomicLong();
+    // LRU, since some keys carry a client-supplied id (category filters)
+    private ExpiringLruCache<String, CachedBody> bodies;
+
+    @PostConstruct
+    void init() {
+        bodies = new ExpiringLruCache<>(maxEntries, Duration.ZERO);
+    }
+
+    /**
+     * Marks every cached body as stale; called after any catalog write.
+     */
+    public void invalidate() {
+        catalogVersion.incrementAndGet();
+        bodies.clear();
+    }
+
+    @Override
+    public Set<String> getWatchedCollections() {
+        return Set.of("menu_items", "categories");
+    }
+
+    @Override
+    public void onDocumentChanged(String collection, String id) {
+        invalidate();
+    }
+
+    @Override
+    public void onCollectionReset(String collection) {
+        invalidate();
+    }
+
+    public long getCatalogVersion() {
+        return catalogVersion.get();
+    }
+
+    public CachedBody get(String key, Supplier<?> loader) {
+        long version = catalogVersion.get();
+        CachedBody body = bodies.get(key);
+        if (body != null && body.version == version) {
+            return body;
+        }
+        // Tagged with the version read before loading, so a concurrent write forces a rebuild
+        body = new CachedBody(version, serialize(loader.get()));
+        bodies.put(key, body);
+        return body;
+    }
+
+    /**
+     * Convenience for controllers: cached body as a response, or 304 when the client copy is current.
+     */
+    public ResponseEntity<byte[]> respond(String key, Supplier<?> loader, WebRequest webRequest) {
+        return get(key, loader).toResponse(webRequest);
+    }
+
+    private byte[] serialize(Object value) {
+        try {
+            return objectMapper.writeValueAsBytes(value);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not serialize catalog response: " + e.getMessage(), e);
+        }
+    }
+
+    public static final class CachedBody {
+        private final long version;
+        private final byte[] json;
+        private final byte[] gzip;
+        private final String etag;
+
+        private CachedBody(long version, byte[] json) {
+            this.version = version;
+            this.json = json;
+            this.gzip = gzip(json);
+            this.etag = digest(json);
+        }
+
+        public byte[] getJson() {
+            return json;
+        }
+
+        public byte[] getGzip() {
+            return gzip;
+        }
+
+        public String getEtag() {
+            return "\"" + etag + "\"";
+        }
+
+        public ResponseEntity<byte[]> toResponse(WebRequest webRequest) {
+            boolean useGzip = acceptsGzip(webRequest.getHeader(HttpHeaders.ACCEPT_ENCODING));
+            // checkNotModified writes the 304 itself, and caches need Vary on it too
+            if (webRequest instanceof NativeWebRequest nativeRequest) {
+                HttpServletResponse response = nativeRequest.getNativeResponse(HttpServletResponse.class);
+                if (response != null && !response.getHeaders(HttpHeaders.VARY).contains(HttpHeaders.ACCEPT_ENCODING)) {
+                    response.addHeader(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+                }
+            }
+            // Different bytes per encoding, so each gets its own strong validator
+            String representationTag = useGzip ? "\"" + etag + "-gz\"" : getEtag();
+            if (webRequest.checkNotModified(representationTag)) {
+                return null;
+            }
+
+            ResponseEntity.BodyBuilder builder = ResponseEntity.ok()
+                    .contentType(MediaType.APPLICATION_JSON)
+                    .header(HttpHeaders.VARY, HttpHeaders.ACCEPT_ENCODING);
+            if (useGzip) {
+                return builder.header(HttpHeaders.CONTENT_ENCODING, "gzip").body(gzip);
+            }
+            return builder.body(json);
+        }
+
+        /**
+         * Whether gzip (or x-gzip, or "*" when gzip is not listed) is accepted with a
+         * q-value above zero. A malformed q-value counts as zero.
+         */
+        static boolean acceptsGzip(String acceptEncoding) {
+            if (acceptEncoding == null) {
+                return false;
+            }
+            double gzip = -1;
+            double any = -1;
+            for (String element : acceptEncoding.split(",")) {
+                String[] parts = element.split(";");
+                String coding = parts[0].trim().toLowerCase(Locale.ROOT);
+                double q = 1;
+                for (int i = 1; i < parts.length; i++) {
+                    String parameter = parts[i].trim();
+                    if (parameter.regionMatches(true, 0, "q=", 0, 2)) {
+                        try {
+                            q = Double.parseDouble(parameter.substring(2).trim());
+                        } catch (NumberFormatException e) {
+                            q = 0;
+                        }
+                    }
+                }
+                if (coding.equals("gzip") || coding.equals("x-gzip")) {
+                    gzip = Math.max(gzip, q);
+                } else if (coding.equals("*")) {
+                    any = Math.max(any, q);
+                }
+            }
+            return gzip >= 0 ? gzip > 0 : any > 0;
+        }
+
+        private static byte[] gzip(byte[] data) {
+            ByteArrayOutputStream buffer = new ByteArrayOutputStream(Math.max(64, data.length / 4));
+            try (GZIPOutputStream out = new GZIPOutputStream(buffer)) {
+                out.write(data);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+            return buffer.toByteArray();
+        }
+
+        private static String digest(byte[] data) {
+            try {
+                byte[] hash = MessageDigest.getInstance("SHA-256").digest(data);
+                return HexFormat.of().formatHex(Arrays.copyOf(hash, 16));
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException(e);
+            }
+        }
+    }
+}
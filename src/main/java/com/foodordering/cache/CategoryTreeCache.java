@@ -0,0 +1,156 @@
+package com.foodordering.cache;
+
+import com.foodordering.model.entity.Category;
+import com.foodordering.repository.CategoryRepository;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * In-memory copy of the category hierarchy: id lookup, parent -> children adjacency
+ * and the materialized ancestor path of every category. The whole tree is rebuilt
+ * from one findAll() after any category write, which is cheap for a catalog-sized
+ * collection and keeps the snapshot immutable for readers.
+ */
+@Component
+public class CategoryTreeCache implements CollectionChangeListener {
+
+    @Autowired
+    private CategoryRepository categoryRepository;
+
+    private final AtomicLong treeVersion = new AtomicLong();
+    private volatile Snapshot snapshot;
+
+    public void invalidate() {
+        treeVersion.incrementAndGet();
+        snapshot = null;
+    }
+
+    @Override
+    public Set<String> getWatchedCollections() {
+        return Set.of("categories");
+    }
+
+    @Override
+    public void onDocumentChanged(String collection, String id) {
+        invalidate();
+    }
+
+    @Override
+    public void onCollectionReset(String collection) {
+        invalidate();
+    }
+
+    public Category get(String id) {
+        return tree().byId.get(id);
+    }
+
+    public List<Category> roots() {
+        return tree().childrenOf(null);
+    }
+
+    public List<Category> children(String parentId) {
+        return tree().childrenOf(parentId);
+    }
+
+    /**
+     * Ids of the category and all its descendants, parents before children.
+     */
+    public Set<String> subtreeIds(String id) {
+        Snapshot tree = tree();
+        Set<String> ids = new LinkedHashSet<>();
+        Deque<String> pending = new ArrayDeque<>();
+        pending.add(id);
+        while (!pending.isEmpty()) {
+            String current = pending.poll();
+            if (ids.add(current)) {
+                for (Category child : tree.childrenOf(current)) {
+                    pending.add(child.getId());
+                }
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Ancestor ids from the root down to the direct parent.
+     */
+    public List<String> ancestorIds(String id) {
+        return tree().ancestors.getOrDefault(id, Collections.emptyList());
+    }
+
+    /**
+     * True when making newParentId the parent of id would create a cycle.
+     */
+    public boolean wouldCreateCycle(String id, String newParentId) {
+        if (newParentId == null) {
+            return false;
+        }
+        return id.equals(newParentId) || ancestorIds(newParentId).contains(id);
+    }
+
+    private Snapshot tree() {
+        Snapshot current = snapshot;
+        if (current == null || current.version != treeVersion.get()) {
+            synchronized (this) {
+                current = snapshot;
+                if (current == null || current.version != treeVersion.get()) {
+                    // Tagged with the version read before loading, so a write during the rebuild forces another
+                    long version = treeVersion.get();
+                    current = new Snapshot(version, categoryRepository.findAll());
+                    snapshot = current;
+                }
+            }
+        }
+        return current;
+    }
+
+    private static final class Snapshot {
+        private final long version;
+        private final Map<String, Category> byId = new HashMap<>();
+        private final Map<String, List<Category>> children = new HashMap<>();
+        private final Map<String, List<String>> ancestors = new HashMap<>();
+
+        private Snapshot(long version, List<Category> categories) {
+            this.version = version;
+            for (Category category : categories) {
+                byId.put(category.getId(), category);
+                children.computeIfAbsent(category.getParentId(), parent -> new ArrayList<>()).add(category);
+            }
+            children.values().forEach(list -> list.sort(Comparator.comparing(Category::getName,
+                    Comparator.nullsLast(Comparator.naturalOrder()))));
+            for (Category category : categories) {
+                ancestors.put(category.getId(), pathTo(category));
+            }
+        }
+
+        private List<String> pathTo(Category category) {
+            List<String> path = new ArrayList<>();
+            Set<String> seen = new LinkedHashSet<>();
+            seen.add(category.getId());
+            String parentId = category.getParentId();
+            // Stop at missing parents and at cycles already present in stored data
+            while (parentId != null && seen.add(parentId)) {
+                path.add(0, parentId);
+                Category parent = byId.get(parentId);
+                parentId = parent != null ? parent.getParentId() : null;
+            }
+            return Collections.unmodifiableList(path);
+        }
+
+        private List<Category> childrenOf(String parentId) {
+            return children.getOrDefault(parentId, Collections.emptyList());
+        }
+    }
+}
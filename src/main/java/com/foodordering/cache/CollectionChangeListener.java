@@ -0,0 +1,27 @@
+package com.foodordering.cache;
+
+import java.util.Set;
+
+/**
+ * Implemented by in-process caches that must follow writes made by other API nodes.
+ * CollectionChangeWatcher calls these from its own threads, so implementations must
+ * be thread-safe. Notifications may repeat and include this node's own writes.
+ */
+public interface CollectionChangeListener {
+
+    /**
+     * Mongo collection names this cache derives from.
+     */
+    Set<String> getWatchedCollections();
+
+    /**
+     * A document was inserted, updated, replaced or deleted.
+     */
+    void onDocumentChanged(String collection, String id);
+
+    /**
+     * Changes may have been missed (collection dropped, stream history lost, deletes
+     * polling could not attribute to an id); drop everything derived from the collection.
+     */
+    void onCollectionReset(String collection);
+}
@@ -0,0 +1,440 @@
+package com.foodordering.cache;
+
+import com.mongodb.MongoCommandException;
+import com.mongodb.MongoException;
+import com.mongodb.client.ChangeStreamIterable;
+import com.mongodb.client.MongoChangeStreamCursor;
+import com.mongodb.client.model.changestream.ChangeStreamDocument;
+import com.mongodb.client.model.changestream.OperationType;
+import jakarta.annotation.PreDestroy;
+import org.bson.BsonDocument;
+import org.bson.BsonValue;
+import org.bson.Document;
+import org.bson.types.ObjectId;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Fans out writes made by any API node to the local {@link CollectionChangeListener}s.
+ * <p>
+ * In change-stream mode each watched collection gets a daemon thread tailing its
+ * change stream. The resume token is persisted per node in cache_resume_tokens,
+ * so a restart continues where it left off. A standalone Mongo (or a local
+ * stand-in) has no change streams. There the watcher polls modified_at instead.
+ * Hard deletes leave nothing to poll, so polling also tracks them separately. For
+ * a collection of up to cache.invalidation.id-scan-max-documents documents it
+ * keeps the set of ids and reports each id that disappeared as a changed
+ * document. Larger collections are reset when their document count falls and
+ * also every cache.invalidation.polling-reset-ms, since an insert can hide a
+ * delete from the count.
+ * <p>
+ * Modes (cache.invalidation.mode): auto (change streams, falling back to polling
+ * when unsupported), change-stream, polling, none.
+ */
+@Component
+public class CollectionChangeWatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(CollectionChangeWatcher.class);
+
+    private static final String TOKEN_COLLECTION = "cache_resume_tokens";
+    private static final int CHANGE_STREAM_NOT_SUPPORTED = 40573;
+    private static final int CHANGE_STREAM_HISTORY_LOST = 286;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired(required = false)
+    private List<CollectionChangeListener> listeners = List.of();
+
+    @Value("${cache.invalidation.mode:auto}")
+    private String mode;
+
+    @Value("${cache.invalidation.node-id:${HOSTNAME:local}}")
+    private String nodeId;
+
+    @Value("${cache.invalidation.poll-interval-ms:2000}")
+    private long pollIntervalMs;
+
+    @Value("${cache.invalidation.retry-delay-ms:5000}")
+    private long retryDelayMs;
+
+    @Value("${cache.invalidation.id-scan-max-documents:10000}")
+    private long idScanMaxDocuments;
+
+    @Value("${cache.invalidation.polling-reset-ms:600000}")
+    private long pollingResetMs;
+
+    private final Map<String, List<CollectionChangeListener>> listenersByCollection = new HashMap<>();
+    private final Map<String, PollState> pollStates = new HashMap<>();
+    private final List<MongoChangeStreamCursor<?>> openCursors = new ArrayList<>();
+
+    private volatile boolean running;
+    private ScheduledExecutorService poller;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void start() {
+        String selectedMode = mode.trim().toLowerCase(Locale.ROOT);
+        if ("none".equals(selectedMode) || listeners.isEmpty()) {
+            return;
+        }
+        for (CollectionChangeListener listener : listeners) {
+            for (String collection : listener.getWatchedCollections()) {
+                listenersByCollection.computeIfAbsent(collection, c -> new ArrayList<>()).add(listener);
+            }
+        }
+
+        running = true;
+        boolean changeStreams = !"polling".equals(selectedMode)
+                && ("change-stream".equals(selectedMode) || changeStreamsSupported());
+        if (changeStreams) {
+            listenersByCollection.keySet().forEach(this::startChangeStream);
+            log.info("Cache invalidation following change streams on {}", listenersByCollection.keySet());
+        } else {
+            startPolling();
+            log.info("Cache invalidation polling modified_at on {} every {} ms",
+                    listenersByCollection.keySet(), pollIntervalMs);
+        }
+    }
+
+    @PreDestroy
+    void stop() {
+        running = false;
+        if (poller != null) {
+            poller.shutdownNow();
+        }
+        synchronized (openCursors) {
+            openCursors.forEach(cursor -> {
+                try {
+                    cursor.close();
+                } catch (RuntimeException ignored) {
+                    // Already closed by the watching thread
+                }
+            });
+            openCursors.clear();
+        }
+    }
+
+    // --- Change streams ---
+
+    private boolean changeStreamsSupported() {
+        String collection = listenersByCollection.keySet().iterator().next();
+        try {
+            // Opening the cursor is the test; standalone servers reject it
+            mongoTemplate.getCollection(collection)
+                    .watch().maxAwaitTime(1, TimeUnit.MILLISECONDS).cursor().close();
+            return true;
+        } catch (MongoCommandException e) {
+            if (e.getErrorCode() != CHANGE_STREAM_NOT_SUPPORTED) {
+                log.warn("Change streams unavailable ({}), falling back to polling", e.getErrorMessage());
+            }
+            return false;
+        } catch (MongoException e) {
+            log.warn("Change streams unavailable ({}), falling back to polling", e.getMessage());
+            return false;
+        }
+    }
+
+    private void startChangeStream(String collection) {
+        Thread thread = new Thread(() -> watch(collection), "change-stream-" + collection);
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    private void watch(String collection) {
+        while (running) {
+            BsonDocument resumeToken = loadResumeToken(collection);
+            MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = null;
+            try {
+                cursor = openCursor(collection, resumeToken);
+                follow(collection, cursor, resumeToken);
+            } catch (MongoCommandException e) {
+                if (e.getErrorCode() == CHANGE_STREAM_HISTORY_LOST) {
+                    log.warn("Change stream history lost for {}, resetting caches", collection);
+                    deleteResumeToken(collection);
+                    reset(collection);
+                    continue;
+                }
+                retryAfterFailure(collection, e);
+            } catch (MongoException | IllegalStateException e) {
+                if (running) {
+                    retryAfterFailure(collection, e);
+                }
+            } finally {
+                if (cursor != null) {
+                    untrack(cursor);
+                }
+            }
+        }
+    }
+
+    private MongoChangeStreamCursor<ChangeStreamDocument<Document>> openCursor(String collection, BsonDocument resumeToken) {
+        ChangeStreamIterable<Document> stream = mongoTemplate.getCollection(collection).watch().maxAwaitTime(1, TimeUnit.SECONDS);
+        if (resumeToken != null) {
+            stream = stream.resumeAfter(resumeToken);
+        }
+        MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor = stream.cursor();
+        synchronized (openCursors) {
+            openCursors.add(cursor);
+        }
+        return cursor;
+    }
+
+    private void follow(String collection, MongoChangeStreamCursor<ChangeStreamDocument<Document>> cursor,
+                        BsonDocument savedToken) {
+        BsonDocument lastSaved = savedToken;
+        while (running) {
+            ChangeStreamDocument<Document> change = cursor.tryNext();
+            if (change != null) {
+                if (!dispatch(collection, change)) {
+                    // drop / rename / invalidate end the stream; start over from scratch
+                    deleteResumeToken(collection);
+                    return;
+                }
+                continue;
+            }
+            // Idle: persist the position once the burst has been handled
+            BsonDocument token = cursor.getResumeToken();
+            if (token != null && !token.equals(lastSaved)) {
+                saveResumeToken(collection, token);
+                lastSaved = token;
+            }
+        }
+    }
+
+    private boolean dispatch(String collection, ChangeStreamDocument<Document> change) {
+        OperationType type = change.getOperationType();
+        switch (type) {
+            case INSERT, UPDATE, REPLACE, DELETE -> {
+                String id = idOf(change.getDocumentKey());
+                if (id != null) {
+                    documentChanged(collection, id);
+                } else {
+                    reset(collection);
+                }
+                return true;
+            }
+            case DROP, RENAME, DROP_DATABASE, INVALIDATE -> {
+                reset(collection);
+                return false;
+            }
+            default -> {
+                return true;
+            }
+        }
+    }
+
+    private String idOf(BsonDocument documentKey) {
+        BsonValue id = documentKey != null ? documentKey.get("_id") : null;
+        if (id == null) {
+            return null;
+        }
+        if (id.isObjectId()) {
+            return id.asObjectId().getValue().toHexString();
+        }
+        return id.isString() ? id.asString().getValue() : null;
+    }
+
+    private void retryAfterFailure(String collection, Exception e) {
+        log.warn("Change stream on {} failed ({}), retrying in {} ms", collection, e.getMessage(), retryDelayMs);
+        try {
+            Thread.sleep(retryDelayMs);
+        } catch (InterruptedException interrupted) {
+            Thread.currentThread().interrupt();
+            running = false;
+        }
+    }
+
+    private void untrack(MongoChangeStreamCursor<?> cursor) {
+        synchronized (openCursors) {
+            openCursors.remove(cursor);
+        }
+        try {
+            cursor.close();
+        } catch (RuntimeException ignored) {
+            // Connection already gone
+        }
+    }
+
+    private String tokenId(String collection) {
+        return nodeId + ":" + collection;
+    }
+
+    private BsonDocument loadResumeToken(String collection) {
+        try {
+            Document stored = mongoTemplate.findById(tokenId(collection), Document.class, TOKEN_COLLECTION);
+            Object token = stored != null ? stored.get("token") : null;
+            return token instanceof Document document ? document.toBsonDocument() : null;
+        } catch (RuntimeException e) {
+            log.warn("Could not load resume token for {}: {}", collection, e.getMessage());
+            return null;
+        }
+    }
+
+    private void saveResumeToken(String collection, BsonDocument token) {
+        try {
+            mongoTemplate.upsert(query(where("_id").is(tokenId(collection))),
+                    new Update().set("token", token).set("updated_at", Instant.now()),
+                    TOKEN_COLLECTION);
+        } catch (RuntimeException e) {
+            log.warn("Could not save resume token for {}: {}", collection, e.getMessage());
+        }
+    }
+
+    private void deleteResumeToken(String collection) {
+        try {
+            mongoTemplate.remove(query(where("_id").is(tokenId(collection))), TOKEN_COLLECTION);
+        } catch (RuntimeException e) {
+            log.warn("Could not delete resume token for {}: {}", collection, e.getMessage());
+        }
+    }
+
+    // --- Polling fallback ---
+
+    private void startPolling() {
+        Instant now = Instant.now();
+        for (String collection : listenersByCollection.keySet()) {
+            long count = count(collection);
+            Set<String> ids = count <= idScanMaxDocuments ? ids(collection) : null;
+            pollStates.put(collection, new PollState(now, count, ids, now.plusMillis(pollingResetMs)));
+        }
+        poller = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "cache-invalidation-poller");
+            thread.setDaemon(true);
+            return thread;
+        });
+        poller.scheduleWithFixedDelay(this::pollAll, pollIntervalMs, pollIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    private void pollAll() {
+        pollStates.forEach((collection, state) -> {
+            try {
+                poll(collection, state);
+            } catch (RuntimeException e) {
+                log.warn("Polling {} for changes failed: {}", collection, e.getMessage());
+            }
+        });
+    }
+
+    private void poll(String collection, PollState state) {
+        // Look back one interval so clock skew between nodes does not hide writes
+        Instant since = state.lastSeen.minus(Duration.ofMillis(pollIntervalMs));
+        Query changed = query(where("modified_at").gt(Date.from(since)))
+                .with(Sort.by(Sort.Direction.ASC, "modified_at"));
+        changed.fields().include("_id").include("modified_at");
+
+        Instant newest = state.lastSeen;
+        for (Document document : mongoTemplate.find(changed, Document.class, collection)) {
+            documentChanged(collection, idOf(document));
+            if (document.get("modified_at") instanceof Date modifiedAt && modifiedAt.toInstant().isAfter(newest)) {
+                newest = modifiedAt.toInstant();
+            }
+        }
+        state.lastSeen = newest;
+
+        long count = count(collection);
+        if (count <= idScanMaxDocuments) {
+            Set<String> ids = ids(collection);
+            if (state.ids != null) {
+                // Listeners re-read the id, find nothing and drop it
+                for (String id : state.ids) {
+                    if (!ids.contains(id)) {
+                        documentChanged(collection, id);
+                    }
+                }
+            } else if (count < state.count) {
+                // Just shrank below the scan limit; deletes since the last poll are unknown
+                reset(collection);
+            }
+            state.ids = ids;
+        } else {
+            state.ids = null;
+            Instant now = Instant.now();
+            if (count < state.count || !now.isBefore(state.nextReset)) {
+                reset(collection);
+                state.nextReset = now.plusMillis(pollingResetMs);
+            }
+        }
+        state.count = count;
+    }
+
+    private long count(String collection) {
+        return mongoTemplate.getCollection(collection).estimatedDocumentCount();
+    }
+
+    private Set<String> ids(String collection) {
+        Query all = new Query();
+        all.fields().include("_id");
+        Set<String> ids = new HashSet<>();
+        for (Document document : mongoTemplate.find(all, Document.class, collection)) {
+            ids.add(idOf(document));
+        }
+        return ids;
+    }
+
+    private static String idOf(Document document) {
+        Object id = document.get("_id");
+        return id instanceof ObjectId objectId ? objectId.toHexString() : String.valueOf(id);
+    }
+
+    private void documentChanged(String collection, String id) {
+        for (CollectionChangeListener listener : listenersByCollection.getOrDefault(collection, List.of())) {
+            try {
+                listener.onDocumentChanged(collection, id);
+            } catch (RuntimeException e) {
+                log.warn("{} failed to handle change of {}/{}: {}",
+                        listener.getClass().getSimpleName(), collection, id, e.getMessage());
+            }
+        }
+    }
+
+    private void reset(String collection) {
+        for (CollectionChangeListener listener : listenersByCollection.getOrDefault(collection, List.of())) {
+            try {
+                listener.onCollectionReset(collection);
+            } catch (RuntimeException e) {
+                log.warn("{} failed to reset for {}: {}",
+                        listener.getClass().getSimpleName(), collection, e.getMessage());
+            }
+        }
+    }
+
+    private static final class PollState {
+        private Instant lastSeen;
+        private long count;
+        private Set<String> ids; // null while the collection is too large to scan
+        private Instant nextReset;
+
+        private PollState(Instant lastSeen, long count, Set<String> ids, Instant nextReset) {
+            this.lastSeen = lastSeen;
+            this.count = count;
+            this.ids = ids;
+            this.nextReset = nextReset;
+        }
+    }
+}
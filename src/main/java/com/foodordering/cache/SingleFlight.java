@@ -0,0 +1,106 @@
+package com.foodordering.cache;
+
+import org.springframework.stereotype.Component;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+/**
+ * Request coalescing for hot reads. While a load for a key is running, identical
+ * calls wait for it and share its result (or its exception) instead of issuing
+ * the same query again. Nothing is kept once the load finishes. That keeps the
+ * layer safe in front of data that changes, and any caching stays with the
+ * caller.
+ * <p>
+ * Keys are scoped by group (e.g. "menu-items"), and per-group counters show how
+ * many calls were served by another caller's load.
+ */
+@Component
+public class SingleFlight {
+
+    private final Map<String, CompletableFuture<Object>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Counters> counters = new ConcurrentHashMap<>();
+
+    @SuppressWarnings("unchecked")
+    public <T> T execute(String group, String key, Supplier<T> loader) {
+        Counters groupCounters = counters.computeIfAbsent(group, g -> new Counters());
+        groupCounters.calls.increment();
+
+        String flightKey = group + '\u0000' + key;
+        CompletableFuture<Object> flight = new CompletableFuture<>();
+        CompletableFuture<Object> existing = inFlight.putIfAbsent(flightKey, flight);
+        if (existing != null) {
+            groupCounters.coalesced.increment();
+            return (T) await(existing);
+        }
+
+        groupCounters.executions.increment();
+        try {
+            T result = loader.get();
+            flight.complete(result);
+            return result;
+        } catch (RuntimeException | Error e) {
+            flight.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(flightKey, flight);
+        }
+    }
+
+    public Map<String, Stats> getStats() {
+        Map<String, Stats> stats = new TreeMap<>();
+        counters.forEach((group, groupCounters) -> stats.put(group, new Stats(
+                groupCounters.calls.sum(), groupCounters.executions.sum(), groupCounters.coalesced.sum())));
+        return stats;
+    }
+
+    private Object await(CompletableFuture<Object> flight) {
+        try {
+            return flight.join();
+        } catch (CompletionException e) {
+            // Rethrow the leader's exception unchanged so error handling sees the same type
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            if (e.getCause() instanceof Error error) {
+                throw error;
+            }
+            throw e;
+        }
+    }
+
+    private static final class Counters {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder executions = new LongAdder();
+        private final LongAdder coalesced = new LongAdder();
+    }
+
+    public static class Stats {
+        private final long calls;
+        private final long executions;
+        private final long coalesced;
+
+        public Stats(long calls, long executions, long coalesced) {
+            this.calls = calls;
+            this.executions = executions;
+            this.coalesced = coalesced;
+        }
+
+        public long getCalls() {
+            return calls;
+        }
+
+        public long getExecutions() {
+            return executions;
+        }
+
+        public long getCoalesced() {
+            return coalesced;
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package com.foodordering.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.ZoneId;
+
+/**
+ * The restaurant's time zone (analytics.zone-id). Days, hours and months in the
+ * dashboard, the analytics stores and the archive rollups are all bucketed in it,
+ * whatever time zone the server runs in. Blank falls back to the JVM default.
+ */
+@Configuration
+public class AnalyticsTimeZoneConfig {
+
+    @Bean
+    public ZoneId analyticsZoneId(@Value("${analytics.zone-id:}") String zoneId) {
+        return zoneId.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zoneId);
+    }
+}
@@ -0,0 +1,99 @@
+package com.foodordering.config;
+
+import com.foodordering.model.entity.MenuItem;
+import com.foodordering.model.entity.Order;
+import com.foodordering.model.entity.OrderMonthlyRollup;
+import com.foodordering.model.entity.Payment;
+import com.foodordering.model.value.Money;
+import jakarta.annotation.PostConstruct;
+import org.bson.Document;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+/**
+ * Rewrites amounts stored as doubles in major units into the {@link Money} form
+ * ({amount: minor units, currency}) with pipeline updates, before the web server
+ * starts taking requests. Only numeric values are touched, so running it again
+ * is a no-op. Failures are logged; legacy values are still readable through
+ * {@link MongoConversionsConfig}.
+ */
+@Component
+public class MoneyMigration {
+
+    private static final Logger log = LoggerFactory.getLogger(MoneyMigration.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Value("${money.currency:VND}")
+    private String currency;
+
+    @PostConstruct
+    void migrate() {
+        migrateScalar(MenuItem.class, "price");
+        migrateScalar(Payment.class, "amount");
+
+        // Order lines are rewritten inside the array with $map
+        Document orderItems = new Document("$map", new Document("input", new Document("$ifNull", List.of("$order_items", List.of())))
+                .append("as", "item")
+                .append("in", new Document("$mergeObjects", List.of("$$item", new Document()
+                        .append("price", toMoney("$$item.price"))
+                        .append("subtotal", toMoney("$$item.subtotal"))))));
+        migrate(Order.class,
+                new Document("$or", List.of(
+                        isNumber("total_amount"), isNumber("order_items.price"), isNumber("order_items.subtotal"))),
+                new Document("total_amount", toMoney("$total_amount")).append("order_items", orderItems));
+
+        // Rollup items are a map keyed by menu item id; both were written together, so the total is the marker
+        Document rollupItems = new Document("$arrayToObject", new Document("$map", new Document()
+                .append("input", new Document("$objectToArray", new Document("$ifNull", List.of("$items", new Document()))))
+                .append("as", "entry")
+                .append("in", new Document("k", "$$entry.k")
+                        .append("v", new Document("$mergeObjects", List.of("$$entry.v",
+                                new Document("revenue", toMoney("$$entry.v.revenue"))))))));
+        migrate(OrderMonthlyRollup.class, isNumber("total_revenue"),
+                new Document("total_revenue", toMoney("$total_revenue")).append("items", rollupItems));
+    }
+
+    private void migrateScalar(Class<?> entityClass, String field) {
+        migrate(entityClass, isNumber(field), new Document(field, toMoney("$" + field)));
+    }
+
+    private void migrate(Class<?> entityClass, Document filter, Document set) {
+        String collection = mongoTemplate.getCollectionName(entityClass);
+        try {
+            long modified = mongoTemplate.getCollection(collection)
+                    .updateMany(filter, List.of(new Document("$set", set)))
+                    .getModifiedCount();
+            if (modified > 0) {
+                log.info("Migrated amounts of {} documents in {} to {} minor units", modified, collection, currency);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not migrate amounts in {}: {}", collection, e.getMessage());
+        }
+    }
+
+    private static Document isNumber(String field) {
+        return new Document(field, new Document("$type", "number"));
+    }
+
+    /**
+     * Expression turning a numeric major-unit amount into {amount, currency}; other values are kept.
+     */
+    private Document toMoney(String path) {
+        long scale = (long) Math.pow(10, Money.fractionDigits(currency));
+        // Half-up like Money.ofMajor; $round would round half to even
+        Document minorUnits = new Document("$toLong", new Document("$floor",
+                new Document("$add", List.of(new Document("$multiply", List.of(path, scale)), 0.5))));
+        return new Document("$cond", List.of(
+                new Document("$isNumber", path),
+                new Document("amount", minorUnits).append("currency", new Document("$literal", currency)),
+                path));
+    }
+}
@@ -0,0 +1,44 @@
+package com.foodordering.config;
+
+import com.foodordering.model.value.Money;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.convert.converter.Converter;
+import org.springframework.data.convert.ReadingConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Custom Mongo conversions.
+ * <p>
+ * Amounts used to be stored as plain doubles in major units. {@link MoneyMigration}
+ * rewrites them at start-up. This converter still reads the old form, which can
+ * appear in archived order payloads or in writes from a node that has not been
+ * upgraded yet.
+ */
+@Configuration
+public class MongoConversionsConfig {
+
+    @Bean
+    public MongoCustomConversions mongoCustomConversions(@Value("${money.currency:VND}") String currency) {
+        return new MongoCustomConversions(List.of(new LegacyAmountReadingConverter(currency)));
+    }
+
+    @ReadingConverter
+    static class LegacyAmountReadingConverter implements Converter<Double, Money> {
+
+        private final String currency;
+
+        LegacyAmountReadingConverter(String currency) {
+            this.currency = currency;
+        }
+
+        @Override
+        public Money convert(Double source) {
+            return Money.ofMajor(BigDecimal.valueOf(source), currency);
+        }
+    }
+}
@@ -0,0 +1,142 @@
+package com.foodordering.config;
+
+import com.foodordering.model.entity.Account;
+import com.foodordering.model.entity.ArchivedOrder;
+import com.foodordering.model.entity.Category;
+import com.foodordering.model.entity.IdempotencyRecord;
+import com.foodordering.model.entity.MenuItem;
+import com.foodordering.model.entity.Order;
+import com.foodordering.model.entity.Payment;
+import com.foodordering.model.entity.Role;
+import com.foodordering.repository.support.SoftDeleteMongoRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.aggregation.AggregationUpdate;
+import org.springframework.data.mongodb.core.aggregation.StringOperators;
+import org.springframework.data.mongodb.core.index.Index;
+import org.springframework.data.mongodb.core.index.PartialIndexFilter;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+/**
+ * Creates the indexes the services rely on once the application is up.
+ * Failures are logged rather than thrown so the API still starts when Mongo
+ * is briefly unavailable; indexes are created on the next start. The unique
+ * natural-key indexes are the exception: the services have no exists-checks
+ * left, so start-up fails when one of them cannot be built.
+ */
+@Component
+public class MongoIndexInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(MongoIndexInitializer.class);
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void ensureIndexes() {
+        // expires_at holds the absolute expiry, so the TTL offset is zero
+        ensureIndex(IdempotencyRecord.class, new Index()
+                .on("expires_at", Sort.Direction.ASC)
+                .named("expires_at_ttl")
+                .expire(0));
+
+        // Case-insensitive natural keys; the services rely on these instead of exists-checks
+        ensureUniqueKey(Account.class, "username", Account.USERNAME_INDEX);
+        ensureUniqueKey(Account.class, "email", Account.EMAIL_INDEX);
+        ensureUniqueKey(Category.class, "name", Category.NAME_INDEX);
+        ensureUniqueKey(Role.class, "name", Role.NAME_INDEX);
+
+        // Conditional GET probes: newest modified_at per collection and per filtered listing
+        for (Class<?> entityClass : List.of(Account.class, Category.class, MenuItem.class,
+                Order.class, Payment.class, Role.class)) {
+            ensureModifiedAtIndex(entityClass, null);
+        }
+        ensureModifiedAtIndex(Account.class, "active");
+        ensureModifiedAtIndex(Category.class, "parent_id");
+        ensureModifiedAtIndex(MenuItem.class, "category_id");
+        ensureModifiedAtIndex(Order.class, "account_id");
+        ensureModifiedAtIndex(Order.class, "status");
+        ensureModifiedAtIndex(Payment.class, "order_id");
+        ensureModifiedAtIndex(Payment.class, "status");
+
+        // Live-data filters: repository queries all carry is_deleted = false
+        ensureLiveIndex(Account.class, "active");
+        ensureLiveIndex(Category.class, "parent_id");
+        ensureLiveIndex(MenuItem.class, "available");
+        ensureLiveIndex(MenuItem.class, "category_id", "available");
+        ensureLiveIndex(Order.class, "account_id", "status");
+        ensureLiveIndex(Order.class, "status");
+        ensureLiveIndex(Payment.class, "order_id");
+        ensureLiveIndex(Payment.class, "status");
+
+        // Archive fall-through for account order history
+        ensureLiveIndex(ArchivedOrder.class, "account_id");
+    }
+
+    /**
+     * Partial index over live documents only, so soft-deleted rows are neither indexed nor scanned.
+     */
+    private void ensureLiveIndex(Class<?> entityClass, String... fields) {
+        Index index = new Index();
+        for (String field : fields) {
+            index.on(field, Sort.Direction.ASC);
+        }
+        ensureIndex(entityClass, index
+                .named(String.join("_", fields) + "_live")
+                .partial(PartialIndexFilter.of(where(SoftDeleteMongoRepository.DELETED_FIELD).is(false))));
+    }
+
+    private void ensureModifiedAtIndex(Class<?> entityClass, String prefixField) {
+        Index index = new Index();
+        if (prefixField != null) {
+            index.on(prefixField, Sort.Direction.ASC);
+        }
+        ensureIndex(entityClass, index
+                .on("modified_at", Sort.Direction.DESC)
+                .named(prefixField != null ? prefixField + "_modified_at" : "modified_at"));
+    }
+
+    /**
+     * Backfills the normalized "<field>_key" copy for documents written before it existed,
+     * then creates a sparse unique index on it. Throws when either step fails, typically
+     * because existing documents share a key that has to be cleaned up by hand.
+     */
+    private void ensureUniqueKey(Class<?> entityClass, String field, String indexName) {
+        String keyField = field + "_key";
+        String collection = mongoTemplate.getCollectionName(entityClass);
+        try {
+            mongoTemplate.updateMulti(
+                    query(where(keyField).exists(false).and(field).exists(true)),
+                    AggregationUpdate.update().set(keyField).toValue(
+                            StringOperators.valueOf(StringOperators.valueOf(field).trim()).toLower()),
+                    entityClass);
+            mongoTemplate.indexOps(entityClass).createIndex(new Index()
+                    .on(keyField, Sort.Direction.ASC)
+                    .named(indexName)
+                    .unique()
+                    .sparse());
+        } catch (RuntimeException e) {
+            throw new IllegalStateException("Could not enforce unique " + field + " on " + collection
+                    + " (duplicate values must be resolved first): " + e.getMessage(), e);
+        }
+    }
+
+    private void ensureIndex(Class<?> entityClass, Index index) {
+        try {
+            mongoTemplate.indexOps(entityClass).createIndex(index);
+        } catch (RuntimeException e) {
+            log.warn("Could not create index {} on {}: {}", index.getIndexOptions().get("name"),
+                    mongoTemplate.getCollectionName(entityClass), e.getMessage());
+        }
+    }
+}
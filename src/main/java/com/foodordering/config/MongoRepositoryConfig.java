@@ -0,0 +1,15 @@
+package com.foodordering.config;
+
+import com.foodordering.repository.support.SoftDeleteMongoRepository;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.data.mongodb.repository.config.EnableMongoRepositories;
+
+/**
+ * Registers the soft-delete aware base class for every repository in the
+ * repository package.
+ */
+@Configuration
+@EnableMongoRepositories(basePackages = "com.foodordering.repository",
+        repositoryBaseClass = SoftDeleteMongoRepository.class)
+public class MongoRepositoryConfig {
+}
@@ -1,16 +1,22 @@
 package com.foodordering.controller;
 
+import com.foodordering.controller.support.ConditionalRequests;
 import com.foodordering.dto.request.AccountRequest;
 import com.foodordering.dto.response.AccountResponse;
+import com.foodordering.model.entity.Account;
 import com.foodordering.service.AccountService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @RestController
 @RequestMapping("/api/accounts")
 public class AccountController {
@@ -18,6 +24,9 @@ public class AccountController {
     @Autowired
     private AccountService accountService;
 
+    @Autowired
+    private ConditionalRequests conditionalRequests;
+
     @PostMapping
     public ResponseEntity<AccountResponse> create(@Valid @RequestBody AccountRequest request) {
         AccountResponse response = accountService.create(request);
@@ -25,7 +34,10 @@ public class AccountController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<AccountResponse> getById(@PathVariable String id) {
+    public ResponseEntity<AccountResponse> getById(@PathVariable String id, WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, Account.class, id)) {
+            return null;
+        }
         AccountResponse response = accountService.getById(id);
         return ResponseEntity.ok(response);
     }
@@ -43,13 +55,21 @@ public class AccountController {
     }
 
     @GetMapping
-    public ResponseEntity<List<AccountResponse>> getAll() {
-        List<AccountResponse> responses = accountService.getAll();
+    public ResponseEntity<List<AccountResponse>> getAll(
+            @RequestParam(defaultValue = "false") boolean includeDeleted,
+            WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, Account.class, new Criteria())) {
+            return null;
+        }
+        List<AccountResponse> responses = includeDeleted ? accountService.getAllIncludingDeleted() : accountService.getAll();
         return ResponseEntity.ok(responses);
     }
 
     @GetMapping("/active")
-    public ResponseEntity<List<AccountResponse>> getActiveAccounts() {
+    public ResponseEntity<List<AccountResponse>> getActiveAccounts(WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, Account.class, where("active").is(true))) {
+            return null;
+        }
         List<AccountResponse> responses = accountService.getActiveAccounts();
         return ResponseEntity.ok(responses);
     }
@@ -1,16 +1,23 @@
 package com.foodordering.controller;
 
+import com.foodordering.cache.CatalogResponseCache;
+import com.foodordering.controller.support.ConditionalRequests;
 import com.foodordering.dto.request.CategoryRequest;
 import com.foodordering.dto.response.CategoryResponse;
+import com.foodordering.dto.response.CategoryTreeResponse;
+import com.foodordering.model.entity.Category;
 import com.foodordering.service.CategoryService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @RestController
 @RequestMapping("/api/categories")
 public class CategoryController {
@@ -18,6 +25,12 @@ public class CategoryController {
     @Autowired
     private CategoryService categoryService;
 
+    @Autowired
+    private ConditionalRequests conditionalRequests;
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
     @PostMapping
     public ResponseEntity<CategoryResponse> create(@Valid @RequestBody CategoryRequest request) {
         CategoryResponse response = categoryService.create(request);
@@ -25,29 +38,53 @@ public class CategoryController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<CategoryResponse> getById(@PathVariable String id) {
+    public ResponseEntity<CategoryResponse> getById(@PathVariable String id, WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, Category.class, id)) {
+            return null;
+        }
         CategoryResponse response = categoryService.getById(id);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping
-    public ResponseEntity<List<CategoryResponse>> getAll() {
-        List<CategoryResponse> responses = categoryService.getAll();
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<byte[]> getAll(
+            @RequestParam(defaultValue = "false") boolean includeDeleted,
+            WebRequest webRequest) {
+        if (includeDeleted) {
+            return catalogResponseCache.respond("categories:including-deleted", categoryService::getAllIncludingDeleted, webRequest);
+        }
+        return catalogResponseCache.respond("categories", categoryService::getAll, webRequest);
     }
 
     @GetMapping("/root")
-    public ResponseEntity<List<CategoryResponse>> getRootCategories() {
+    public ResponseEntity<List<CategoryResponse>> getRootCategories(WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, Category.class, where("parent_id").is(null))) {
+            return null;
+        }
         List<CategoryResponse> responses = categoryService.getRootCategories();
         return ResponseEntity.ok(responses);
     }
 
     @GetMapping("/parent/{parentId}")
-    public ResponseEntity<List<CategoryResponse>> getCategoriesByParent(@PathVariable String parentId) {
+    public ResponseEntity<List<CategoryResponse>> getCategoriesByParent(@PathVariable String parentId, WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, Category.class, where("parent_id").is(parentId))) {
+            return null;
+        }
         List<CategoryResponse> responses = categoryService.getCategoriesByParent(parentId);
         return ResponseEntity.ok(responses);
     }
 
+    @GetMapping("/tree")
+    public ResponseEntity<byte[]> getTree(WebRequest webRequest) {
+        return catalogResponseCache.respond("categories:tree", categoryService::getTree, webRequest);
+    }
+
+    @GetMapping("/{id}/subtree")
+    public ResponseEntity<CategoryTreeResponse> getSubtree(@PathVariable String id) {
+        CategoryTreeResponse response = categoryService.getSubtree(id);
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<CategoryResponse> update(@PathVariable String id, @Valid @RequestBody CategoryRequest request) {
         CategoryResponse response = categoryService.update(id, request);
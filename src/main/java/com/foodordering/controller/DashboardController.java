@@ -1,12 +1,17 @@
 package com.foodordering.controller;
 
+import com.foodordering.analytics.MenuItemMetric;
 import com.foodordering.dto.response.DashboardResponse;
+import com.foodordering.dto.response.DemandHeatmapResponse;
+import com.foodordering.dto.response.TopMenuItemsResponse;
 import com.foodordering.service.DashboardService;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.List;
 
@@ -62,5 +67,41 @@ public class DashboardController {
         List<DashboardResponse.MenuItemOrderStats> response = dashboardService.getTopOrderedMenuItems(limit);
         return ResponseEntity.ok(response);
     }
+
+    /**
+     * Get approximate top N menu items for a date range, with error bounds
+     * @param from First day, inclusive (e.g., "2024-01-15"); all history if omitted
+     * @param to Last day, inclusive; all history if omitted
+     * @param limit Number of items to return (default: 10)
+     * @param by ORDERS, QUANTITY or REVENUE (default: ORDERS)
+     */
+    @GetMapping("/top-menu-items/approximate")
+    public ResponseEntity<TopMenuItemsResponse> getApproximateTopMenuItems(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") Integer limit,
+            @RequestParam(defaultValue = "ORDERS") MenuItemMetric by) {
+        TopMenuItemsResponse response = dashboardService.getApproximateTopMenuItems(from, to, limit, by);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Get day-of-week x hour-of-day demand, in the restaurant's time zone
+     * @param menuItemId Only this menu item (optional)
+     * @param categoryId Only this category (optional; not together with menuItemId)
+     * @param from Start, inclusive, truncated to the hour (e.g., "2024-01-01T00:00"); all history if omitted
+     * @param to End, exclusive; all history if omitted
+     * @param by ORDERS or QUANTITY (default: QUANTITY)
+     */
+    @GetMapping("/heatmap")
+    public ResponseEntity<DemandHeatmapResponse> getDemandHeatmap(
+            @RequestParam(required = false) String menuItemId,
+            @RequestParam(required = false) String categoryId,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) LocalDateTime to,
+            @RequestParam(defaultValue = "QUANTITY") MenuItemMetric by) {
+        DemandHeatmapResponse response = dashboardService.getDemandHeatmap(menuItemId, categoryId, from, to, by);
+        return ResponseEntity.ok(response);
+    }
 }
 
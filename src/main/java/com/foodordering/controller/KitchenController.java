@@ -0,0 +1,60 @@
+package com.foodordering.controller;
+
+import com.foodordering.dto.response.KitchenTicketResponse;
+import com.foodordering.dto.response.OrderResponse;
+import com.foodordering.service.KitchenService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/kitchen")
+public class KitchenController {
+
+    @Autowired
+    private KitchenService kitchenService;
+
+    /**
+     * Get the number of waiting tickets per station
+     */
+    @GetMapping("/stations")
+    public ResponseEntity<Map<String, Integer>> getStations() {
+        Map<String, Integer> stations = kitchenService.getStations();
+        return ResponseEntity.ok(stations);
+    }
+
+    /**
+     * Get the waiting tickets of a station, most urgent first
+     */
+    @GetMapping("/stations/{station}/queue")
+    public ResponseEntity<List<KitchenTicketResponse>> getQueue(
+            @PathVariable String station,
+            @RequestParam(required = false) Integer limit) {
+        List<KitchenTicketResponse> responses = kitchenService.getQueue(station, limit);
+        return ResponseEntity.ok(responses);
+    }
+
+    /**
+     * Claim the most urgent ticket of a station; the order moves to PREPARING
+     */
+    @PostMapping("/stations/{station}/claim")
+    public ResponseEntity<KitchenTicketResponse> claim(@PathVariable String station) {
+        KitchenTicketResponse response = kitchenService.claim(station);
+        if (response == null) {
+            return ResponseEntity.noContent().build();
+        }
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Mark a claimed order as prepared; the order moves to READY
+     */
+    @PostMapping("/orders/{orderId}/complete")
+    public ResponseEntity<OrderResponse> complete(@PathVariable String orderId) {
+        OrderResponse response = kitchenService.complete(orderId);
+        return ResponseEntity.ok(response);
+    }
+}
@@ -1,16 +1,24 @@
 package com.foodordering.controller;
 
+import com.foodordering.cache.CatalogResponseCache;
+import com.foodordering.controller.support.ConditionalRequests;
 import com.foodordering.dto.request.MenuItemRequest;
+import com.foodordering.dto.response.MenuItemFacetResponse;
 import com.foodordering.dto.response.MenuItemResponse;
+import com.foodordering.search.MenuFacetIndex;
+import com.foodordering.model.entity.MenuItem;
 import com.foodordering.service.MenuItemService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @RestController
 @RequestMapping("/api/menu-items")
 public class MenuItemController {
@@ -18,6 +26,12 @@ public class MenuItemController {
     @Autowired
     private MenuItemService menuItemService;
 
+    @Autowired
+    private ConditionalRequests conditionalRequests;
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
     @PostMapping
     public ResponseEntity<MenuItemResponse> create(@Valid @RequestBody MenuItemRequest request) {
         MenuItemResponse response = menuItemService.create(request);
@@ -25,32 +39,52 @@ public class MenuItemController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<MenuItemResponse> getById(@PathVariable String id) {
+    public ResponseEntity<MenuItemResponse> getById(@PathVariable String id, WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, MenuItem.class, id)) {
+            return null;
+        }
         MenuItemResponse response = menuItemService.getById(id);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping
-    public ResponseEntity<List<MenuItemResponse>> getAll() {
-        List<MenuItemResponse> responses = menuItemService.getAll();
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<byte[]> getAll(
+            @RequestParam(defaultValue = "false") boolean includeDeleted,
+            WebRequest webRequest) {
+        if (includeDeleted) {
+            return catalogResponseCache.respond("menu-items:including-deleted", menuItemService::getAllIncludingDeleted, webRequest);
+        }
+        return catalogResponseCache.respond("menu-items", menuItemService::getAll, webRequest);
     }
 
     @GetMapping("/available")
-    public ResponseEntity<List<MenuItemResponse>> getAvailableItems() {
-        List<MenuItemResponse> responses = menuItemService.getAvailableItems();
-        return ResponseEntity.ok(responses);
+    public ResponseEntity<byte[]> getAvailableItems(WebRequest webRequest) {
+        return catalogResponseCache.respond("menu-items:available", menuItemService::getAvailableItems, webRequest);
     }
 
     @GetMapping("/category/{categoryId}")
-    public ResponseEntity<List<MenuItemResponse>> getByCategory(@PathVariable String categoryId) {
+    public ResponseEntity<List<MenuItemResponse>> getByCategory(@PathVariable String categoryId, WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, MenuItem.class, where("category_id").is(categoryId))) {
+            return null;
+        }
         List<MenuItemResponse> responses = menuItemService.getByCategory(categoryId);
         return ResponseEntity.ok(responses);
     }
 
     @GetMapping("/category/{categoryId}/available")
-    public ResponseEntity<List<MenuItemResponse>> getByCategoryAndAvailable(@PathVariable String categoryId) {
-        List<MenuItemResponse> responses = menuItemService.getByCategoryAndAvailable(categoryId);
+    public ResponseEntity<byte[]> getByCategoryAndAvailable(@PathVariable String categoryId, WebRequest webRequest) {
+        return catalogResponseCache.respond("menu-items:available:category:" + categoryId,
+                () -> menuItemService.getByCategoryAndAvailable(categoryId), webRequest);
+    }
+
+    /**
+     * Menu items in a category and all of its descendant categories
+     */
+    @GetMapping("/category/{categoryId}/subtree")
+    public ResponseEntity<List<MenuItemResponse>> getByCategorySubtree(
+            @PathVariable String categoryId,
+            @RequestParam(defaultValue = "false") boolean availableOnly) {
+        List<MenuItemResponse> responses = menuItemService.getByCategorySubtree(categoryId, availableOnly);
         return ResponseEntity.ok(responses);
     }
 
@@ -60,6 +94,30 @@ public class MenuItemController {
         return ResponseEntity.ok(responses);
     }
 
+    @GetMapping("/autocomplete")
+    public ResponseEntity<List<String>> autocomplete(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") Integer limit) {
+        List<String> suggestions = menuItemService.autocomplete(prefix, limit);
+        return ResponseEntity.ok(suggestions);
+    }
+
+    /**
+     * Faceted browsing: filter by tags (match ALL or ANY), category and availability,
+     * with per-tag and per-category counts over the filtered items
+     */
+    @GetMapping("/facets")
+    public ResponseEntity<MenuItemFacetResponse> getFacets(
+            @RequestParam(required = false) List<String> tags,
+            @RequestParam(defaultValue = "ALL") MenuFacetIndex.TagMatch match,
+            @RequestParam(required = false) String categoryId,
+            @RequestParam(required = false) Boolean available,
+            @RequestParam(defaultValue = "0") Integer offset,
+            @RequestParam(defaultValue = "100") Integer limit) {
+        MenuItemFacetResponse response = menuItemService.getFacets(tags, match, categoryId, available, offset, limit);
+        return ResponseEntity.ok(response);
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<MenuItemResponse> update(@PathVariable String id, @Valid @RequestBody MenuItemRequest request) {
         MenuItemResponse response = menuItemService.update(id, request);
@@ -0,0 +1,24 @@
+package com.foodordering.controller;
+
+import com.foodordering.cache.SingleFlight;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.Map;
+
+@RestController
+@RequestMapping("/api/metrics")
+public class MetricsController {
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    /**
+     * Get request coalescing counters per group (calls, executed loads, coalesced calls)
+     */
+    @GetMapping("/single-flight")
+    public ResponseEntity<Map<String, SingleFlight.Stats>> getSingleFlightStats() {
+        return ResponseEntity.ok(singleFlight.getStats());
+    }
+}
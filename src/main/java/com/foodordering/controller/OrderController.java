@@ -1,17 +1,27 @@
 package com.foodordering.controller;
 
+import com.foodordering.controller.support.ConditionalRequests;
 import com.foodordering.dto.request.OrderRequest;
+import com.foodordering.dto.response.BulkOrderResponse;
 import com.foodordering.dto.response.OrderResponse;
 import com.foodordering.model.entity.Order;
+import com.foodordering.service.IdempotencyService;
 import com.foodordering.service.OrderService;
+import com.foodordering.service.OrderTrackingService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
 
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
 @RestController
 @RequestMapping("/api/orders")
 public class OrderController {
@@ -19,32 +29,74 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private ConditionalRequests conditionalRequests;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private OrderTrackingService orderTrackingService;
+
     @PostMapping
-    public ResponseEntity<OrderResponse> create(@Valid @RequestBody OrderRequest request) {
-        OrderResponse response = orderService.create(request);
+    public ResponseEntity<OrderResponse> create(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody OrderRequest request) {
+        OrderResponse response = idempotencyService.execute("orders", idempotencyKey, request,
+                OrderResponse.class, () -> orderService.create(request));
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
+    @PostMapping("/bulk")
+    public ResponseEntity<BulkOrderResponse> createBulk(@RequestBody List<OrderRequest> requests) {
+        BulkOrderResponse response = orderService.createBulk(requests);
+        return ResponseEntity.ok(response);
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<OrderResponse> getById(@PathVariable String id) {
+    public ResponseEntity<OrderResponse> getById(@PathVariable String id, WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, Order.class, id)) {
+            return null;
+        }
         OrderResponse response = orderService.getById(id);
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping(value = "/{id}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamOrderEvents(@PathVariable String id) {
+        return orderTrackingService.subscribeToOrder(id);
+    }
+
     @GetMapping
-    public ResponseEntity<List<OrderResponse>> getAll() {
-        List<OrderResponse> responses = orderService.getAll();
+    public ResponseEntity<List<OrderResponse>> getAll(
+            @RequestParam(defaultValue = "false") boolean includeDeleted,
+            WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, Order.class, new Criteria())) {
+            return null;
+        }
+        List<OrderResponse> responses = includeDeleted ? orderService.getAllIncludingDeleted() : orderService.getAll();
         return ResponseEntity.ok(responses);
     }
 
     @GetMapping("/account/{accountId}")
-    public ResponseEntity<List<OrderResponse>> getByAccount(@PathVariable String accountId) {
+    public ResponseEntity<List<OrderResponse>> getByAccount(@PathVariable String accountId, WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, Order.class, where("account_id").is(accountId))) {
+            return null;
+        }
         List<OrderResponse> responses = orderService.getByAccount(accountId);
         return ResponseEntity.ok(responses);
     }
 
+    @GetMapping(value = "/account/{accountId}/events", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public SseEmitter streamAccountEvents(@PathVariable String accountId) {
+        return orderTrackingService.subscribeToAccount(accountId);
+    }
+
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<OrderResponse>> getByStatus(@PathVariable Order.OrderStatus status) {
+    public ResponseEntity<List<OrderResponse>> getByStatus(@PathVariable Order.OrderStatus status, WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, Order.class, where("status").is(status.name()))) {
+            return null;
+        }
         List<OrderResponse> responses = orderService.getByStatus(status);
         return ResponseEntity.ok(responses);
     }
@@ -52,7 +104,12 @@ public class OrderController {
     @GetMapping("/account/{accountId}/status/{status}")
     public ResponseEntity<List<OrderResponse>> getByAccountAndStatus(
             @PathVariable String accountId,
-            @PathVariable Order.OrderStatus status) {
+            @PathVariable Order.OrderStatus status,
+            WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, Order.class,
+                where("account_id").is(accountId).and("status").is(status.name()))) {
+            return null;
+        }
         List<OrderResponse> responses = orderService.getByAccountAndStatus(accountId, status);
         return ResponseEntity.ok(responses);
     }
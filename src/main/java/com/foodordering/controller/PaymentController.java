@@ -1,16 +1,22 @@
 package com.foodordering.controller;
 
+import com.foodordering.controller.support.ConditionalRequests;
 import com.foodordering.dto.request.PaymentRequest;
 import com.foodordering.dto.response.PaymentResponse;
 import com.foodordering.model.entity.Payment;
+import com.foodordering.service.IdempotencyService;
 import com.foodordering.service.PaymentService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
 import java.util.Map;
 
 @RestController
@@ -20,32 +26,55 @@ public class PaymentController {
     @Autowired
     private PaymentService paymentService;
 
+    @Autowired
+    private ConditionalRequests conditionalRequests;
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
     @PostMapping
-    public ResponseEntity<PaymentResponse> create(@Valid @RequestBody PaymentRequest request) {
-        PaymentResponse response = paymentService.create(request);
+    public ResponseEntity<PaymentResponse> create(
+            @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+            @Valid @RequestBody PaymentRequest request) {
+        PaymentResponse response = idempotencyService.execute("payments", idempotencyKey, request,
+                PaymentResponse.class, () -> paymentService.create(request));
         return ResponseEntity.status(HttpStatus.CREATED).body(response);
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<PaymentResponse> getById(@PathVariable String id) {
+    public ResponseEntity<PaymentResponse> getById(@PathVariable String id, WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, Payment.class, id)) {
+            return null;
+        }
         PaymentResponse response = paymentService.getById(id);
         return ResponseEntity.ok(response);
     }
 
     @GetMapping
-    public ResponseEntity<List<PaymentResponse>> getAll() {
-        List<PaymentResponse> responses = paymentService.getAll();
+    public ResponseEntity<List<PaymentResponse>> getAll(
+            @RequestParam(defaultValue = "false") boolean includeDeleted,
+            WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, Payment.class, new Criteria())) {
+            return null;
+        }
+        List<PaymentResponse> responses = includeDeleted ? paymentService.getAllIncludingDeleted() : paymentService.getAll();
         return ResponseEntity.ok(responses);
     }
 
     @GetMapping("/order/{orderId}")
-    public ResponseEntity<List<PaymentResponse>> getByOrder(@PathVariable String orderId) {
+    public ResponseEntity<List<PaymentResponse>> getByOrder(@PathVariable String orderId, WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, Payment.class, where("order_id").is(orderId))) {
+            return null;
+        }
         List<PaymentResponse> responses = paymentService.getByOrder(orderId);
         return ResponseEntity.ok(responses);
     }
 
     @GetMapping("/status/{status}")
-    public ResponseEntity<List<PaymentResponse>> getByStatus(@PathVariable Payment.PaymentStatus status) {
+    public ResponseEntity<List<PaymentResponse>> getByStatus(@PathVariable Payment.PaymentStatus status, WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, Payment.class, where("status").is(status.name()))) {
+            return null;
+        }
         List<PaymentResponse> responses = paymentService.getByStatus(status);
         return ResponseEntity.ok(responses);
     }
@@ -1,13 +1,17 @@
 package com.foodordering.controller;
 
+import com.foodordering.controller.support.ConditionalRequests;
 import com.foodordering.dto.request.RoleRequest;
 import com.foodordering.dto.response.RoleResponse;
+import com.foodordering.model.entity.Role;
 import com.foodordering.service.RoleService;
 import jakarta.validation.Valid;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.mongodb.core.query.Criteria;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 
@@ -18,6 +22,9 @@ public class RoleController {
     @Autowired
     private RoleService roleService;
 
+    @Autowired
+    private ConditionalRequests conditionalRequests;
+
     @PostMapping
     public ResponseEntity<RoleResponse> create(@Valid @RequestBody RoleRequest request) {
         RoleResponse response = roleService.create(request);
@@ -25,7 +32,10 @@ public class RoleController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<RoleResponse> getById(@PathVariable String id) {
+    public ResponseEntity<RoleResponse> getById(@PathVariable String id, WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, Role.class, id)) {
+            return null;
+        }
         RoleResponse response = roleService.getById(id);
         return ResponseEntity.ok(response);
     }
@@ -37,8 +47,13 @@ public class RoleController {
     }
 
     @GetMapping
-    public ResponseEntity<List<RoleResponse>> getAll() {
-        List<RoleResponse> responses = roleService.getAll();
+    public ResponseEntity<List<RoleResponse>> getAll(
+            @RequestParam(defaultValue = "false") boolean includeDeleted,
+            WebRequest webRequest) {
+        if (conditionalRequests.notModified(webRequest, Role.class, new Criteria())) {
+            return null;
+        }
+        List<RoleResponse> responses = includeDeleted ? roleService.getAllIncludingDeleted() : roleService.getAll();
         return ResponseEntity.ok(responses);
     }
 
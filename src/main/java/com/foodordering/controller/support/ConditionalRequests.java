@@ -0,0 +1,66 @@
+package com.foodordering.controller.support;
+
+import com.foodordering.model.abstraction.BaseEntity;
+import org.bson.Document;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.stereotype.Component;
+import org.springframework.web.context.request.WebRequest;
+
+import java.util.Date;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Conditional GET support driven by the modified_at audit timestamp.
+ * <p>
+ * Controllers call {@code notModified(...)} before loading anything. The check
+ * runs a small projected probe: the modified_at of a single document, or the newest
+ * modified_at plus a count for a collection query. It sets the validators on the
+ * response and returns true when the client's copy is still current. The
+ * controller then returns null and Spring answers 304.
+ * <p>
+ * The count is part of the collection validator, so hard deletes and documents
+ * leaving the filter also change the ETag. Collections get no Last-Modified,
+ * since a date alone cannot reflect those changes. A probe criteria may be broader than
+ * the endpoint's real filter. That only costs some 304s; it never serves a stale
+ * body.
+ */
+@Component
+public class ConditionalRequests {
+
+    private static final String MODIFIED_AT = "modified_at";
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    public boolean notModified(WebRequest webRequest, Class<? extends BaseEntity> entityClass, String id) {
+        Query probe = new Query(where("_id").is(id));
+        probe.fields().include(MODIFIED_AT);
+        Document document = mongoTemplate.findOne(probe, Document.class, mongoTemplate.getCollectionName(entityClass));
+        if (document == null || !(document.get(MODIFIED_AT) instanceof Date modifiedAt)) {
+            // Unknown or never stamped: let the endpoint answer normally
+            return false;
+        }
+        long lastModified = modifiedAt.getTime();
+        return webRequest.checkNotModified("W/\"" + Long.toString(lastModified, 36) + "\"", lastModified);
+    }
+
+    public boolean notModified(WebRequest webRequest, Class<? extends BaseEntity> entityClass, Criteria criteria) {
+        String collection = mongoTemplate.getCollectionName(entityClass);
+
+        Query newest = new Query(criteria).with(Sort.by(Sort.Direction.DESC, MODIFIED_AT)).limit(1);
+        newest.fields().include(MODIFIED_AT);
+        Document document = mongoTemplate.findOne(newest, Document.class, collection);
+        long lastModified = document != null && document.get(MODIFIED_AT) instanceof Date modifiedAt
+                ? modifiedAt.getTime() : 0L;
+        long count = mongoTemplate.count(new Query(criteria), collection);
+
+        // ETag only: If-Modified-Since cannot see the count, so it would miss hard deletes
+        String etag = "W/\"" + Long.toString(count, 36) + "-" + Long.toString(lastModified, 36) + "\"";
+        return webRequest.checkNotModified(etag);
+    }
+}
@@ -1,5 +1,7 @@
 package com.foodordering.dto.request;
 
+import com.foodordering.model.value.Money;
+import jakarta.validation.constraints.AssertTrue;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotNull;
 import jakarta.validation.constraints.Positive;
@@ -15,8 +17,7 @@ public class MenuItemRequest {
     private String description;
     
     @NotNull(message = "Price is required")
-    @Positive(message = "Price must be positive")
-    private Double price;
+    private Money price;
     
     private String categoryId;
     
@@ -26,10 +27,15 @@ public class MenuItemRequest {
     
     private List<String> tags;
 
+    @Positive(message = "Prep time must be positive")
+    private Integer prepTimeMinutes;
+
+    private String station;
+
     public MenuItemRequest() {
     }
 
-    public MenuItemRequest(String name, String description, Double price) {
+    public MenuItemRequest(String name, String description, Money price) {
         this.name = name;
         this.description = description;
         this.price = price;
@@ -51,14 +57,19 @@ public class MenuItemRequest {
         this.description = description;
     }
 
-    public Double getPrice() {
+    public Money getPrice() {
         return price;
     }
 
-    public void setPrice(Double price) {
+    public void setPrice(Money price) {
         this.price = price;
     }
 
+    @AssertTrue(message = "Price must be positive")
+    private boolean isPricePositive() {
+        return price == null || price.isPositive();
+    }
+
     public String getCategoryId() {
         return categoryId;
     }
@@ -90,5 +101,21 @@ public class MenuItemRequest {
     public void setTags(List<String> tags) {
         this.tags = tags;
     }
+
+    public Integer getPrepTimeMinutes() {
+        return prepTimeMinutes;
+    }
+
+    public void setPrepTimeMinutes(Integer prepTimeMinutes) {
+        this.prepTimeMinutes = prepTimeMinutes;
+    }
+
+    public String getStation() {
+        return station;
+    }
+
+    public void setStation(String station) {
+        this.station = station;
+    }
 }
 
@@ -4,6 +4,7 @@ import jakarta.validation.Valid;
 import jakarta.validation.constraints.NotBlank;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
+import java.time.Instant;
 import java.util.List;
 
 public class OrderRequest {
@@ -19,6 +20,8 @@ public class OrderRequest {
     
     private String notes;
 
+    private Instant promisedAt;
+
     public OrderRequest() {
     }
 
@@ -54,6 +57,14 @@ public class OrderRequest {
         this.notes = notes;
     }
 
+    public Instant getPromisedAt() {
+        return promisedAt;
+    }
+
+    public void setPromisedAt(Instant promisedAt) {
+        this.promisedAt = promisedAt;
+    }
+
     // Nested DTO for Order Items
     public static class OrderItemRequest {
         @NotBlank(message = "Menu item ID is required")
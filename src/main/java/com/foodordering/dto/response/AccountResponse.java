@@ -12,6 +12,7 @@ public class AccountResponse {
     private Boolean active;
     private Instant createdAt;
     private Instant modifiedAt;
+    private Boolean deleted;
 
     public AccountResponse() {
     }
@@ -81,5 +82,13 @@ public class AccountResponse {
     public void setModifiedAt(Instant modifiedAt) {
         this.modifiedAt = modifiedAt;
     }
+
+    public Boolean getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(Boolean deleted) {
+        this.deleted = deleted;
+    }
 }
 
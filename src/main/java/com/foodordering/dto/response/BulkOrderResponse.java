@@ -0,0 +1,89 @@
+package com.foodordering.dto.response;
+
+import java.util.List;
+
+public class BulkOrderResponse {
+
+    private Integer received;
+    private Integer succeeded;
+    private Integer failed;
+    private List<OrderResult> results;
+
+    public BulkOrderResponse() {
+    }
+
+    public Integer getReceived() {
+        return received;
+    }
+
+    public void setReceived(Integer received) {
+        this.received = received;
+    }
+
+    public Integer getSucceeded() {
+        return succeeded;
+    }
+
+    public void setSucceeded(Integer succeeded) {
+        this.succeeded = succeeded;
+    }
+
+    public Integer getFailed() {
+        return failed;
+    }
+
+    public void setFailed(Integer failed) {
+        this.failed = failed;
+    }
+
+    public List<OrderResult> getResults() {
+        return results;
+    }
+
+    public void setResults(List<OrderResult> results) {
+        this.results = results;
+    }
+
+    // Nested class for the outcome of one order in the batch
+    public static class OrderResult {
+        private Integer index; // Position in the submitted array
+        private Boolean success;
+        private OrderResponse order;
+        private String error;
+
+        public OrderResult() {
+        }
+
+        public Integer getIndex() {
+            return index;
+        }
+
+        public void setIndex(Integer index) {
+            this.index = index;
+        }
+
+        public Boolean getSuccess() {
+            return success;
+        }
+
+        public void setSuccess(Boolean success) {
+            this.success = success;
+        }
+
+        public OrderResponse getOrder() {
+            return order;
+        }
+
+        public void setOrder(OrderResponse order) {
+            this.order = order;
+        }
+
+        public String getError() {
+            return error;
+        }
+
+        public void setError(String error) {
+            this.error = error;
+        }
+    }
+}
@@ -10,6 +10,7 @@ public class CategoryResponse {
     private String parentId;
     private Instant createdAt;
     private Instant modifiedAt;
+    private Boolean deleted;
 
     public CategoryResponse() {
     }
@@ -70,5 +71,13 @@ public class CategoryResponse {
     public void setModifiedAt(Instant modifiedAt) {
         this.modifiedAt = modifiedAt;
     }
+
+    public Boolean getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(Boolean deleted) {
+        this.deleted = deleted;
+    }
 }
 
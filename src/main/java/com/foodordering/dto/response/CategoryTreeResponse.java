@@ -0,0 +1,65 @@
+package com.foodordering.dto.response;
+
+import java.util.ArrayList;
+import java.util.List;
+
+public class CategoryTreeResponse {
+
+    private String id;
+    private String name;
+    private String description;
+    private String parentId;
+    private List<String> ancestorIds = new ArrayList<>(); // Root first, direct parent last
+    private List<CategoryTreeResponse> children = new ArrayList<>();
+
+    public CategoryTreeResponse() {
+    }
+
+    public String getId() {
+        return id;
+    }
+
+    public void setId(String id) {
+        this.id = id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+
+    public String getDescription() {
+        return description;
+    }
+
+    public void setDescription(String description) {
+        this.description = description;
+    }
+
+    public String getParentId() {
+        return parentId;
+    }
+
+    public void setParentId(String parentId) {
+        this.parentId = parentId;
+    }
+
+    public List<String> getAncestorIds() {
+        return ancestorIds;
+    }
+
+    public void setAncestorIds(List<String> ancestorIds) {
+        this.ancestorIds = ancestorIds;
+    }
+
+    public List<CategoryTreeResponse> getChildren() {
+        return children;
+    }
+
+    public void setChildren(List<CategoryTreeResponse> children) {
+        this.children = children;
+    }
+}
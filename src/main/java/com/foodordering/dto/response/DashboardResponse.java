@@ -1,5 +1,6 @@
 package com.foodordering.dto.response;
 
+import com.foodordering.model.value.Money;
 import java.util.List;
 import java.util.Map;
 
@@ -8,7 +9,9 @@ public class DashboardResponse {
     private List<MenuItemOrderStats> menuItemStats;
     private Map<String, MonthlyStats> monthlySummary;
     private Integer totalOrders;
-    private Double totalRevenue;
+    private Money totalRevenue;
+    private Long uniqueCustomers; // Estimated distinct customers (HyperLogLog)
+    private Double repeatPurchaseRate; // Share of orders from customers who had already ordered in the range
 
     public DashboardResponse() {
     }
@@ -37,14 +40,30 @@ public class DashboardResponse {
         this.totalOrders = totalOrders;
     }
 
-    public Double getTotalRevenue() {
+    public Money getTotalRevenue() {
         return totalRevenue;
     }
 
-    public void setTotalRevenue(Double totalRevenue) {
+    public void setTotalRevenue(Money totalRevenue) {
         this.totalRevenue = totalRevenue;
     }
 
+    public Long getUniqueCustomers() {
+        return uniqueCustomers;
+    }
+
+    public void setUniqueCustomers(Long uniqueCustomers) {
+        this.uniqueCustomers = uniqueCustomers;
+    }
+
+    public Double getRepeatPurchaseRate() {
+        return repeatPurchaseRate;
+    }
+
+    public void setRepeatPurchaseRate(Double repeatPurchaseRate) {
+        this.repeatPurchaseRate = repeatPurchaseRate;
+    }
+
     // Nested class for Menu Item Order Statistics
     public static class MenuItemOrderStats {
         private String menuItemId;
@@ -52,7 +71,9 @@ public class DashboardResponse {
         private Map<String, Integer> ordersByMonth; // Key: "YYYY-MM", Value: order count
         private Integer totalOrders;
         private Integer totalQuantity;
-        private Double totalRevenue;
+        private Money totalRevenue;
+        private Long uniqueCustomers;
+        private Double repeatPurchaseRate;
 
         public MenuItemOrderStats() {
         }
@@ -97,13 +118,29 @@ public class DashboardResponse {
             this.totalQuantity = totalQuantity;
         }
 
-        public Double getTotalRevenue() {
+        public Money getTotalRevenue() {
             return totalRevenue;
         }
 
-        public void setTotalRevenue(Double totalRevenue) {
+        public void setTotalRevenue(Money totalRevenue) {
             this.totalRevenue = totalRevenue;
         }
+
+        public Long getUniqueCustomers() {
+            return uniqueCustomers;
+        }
+
+        public void setUniqueCustomers(Long uniqueCustomers) {
+            this.uniqueCustomers = uniqueCustomers;
+        }
+
+        public Double getRepeatPurchaseRate() {
+            return repeatPurchaseRate;
+        }
+
+        public void setRepeatPurchaseRate(Double repeatPurchaseRate) {
+            this.repeatPurchaseRate = repeatPurchaseRate;
+        }
     }
 
     // Nested class for Monthly Statistics
@@ -111,7 +148,9 @@ public class DashboardResponse {
         private String month; // Format: "YYYY-MM"
         private Integer totalOrders;
         private Integer totalMenuItemsOrdered;
-        private Double totalRevenue;
+        private Money totalRevenue;
+        private Long uniqueCustomers;
+        private Double repeatPurchaseRate;
 
         public MonthlyStats() {
         }
@@ -144,13 +183,29 @@ public class DashboardResponse {
             this.totalMenuItemsOrdered = totalMenuItemsOrdered;
         }
 
-        public Double getTotalRevenue() {
+        public Money getTotalRevenue() {
             return totalRevenue;
         }
 
-        public void setTotalRevenue(Double totalRevenue) {
+        public void setTotalRevenue(Money totalRevenue) {
             this.totalRevenue = totalRevenue;
         }
+
+        public Long getUniqueCustomers() {
+            return uniqueCustomers;
+        }
+
+        public void setUniqueCustomers(Long uniqueCustomers) {
+            this.uniqueCustomers = uniqueCustomers;
+        }
+
+        public Double getRepeatPurchaseRate() {
+            return repeatPurchaseRate;
+        }
+
+        public void setRepeatPurchaseRate(Double repeatPurchaseRate) {
+            this.repeatPurchaseRate = repeatPurchaseRate;
+        }
     }
 }
 
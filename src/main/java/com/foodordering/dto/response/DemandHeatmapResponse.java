@@ -0,0 +1,104 @@
+package com.foodordering.dto.response;
+
+import com.foodordering.analytics.MenuItemMetric;
+import java.time.DayOfWeek;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+
+public class DemandHeatmapResponse {
+
+    private String menuItemId; // Null for the whole restaurant or a category
+    private String categoryId;
+    private MenuItemMetric metric;
+    private String zoneId; // from, to and the hour buckets are local to this zone
+    private LocalDateTime from;
+    private LocalDateTime to;
+    private Long total;
+    private DayOfWeek peakDayOfWeek;
+    private Integer peakHour;
+    private Map<DayOfWeek, List<Integer>> cells; // 24 hourly values per day of week
+
+    public DemandHeatmapResponse() {
+    }
+
+    public String getMenuItemId() {
+        return menuItemId;
+    }
+
+    public void setMenuItemId(String menuItemId) {
+        this.menuItemId = menuItemId;
+    }
+
+    public String getCategoryId() {
+        return categoryId;
+    }
+
+    public void setCategoryId(String categoryId) {
+        this.categoryId = categoryId;
+    }
+
+    public MenuItemMetric getMetric() {
+        return metric;
+    }
+
+    public void setMetric(MenuItemMetric metric) {
+        this.metric = metric;
+    }
+
+    public String getZoneId() {
+        return zoneId;
+    }
+
+    public void setZoneId(String zoneId) {
+        this.zoneId = zoneId;
+    }
+
+    public LocalDateTime getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDateTime from) {
+        this.from = from;
+    }
+
+    public LocalDateTime getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDateTime to) {
+        this.to = to;
+    }
+
+    public Long getTotal() {
+        return total;
+    }
+
+    public void setTotal(Long total) {
+        this.total = total;
+    }
+
+    public DayOfWeek getPeakDayOfWeek() {
+        return peakDayOfWeek;
+    }
+
+    public void setPeakDayOfWeek(DayOfWeek peakDayOfWeek) {
+        this.peakDayOfWeek = peakDayOfWeek;
+    }
+
+    public Integer getPeakHour() {
+        return peakHour;
+    }
+
+    public void setPeakHour(Integer peakHour) {
+        this.peakHour = peakHour;
+    }
+
+    public Map<DayOfWeek, List<Integer>> getCells() {
+        return cells;
+    }
+
+    public void setCells(Map<DayOfWeek, List<Integer>> cells) {
+        this.cells = cells;
+    }
+}
@@ -0,0 +1,126 @@
+package com.foodordering.dto.response;
+
+import java.time.Instant;
+import java.util.List;
+
+public class KitchenTicketResponse {
+
+    private String orderId;
+    private String accountId;
+    private String station;
+    private Instant confirmedAt;
+    private Instant promisedAt;
+    private Instant startBy; // Latest start that still meets promisedAt
+    private Integer estimatedPrepMinutes;
+    private List<TicketItem> items;
+
+    public KitchenTicketResponse() {
+    }
+
+    public String getOrderId() {
+        return orderId;
+    }
+
+    public void setOrderId(String orderId) {
+        this.orderId = orderId;
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public void setAccountId(String accountId) {
+        this.accountId = accountId;
+    }
+
+    public String getStation() {
+        return station;
+    }
+
+    public void setStation(String station) {
+        this.station = station;
+    }
+
+    public Instant getConfirmedAt() {
+        return confirmedAt;
+    }
+
+    public void setConfirmedAt(Instant confirmedAt) {
+        this.confirmedAt = confirmedAt;
+    }
+
+    public Instant getPromisedAt() {
+        return promisedAt;
+    }
+
+    public void setPromisedAt(Instant promisedAt) {
+        this.promisedAt = promisedAt;
+    }
+
+    public Instant getStartBy() {
+        return startBy;
+    }
+
+    public void setStartBy(Instant startBy) {
+        this.startBy = startBy;
+    }
+
+    public Integer getEstimatedPrepMinutes() {
+        return estimatedPrepMinutes;
+    }
+
+    public void setEstimatedPrepMinutes(Integer estimatedPrepMinutes) {
+        this.estimatedPrepMinutes = estimatedPrepMinutes;
+    }
+
+    public List<TicketItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<TicketItem> items) {
+        this.items = items;
+    }
+
+    // Nested class for a line on the kitchen ticket
+    public static class TicketItem {
+        private String menuItemId;
+        private String name;
+        private Integer quantity;
+        private Integer prepTimeMinutes;
+
+        public TicketItem() {
+        }
+
+        public String getMenuItemId() {
+            return menuItemId;
+        }
+
+        public void setMenuItemId(String menuItemId) {
+            this.menuItemId = menuItemId;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public void setName(String name) {
+            this.name = name;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public void setQuantity(Integer quantity) {
+            this.quantity = quantity;
+        }
+
+        public Integer getPrepTimeMinutes() {
+            return prepTimeMinutes;
+        }
+
+        public void setPrepTimeMinutes(Integer prepTimeMinutes) {
+            this.prepTimeMinutes = prepTimeMinutes;
+        }
+    }
+}
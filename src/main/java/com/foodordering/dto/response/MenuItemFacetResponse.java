@@ -0,0 +1,47 @@
+package com.foodordering.dto.response;
+
+import java.util.List;
+import java.util.Map;
+
+public class MenuItemFacetResponse {
+
+    private Integer total;
+    private List<MenuItemResponse> items;
+    private Map<String, Integer> tagCounts; // Key: tag, Value: matching items carrying the tag
+    private Map<String, Integer> categoryCounts; // Key: category id, Value: matching items in it
+
+    public MenuItemFacetResponse() {
+    }
+
+    public Integer getTotal() {
+        return total;
+    }
+
+    public void setTotal(Integer total) {
+        this.total = total;
+    }
+
+    public List<MenuItemResponse> getItems() {
+        return items;
+    }
+
+    public void setItems(List<MenuItemResponse> items) {
+        this.items = items;
+    }
+
+    public Map<String, Integer> getTagCounts() {
+        return tagCounts;
+    }
+
+    public void setTagCounts(Map<String, Integer> tagCounts) {
+        this.tagCounts = tagCounts;
+    }
+
+    public Map<String, Integer> getCategoryCounts() {
+        return categoryCounts;
+    }
+
+    public void setCategoryCounts(Map<String, Integer> categoryCounts) {
+        this.categoryCounts = categoryCounts;
+    }
+}
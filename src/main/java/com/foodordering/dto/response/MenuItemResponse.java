@@ -1,5 +1,6 @@
 package com.foodordering.dto.response;
 
+import com.foodordering.model.value.Money;
 import java.time.Instant;
 import java.util.List;
 
@@ -8,13 +9,16 @@ public class MenuItemResponse {
     private String id;
     private String name;
     private String description;
-    private Double price;
+    private Money price;
     private String categoryId;
     private Boolean available;
     private List<String> images;
     private List<String> tags;
+    private Integer prepTimeMinutes;
+    private String station;
     private Instant createdAt;
     private Instant modifiedAt;
+    private Boolean deleted;
 
     public MenuItemResponse() {
     }
@@ -43,11 +47,11 @@ public class MenuItemResponse {
         this.description = description;
     }
 
-    public Double getPrice() {
+    public Money getPrice() {
         return price;
     }
 
-    public void setPrice(Double price) {
+    public void setPrice(Money price) {
         this.price = price;
     }
 
@@ -83,6 +87,22 @@ public class MenuItemResponse {
         this.tags = tags;
     }
 
+    public Integer getPrepTimeMinutes() {
+        return prepTimeMinutes;
+    }
+
+    public void setPrepTimeMinutes(Integer prepTimeMinutes) {
+        this.prepTimeMinutes = prepTimeMinutes;
+    }
+
+    public String getStation() {
+        return station;
+    }
+
+    public void setStation(String station) {
+        this.station = station;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -98,5 +118,13 @@ public class MenuItemResponse {
     public void setModifiedAt(Instant modifiedAt) {
         this.modifiedAt = modifiedAt;
     }
+
+    public Boolean getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(Boolean deleted) {
+        this.deleted = deleted;
+    }
 }
 
@@ -1,6 +1,7 @@
 package com.foodordering.dto.response;
 
 import com.foodordering.model.entity.Order;
+import com.foodordering.model.value.Money;
 import java.time.Instant;
 import java.util.List;
 
@@ -9,12 +10,14 @@ public class OrderResponse {
     private String id;
     private String accountId;
     private List<OrderItemResponse> orderItems;
-    private Double totalAmount;
+    private Money totalAmount;
     private Order.OrderStatus status;
     private String deliveryAddress;
     private String notes;
+    private Instant promisedAt;
     private Instant createdAt;
     private Instant modifiedAt;
+    private Boolean deleted;
 
     public OrderResponse() {
     }
@@ -43,11 +46,11 @@ public class OrderResponse {
         this.orderItems = orderItems;
     }
 
-    public Double getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(Double totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
 
@@ -75,6 +78,14 @@ public class OrderResponse {
         this.notes = notes;
     }
 
+    public Instant getPromisedAt() {
+        return promisedAt;
+    }
+
+    public void setPromisedAt(Instant promisedAt) {
+        this.promisedAt = promisedAt;
+    }
+
     public Instant getCreatedAt() {
         return createdAt;
     }
@@ -91,12 +102,23 @@ public class OrderResponse {
         this.modifiedAt = modifiedAt;
     }
 
+    public Boolean getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(Boolean deleted) {
+        this.deleted = deleted;
+    }
+
     // Nested DTO for Order Items
     public static class OrderItemResponse {
         private String menuItemId;
         private Integer quantity;
-        private Double price;
-        private Double subtotal;
+        private Money price;
+        private Money subtotal;
+        private String menuItemName;
+        private String categoryId;
+        private String categoryName;
 
         public OrderItemResponse() {
         }
@@ -117,21 +139,45 @@ public class OrderResponse {
             this.quantity = quantity;
         }
 
-        public Double getPrice() {
+        public Money getPrice() {
             return price;
         }
 
-        public void setPrice(Double price) {
+        public void setPrice(Money price) {
             this.price = price;
         }
 
-        public Double getSubtotal() {
+        public Money getSubtotal() {
             return subtotal;
         }
 
-        public void setSubtotal(Double subtotal) {
+        public void setSubtotal(Money subtotal) {
             this.subtotal = subtotal;
         }
+
+        public String getMenuItemName() {
+            return menuItemName;
+        }
+
+        public void setMenuItemName(String menuItemName) {
+            this.menuItemName = menuItemName;
+        }
+
+        public String getCategoryId() {
+            return categoryId;
+        }
+
+        public void setCategoryId(String categoryId) {
+            this.categoryId = categoryId;
+        }
+
+        public String getCategoryName() {
+            return categoryName;
+        }
+
+        public void setCategoryName(String categoryName) {
+            this.categoryName = categoryName;
+        }
     }
 }
 
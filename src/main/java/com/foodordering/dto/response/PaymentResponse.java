@@ -1,13 +1,14 @@
 package com.foodordering.dto.response;
 
 import com.foodordering.model.entity.Payment;
+import com.foodordering.model.value.Money;
 import java.time.Instant;
 
 public class PaymentResponse {
     
     private String id;
     private String orderId;
-    private Double amount;
+    private Money amount;
     private Payment.PaymentMethod paymentMethod;
     private Payment.PaymentStatus status;
     private String momoTransactionId;
@@ -19,6 +20,7 @@ public class PaymentResponse {
     private String description;
     private Instant createdAt;
     private Instant modifiedAt;
+    private Boolean deleted;
 
     public PaymentResponse() {
     }
@@ -39,11 +41,11 @@ public class PaymentResponse {
         this.orderId = orderId;
     }
 
-    public Double getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(Double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -134,5 +136,13 @@ public class PaymentResponse {
     public void setModifiedAt(Instant modifiedAt) {
         this.modifiedAt = modifiedAt;
     }
+
+    public Boolean getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(Boolean deleted) {
+        this.deleted = deleted;
+    }
 }
 
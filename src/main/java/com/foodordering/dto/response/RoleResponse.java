@@ -11,6 +11,7 @@ public class RoleResponse {
     private List<String> permissions;
     private Instant createdAt;
     private Instant modifiedAt;
+    private Boolean deleted;
 
     public RoleResponse() {
     }
@@ -62,5 +63,13 @@ public class RoleResponse {
     public void setModifiedAt(Instant modifiedAt) {
         this.modifiedAt = modifiedAt;
     }
+
+    public Boolean getDeleted() {
+        return deleted;
+    }
+
+    public void setDeleted(Boolean deleted) {
+        this.deleted = deleted;
+    }
 }
 
@@ -0,0 +1,118 @@
+package com.foodordering.dto.response;
+
+import com.foodordering.analytics.MenuItemMetric;
+import java.time.LocalDate;
+import java.util.List;
+
+public class TopMenuItemsResponse {
+
+    private MenuItemMetric metric;
+    private LocalDate from;
+    private LocalDate to;
+    private String currency; // Set for REVENUE; values are minor units of it
+    private Long maxUnlistedValue; // No item missing from the list can exceed this
+    private List<RankedMenuItem> items;
+
+    public TopMenuItemsResponse() {
+    }
+
+    public MenuItemMetric getMetric() {
+        return metric;
+    }
+
+    public void setMetric(MenuItemMetric metric) {
+        this.metric = metric;
+    }
+
+    public LocalDate getFrom() {
+        return from;
+    }
+
+    public void setFrom(LocalDate from) {
+        this.from = from;
+    }
+
+    public LocalDate getTo() {
+        return to;
+    }
+
+    public void setTo(LocalDate to) {
+        this.to = to;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public void setCurrency(String currency) {
+        this.currency = currency;
+    }
+
+    public Long getMaxUnlistedValue() {
+        return maxUnlistedValue;
+    }
+
+    public void setMaxUnlistedValue(Long maxUnlistedValue) {
+        this.maxUnlistedValue = maxUnlistedValue;
+    }
+
+    public List<RankedMenuItem> getItems() {
+        return items;
+    }
+
+    public void setItems(List<RankedMenuItem> items) {
+        this.items = items;
+    }
+
+    // Nested class for one ranked item; the true value lies in [estimate - maxError, estimate]
+    public static class RankedMenuItem {
+        private String menuItemId;
+        private String menuItemName;
+        private Long estimate;
+        private Long maxError;
+        private Boolean guaranteed; // Certainly in the top N despite the error
+
+        public RankedMenuItem() {
+        }
+
+        public String getMenuItemId() {
+            return menuItemId;
+        }
+
+        public void setMenuItemId(String menuItemId) {
+            this.menuItemId = menuItemId;
+        }
+
+        public String getMenuItemName() {
+            return menuItemName;
+        }
+
+        public void setMenuItemName(String menuItemName) {
+            this.menuItemName = menuItemName;
+        }
+
+        public Long getEstimate() {
+            return estimate;
+        }
+
+        public void setEstimate(Long estimate) {
+            this.estimate = estimate;
+        }
+
+        public Long getMaxError() {
+            return maxError;
+        }
+
+        public void setMaxError(Long maxError) {
+            this.maxError = maxError;
+        }
+
+        public Boolean getGuaranteed() {
+            return guaranteed;
+        }
+
+        public void setGuaranteed(Boolean guaranteed) {
+            this.guaranteed = guaranteed;
+        }
+    }
+}
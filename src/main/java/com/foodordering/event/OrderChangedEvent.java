@@ -0,0 +1,31 @@
+package com.foodordering.event;
+
+import com.foodordering.model.entity.Order;
+
+/**
+ * Published in-process whenever an order is created, edited, deleted or its
+ * status changes. previousStatus is null for newly created orders. A hard-deleted
+ * order is published marked as deleted.
+ */
+public class OrderChangedEvent {
+
+    private final Order order;
+    private final Order.OrderStatus previousStatus;
+
+    public OrderChangedEvent(Order order, Order.OrderStatus previousStatus) {
+        this.order = order;
+        this.previousStatus = previousStatus;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public Order.OrderStatus getPreviousStatus() {
+        return previousStatus;
+    }
+
+    public boolean isStatusChange() {
+        return previousStatus != order.getStatus();
+    }
+}
@@ -0,0 +1,20 @@
+package com.foodordering.event;
+
+import java.util.List;
+
+/**
+ * Published in-process after the archival job removed orders from the "orders"
+ * collection. Their history now lives in the archive and monthly rollups.
+ */
+public class OrdersArchivedEvent {
+
+    private final List<String> orderIds;
+
+    public OrdersArchivedEvent(List<String> orderIds) {
+        this.orderIds = orderIds;
+    }
+
+    public List<String> getOrderIds() {
+        return orderIds;
+    }
+}
@@ -0,0 +1,370 @@
+package com.foodordering.intake;
+
+import com.foodordering.model.abstraction.MongoEntityListener;
+import com.foodordering.model.entity.Order;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.bson.Document;
+import org.bson.json.JsonMode;
+import org.bson.json.JsonWriterSettings;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Optional write-behind intake for new orders (orders.write-behind.enabled).
+ *
+ * Accepted orders get their id and audit timestamps immediately, are appended to a
+ * local journal and kept in memory until a background writer inserts them into
+ * "orders" in batches. At most orders.write-behind.capacity orders are held at once,
+ * counting those waiting, being written and waiting for a retry, so an outage of
+ * Mongo sends new orders back to synchronous writes instead of growing the heap.
+ * The journal records "+ order" on intake and "- id" once flushed; on start-up any
+ * order without a matching "-" line is replayed. Duplicate-key errors on flush are
+ * treated as already written, so replay is safe. Once the journal passes
+ * orders.write-behind.journal-compact-bytes it is rewritten with only the "+" lines
+ * of the orders still held.
+ */
+@Component
+public class OrderWriteBehindQueue {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderWriteBehindQueue.class);
+
+    private static final int DUPLICATE_KEY = 11000;
+
+    private static final JsonWriterSettings JOURNAL_JSON = JsonWriterSettings.builder()
+            .outputMode(JsonMode.EXTENDED)
+            .build();
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private MongoEntityListener mongoEntityListener;
+
+    @Value("${orders.write-behind.enabled:false}")
+    private boolean enabled;
+
+    @Value("${orders.write-behind.capacity:10000}")
+    private int capacity;
+
+    @Value("${orders.write-behind.batch-size:500}")
+    private int batchSize;
+
+    @Value("${orders.write-behind.flush-interval-ms:200}")
+    private long flushIntervalMs;
+
+    @Value("${orders.write-behind.journal-path:data/order-intake.journal}")
+    private String journalPath;
+
+    @Value("${orders.write-behind.journal-fsync:true}")
+    private boolean journalFsync;
+
+    @Value("${orders.write-behind.journal-compact-bytes:4194304}")
+    private long journalCompactBytes;
+
+    private final Object intakeLock = new Object();
+    private final Object flushLock = new Object();
+
+    private ArrayBlockingQueue<Order> buffer;
+    private final Map<String, Order> pending = new ConcurrentHashMap<>();
+    private final List<Order> retry = new ArrayList<>();
+
+    private FileOutputStream journalStream;
+    private BufferedWriter journal;
+    // Journal size right after the last compaction, i.e. the orders still held then
+    private long compactedJournalBytes;
+    private ScheduledExecutorService writer;
+
+    @PostConstruct
+    void start() {
+        if (!enabled) {
+            return;
+        }
+        buffer = new ArrayBlockingQueue<>(capacity);
+        try {
+            Path path = Paths.get(journalPath);
+            if (path.getParent() != null) {
+                Files.createDirectories(path.getParent());
+            }
+            recover(path);
+            openJournal(true);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open order intake journal " + journalPath, e);
+        }
+
+        writer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-write-behind");
+            thread.setDaemon(true);
+            return thread;
+        });
+        writer.scheduleWithFixedDelay(this::flushQuietly, flushIntervalMs, flushIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        if (writer == null) {
+            return;
+        }
+        writer.shutdown();
+        try {
+            writer.awaitTermination(5, TimeUnit.SECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        flushQuietly();
+        synchronized (intakeLock) {
+            closeJournal();
+        }
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * Accepts a validated order. Returns false when capacity orders are already held
+     * (buffered, being written or waiting for a retry); the caller should then save
+     * the order synchronously.
+     */
+    public boolean offer(Order order) {
+        if (!enabled) {
+            return false;
+        }
+        order.ensureId();
+        mongoEntityListener.stamp(order);
+
+        synchronized (intakeLock) {
+            if (pending.size() >= capacity) {
+                return false;
+            }
+            appendJournal("+\t" + toJson(order));
+            pending.put(order.getId(), order);
+            buffer.add(order);
+        }
+        return true;
+    }
+
+    /**
+     * Returns the buffered order with this id, or null once it has been flushed.
+     */
+    public Order find(String id) {
+        return id != null ? pending.get(id) : null;
+    }
+
+    public boolean isPending(String id) {
+        return id != null && pending.containsKey(id);
+    }
+
+    /**
+     * Writes everything buffered so far. Called by the background writer and by
+     * request threads that need a buffered order to exist in Mongo.
+     */
+    public void flush() {
+        if (!enabled) {
+            return;
+        }
+        synchronized (flushLock) {
+            List<Order> batch = new ArrayList<>(retry);
+            retry.clear();
+            buffer.drainTo(batch);
+
+            for (int from = 0; from < batch.size(); from += batchSize) {
+                List<Order> chunk = batch.subList(from, Math.min(from + batchSize, batch.size()));
+                List<Order> written = insert(chunk);
+                markFlushed(written);
+            }
+            compactIfLarge();
+        }
+    }
+
+    private void flushQuietly() {
+        try {
+            flush();
+        } catch (RuntimeException e) {
+            log.warn("Order write-behind flush failed: {}", e.getMessage());
+        }
+    }
+
+    private List<Order> insert(List<Order> chunk) {
+        List<Order> written = new ArrayList<>(chunk);
+        try {
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+            bulkOperations.insert(new ArrayList<>(chunk));
+            bulkOperations.execute();
+        } catch (BulkOperationException e) {
+            for (BulkWriteError error : e.getErrors()) {
+                if (error.getCode() != DUPLICATE_KEY) {
+                    Order failed = chunk.get(error.getIndex());
+                    written.remove(failed);
+                    retry.add(failed);
+                }
+            }
+            log.warn("Order write-behind flush had {} failed inserts, will retry", retry.size());
+        } catch (DataAccessException e) {
+            retry.addAll(chunk);
+            log.warn("Order write-behind flush failed, will retry {} orders: {}", chunk.size(), e.getMessage());
+            return List.of();
+        }
+        return written;
+    }
+
+    private void markFlushed(List<Order> written) {
+        if (written.isEmpty()) {
+            return;
+        }
+        synchronized (intakeLock) {
+            StringBuilder lines = new StringBuilder();
+            for (Order order : written) {
+                lines.append("-\t").append(order.getId()).append('\n');
+            }
+            appendJournal(lines.substring(0, lines.length() - 1));
+            for (Order order : written) {
+                pending.remove(order.getId());
+            }
+        }
+    }
+
+    /**
+     * Rewrites the journal once it has grown past the size threshold, keeping a "+"
+     * line for every order still held. The new journal is written next to the old
+     * one and moved over it, so a crash at any point leaves one complete journal.
+     * Runs under the intake lock, so no order is accepted or marked flushed meanwhile.
+     */
+    private void compactIfLarge() {
+        synchronized (intakeLock) {
+            long size = journalSize();
+            // Orders held through an outage can make the rewrite itself large; wait for it to double
+            if (size < Math.max(journalCompactBytes, compactedJournalBytes * 2)) {
+                return;
+            }
+            Path path = Paths.get(journalPath);
+            Path compacted = Paths.get(journalPath + ".compact");
+            try (FileOutputStream stream = new FileOutputStream(compacted.toFile());
+                 BufferedWriter writer = new BufferedWriter(new OutputStreamWriter(stream, StandardCharsets.UTF_8))) {
+                for (Order order : pending.values()) {
+                    writer.write("+\t" + toJson(order));
+                    writer.newLine();
+                }
+                writer.flush();
+                stream.getFD().sync();
+            } catch (IOException e) {
+                log.warn("Could not compact order intake journal, keeping the current one: {}", e.getMessage());
+                return;
+            }
+            closeJournal();
+            try {
+                Files.move(compacted, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            } catch (IOException e) {
+                log.warn("Could not replace order intake journal, keeping the current one: {}", e.getMessage());
+            }
+            openJournal(true);
+            compactedJournalBytes = journalSize();
+            log.debug("Compacted order intake journal from {} to {} bytes", size, compactedJournalBytes);
+        }
+    }
+
+    private long journalSize() {
+        try {
+            return journalStream.getChannel().size();
+        } catch (IOException e) {
+            return Long.MAX_VALUE;
+        }
+    }
+
+    private void recover(Path path) throws IOException {
+        if (!Files.exists(path)) {
+            return;
+        }
+        Map<String, String> unflushed = new LinkedHashMap<>();
+        try (BufferedReader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                if (line.startsWith("+\t")) {
+                    Document document = Document.parse(line.substring(2));
+                    unflushed.put(String.valueOf(document.get("_id")), line.substring(2));
+                } else if (line.startsWith("-\t")) {
+                    unflushed.remove(line.substring(2));
+                }
+                // A torn last line from a crash is ignored
+            }
+        } catch (RuntimeException e) {
+            log.warn("Order intake journal has an unreadable entry, recovering what was read: {}", e.getMessage());
+        }
+
+        for (String json : unflushed.values()) {
+            Order order = mongoTemplate.getConverter().read(Order.class, Document.parse(json));
+            pending.put(order.getId(), order);
+            retry.add(order);
+        }
+        if (!unflushed.isEmpty()) {
+            log.info("Recovered {} buffered orders from {}", unflushed.size(), path);
+        }
+    }
+
+    private String toJson(Order order) {
+        Document document = new Document();
+        mongoTemplate.getConverter().write(order, document);
+        return document.toJson(JOURNAL_JSON);
+    }
+
+    private void appendJournal(String line) {
+        try {
+            journal.write(line);
+            journal.newLine();
+            journal.flush();
+            if (journalFsync) {
+                journalStream.getFD().sync();
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not write order intake journal", e);
+        }
+    }
+
+    private void openJournal(boolean append) {
+        try {
+            journalStream = new FileOutputStream(journalPath, append);
+            journal = new BufferedWriter(new OutputStreamWriter(journalStream, StandardCharsets.UTF_8));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not open order intake journal " + journalPath, e);
+        }
+    }
+
+    private void closeJournal() {
+        try {
+            if (journal != null) {
+                journal.close();
+            }
+        } catch (IOException e) {
+            log.warn("Could not close order intake journal: {}", e.getMessage());
+        }
+    }
+}
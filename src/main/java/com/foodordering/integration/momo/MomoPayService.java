@@ -1,5 +1,6 @@
 package com.foodordering.integration.momo;
 
+import com.foodordering.model.value.Money;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
@@ -25,6 +26,8 @@ import java.util.UUID;
 @Service
 public class MomoPayService {
 
+    private static final String MOMO_CURRENCY = "VND";
+
     @Value("${momo.partner-code:}")
     private String partnerCode;
 
@@ -47,15 +50,21 @@ public class MomoPayService {
      * Create payment request with MoMo Pay
      * 
      * @param orderId Order ID
-     * @param amount Payment amount
+     * @param amount Payment amount, must be in VND
      * @param orderInfo Order information
      * @return MoMo payment response containing payment URL
      */
-    public MomoPaymentResponse createPayment(String orderId, Double amount, String orderInfo) {
+    public MomoPaymentResponse createPayment(String orderId, Money amount, String orderInfo) {
+        if (!MOMO_CURRENCY.equals(amount.getCurrency())) {
+            MomoPaymentResponse errorResponse = new MomoPaymentResponse();
+            errorResponse.setResultCode("-1");
+            errorResponse.setMessage("MoMo only accepts " + MOMO_CURRENCY + " amounts, got " + amount.getCurrency());
+            return errorResponse;
+        }
         try {
             String requestId = UUID.randomUUID().toString();
             String orderIdMoMo = "ORDER_" + orderId + "_" + System.currentTimeMillis();
-            long amountLong = (long) (amount * 100); // MoMo expects amount in cents
+            long amountLong = amount.getAmount(); // MoMo expects whole dong, which is VND's minor unit
             
             // Create request data
             Map<String, String> requestData = new HashMap<>();
@@ -1,10 +1,12 @@
 package com.foodordering.model.abstraction;
 
+import org.bson.types.ObjectId;
 import org.springframework.data.annotation.Id;
 import org.springframework.data.mongodb.core.mapping.Field;
 import java.io.Serial;
 import java.io.Serializable;
 import java.time.Instant;
+import java.util.Locale;
 import java.util.Objects;
 
 /**
@@ -43,6 +45,17 @@ public abstract class BaseEntity implements Serializable {
         this.id = id;
     }
 
+    /**
+     * Assigns a fresh ObjectId when the entity has no id yet, so batched or
+     * deferred inserts can hand the id back before the document is written.
+     */
+    public String ensureId() {
+        if (this.id == null) {
+            this.id = new ObjectId().toHexString();
+        }
+        return this.id;
+    }
+
     public boolean isDeleted() {
         return isDeleted;
     }
@@ -59,6 +72,14 @@ public abstract class BaseEntity implements Serializable {
         this.isDeleted = false;
     }
 
+    /**
+     * Normalized form of a natural key (trimmed, lower-case) stored next to the
+     * original value so a unique index can enforce case-insensitive uniqueness.
+     */
+    protected static String normalizeKey(String value) {
+        return value != null ? value.trim().toLowerCase(Locale.ROOT) : null;
+    }
+
     // NOTE: getters/setters for createdAt and modifiedAt were removed intentionally.
     // Audit timestamps remain as protected fields so a MongoEntityListener or
     // concrete entity classes implementing an audit interface can manage/access them.
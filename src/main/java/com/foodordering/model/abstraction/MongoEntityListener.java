@@ -16,7 +16,14 @@ public class MongoEntityListener extends AbstractMongoEventListener<BaseEntity>
 
     @Override
     public void onBeforeConvert(BeforeConvertEvent<BaseEntity> event) {
-        BaseEntity entity = event.getSource();
+        stamp(event.getSource());
+    }
+
+    /**
+     * Applies the audit timestamps outside of a save, for entities that are
+     * handed out before they are written (e.g. buffered order intake).
+     */
+    public void stamp(BaseEntity entity) {
         if (entity == null) return;
 
         Instant now = Instant.now();
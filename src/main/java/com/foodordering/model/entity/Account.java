@@ -12,12 +12,21 @@ import java.util.List;
 @Document(collection = "accounts")
 public class Account extends BaseEntity implements IAuditable {
 
+    public static final String USERNAME_INDEX = "username_key_unique";
+    public static final String EMAIL_INDEX = "email_key_unique";
+
     @Field("username")
     private String username;
 
+    @Field("username_key")
+    private String usernameKey;
+
     @Field("email")
     private String email;
 
+    @Field("email_key")
+    private String emailKey;
+
     @Field("password")
     private String password;
 
@@ -31,8 +40,8 @@ public class Account extends BaseEntity implements IAuditable {
     }
 
     public Account(String username, String email, String password) {
-        this.username = username;
-        this.email = email;
+        setUsername(username);
+        setEmail(email);
         this.password = password;
     }
 
@@ -42,6 +51,7 @@ public class Account extends BaseEntity implements IAuditable {
 
     public void setUsername(String username) {
         this.username = username;
+        this.usernameKey = normalizeKey(username);
     }
 
     public String getEmail() {
@@ -50,6 +60,7 @@ public class Account extends BaseEntity implements IAuditable {
 
     public void setEmail(String email) {
         this.email = email;
+        this.emailKey = normalizeKey(email);
     }
 
     public String getPassword() {
@@ -0,0 +1,76 @@
+package com.foodordering.model.entity;
+
+import com.foodordering.model.abstraction.BaseEntity;
+import com.foodordering.model.abstraction.IAuditable;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+
+/**
+ * A completed order moved out of "orders" by the archival job.
+ * The id is the original order id. The full order is kept as gzip-compressed
+ * BSON in payload; only the fields needed to find it stay queryable.
+ */
+@Document(collection = "orders_archive")
+public class ArchivedOrder extends BaseEntity implements IAuditable {
+
+    @Field("account_id")
+    private String accountId;
+
+    @Field("status")
+    private Order.OrderStatus status;
+
+    @Field("order_created_at")
+    private Instant orderCreatedAt;
+
+    @Field("payload")
+    private byte[] payload;
+
+    @Field("rolled_up")
+    private boolean rolledUp;
+
+    public ArchivedOrder() {
+    }
+
+    public String getAccountId() {
+        return accountId;
+    }
+
+    public Order.OrderStatus getStatus() {
+        return status;
+    }
+
+    public Instant getOrderCreatedAt() {
+        return orderCreatedAt;
+    }
+
+    public byte[] getPayload() {
+        return payload;
+    }
+
+    public boolean isRolledUp() {
+        return rolledUp;
+    }
+
+    @Override
+    public Instant getCreatedAt() {
+        return this.createdAt;
+    }
+
+    @Override
+    public Instant getModifiedAt() {
+        return this.modifiedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "ArchivedOrder{" +
+                "id='" + getId() + '\'' +
+                ", accountId='" + accountId + '\'' +
+                ", status=" + status +
+                ", orderCreatedAt=" + orderCreatedAt +
+                ", payloadBytes=" + (payload != null ? payload.length : 0) +
+                '}';
+    }
+}
@@ -10,9 +10,14 @@ import java.time.Instant;
 @Document(collection = "categories")
 public class Category extends BaseEntity implements IAuditable {
 
+    public static final String NAME_INDEX = "name_key_unique";
+
     @Field("name")
     private String name;
 
+    @Field("name_key")
+    private String nameKey;
+
     @Field("description")
     private String description;
 
@@ -23,7 +28,7 @@ public class Category extends BaseEntity implements IAuditable {
     }
 
     public Category(String name, String description) {
-        this.name = name;
+        setName(name);
         this.description = description;
     }
 
@@ -33,6 +38,7 @@ public class Category extends BaseEntity implements IAuditable {
 
     public void setName(String name) {
         this.name = name;
+        this.nameKey = normalizeKey(name);
     }
 
     public String getDescription() {
@@ -0,0 +1,101 @@
+package com.foodordering.model.entity;
+
+import com.foodordering.model.abstraction.BaseEntity;
+import com.foodordering.model.abstraction.IAuditable;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+
+/**
+ * Stored outcome of a request sent with an Idempotency-Key header.
+ * The id is "scope:key" so the same key can be reused across endpoints.
+ * Documents are removed by a TTL index on expires_at.
+ */
+@Document(collection = "idempotency_keys")
+public class IdempotencyRecord extends BaseEntity implements IAuditable {
+
+    @Field("scope")
+    private String scope;
+
+    @Field("idempotency_key")
+    private String idempotencyKey;
+
+    @Field("fingerprint")
+    private String fingerprint;
+
+    @Field("status")
+    private RecordStatus status = RecordStatus.IN_PROGRESS;
+
+    @Field("response_body")
+    private String responseBody;
+
+    @Field("expires_at")
+    private Instant expiresAt;
+
+    public IdempotencyRecord() {
+    }
+
+    public IdempotencyRecord(String scope, String idempotencyKey, String fingerprint, Instant expiresAt) {
+        setId(scope + ":" + idempotencyKey);
+        this.scope = scope;
+        this.idempotencyKey = idempotencyKey;
+        this.fingerprint = fingerprint;
+        this.expiresAt = expiresAt;
+    }
+
+    public String getScope() {
+        return scope;
+    }
+
+    public String getIdempotencyKey() {
+        return idempotencyKey;
+    }
+
+    public String getFingerprint() {
+        return fingerprint;
+    }
+
+    public RecordStatus getStatus() {
+        return status;
+    }
+
+    public String getResponseBody() {
+        return responseBody;
+    }
+
+    public Instant getExpiresAt() {
+        return expiresAt;
+    }
+
+    public void complete(String responseBody) {
+        this.responseBody = responseBody;
+        this.status = RecordStatus.COMPLETED;
+    }
+
+    @Override
+    public Instant getCreatedAt() {
+        return this.createdAt;
+    }
+
+    @Override
+    public Instant getModifiedAt() {
+        return this.modifiedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "IdempotencyRecord{" +
+                "id='" + getId() + '\'' +
+                ", scope='" + scope + '\'' +
+                ", status=" + status +
+                ", expiresAt=" + expiresAt +
+                ", createdAt=" + getCreatedAt() +
+                '}';
+    }
+
+    public enum RecordStatus {
+        IN_PROGRESS,
+        COMPLETED
+    }
+}
@@ -2,6 +2,7 @@ package com.foodordering.model.entity;
 
 import com.foodordering.model.abstraction.BaseEntity;
 import com.foodordering.model.abstraction.IAuditable;
+import com.foodordering.model.value.Money;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -19,7 +20,7 @@ public class MenuItem extends BaseEntity implements IAuditable {
     private String description;
 
     @Field("price")
-    private Double price;
+    private Money price;
 
     @Field("category_id")
     private String categoryId;
@@ -33,10 +34,16 @@ public class MenuItem extends BaseEntity implements IAuditable {
     @Field("tags")
     private List<String> tags = new ArrayList<>();
 
+    @Field("prep_time_minutes")
+    private Integer prepTimeMinutes;
+
+    @Field("station")
+    private String station;
+
     public MenuItem() {
     }
 
-    public MenuItem(String name, String description, Double price) {
+    public MenuItem(String name, String description, Money price) {
         this.name = name;
         this.description = description;
         this.price = price;
@@ -58,11 +65,11 @@ public class MenuItem extends BaseEntity implements IAuditable {
         this.description = description;
     }
 
-    public Double getPrice() {
+    public Money getPrice() {
         return price;
     }
 
-    public void setPrice(Double price) {
+    public void setPrice(Money price) {
         this.price = price;
     }
 
@@ -98,6 +105,22 @@ public class MenuItem extends BaseEntity implements IAuditable {
         this.tags = tags;
     }
 
+    public Integer getPrepTimeMinutes() {
+        return prepTimeMinutes;
+    }
+
+    public void setPrepTimeMinutes(Integer prepTimeMinutes) {
+        this.prepTimeMinutes = prepTimeMinutes;
+    }
+
+    public String getStation() {
+        return station;
+    }
+
+    public void setStation(String station) {
+        this.station = station;
+    }
+
     @Override
     public Instant getCreatedAt() {
         return this.createdAt;
@@ -2,6 +2,7 @@ package com.foodordering.model.entity;
 
 import com.foodordering.model.abstraction.BaseEntity;
 import com.foodordering.model.abstraction.IAuditable;
+import com.foodordering.model.value.Money;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -19,7 +20,7 @@ public class Order extends BaseEntity implements IAuditable {
     private List<OrderItem> orderItems = new ArrayList<>();
 
     @Field("total_amount")
-    private Double totalAmount;
+    private Money totalAmount;
 
     @Field("status")
     private OrderStatus status = OrderStatus.PENDING;
@@ -30,6 +31,12 @@ public class Order extends BaseEntity implements IAuditable {
     @Field("notes")
     private String notes;
 
+    @Field("promised_at")
+    private Instant promisedAt;
+
+    @Field("confirmed_at")
+    private Instant confirmedAt;
+
     public Order() {
     }
 
@@ -54,11 +61,11 @@ public class Order extends BaseEntity implements IAuditable {
         this.orderItems = orderItems;
     }
 
-    public Double getTotalAmount() {
+    public Money getTotalAmount() {
         return totalAmount;
     }
 
-    public void setTotalAmount(Double totalAmount) {
+    public void setTotalAmount(Money totalAmount) {
         this.totalAmount = totalAmount;
     }
 
@@ -67,6 +74,10 @@ public class Order extends BaseEntity implements IAuditable {
     }
 
     public void setStatus(OrderStatus status) {
+        // Stamp the moment the order entered CONFIRMED; modified_at moves with any later edit
+        if (status == OrderStatus.CONFIRMED && this.status != OrderStatus.CONFIRMED) {
+            this.confirmedAt = Instant.now();
+        }
         this.status = status;
     }
 
@@ -86,6 +97,22 @@ public class Order extends BaseEntity implements IAuditable {
         this.notes = notes;
     }
 
+    public Instant getPromisedAt() {
+        return promisedAt;
+    }
+
+    public void setPromisedAt(Instant promisedAt) {
+        this.promisedAt = promisedAt;
+    }
+
+    public Instant getConfirmedAt() {
+        return confirmedAt;
+    }
+
+    public void setConfirmedAt(Instant confirmedAt) {
+        this.confirmedAt = confirmedAt;
+    }
+
     @Override
     public Instant getCreatedAt() {
         return this.createdAt;
@@ -119,19 +146,29 @@ public class Order extends BaseEntity implements IAuditable {
         private Integer quantity;
 
         @Field("price")
-        private Double price;
+        private Money price;
 
         @Field("subtotal")
-        private Double subtotal;
+        private Money subtotal;
+
+        // Snapshot of the menu item when the order was placed; not updated on menu edits
+        @Field("menu_item_name")
+        private String menuItemName;
+
+        @Field("category_id")
+        private String categoryId;
+
+        @Field("category_name")
+        private String categoryName;
 
         public OrderItem() {
         }
 
-        public OrderItem(String menuItemId, Integer quantity, Double price) {
+        public OrderItem(String menuItemId, Integer quantity, Money price) {
             this.menuItemId = menuItemId;
             this.quantity = quantity;
             this.price = price;
-            this.subtotal = price * quantity;
+            this.subtotal = price.times(quantity);
         }
 
         public String getMenuItemId() {
@@ -150,34 +187,59 @@ public class Order extends BaseEntity implements IAuditable {
             this.quantity = quantity;
             // Recalculate subtotal when quantity changes
             if (this.price != null) {
-                this.subtotal = this.price * quantity;
+                this.subtotal = this.price.times(quantity);
             }
         }
 
-        public Double getPrice() {
+        public Money getPrice() {
             return price;
         }
 
-        public void setPrice(Double price) {
+        public void setPrice(Money price) {
             this.price = price;
             // Recalculate subtotal when price changes
             if (this.quantity != null) {
-                this.subtotal = price * quantity;
+                this.subtotal = price.times(quantity);
             }
         }
 
-        public Double getSubtotal() {
+        public Money getSubtotal() {
             return subtotal;
         }
 
-        public void setSubtotal(Double subtotal) {
+        public void setSubtotal(Money subtotal) {
             this.subtotal = subtotal;
         }
 
+        public String getMenuItemName() {
+            return menuItemName;
+        }
+
+        public void setMenuItemName(String menuItemName) {
+            this.menuItemName = menuItemName;
+        }
+
+        public String getCategoryId() {
+            return categoryId;
+        }
+
+        public void setCategoryId(String categoryId) {
+            this.categoryId = categoryId;
+        }
+
+        public String getCategoryName() {
+            return categoryName;
+        }
+
+        public void setCategoryName(String categoryName) {
+            this.categoryName = categoryName;
+        }
+
         @Override
         public String toString() {
             return "OrderItem{" +
                     "menuItemId='" + menuItemId + '\'' +
+                    ", menuItemName='" + menuItemName + '\'' +
                     ", quantity=" + quantity +
                     ", price=" + price +
                     ", subtotal=" + subtotal +
@@ -0,0 +1,129 @@
+package com.foodordering.model.entity;
+
+import com.foodordering.model.abstraction.BaseEntity;
+import com.foodordering.model.abstraction.IAuditable;
+import com.foodordering.model.value.Money;
+import org.springframework.data.mongodb.core.mapping.Document;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Dashboard totals for archived orders, one document per month ("YYYY-MM" id).
+ * Cancelled orders are not counted, matching the live dashboard filter.
+ * Written only by the archival job, with $inc on the counters and $max on the
+ * HyperLogLog registers of distinct customers (sparse: register index to value).
+ */
+@Document(collection = "order_monthly_rollups")
+public class OrderMonthlyRollup extends BaseEntity implements IAuditable {
+
+    @Field("month")
+    private String month;
+
+    @Field("total_orders")
+    private Integer totalOrders;
+
+    @Field("total_menu_items_ordered")
+    private Integer totalMenuItemsOrdered;
+
+    @Field("total_revenue")
+    private Money totalRevenue;
+
+    @Field("customers")
+    private Map<String, Integer> customers = new HashMap<>();
+
+    // Keyed by menu item id
+    @Field("items")
+    private Map<String, ItemRollup> items = new HashMap<>();
+
+    public OrderMonthlyRollup() {
+    }
+
+    public String getMonth() {
+        return month;
+    }
+
+    public Integer getTotalOrders() {
+        return totalOrders;
+    }
+
+    public Integer getTotalMenuItemsOrdered() {
+        return totalMenuItemsOrdered;
+    }
+
+    public Money getTotalRevenue() {
+        return totalRevenue;
+    }
+
+    public Map<String, Integer> getCustomers() {
+        return customers;
+    }
+
+    public Map<String, ItemRollup> getItems() {
+        return items;
+    }
+
+    @Override
+    public Instant getCreatedAt() {
+        return this.createdAt;
+    }
+
+    @Override
+    public Instant getModifiedAt() {
+        return this.modifiedAt;
+    }
+
+    @Override
+    public String toString() {
+        return "OrderMonthlyRollup{" +
+                "month='" + month + '\'' +
+                ", totalOrders=" + totalOrders +
+                ", totalRevenue=" + totalRevenue +
+                ", items=" + (items != null ? items.size() : 0) +
+                '}';
+    }
+
+    // Nested class for per menu item totals
+    public static class ItemRollup {
+        // Latest name snapshot seen for the item
+        @Field("name")
+        private String name;
+
+        @Field("orders")
+        private Integer orders;
+
+        @Field("quantity")
+        private Integer quantity;
+
+        @Field("revenue")
+        private Money revenue;
+
+        @Field("customers")
+        private Map<String, Integer> customers = new HashMap<>();
+
+        public ItemRollup() {
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Integer getOrders() {
+            return orders;
+        }
+
+        public Integer getQuantity() {
+            return quantity;
+        }
+
+        public Money getRevenue() {
+            return revenue;
+        }
+
+        public Map<String, Integer> getCustomers() {
+            return customers;
+        }
+    }
+}
@@ -2,6 +2,7 @@ package com.foodordering.model.entity;
 
 import com.foodordering.model.abstraction.BaseEntity;
 import com.foodordering.model.abstraction.IAuditable;
+import com.foodordering.model.value.Money;
 import org.springframework.data.mongodb.core.mapping.Document;
 import org.springframework.data.mongodb.core.mapping.Field;
 
@@ -14,7 +15,7 @@ public class Payment extends BaseEntity implements IAuditable {
     private String orderId;
 
     @Field("amount")
-    private Double amount;
+    private Money amount;
 
     @Field("payment_method")
     private PaymentMethod paymentMethod = PaymentMethod.MOMO;
@@ -46,7 +47,7 @@ public class Payment extends BaseEntity implements IAuditable {
     public Payment() {
     }
 
-    public Payment(String orderId, Double amount) {
+    public Payment(String orderId, Money amount) {
         this.orderId = orderId;
         this.amount = amount;
     }
@@ -59,11 +60,11 @@ public class Payment extends BaseEntity implements IAuditable {
         this.orderId = orderId;
     }
 
-    public Double getAmount() {
+    public Money getAmount() {
         return amount;
     }
 
-    public void setAmount(Double amount) {
+    public void setAmount(Money amount) {
         this.amount = amount;
     }
 
@@ -12,9 +12,14 @@ import java.util.List;
 @Document(collection = "roles")
 public class Role extends BaseEntity implements IAuditable {
 
+    public static final String NAME_INDEX = "name_key_unique";
+
     @Field("name")
     private String name;
 
+    @Field("name_key")
+    private String nameKey;
+
     @Field("description")
     private String description;
 
@@ -25,7 +30,7 @@ public class Role extends BaseEntity implements IAuditable {
     }
 
     public Role(String name, String description) {
-        this.name = name;
+        setName(name);
         this.description = description;
     }
 
@@ -35,6 +40,7 @@ public class Role extends BaseEntity implements IAuditable {
 
     public void setName(String name) {
         this.name = name;
+        this.nameKey = normalizeKey(name);
     }
 
     public String getDescription() {
@@ -0,0 +1,132 @@
+package com.foodordering.model.value;
+
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import org.springframework.data.annotation.PersistenceCreator;
+import org.springframework.data.mongodb.core.mapping.Field;
+
+import java.io.Serial;
+import java.io.Serializable;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.Currency;
+import java.util.Objects;
+
+/**
+ * Immutable amount of money held as a whole number of minor units (cents, or
+ * dong for VND which has none) plus an ISO 4217 currency code.
+ * <p>
+ * Stored and serialized as {"amount": 12345, "currency": "VND"}. Arithmetic is
+ * exact; mixing currencies throws IllegalArgumentException.
+ */
+public final class Money implements Comparable<Money>, Serializable {
+
+    @Serial
+    private static final long serialVersionUID = 1L;
+
+    @Field("amount")
+    private final long amount;
+
+    @Field("currency")
+    private final String currency;
+
+    @PersistenceCreator
+    @JsonCreator
+    public Money(@JsonProperty("amount") long amount, @JsonProperty("currency") String currency) {
+        if (currency == null || currency.isBlank()) {
+            throw new IllegalArgumentException("Currency is required");
+        }
+        this.amount = amount;
+        this.currency = currency;
+    }
+
+    public static Money of(long minorUnits, String currency) {
+        return new Money(minorUnits, currency);
+    }
+
+    public static Money zero(String currency) {
+        return new Money(0L, currency);
+    }
+
+    /**
+     * Converts a decimal amount in major units (e.g. 12.34 USD), rounding half-up
+     * to the currency's minor unit.
+     */
+    public static Money ofMajor(BigDecimal majorUnits, String currency) {
+        BigDecimal minorUnits = majorUnits.movePointRight(fractionDigits(currency)).setScale(0, RoundingMode.HALF_UP);
+        return new Money(minorUnits.longValueExact(), currency);
+    }
+
+    /**
+     * Number of minor-unit digits of a currency (0 for VND, 2 for USD).
+     */
+    public static int fractionDigits(String currency) {
+        return Math.max(Currency.getInstance(currency).getDefaultFractionDigits(), 0);
+    }
+
+    public long getAmount() {
+        return amount;
+    }
+
+    public String getCurrency() {
+        return currency;
+    }
+
+    public Money plus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.addExact(amount, other.amount), currency);
+    }
+
+    public Money minus(Money other) {
+        requireSameCurrency(other);
+        return new Money(Math.subtractExact(amount, other.amount), currency);
+    }
+
+    public Money times(int quantity) {
+        return new Money(Math.multiplyExact(amount, quantity), currency);
+    }
+
+    @JsonIgnore
+    public boolean isPositive() {
+        return amount > 0;
+    }
+
+    @JsonIgnore
+    public boolean isZero() {
+        return amount == 0;
+    }
+
+    public BigDecimal toMajor() {
+        return BigDecimal.valueOf(amount, fractionDigits(currency));
+    }
+
+    private void requireSameCurrency(Money other) {
+        if (!currency.equals(other.currency)) {
+            throw new IllegalArgumentException("Currency mismatch: " + currency + " and " + other.currency);
+        }
+    }
+
+    @Override
+    public int compareTo(Money other) {
+        requireSameCurrency(other);
+        return Long.compare(amount, other.amount);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof Money other)) return false;
+        return amount == other.amount && currency.equals(other.currency);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(amount, currency);
+    }
+
+    @Override
+    public String toString() {
+        return toMajor().toPlainString() + " " + currency;
+    }
+}
@@ -1,25 +1,38 @@
 package com.foodordering.repository;
 
 import com.foodordering.model.entity.Account;
-import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface AccountRepository extends MongoRepository<Account, String> {
+public interface AccountRepository extends SoftDeleteRepository<Account, String> {
     
+    @Query("{ 'username': ?0, 'is_deleted': false }")
     Optional<Account> findByUsername(String username);
     
+    @Query("{ 'email': ?0, 'is_deleted': false }")
     Optional<Account> findByEmail(String email);
     
+    @Query("{ 'active': true, 'is_deleted': false }")
     List<Account> findByActiveTrue();
     
+    @Query("{ 'roles': ?0, 'is_deleted': false }")
     List<Account> findByRolesContaining(String role);
     
+    @Query(value = "{ 'username': ?0, 'is_deleted': false }", exists = true)
     boolean existsByUsername(String username);
     
+    @Query(value = "{ 'email': ?0, 'is_deleted': false }", exists = true)
     boolean existsByEmail(String email);
+
+    @Query(value = "{ '_id': ?0, 'active': true, 'is_deleted': false }", exists = true)
+    boolean existsActiveById(String id);
+
+    @Query(value = "{ '_id': { '$in': ?0 }, 'active': true, 'is_deleted': false }", fields = "{ '_id': 1 }")
+    List<Account> findActiveByIdIn(Collection<String> ids);
 }
 
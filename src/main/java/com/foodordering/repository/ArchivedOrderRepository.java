@@ -0,0 +1,14 @@
+package com.foodordering.repository;
+
+import com.foodordering.model.entity.ArchivedOrder;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface ArchivedOrderRepository extends SoftDeleteRepository<ArchivedOrder, String> {
+
+    @Query("{ 'account_id': ?0, 'is_deleted': false }")
+    List<ArchivedOrder> findByAccountId(String accountId);
+}
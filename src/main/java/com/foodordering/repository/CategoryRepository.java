@@ -1,21 +1,25 @@
 package com.foodordering.repository;
 
 import com.foodordering.model.entity.Category;
-import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 import java.util.Optional;
 
 @Repository
-public interface CategoryRepository extends MongoRepository<Category, String> {
+public interface CategoryRepository extends SoftDeleteRepository<Category, String> {
     
+    @Query("{ 'name': ?0, 'is_deleted': false }")
     Optional<Category> findByName(String name);
     
+    @Query("{ 'parent_id': null, 'is_deleted': false }")
     List<Category> findByParentIdIsNull();
     
+    @Query("{ 'parent_id': ?0, 'is_deleted': false }")
     List<Category> findByParentId(String parentId);
     
+    @Query(value = "{ 'name': ?0, 'is_deleted': false }", exists = true)
     boolean existsByName(String name);
 }
 
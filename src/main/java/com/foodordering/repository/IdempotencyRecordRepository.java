@@ -0,0 +1,8 @@
+package com.foodordering.repository;
+
+import com.foodordering.model.entity.IdempotencyRecord;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface IdempotencyRecordRepository extends SoftDeleteRepository<IdempotencyRecord, String> {
+}
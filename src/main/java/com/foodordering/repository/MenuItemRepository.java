@@ -1,24 +1,27 @@
 package com.foodordering.repository;
 
 import com.foodordering.model.entity.MenuItem;
-import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface MenuItemRepository extends MongoRepository<MenuItem, String> {
+public interface MenuItemRepository extends SoftDeleteRepository<MenuItem, String> {
     
+    @Query("{ 'category_id': ?0, 'is_deleted': false }")
     List<MenuItem> findByCategoryId(String categoryId);
     
+    @Query("{ 'available': true, 'is_deleted': false }")
     List<MenuItem> findByAvailableTrue();
     
+    @Query("{ 'category_id': ?0, 'available': true, 'is_deleted': false }")
     List<MenuItem> findByCategoryIdAndAvailableTrue(String categoryId);
     
+    @Query("{ 'tags': ?0, 'is_deleted': false }")
     List<MenuItem> findByTagsContaining(String tag);
     
-    List<MenuItem> findByNameContainingIgnoreCase(String name);
-    
+    @Query(value = "{ 'name': ?0, 'is_deleted': false }", exists = true)
     boolean existsByName(String name);
 }
 
@@ -0,0 +1,15 @@
+package com.foodordering.repository;
+
+import com.foodordering.model.entity.OrderMonthlyRollup;
+import org.springframework.data.mongodb.repository.Query;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface OrderMonthlyRollupRepository extends SoftDeleteRepository<OrderMonthlyRollup, String> {
+
+    // Months are "YYYY-MM" ids, so a string range is a month range
+    @Query("{ '_id': { '$gte': ?0, '$lte': ?1 }, 'is_deleted': false }")
+    List<OrderMonthlyRollup> findByMonthBetween(String startMonth, String endMonth);
+}
@@ -1,18 +1,21 @@
 package com.foodordering.repository;
 
 import com.foodordering.model.entity.Order;
-import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface OrderRepository extends MongoRepository<Order, String> {
+public interface OrderRepository extends SoftDeleteRepository<Order, String> {
     
+    @Query("{ 'account_id': ?0, 'is_deleted': false }")
     List<Order> findByAccountId(String accountId);
     
+    @Query("{ 'status': ?0, 'is_deleted': false }")
     List<Order> findByStatus(Order.OrderStatus status);
     
+    @Query("{ 'account_id': ?0, 'status': ?1, 'is_deleted': false }")
     List<Order> findByAccountIdAndStatus(String accountId, Order.OrderStatus status);
 }
 
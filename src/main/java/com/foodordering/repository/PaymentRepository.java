@@ -1,22 +1,27 @@
 package com.foodordering.repository;
 
 import com.foodordering.model.entity.Payment;
-import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
 
 @Repository
-public interface PaymentRepository extends MongoRepository<Payment, String> {
+public interface PaymentRepository extends SoftDeleteRepository<Payment, String> {
     
+    @Query("{ 'order_id': ?0, 'is_deleted': false }")
     List<Payment> findByOrderId(String orderId);
     
+    @Query("{ 'status': ?0, 'is_deleted': false }")
     List<Payment> findByStatus(Payment.PaymentStatus status);
     
+    @Query("{ 'payment_method': ?0, 'is_deleted': false }")
     List<Payment> findByPaymentMethod(Payment.PaymentMethod paymentMethod);
     
+    @Query("{ 'momo_transaction_id': ?0, 'is_deleted': false }")
     Payment findByMomoTransactionId(String momoTransactionId);
     
+    @Query("{ 'momo_order_id': ?0, 'is_deleted': false }")
     Payment findByMomoOrderId(String momoOrderId);
 }
 
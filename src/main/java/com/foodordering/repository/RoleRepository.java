@@ -1,16 +1,18 @@
 package com.foodordering.repository;
 
 import com.foodordering.model.entity.Role;
-import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.mongodb.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.Optional;
 
 @Repository
-public interface RoleRepository extends MongoRepository<Role, String> {
+public interface RoleRepository extends SoftDeleteRepository<Role, String> {
     
+    @Query("{ 'name': ?0, 'is_deleted': false }")
     Optional<Role> findByName(String name);
     
+    @Query(value = "{ 'name': ?0, 'is_deleted': false }", exists = true)
     boolean existsByName(String name);
 }
 
@@ -0,0 +1,23 @@
+package com.foodordering.repository;
+
+import org.springframework.data.mongodb.repository.MongoRepository;
+import org.springframework.data.repository.NoRepositoryBean;
+
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * Base for all repositories. The inherited lookups (findById, findAll, findAllById,
+ * existsById, count) only see documents with is_deleted = false; derived queries
+ * declare the same filter in their @Query. The IncludingDeleted variants are for
+ * admin views, restore and hard delete.
+ */
+@NoRepositoryBean
+public interface SoftDeleteRepository<T, ID> extends MongoRepository<T, ID> {
+
+    Optional<T> findByIdIncludingDeleted(ID id);
+
+    List<T> findAllIncludingDeleted();
+
+    boolean existsByIdIncludingDeleted(ID id);
+}
@@ -0,0 +1,118 @@
+package com.foodordering.repository.support;
+
+import com.foodordering.repository.SoftDeleteRepository;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.mongodb.core.MongoOperations;
+import org.springframework.data.mongodb.core.query.Criteria;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.repository.query.MongoEntityInformation;
+import org.springframework.data.mongodb.repository.support.SimpleMongoRepository;
+import org.springframework.util.Assert;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+
+/**
+ * Repository base class (registered in MongoRepositoryConfig) that hides soft-deleted
+ * documents from the CRUD lookups. The filter is an equality on is_deleted = false so
+ * queries can use the partial indexes built on that expression. Writes and deletes
+ * are inherited unchanged.
+ */
+public class SoftDeleteMongoRepository<T, ID> extends SimpleMongoRepository<T, ID>
+        implements SoftDeleteRepository<T, ID> {
+
+    public static final String DELETED_FIELD = "is_deleted";
+
+    private final MongoEntityInformation<T, ID> entityInformation;
+    private final MongoOperations mongoOperations;
+
+    public SoftDeleteMongoRepository(MongoEntityInformation<T, ID> entityInformation, MongoOperations mongoOperations) {
+        super(entityInformation, mongoOperations);
+        this.entityInformation = entityInformation;
+        this.mongoOperations = mongoOperations;
+    }
+
+    @Override
+    public Optional<T> findById(ID id) {
+        Assert.notNull(id, "The given id must not be null");
+        return Optional.ofNullable(mongoOperations.findOne(live(byId(id)), entityType(), collection()));
+    }
+
+    @Override
+    public boolean existsById(ID id) {
+        Assert.notNull(id, "The given id must not be null");
+        return mongoOperations.exists(live(byId(id)), entityType(), collection());
+    }
+
+    @Override
+    public List<T> findAll() {
+        return mongoOperations.find(live(new Criteria()), entityType(), collection());
+    }
+
+    @Override
+    public List<T> findAll(Sort sort) {
+        Assert.notNull(sort, "Sort must not be null");
+        return mongoOperations.find(live(new Criteria()).with(sort), entityType(), collection());
+    }
+
+    @Override
+    public Page<T> findAll(Pageable pageable) {
+        Assert.notNull(pageable, "Pageable must not be null");
+        long total = count();
+        List<T> content = mongoOperations.find(live(new Criteria()).with(pageable), entityType(), collection());
+        return new PageImpl<>(content, pageable, total);
+    }
+
+    @Override
+    public List<T> findAllById(Iterable<ID> ids) {
+        Assert.notNull(ids, "The given Ids of entities must not be null");
+        List<ID> idList = new ArrayList<>();
+        ids.forEach(idList::add);
+        if (idList.isEmpty()) {
+            return new ArrayList<>();
+        }
+        return mongoOperations.find(live(where(entityInformation.getIdAttribute()).in(idList)), entityType(), collection());
+    }
+
+    @Override
+    public long count() {
+        return mongoOperations.count(live(new Criteria()), entityType(), collection());
+    }
+
+    @Override
+    public Optional<T> findByIdIncludingDeleted(ID id) {
+        return super.findById(id);
+    }
+
+    @Override
+    public List<T> findAllIncludingDeleted() {
+        return super.findAll();
+    }
+
+    @Override
+    public boolean existsByIdIncludingDeleted(ID id) {
+        return super.existsById(id);
+    }
+
+    private Criteria byId(ID id) {
+        return where(entityInformation.getIdAttribute()).is(id);
+    }
+
+    private Query live(Criteria criteria) {
+        return new Query(criteria.and(DELETED_FIELD).is(false));
+    }
+
+    private Class<T> entityType() {
+        return entityInformation.getJavaType();
+    }
+
+    private String collection() {
+        return entityInformation.getCollectionName();
+    }
+}
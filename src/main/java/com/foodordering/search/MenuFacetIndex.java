@@ -0,0 +1,389 @@
+package com.foodordering.search;
+
+import com.foodordering.cache.CollectionChangeListener;
+import com.foodordering.model.entity.MenuItem;
+import com.foodordering.repository.MenuItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Bitset index for faceted menu browsing.
+ *
+ * Every live menu item gets a dense int ordinal (freed ordinals are reused), and each
+ * tag, category and the "available" flag keeps a BitSet over those ordinals. A filter
+ * is a handful of word-wise AND/OR operations and each facet count is one
+ * intersection cardinality, so queries stay far below a millisecond even for
+ * catalogs with tens of thousands of items.
+ *
+ * Like MenuSearchIndex it is loaded on first use and kept current by MenuItemServiceImpl.
+ */
+@Component
+public class MenuFacetIndex implements CollectionChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(MenuFacetIndex.class);
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, Integer> ordinals = new HashMap<>();
+    private final List<MenuItem> itemsByOrdinal = new ArrayList<>();
+    private final BitSet live = new BitSet();
+    private final BitSet available = new BitSet();
+    private final Map<String, BitSet> tagBits = new HashMap<>();
+    private final Map<String, String> tagLabels = new HashMap<>();
+    private final Map<String, BitSet> categoryBits = new HashMap<>();
+    private final Object loadLock = new Object();
+    private volatile boolean loaded;
+
+    // Changed under the write lock; non-null while a load is running
+    private volatile List<Runnable> changesDuringLoad;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            ensureLoaded();
+        } catch (RuntimeException e) {
+            log.warn("Menu facet index not loaded at start-up, will retry on first query: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Adds or replaces an item. Deleted items are removed from the index.
+     */
+    public void index(MenuItem menuItem) {
+        apply(() -> {
+            removeInternal(menuItem.getId());
+            if (!menuItem.isDeleted()) {
+                addInternal(menuItem);
+            }
+        });
+    }
+
+    public void remove(String menuItemId) {
+        apply(() -> removeInternal(menuItemId));
+    }
+
+    /**
+     * Drops everything; the next query reloads the catalog from Mongo.
+     */
+    public void reset() {
+        lock.writeLock().lock();
+        try {
+            clearInternal();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<String> getWatchedCollections() {
+        return Set.of("menu_items");
+    }
+
+    @Override
+    public void onDocumentChanged(String collection, String id) {
+        if (!loaded && changesDuringLoad == null) {
+            // The next load reads the document from Mongo
+            return;
+        }
+        menuItemRepository.findById(id).ifPresentOrElse(this::index, () -> remove(id));
+    }
+
+    @Override
+    public void onCollectionReset(String collection) {
+        reset();
+    }
+
+    /**
+     * Filters by tags (all or any of them), category and availability; null filters are ignored.
+     * Facet counts are computed over the filtered set.
+     */
+    public FacetResult query(List<String> tags, TagMatch match, String categoryId, Boolean availableOnly,
+                             int offset, int limit) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            BitSet result = (BitSet) live.clone();
+            if (categoryId != null) {
+                result.and(categoryBits.getOrDefault(categoryId, new BitSet()));
+            }
+            if (availableOnly != null) {
+                if (availableOnly) {
+                    result.and(available);
+                } else {
+                    result.andNot(available);
+                }
+            }
+            if (tags != null && !tags.isEmpty()) {
+                result.and(tagFilter(tags, match));
+            }
+
+            FacetResult facets = new FacetResult();
+            facets.total = result.cardinality();
+            int skipped = 0;
+            for (int ordinal = result.nextSetBit(0); ordinal >= 0 && facets.items.size() < limit;
+                 ordinal = result.nextSetBit(ordinal + 1)) {
+                if (skipped++ < offset) continue;
+                facets.items.add(itemsByOrdinal.get(ordinal));
+            }
+            for (Map.Entry<String, BitSet> entry : tagBits.entrySet()) {
+                int count = intersectionCount(result, entry.getValue());
+                if (count > 0) {
+                    facets.tagCounts.put(tagLabels.get(entry.getKey()), count);
+                }
+            }
+            for (Map.Entry<String, BitSet> entry : categoryBits.entrySet()) {
+                int count = intersectionCount(result, entry.getValue());
+                if (count > 0) {
+                    facets.categoryCounts.put(entry.getKey(), count);
+                }
+            }
+            return facets;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Items in any of the given categories, e.g. a category and all its descendants.
+     */
+    public List<MenuItem> itemsInCategories(Collection<String> categoryIds, boolean availableOnly) {
+        ensureLoaded();
+        lock.readLock().lock();
+        try {
+            BitSet result = new BitSet();
+            for (String categoryId : categoryIds) {
+                BitSet bits = categoryBits.get(categoryId);
+                if (bits != null) {
+                    result.or(bits);
+                }
+            }
+            if (availableOnly) {
+                result.and(available);
+            }
+            List<MenuItem> menuItems = new ArrayList<>(result.cardinality());
+            for (int ordinal = result.nextSetBit(0); ordinal >= 0; ordinal = result.nextSetBit(ordinal + 1)) {
+                menuItems.add(itemsByOrdinal.get(ordinal));
+            }
+            return menuItems;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private BitSet tagFilter(List<String> tags, TagMatch match) {
+        BitSet filter = null;
+        for (String tag : tags) {
+            BitSet bits = tagBits.getOrDefault(tagKey(tag), new BitSet());
+            if (filter == null) {
+                filter = (BitSet) bits.clone();
+            } else if (match == TagMatch.ANY) {
+                filter.or(bits);
+            } else {
+                filter.and(bits);
+            }
+        }
+        return filter;
+    }
+
+    private static int intersectionCount(BitSet a, BitSet b) {
+        BitSet intersection = (BitSet) b.clone();
+        intersection.and(a);
+        return intersection.cardinality();
+    }
+
+    /**
+     * Applies a write when the index is loaded, and records it for replay when a load is
+     * running, since the load may already have read past the item. Writes made while
+     * neither is the case are picked up by the next load.
+     */
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(change);
+            }
+            if (loaded) {
+                change.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                changesDuringLoad = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            // Read without holding the lock so catalog writes are not blocked by the load
+            List<MenuItem> menuItems;
+            try {
+                menuItems = menuItemRepository.findAll();
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    changesDuringLoad = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                clearInternal();
+                for (MenuItem menuItem : menuItems) {
+                    if (!menuItem.isDeleted()) {
+                        addInternal(menuItem);
+                    }
+                }
+                // Replay what was written during the read; each change is idempotent
+                changesDuringLoad.forEach(Runnable::run);
+                changesDuringLoad = null;
+                loaded = true;
+                log.info("Menu facet index loaded with {} items and {} tags", ordinals.size(), tagBits.size());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void addInternal(MenuItem menuItem) {
+        int ordinal = live.nextClearBit(0);
+        ordinals.put(menuItem.getId(), ordinal);
+        if (ordinal == itemsByOrdinal.size()) {
+            itemsByOrdinal.add(menuItem);
+        } else {
+            itemsByOrdinal.set(ordinal, menuItem);
+        }
+        live.set(ordinal);
+        available.set(ordinal, menuItem.isAvailable());
+        if (menuItem.getCategoryId() != null) {
+            categoryBits.computeIfAbsent(menuItem.getCategoryId(), id -> new BitSet()).set(ordinal);
+        }
+        for (String tag : distinctTags(menuItem)) {
+            String key = tagKey(tag);
+            tagLabels.putIfAbsent(key, tag.trim());
+            tagBits.computeIfAbsent(key, k -> new BitSet()).set(ordinal);
+        }
+    }
+
+    private void removeInternal(String menuItemId) {
+        Integer ordinal = ordinals.remove(menuItemId);
+        if (ordinal == null) {
+            return;
+        }
+        MenuItem menuItem = itemsByOrdinal.get(ordinal);
+        itemsByOrdinal.set(ordinal, null);
+        live.clear(ordinal);
+        available.clear(ordinal);
+        if (menuItem.getCategoryId() != null) {
+            clearBit(categoryBits, menuItem.getCategoryId(), ordinal);
+        }
+        for (String tag : distinctTags(menuItem)) {
+            String key = tagKey(tag);
+            if (clearBit(tagBits, key, ordinal)) {
+                tagLabels.remove(key);
+            }
+        }
+    }
+
+    /**
+     * Clears the bit and drops the set once empty; returns true when it was dropped.
+     */
+    private static boolean clearBit(Map<String, BitSet> sets, String key, int ordinal) {
+        BitSet bits = sets.get(key);
+        if (bits == null) {
+            return false;
+        }
+        bits.clear(ordinal);
+        if (bits.isEmpty()) {
+            sets.remove(key);
+            return true;
+        }
+        return false;
+    }
+
+    private void clearInternal() {
+        ordinals.clear();
+        itemsByOrdinal.clear();
+        live.clear();
+        available.clear();
+        tagBits.clear();
+        tagLabels.clear();
+        categoryBits.clear();
+    }
+
+    private static Set<String> distinctTags(MenuItem menuItem) {
+        Set<String> tags = new LinkedHashSet<>();
+        if (menuItem.getTags() != null) {
+            for (String tag : menuItem.getTags()) {
+                if (tag != null && !tag.isBlank()) {
+                    tags.add(tag);
+                }
+            }
+        }
+        return tags;
+    }
+
+    private static String tagKey(String tag) {
+        return TextNormalizer.fold(tag).trim();
+    }
+
+    public enum TagMatch {
+        ALL,
+        ANY
+    }
+
+    public static class FacetResult {
+        private int total;
+        private final List<MenuItem> items = new ArrayList<>();
+        private final Map<String, Integer> tagCounts = new TreeMap<>();
+        private final Map<String, Integer> categoryCounts = new TreeMap<>();
+
+        public int getTotal() {
+            return total;
+        }
+
+        public List<MenuItem> getItems() {
+            return items;
+        }
+
+        public Map<String, Integer> getTagCounts() {
+            return tagCounts;
+        }
+
+        public Map<String, Integer> getCategoryCounts() {
+            return categoryCounts;
+        }
+    }
+}
@@ -0,0 +1,385 @@
+package com.foodordering.search;
+
+import com.foodordering.cache.CollectionChangeListener;
+import com.foodordering.model.entity.MenuItem;
+import com.foodordering.repository.MenuItemRepository;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * In-memory full-text index over the menu catalog.
+ *
+ * Name, tags and description are tokenized and accent-folded into an inverted index
+ * (term -> item id -> field weight). Every query token must match an item, either
+ * exactly, as a prefix, or within a small edit distance; the item score is the sum
+ * of the best match per token. A prefix trie over the terms backs autocomplete.
+ *
+ * The index is loaded on first use and kept current by MenuItemServiceImpl, which
+ * calls {@link #index(MenuItem)} / {@link #remove(String)} on every write. Writes
+ * that arrive while a load is running are replayed on top of the loaded catalog.
+ */
+@Component
+public class MenuSearchIndex implements CollectionChangeListener {
+
+    private static final Logger log = LoggerFactory.getLogger(MenuSearchIndex.class);
+
+    private static final float NAME_WEIGHT = 3.0f;
+    private static final float TAG_WEIGHT = 2.0f;
+    private static final float DESCRIPTION_WEIGHT = 1.0f;
+
+    private static final float EXACT_MATCH = 1.0f;
+    private static final float PREFIX_MATCH = 0.6f;
+    private static final float FUZZY_MATCH = 0.4f;
+
+    private static final int MAX_PREFIX_EXPANSIONS = 50;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+    private final Map<String, MenuItem> items = new HashMap<>();
+    private final Map<String, Map<String, Float>> postings = new HashMap<>();
+    private final Map<String, Set<String>> termsByItem = new HashMap<>();
+    private final PrefixTrie trie = new PrefixTrie();
+    private final Object loadLock = new Object();
+    private volatile boolean loaded;
+
+    // Changed under the write lock; non-null while a load is running
+    private volatile List<Runnable> changesDuringLoad;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void warmUp() {
+        try {
+            ensureLoaded();
+        } catch (RuntimeException e) {
+            log.warn("Menu search index not loaded at start-up, will retry on first search: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Adds or replaces an item. Deleted items are removed from the index.
+     */
+    public void index(MenuItem menuItem) {
+        apply(() -> {
+            removeInternal(menuItem.getId());
+            if (!menuItem.isDeleted()) {
+                addInternal(menuItem);
+            }
+        });
+    }
+
+    public void remove(String menuItemId) {
+        apply(() -> removeInternal(menuItemId));
+    }
+
+    /**
+     * Drops everything; the next query reloads the catalog from Mongo.
+     */
+    public void reset() {
+        lock.writeLock().lock();
+        try {
+            clearInternal();
+            loaded = false;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public Set<String> getWatchedCollections() {
+        return Set.of("menu_items");
+    }
+
+    @Override
+    public void onDocumentChanged(String collection, String id) {
+        if (!loaded && changesDuringLoad == null) {
+            // The next load reads the document from Mongo
+            return;
+        }
+        menuItemRepository.findById(id).ifPresentOrElse(this::index, () -> remove(id));
+    }
+
+    @Override
+    public void onCollectionReset(String collection) {
+        reset();
+    }
+
+    /**
+     * Returns matching items, best match first.
+     */
+    public List<MenuItem> search(String query) {
+        ensureLoaded();
+        List<String> tokens = TextNormalizer.tokenize(query);
+        if (tokens.isEmpty()) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            Map<String, Float> scores = score(tokens, 2);
+            return rank(scores);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Suggests item names for partially typed input; the last token is treated as a prefix.
+     */
+    public List<String> autocomplete(String prefix, int limit) {
+        ensureLoaded();
+        List<String> tokens = TextNormalizer.tokenize(prefix);
+        if (tokens.isEmpty() || limit <= 0) {
+            return new ArrayList<>();
+        }
+
+        lock.readLock().lock();
+        try {
+            // Even a single typed character is expanded for autocomplete
+            Map<String, Float> scores = score(tokens, 1);
+            Set<String> names = new LinkedHashSet<>();
+            for (MenuItem menuItem : rank(scores)) {
+                names.add(menuItem.getName());
+                if (names.size() >= limit) break;
+            }
+            return new ArrayList<>(names);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private Map<String, Float> score(List<String> tokens, int lastTokenMinPrefix) {
+        Map<String, Float> scores = null;
+        for (int i = 0; i < tokens.size(); i++) {
+            int minPrefix = i == tokens.size() - 1 ? lastTokenMinPrefix : 2;
+            Map<String, Float> tokenScores = scoreToken(tokens.get(i), minPrefix);
+            if (scores == null) {
+                scores = tokenScores;
+            } else {
+                // Every token has to match
+                scores.keySet().retainAll(tokenScores.keySet());
+                scores.replaceAll((id, score) -> score + tokenScores.get(id));
+            }
+            if (scores.isEmpty()) break;
+        }
+        return scores;
+    }
+
+    private Map<String, Float> scoreToken(String token, int minPrefix) {
+        Map<String, Float> scores = new HashMap<>();
+        Map<String, Float> exact = postings.get(token);
+        if (exact != null) {
+            accumulate(scores, exact, EXACT_MATCH);
+        }
+
+        if (token.length() >= minPrefix) {
+            for (String term : trie.termsWithPrefix(token, MAX_PREFIX_EXPANSIONS)) {
+                if (!term.equals(token)) {
+                    accumulate(scores, postings.get(term), PREFIX_MATCH);
+                }
+            }
+        }
+
+        if (scores.isEmpty()) {
+            int maxEdits = maxEdits(token);
+            if (maxEdits > 0) {
+                for (Map.Entry<String, Map<String, Float>> entry : postings.entrySet()) {
+                    int distance = editDistance(token, entry.getKey(), maxEdits);
+                    if (distance <= maxEdits) {
+                        accumulate(scores, entry.getValue(), FUZZY_MATCH / distance);
+                    }
+                }
+            }
+        }
+        return scores;
+    }
+
+    private void accumulate(Map<String, Float> scores, Map<String, Float> termPostings, float factor) {
+        for (Map.Entry<String, Float> posting : termPostings.entrySet()) {
+            float score = posting.getValue() * factor;
+            scores.merge(posting.getKey(), score, Math::max);
+        }
+    }
+
+    private List<MenuItem> rank(Map<String, Float> scores) {
+        List<MenuItem> ranked = new ArrayList<>();
+        if (scores == null) {
+            return ranked;
+        }
+        scores.keySet().forEach(id -> ranked.add(items.get(id)));
+        ranked.sort(Comparator.<MenuItem>comparingDouble(item -> -scores.get(item.getId()))
+                .thenComparingInt(item -> item.getName() != null ? item.getName().length() : 0)
+                .thenComparing(MenuItem::getId));
+        return ranked;
+    }
+
+    /**
+     * Applies a write when the index is loaded, and records it for replay when a load is
+     * running, since the load may already have read past the item. Writes made while
+     * neither is the case are picked up by the next load.
+     */
+    private void apply(Runnable change) {
+        lock.writeLock().lock();
+        try {
+            if (changesDuringLoad != null) {
+                changesDuringLoad.add(change);
+            }
+            if (loaded) {
+                change.run();
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void ensureLoaded() {
+        if (loaded) {
+            return;
+        }
+        synchronized (loadLock) {
+            if (loaded) {
+                return;
+            }
+            lock.writeLock().lock();
+            try {
+                changesDuringLoad = new ArrayList<>();
+            } finally {
+                lock.writeLock().unlock();
+            }
+
+            // Read without holding the lock so catalog writes are not blocked by the load
+            List<MenuItem> menuItems;
+            try {
+                menuItems = menuItemRepository.findAll();
+            } catch (RuntimeException e) {
+                lock.writeLock().lock();
+                try {
+                    changesDuringLoad = null;
+                } finally {
+                    lock.writeLock().unlock();
+                }
+                throw e;
+            }
+
+            lock.writeLock().lock();
+            try {
+                clearInternal();
+                for (MenuItem menuItem : menuItems) {
+                    if (!menuItem.isDeleted()) {
+                        addInternal(menuItem);
+                    }
+                }
+                // Replay what was written during the read; each change is idempotent
+                changesDuringLoad.forEach(Runnable::run);
+                changesDuringLoad = null;
+                loaded = true;
+                log.info("Menu search index loaded with {} items and {} terms", items.size(), postings.size());
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+    }
+
+    private void addInternal(MenuItem menuItem) {
+        Map<String, Float> weights = new HashMap<>();
+        addField(weights, menuItem.getName(), NAME_WEIGHT);
+        if (menuItem.getTags() != null) {
+            menuItem.getTags().forEach(tag -> addField(weights, tag, TAG_WEIGHT));
+        }
+        addField(weights, menuItem.getDescription(), DESCRIPTION_WEIGHT);
+
+        items.put(menuItem.getId(), menuItem);
+        termsByItem.put(menuItem.getId(), new HashSet<>(weights.keySet()));
+        for (Map.Entry<String, Float> entry : weights.entrySet()) {
+            Map<String, Float> termPostings = postings.computeIfAbsent(entry.getKey(), term -> {
+                trie.add(term);
+                return new HashMap<>();
+            });
+            termPostings.put(menuItem.getId(), entry.getValue());
+        }
+    }
+
+    private void addField(Map<String, Float> weights, String text, float weight) {
+        // A term counts once per field; matches in several fields add up
+        for (String token : new HashSet<>(TextNormalizer.tokenize(text))) {
+            weights.merge(token, weight, Float::sum);
+        }
+    }
+
+    private void removeInternal(String menuItemId) {
+        items.remove(menuItemId);
+        Set<String> terms = termsByItem.remove(menuItemId);
+        if (terms == null) {
+            return;
+        }
+        for (String term : terms) {
+            Map<String, Float> termPostings = postings.get(term);
+            if (termPostings == null) continue;
+            termPostings.remove(menuItemId);
+            if (termPostings.isEmpty()) {
+                postings.remove(term);
+                trie.remove(term);
+            }
+        }
+    }
+
+    private void clearInternal() {
+        for (String term : postings.keySet()) {
+            trie.remove(term);
+        }
+        items.clear();
+        postings.clear();
+        termsByItem.clear();
+    }
+
+    private static int maxEdits(String token) {
+        if (token.length() >= 8) return 2;
+        if (token.length() >= 4) return 1;
+        return 0;
+    }
+
+    /**
+     * Levenshtein distance, giving up (returning max + 1) as soon as it exceeds max.
+     */
+    static int editDistance(String a, String b, int max) {
+        if (Math.abs(a.length() - b.length()) > max) {
+            return max + 1;
+        }
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            current[0] = i;
+            int rowMin = current[0];
+            for (int j = 1; j <= b.length(); j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(current[j - 1] + 1, previous[j] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > max) {
+                return max + 1;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()];
+    }
+}
@@ -0,0 +1,76 @@
+package com.foodordering.search;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+
+/**
+ * Character trie over index terms, used to expand a typed prefix into the terms
+ * that start with it. Not thread-safe; MenuSearchIndex guards it with its lock.
+ */
+class PrefixTrie {
+
+    private final Node root = new Node();
+
+    void add(String term) {
+        Node node = root;
+        for (int i = 0; i < term.length(); i++) {
+            node = node.children.computeIfAbsent(term.charAt(i), c -> new Node());
+        }
+        node.terminal = true;
+    }
+
+    void remove(String term) {
+        remove(root, term, 0);
+    }
+
+    private boolean remove(Node node, String term, int depth) {
+        if (depth == term.length()) {
+            node.terminal = false;
+        } else {
+            Node child = node.children.get(term.charAt(depth));
+            if (child != null && remove(child, term, depth + 1)) {
+                node.children.remove(term.charAt(depth));
+            }
+        }
+        return !node.terminal && node.children.isEmpty();
+    }
+
+    /**
+     * Returns up to limit terms starting with prefix, shortest first.
+     */
+    List<String> termsWithPrefix(String prefix, int limit) {
+        Node node = root;
+        for (int i = 0; i < prefix.length() && node != null; i++) {
+            node = node.children.get(prefix.charAt(i));
+        }
+        List<String> terms = new ArrayList<>();
+        if (node == null) {
+            return terms;
+        }
+
+        // Breadth-first so shorter (closer) completions come first
+        List<Map.Entry<String, Node>> level = new ArrayList<>();
+        level.add(Map.entry(prefix, node));
+        while (!level.isEmpty() && terms.size() < limit) {
+            List<Map.Entry<String, Node>> next = new ArrayList<>();
+            for (Map.Entry<String, Node> entry : level) {
+                if (entry.getValue().terminal) {
+                    terms.add(entry.getKey());
+                    if (terms.size() >= limit) break;
+                }
+                for (Map.Entry<Character, Node> child : entry.getValue().children.entrySet()) {
+                    next.add(Map.entry(entry.getKey() + child.getKey(), child.getValue()));
+                }
+            }
+            level = next;
+        }
+        return terms;
+    }
+
+    private static final class Node {
+        private final Map<Character, Node> children = new TreeMap<>();
+        private boolean terminal;
+    }
+}
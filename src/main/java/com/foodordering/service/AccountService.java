@@ -17,6 +17,8 @@ public interface AccountService {
     
     List<AccountResponse> getAll();
     
+    List<AccountResponse> getAllIncludingDeleted();
+    
     List<AccountResponse> getActiveAccounts();
     
     AccountResponse update(String id, AccountRequest request);
@@ -2,6 +2,7 @@ package com.foodordering.service;
 
 import com.foodordering.dto.request.CategoryRequest;
 import com.foodordering.dto.response.CategoryResponse;
+import com.foodordering.dto.response.CategoryTreeResponse;
 
 import java.util.List;
 
@@ -13,10 +14,16 @@ public interface CategoryService {
     
     List<CategoryResponse> getAll();
     
+    List<CategoryResponse> getAllIncludingDeleted();
+    
     List<CategoryResponse> getRootCategories();
     
     List<CategoryResponse> getCategoriesByParent(String parentId);
     
+    List<CategoryTreeResponse> getTree();
+    
+    CategoryTreeResponse getSubtree(String id);
+    
     CategoryResponse update(String id, CategoryRequest request);
     
     void delete(String id);
@@ -1,7 +1,12 @@
 package com.foodordering.service;
 
+import com.foodordering.analytics.MenuItemMetric;
 import com.foodordering.dto.response.DashboardResponse;
+import com.foodordering.dto.response.DemandHeatmapResponse;
+import com.foodordering.dto.response.TopMenuItemsResponse;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.time.YearMonth;
 import java.util.List;
 
@@ -14,5 +19,10 @@ public interface DashboardService {
     DashboardResponse getAllMenuItemOrderStats();
     
     List<DashboardResponse.MenuItemOrderStats> getTopOrderedMenuItems(Integer limit);
+
+    TopMenuItemsResponse getApproximateTopMenuItems(LocalDate from, LocalDate to, Integer limit, MenuItemMetric metric);
+
+    DemandHeatmapResponse getDemandHeatmap(String menuItemId, String categoryId, LocalDateTime from, LocalDateTime to,
+                                           MenuItemMetric metric);
 }
 
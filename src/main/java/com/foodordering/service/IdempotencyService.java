@@ -0,0 +1,13 @@
+package com.foodordering.service;
+
+import java.util.function.Supplier;
+
+public interface IdempotencyService {
+
+    /**
+     * Runs the action at most once per (scope, key). Retries with the same key and
+     * the same request body get the stored response back; a different body is rejected.
+     * A null or blank key simply runs the action.
+     */
+    <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action);
+}
@@ -0,0 +1,22 @@
+package com.foodordering.service;
+
+import com.foodordering.dto.response.KitchenTicketResponse;
+import com.foodordering.dto.response.OrderResponse;
+
+import java.util.List;
+import java.util.Map;
+
+public interface KitchenService {
+
+    Map<String, Integer> getStations();
+
+    List<KitchenTicketResponse> getQueue(String station, Integer limit);
+
+    /**
+     * Takes the most urgent ticket of the station and moves its order to PREPARING.
+     * Returns null when the station has nothing waiting.
+     */
+    KitchenTicketResponse claim(String station);
+
+    OrderResponse complete(String orderId);
+}
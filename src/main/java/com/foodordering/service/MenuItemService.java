@@ -1,7 +1,9 @@
 package com.foodordering.service;
 
 import com.foodordering.dto.request.MenuItemRequest;
+import com.foodordering.dto.response.MenuItemFacetResponse;
 import com.foodordering.dto.response.MenuItemResponse;
+import com.foodordering.search.MenuFacetIndex;
 
 import java.util.List;
 
@@ -13,14 +15,23 @@ public interface MenuItemService {
     
     List<MenuItemResponse> getAll();
     
+    List<MenuItemResponse> getAllIncludingDeleted();
+    
     List<MenuItemResponse> getAvailableItems();
     
     List<MenuItemResponse> getByCategory(String categoryId);
     
     List<MenuItemResponse> getByCategoryAndAvailable(String categoryId);
     
+    List<MenuItemResponse> getByCategorySubtree(String categoryId, boolean availableOnly);
+    
     List<MenuItemResponse> searchByName(String name);
     
+    List<String> autocomplete(String prefix, Integer limit);
+    
+    MenuItemFacetResponse getFacets(List<String> tags, MenuFacetIndex.TagMatch match, String categoryId,
+                                    Boolean available, Integer offset, Integer limit);
+    
     MenuItemResponse update(String id, MenuItemRequest request);
     
     void delete(String id);
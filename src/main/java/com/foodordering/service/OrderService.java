@@ -1,6 +1,7 @@
 package com.foodordering.service;
 
 import com.foodordering.dto.request.OrderRequest;
+import com.foodordering.dto.response.BulkOrderResponse;
 import com.foodordering.dto.response.OrderResponse;
 import com.foodordering.model.entity.Order;
 
@@ -10,10 +11,14 @@ public interface OrderService {
     
     OrderResponse create(OrderRequest request);
     
+    BulkOrderResponse createBulk(List<OrderRequest> requests);
+    
     OrderResponse getById(String id);
     
     List<OrderResponse> getAll();
     
+    List<OrderResponse> getAllIncludingDeleted();
+    
     List<OrderResponse> getByAccount(String accountId);
     
     List<OrderResponse> getByStatus(Order.OrderStatus status);
@@ -24,6 +29,12 @@ public interface OrderService {
     
     OrderResponse updateStatus(String id, Order.OrderStatus status);
     
+    /**
+     * Moves the order to {@code next} only if it is currently {@code expected}.
+     * Returns null when the order is missing or its status has already moved on.
+     */
+    OrderResponse transitionStatus(String id, Order.OrderStatus expected, Order.OrderStatus next);
+    
     void delete(String id);
     
     void softDelete(String id);
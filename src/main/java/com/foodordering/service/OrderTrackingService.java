@@ -0,0 +1,10 @@
+package com.foodordering.service;
+
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+public interface OrderTrackingService {
+
+    SseEmitter subscribeToOrder(String orderId);
+
+    SseEmitter subscribeToAccount(String accountId);
+}
@@ -14,6 +14,8 @@ public interface PaymentService {
     
     List<PaymentResponse> getAll();
     
+    List<PaymentResponse> getAllIncludingDeleted();
+    
     List<PaymentResponse> getByOrder(String orderId);
     
     List<PaymentResponse> getByStatus(Payment.PaymentStatus status);
@@ -15,6 +15,8 @@ public interface RoleService {
     
     List<RoleResponse> getAll();
     
+    List<RoleResponse> getAllIncludingDeleted();
+    
     RoleResponse update(String id, RoleRequest request);
     
     void delete(String id);
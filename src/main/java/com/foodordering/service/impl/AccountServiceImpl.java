@@ -1,11 +1,13 @@
 package com.foodordering.service.impl;
 
+import com.foodordering.cache.AccountExistenceCache;
 import com.foodordering.dto.request.AccountRequest;
 import com.foodordering.dto.response.AccountResponse;
 import com.foodordering.model.entity.Account;
 import com.foodordering.repository.AccountRepository;
 import com.foodordering.service.AccountService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -17,15 +19,11 @@ public class AccountServiceImpl implements AccountService {
     @Autowired
     private AccountRepository accountRepository;
 
+    @Autowired
+    private AccountExistenceCache accountExistenceCache;
+
     @Override
     public AccountResponse create(AccountRequest request) {
-        if (accountRepository.existsByUsername(request.getUsername())) {
-            throw new RuntimeException("Username already exists: " + request.getUsername());
-        }
-        if (accountRepository.existsByEmail(request.getEmail())) {
-            throw new RuntimeException("Email already exists: " + request.getEmail());
-        }
-
         Account account = new Account();
         account.setUsername(request.getUsername());
         account.setEmail(request.getEmail());
@@ -37,7 +35,10 @@ public class AccountServiceImpl implements AccountService {
             account.setActive(request.getActive());
         }
 
-        Account saved = accountRepository.save(account);
+        Account saved = save(account);
+        if (saved.isActive()) {
+            accountExistenceCache.markActive(saved.getId());
+        }
         return toResponse(saved);
     }
 
@@ -69,6 +70,13 @@ public class AccountServiceImpl implements AccountService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<AccountResponse> getAllIncludingDeleted() {
+        return accountRepository.findAllIncludingDeleted().stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<AccountResponse> getActiveAccounts() {
         return accountRepository.findByActiveTrue().stream()
@@ -81,17 +89,11 @@ public class AccountServiceImpl implements AccountService {
         Account account = accountRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Account not found with id: " + id));
 
-        if (request.getUsername() != null && !request.getUsername().equals(account.getUsername())) {
-            if (accountRepository.existsByUsername(request.getUsername())) {
-                throw new RuntimeException("Username already exists: " + request.getUsername());
-            }
+        if (request.getUsername() != null) {
             account.setUsername(request.getUsername());
         }
 
-        if (request.getEmail() != null && !request.getEmail().equals(account.getEmail())) {
-            if (accountRepository.existsByEmail(request.getEmail())) {
-                throw new RuntimeException("Email already exists: " + request.getEmail());
-            }
+        if (request.getEmail() != null) {
             account.setEmail(request.getEmail());
         }
 
@@ -107,16 +109,19 @@ public class AccountServiceImpl implements AccountService {
             account.setActive(request.getActive());
         }
 
-        Account updated = accountRepository.save(account);
+        Account updated = save(account);
+        // The active flag may have changed
+        accountExistenceCache.invalidate(id);
         return toResponse(updated);
     }
 
     @Override
     public void delete(String id) {
-        if (!accountRepository.existsById(id)) {
+        if (!accountRepository.existsByIdIncludingDeleted(id)) {
             throw new RuntimeException("Account not found with id: " + id);
         }
         accountRepository.deleteById(id);
+        accountExistenceCache.invalidate(id);
     }
 
     @Override
@@ -125,17 +130,34 @@ public class AccountServiceImpl implements AccountService {
                 .orElseThrow(() -> new RuntimeException("Account not found with id: " + id));
         account.softDelete();
         accountRepository.save(account);
+        accountExistenceCache.invalidate(id);
     }
 
     @Override
     public AccountResponse restore(String id) {
-        Account account = accountRepository.findById(id)
+        Account account = accountRepository.findByIdIncludingDeleted(id)
                 .orElseThrow(() -> new RuntimeException("Account not found with id: " + id));
         account.restore();
         Account restored = accountRepository.save(account);
+        accountExistenceCache.invalidate(id);
         return toResponse(restored);
     }
 
+    /**
+     * Saves the account, relying on the unique username/email indexes instead of
+     * exists-checks; duplicate-key errors are reported the same way as before.
+     */
+    private Account save(Account account) {
+        try {
+            return accountRepository.save(account);
+        } catch (DuplicateKeyException e) {
+            if (e.getMessage() != null && e.getMessage().contains(Account.EMAIL_INDEX)) {
+                throw new RuntimeException("Email already exists: " + account.getEmail());
+            }
+            throw new RuntimeException("Username already exists: " + account.getUsername());
+        }
+    }
+
     private AccountResponse toResponse(Account account) {
         AccountResponse response = new AccountResponse();
         response.setId(account.getId());
@@ -145,6 +167,7 @@ public class AccountServiceImpl implements AccountService {
         response.setActive(account.isActive());
         response.setCreatedAt(account.getCreatedAt());
         response.setModifiedAt(account.getModifiedAt());
+        response.setDeleted(account.isDeleted());
         return response;
     }
 }
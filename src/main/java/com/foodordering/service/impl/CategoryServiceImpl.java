@@ -1,14 +1,21 @@
 package com.foodordering.service.impl;
 
+import com.foodordering.cache.CatalogResponseCache;
+import com.foodordering.cache.CategoryTreeCache;
+import com.foodordering.cache.SingleFlight;
 import com.foodordering.dto.request.CategoryRequest;
 import com.foodordering.dto.response.CategoryResponse;
+import com.foodordering.dto.response.CategoryTreeResponse;
 import com.foodordering.model.entity.Category;
 import com.foodordering.repository.CategoryRepository;
 import com.foodordering.service.CategoryService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
 import java.util.stream.Collectors;
 
 @Service
@@ -17,49 +24,83 @@ public class CategoryServiceImpl implements CategoryService {
     @Autowired
     private CategoryRepository categoryRepository;
 
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
     @Override
     public CategoryResponse create(CategoryRequest request) {
-        if (categoryRepository.existsByName(request.getName())) {
-            throw new RuntimeException("Category already exists with name: " + request.getName());
-        }
-
         Category category = new Category();
         category.setName(request.getName());
         category.setDescription(request.getDescription());
         category.setParentId(request.getParentId());
 
-        Category saved = categoryRepository.save(category);
+        Category saved = save(category);
+        categoryTreeCache.invalidate();
+        catalogResponseCache.invalidate();
         return toResponse(saved);
     }
 
     @Override
     public CategoryResponse getById(String id) {
-        Category category = categoryRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
-        return toResponse(category);
+        return singleFlight.execute("categories", "id:" + id, () -> {
+            Category category = categoryRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
+            return toResponse(category);
+        });
     }
 
     @Override
     public List<CategoryResponse> getAll() {
-        return categoryRepository.findAll().stream()
+        return singleFlight.execute("categories", "all",
+                () -> categoryRepository.findAll().stream()
+                        .map(this::toResponse)
+                        .collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<CategoryResponse> getAllIncludingDeleted() {
+        return categoryRepository.findAllIncludingDeleted().stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<CategoryResponse> getRootCategories() {
-        return categoryRepository.findByParentIdIsNull().stream()
+        return categoryTreeCache.roots().stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<CategoryResponse> getCategoriesByParent(String parentId) {
-        return categoryRepository.findByParentId(parentId).stream()
+        return categoryTreeCache.children(parentId).stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<CategoryTreeResponse> getTree() {
+        Set<String> visited = new HashSet<>();
+        return categoryTreeCache.roots().stream()
+                .map(root -> toTreeResponse(root, visited))
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public CategoryTreeResponse getSubtree(String id) {
+        Category category = categoryTreeCache.get(id);
+        if (category == null) {
+            throw new RuntimeException("Category not found with id: " + id);
+        }
+        return toTreeResponse(category, new HashSet<>());
+    }
+
     @Override
     public CategoryResponse update(String id, CategoryRequest request) {
         Category category = categoryRepository.findById(id)
@@ -74,19 +115,26 @@ public class CategoryServiceImpl implements CategoryService {
         }
 
         if (request.getParentId() != null) {
+            if (categoryTreeCache.wouldCreateCycle(id, request.getParentId())) {
+                throw new RuntimeException("Category cannot be moved under itself or one of its descendants: " + request.getParentId());
+            }
             category.setParentId(request.getParentId());
         }
 
-        Category updated = categoryRepository.save(category);
+        Category updated = save(category);
+        categoryTreeCache.invalidate();
+        catalogResponseCache.invalidate();
         return toResponse(updated);
     }
 
     @Override
     public void delete(String id) {
-        if (!categoryRepository.existsById(id)) {
+        if (!categoryRepository.existsByIdIncludingDeleted(id)) {
             throw new RuntimeException("Category not found with id: " + id);
         }
         categoryRepository.deleteById(id);
+        categoryTreeCache.invalidate();
+        catalogResponseCache.invalidate();
     }
 
     @Override
@@ -95,6 +143,34 @@ public class CategoryServiceImpl implements CategoryService {
                 .orElseThrow(() -> new RuntimeException("Category not found with id: " + id));
         category.softDelete();
         categoryRepository.save(category);
+        categoryTreeCache.invalidate();
+        catalogResponseCache.invalidate();
+    }
+
+    /**
+     * Saves the category; name uniqueness is enforced by the unique name_key index.
+     */
+    private Category save(Category category) {
+        try {
+            return categoryRepository.save(category);
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("Category already exists with name: " + category.getName());
+        }
+    }
+
+    private CategoryTreeResponse toTreeResponse(Category category, Set<String> visited) {
+        CategoryTreeResponse response = new CategoryTreeResponse();
+        response.setId(category.getId());
+        response.setName(category.getName());
+        response.setDescription(category.getDescription());
+        response.setParentId(category.getParentId());
+        response.setAncestorIds(categoryTreeCache.ancestorIds(category.getId()));
+        if (visited.add(category.getId())) {
+            response.setChildren(categoryTreeCache.children(category.getId()).stream()
+                    .map(child -> toTreeResponse(child, visited))
+                    .collect(Collectors.toList()));
+        }
+        return response;
     }
 
     private CategoryResponse toResponse(Category category) {
@@ -105,6 +181,7 @@ public class CategoryServiceImpl implements CategoryService {
         response.setParentId(category.getParentId());
         response.setCreatedAt(category.getCreatedAt());
         response.setModifiedAt(category.getModifiedAt());
+        response.setDeleted(category.isDeleted());
         return response;
     }
 }
@@ -1,14 +1,32 @@
 package com.foodordering.service.impl;
 
+import com.foodordering.analytics.CustomerSketches;
+import com.foodordering.analytics.DashboardAggregationPool;
+import com.foodordering.analytics.DashboardAggregator;
+import com.foodordering.analytics.DashboardResultCache;
+import com.foodordering.analytics.DemandHeatmap;
+import com.foodordering.analytics.HeavyHitters;
+import com.foodordering.analytics.MenuItemHeavyHitters;
+import com.foodordering.analytics.MenuItemMetric;
+import com.foodordering.analytics.OrderFactStore;
+import com.foodordering.analytics.OrderFactTable;
 import com.foodordering.dto.response.DashboardResponse;
+import com.foodordering.dto.response.DemandHeatmapResponse;
+import com.foodordering.dto.response.TopMenuItemsResponse;
 import com.foodordering.model.entity.MenuItem;
 import com.foodordering.model.entity.Order;
+import com.foodordering.model.entity.OrderMonthlyRollup;
 import com.foodordering.repository.MenuItemRepository;
-import com.foodordering.repository.OrderRepository;
+import com.foodordering.repository.OrderMonthlyRollupRepository;
 import com.foodordering.service.DashboardService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.Year;
 import java.time.YearMonth;
 import java.time.ZoneId;
 import java.util.*;
@@ -17,28 +35,54 @@ import java.util.stream.Collectors;
 @Service
 public class DashboardServiceImpl implements DashboardService {
 
+    // Cancelled orders are left out of every statistic
+    private static final int COUNTED_STATUSES = OrderFactTable.statusMaskExcluding(Order.OrderStatus.CANCELLED);
+
+    private static final YearMonth FIRST_MONTH = YearMonth.of(Year.MIN_VALUE, 1);
+    private static final YearMonth LAST_MONTH = YearMonth.of(Year.MAX_VALUE, 12);
+
     @Autowired
-    private OrderRepository orderRepository;
+    private OrderFactStore orderFactStore;
 
     @Autowired
     private MenuItemRepository menuItemRepository;
 
+    @Autowired
+    private OrderMonthlyRollupRepository orderMonthlyRollupRepository;
+
+    @Autowired
+    private DashboardResultCache dashboardResultCache;
+
+    @Autowired
+    private DashboardAggregationPool aggregationPool;
+
+    @Autowired
+    private MenuItemHeavyHitters menuItemHeavyHitters;
+
+    @Autowired
+    private CustomerSketches customerSketches;
+
+    @Autowired
+    private DemandHeatmap demandHeatmap;
+
+    @Autowired
+    private ZoneId analyticsZoneId;
+
+    @Value("${money.currency:VND}")
+    private String currency;
+
     @Override
     public DashboardResponse getMenuItemOrderStatsByMonth(YearMonth startMonth, YearMonth endMonth) {
-        // Get all orders
-        List<Order> allOrders = orderRepository.findAll();
-        
-        // Filter orders by date range and status (exclude cancelled)
-        List<Order> filteredOrders = allOrders.stream()
-                .filter(order -> {
-                    if (order.getCreatedAt() == null) return false;
-                    YearMonth orderMonth = YearMonth.from(order.getCreatedAt().atZone(ZoneId.systemDefault()));
-                    return !orderMonth.isBefore(startMonth) && !orderMonth.isAfter(endMonth) &&
-                           order.getStatus() != Order.OrderStatus.CANCELLED;
-                })
-                .collect(Collectors.toList());
+        return dashboardResultCache.get("range:" + startMonth + ":" + endMonth, startMonth, endMonth,
+                () -> computeMenuItemOrderStats(startMonth, endMonth));
+    }
 
-        return buildDashboardResponse(filteredOrders);
+    private DashboardResponse computeMenuItemOrderStats(YearMonth startMonth, YearMonth endMonth) {
+        // Archived orders only survive as monthly rollups
+        List<OrderMonthlyRollup> rollups = orderMonthlyRollupRepository.findByMonthBetween(
+                startMonth.toString(), endMonth.toString());
+
+        return buildDashboardResponse(startMonth, endMonth, rollups);
     }
 
     @Override
@@ -49,14 +93,20 @@ public class DashboardServiceImpl implements DashboardService {
 
     @Override
     public DashboardResponse getAllMenuItemOrderStats() {
-        List<Order> allOrders = orderRepository.findAll().stream()
-                .filter(order -> order.getStatus() != Order.OrderStatus.CANCELLED)
-                .collect(Collectors.toList());
-        return buildDashboardResponse(allOrders);
+        return dashboardResultCache.get("all", FIRST_MONTH, LAST_MONTH, this::computeAllMenuItemOrderStats);
+    }
+
+    private DashboardResponse computeAllMenuItemOrderStats() {
+        return buildDashboardResponse(FIRST_MONTH, LAST_MONTH, orderMonthlyRollupRepository.findAll());
     }
 
     @Override
     public List<DashboardResponse.MenuItemOrderStats> getTopOrderedMenuItems(Integer limit) {
+        int topN = limit != null ? limit : 10;
+        return dashboardResultCache.get("top:" + topN, FIRST_MONTH, LAST_MONTH, () -> computeTopOrderedMenuItems(topN));
+    }
+
+    private List<DashboardResponse.MenuItemOrderStats> computeTopOrderedMenuItems(int limit) {
         DashboardResponse dashboard = getAllMenuItemOrderStats();
         List<DashboardResponse.MenuItemOrderStats> stats = dashboard.getMenuItemStats();
         
@@ -65,136 +115,179 @@ public class DashboardServiceImpl implements DashboardService {
                         b.getTotalOrders() != null ? b.getTotalOrders() : 0,
                         a.getTotalOrders() != null ? a.getTotalOrders() : 0
                 ))
-                .limit(limit != null ? limit : 10)
+                .limit(limit)
                 .collect(Collectors.toList());
     }
 
-    private DashboardResponse buildDashboardResponse(List<Order> orders) {
-        DashboardResponse response = new DashboardResponse();
-        
-        // Map to store statistics: menuItemId -> month -> count
-        Map<String, Map<String, Integer>> menuItemMonthCount = new HashMap<>();
-        Map<String, Map<String, Integer>> menuItemMonthQuantity = new HashMap<>();
-        Map<String, Map<String, Double>> menuItemMonthRevenue = new HashMap<>();
-        
-        // Map to store menu item names
-        Map<String, String> menuItemNames = new HashMap<>();
-        
-        // Process each order
-        for (Order order : orders) {
-            if (order.getCreatedAt() == null) continue;
-            
-            YearMonth orderMonth = YearMonth.from(order.getCreatedAt().atZone(ZoneId.systemDefault()));
-            String monthKey = orderMonth.toString(); // Format: "YYYY-MM"
-            
-            // Process each order item
-            for (Order.OrderItem orderItem : order.getOrderItems()) {
-                String menuItemId = orderItem.getMenuItemId();
-                
-                // Initialize maps if needed
-                menuItemMonthCount.putIfAbsent(menuItemId, new HashMap<>());
-                menuItemMonthQuantity.putIfAbsent(menuItemId, new HashMap<>());
-                menuItemMonthRevenue.putIfAbsent(menuItemId, new HashMap<>());
-                
-                // Update counts
-                menuItemMonthCount.get(menuItemId).merge(monthKey, 1, Integer::sum);
-                menuItemMonthQuantity.get(menuItemId).merge(monthKey, 
-                        orderItem.getQuantity() != null ? orderItem.getQuantity() : 0, Integer::sum);
-                menuItemMonthRevenue.get(menuItemId).merge(monthKey,
-                        orderItem.getSubtotal() != null ? orderItem.getSubtotal() : 0.0, Double::sum);
-                
-                // Store menu item name if not already stored
-                if (!menuItemNames.containsKey(menuItemId)) {
-                    MenuItem menuItem = menuItemRepository.findById(menuItemId).orElse(null);
-                    if (menuItem != null) {
-                        menuItemNames.put(menuItemId, menuItem.getName());
-                    } else {
-                        menuItemNames.put(menuItemId, "Unknown Item");
-                    }
+    @Override
+    public TopMenuItemsResponse getApproximateTopMenuItems(LocalDate from, LocalDate to, Integer limit,
+                                                           MenuItemMetric metric) {
+        int capacity = menuItemHeavyHitters.getCapacity();
+        int topN = Math.min(limit != null && limit > 0 ? limit : 10, capacity);
+        int fromDay = from != null ? (int) from.toEpochDay() : Integer.MIN_VALUE;
+        int toDay = to != null ? (int) to.toEpochDay() : Integer.MAX_VALUE;
+
+        // Names are resolved from the table's snapshots while the read lock is held
+        Map<String, String> names = new HashMap<>();
+        HeavyHitters live = orderFactStore.read(table -> {
+            HeavyHitters top = menuItemHeavyHitters.liveTopItems(table, fromDay, toDay, metric);
+            for (int rank = 0; rank < top.size(); rank++) {
+                int ordinal = table.menuItemOrdinal(top.id(rank));
+                if (ordinal >= 0 && table.menuItemName(ordinal) != null) {
+                    names.put(top.id(rank), table.menuItemName(ordinal));
                 }
             }
+            return top;
+        });
+
+        // Archived orders only survive as monthly rollups, so only whole months in the range count
+        YearMonth firstMonth = from == null ? YearMonth.of(1, 1)
+                : from.getDayOfMonth() == 1 ? YearMonth.from(from) : YearMonth.from(from).plusMonths(1);
+        YearMonth lastMonth = to == null ? YearMonth.of(9999, 12)
+                : to.equals(YearMonth.from(to).atEndOfMonth()) ? YearMonth.from(to) : YearMonth.from(to).minusMonths(1);
+        HeavyHitters archived = menuItemHeavyHitters.archivedTopItems(firstMonth, lastMonth, metric);
+        HeavyHitters top = HeavyHitters.merge(List.of(live, archived), capacity);
+
+        // An item is certainly in the top N when its lower bound beats every item ranked below N
+        long threshold = Math.max(top.unlistedBound(), top.size() > topN ? top.estimate(topN) : 0L);
+        List<TopMenuItemsResponse.RankedMenuItem> items = new ArrayList<>();
+        for (int rank = 0; rank < Math.min(topN, top.size()); rank++) {
+            String menuItemId = top.id(rank);
+            String name = names.get(menuItemId);
+            if (name == null) {
+                name = menuItemHeavyHitters.archivedName(menuItemId);
+            }
+            if (name == null) {
+                name = findMenuItemName(menuItemId);
+            }
+            TopMenuItemsResponse.RankedMenuItem item = new TopMenuItemsResponse.RankedMenuItem();
+            item.setMenuItemId(menuItemId);
+            item.setMenuItemName(name != null ? name : "Unknown Item");
+            item.setEstimate(top.estimate(rank));
+            item.setMaxError(top.estimate(rank) - top.lowerBound(rank));
+            item.setGuaranteed(top.lowerBound(rank) >= threshold);
+            items.add(item);
         }
-        
-        // Build MenuItemOrderStats list
-        List<DashboardResponse.MenuItemOrderStats> menuItemStats = new ArrayList<>();
-        
-        for (String menuItemId : menuItemMonthCount.keySet()) {
-            DashboardResponse.MenuItemOrderStats stats = new DashboardResponse.MenuItemOrderStats();
-            stats.setMenuItemId(menuItemId);
-            stats.setMenuItemName(menuItemNames.getOrDefault(menuItemId, "Unknown Item"));
-            
-            // Build orders by month map
-            Map<String, Integer> ordersByMonth = new HashMap<>();
-            Map<String, Integer> quantityByMonth = menuItemMonthQuantity.get(menuItemId);
-            Map<String, Double> revenueByMonth = menuItemMonthRevenue.get(menuItemId);
-            
-            // Combine all months from all maps
-            Set<String> allMonths = new HashSet<>();
-            allMonths.addAll(menuItemMonthCount.get(menuItemId).keySet());
-            allMonths.addAll(quantityByMonth.keySet());
-            allMonths.addAll(revenueByMonth.keySet());
-            
-            int totalOrders = 0;
-            int totalQuantity = 0;
-            double totalRevenue = 0.0;
-            
-            for (String month : allMonths) {
-                int orderCount = menuItemMonthCount.get(menuItemId).getOrDefault(month, 0);
-                ordersByMonth.put(month, orderCount);
-                totalOrders += orderCount;
-                totalQuantity += quantityByMonth.getOrDefault(month, 0);
-                totalRevenue += revenueByMonth.getOrDefault(month, 0.0);
+
+        TopMenuItemsResponse response = new TopMenuItemsResponse();
+        response.setMetric(metric);
+        response.setFrom(from);
+        response.setTo(to);
+        response.setCurrency(metric == MenuItemMetric.REVENUE ? currency : null);
+        response.setMaxUnlistedValue(threshold);
+        response.setItems(items);
+        return response;
+    }
+
+    @Override
+    public DemandHeatmapResponse getDemandHeatmap(String menuItemId, String categoryId, LocalDateTime from,
+                                                  LocalDateTime to, MenuItemMetric metric) {
+        if (menuItemId != null && categoryId != null) {
+            throw new RuntimeException("Filter the heatmap by menu item or by category, not both");
+        }
+        if (metric == MenuItemMetric.REVENUE) {
+            throw new RuntimeException("Heatmaps are available by ORDERS or QUANTITY");
+        }
+        // Local epoch hours; to is exclusive
+        long fromHour = from != null ? toEpochHour(from) : Long.MIN_VALUE;
+        long toHour = to != null ? toEpochHour(to.minusNanos(1)) : Long.MAX_VALUE;
+        int[] cells = orderFactStore.read(table ->
+                demandHeatmap.heatmap(table, menuItemId, categoryId, fromHour, toHour, metric));
+
+        Map<DayOfWeek, List<Integer>> rows = new LinkedHashMap<>();
+        long total = 0L;
+        int peak = 0;
+        for (DayOfWeek dayOfWeek : DayOfWeek.values()) {
+            List<Integer> hours = new ArrayList<>(DemandHeatmap.HOURS);
+            for (int hour = 0; hour < DemandHeatmap.HOURS; hour++) {
+                int cell = (dayOfWeek.getValue() - 1) * DemandHeatmap.HOURS + hour;
+                hours.add(cells[cell]);
+                total += cells[cell];
+                peak = cells[cell] > cells[peak] ? cell : peak;
             }
-            
-            stats.setOrdersByMonth(ordersByMonth);
-            stats.setTotalOrders(totalOrders);
-            stats.setTotalQuantity(totalQuantity);
-            stats.setTotalRevenue(totalRevenue);
-            
-            menuItemStats.add(stats);
+            rows.put(dayOfWeek, hours);
         }
-        
-        // Sort by total orders descending
-        menuItemStats.sort((a, b) -> Integer.compare(
-                b.getTotalOrders() != null ? b.getTotalOrders() : 0,
-                a.getTotalOrders() != null ? a.getTotalOrders() : 0
-        ));
-        
-        response.setMenuItemStats(menuItemStats);
-        
-        // Build monthly summary
-        Map<String, DashboardResponse.MonthlyStats> monthlySummary = new HashMap<>();
-        
-        for (Order order : orders) {
-            if (order.getCreatedAt() == null) continue;
-            
-            YearMonth orderMonth = YearMonth.from(order.getCreatedAt().atZone(ZoneId.systemDefault()));
-            String monthKey = orderMonth.toString();
-            
-            monthlySummary.putIfAbsent(monthKey, new DashboardResponse.MonthlyStats(monthKey));
-            DashboardResponse.MonthlyStats monthStats = monthlySummary.get(monthKey);
-            
-            monthStats.setTotalOrders(monthStats.getTotalOrders() != null ? 
-                    monthStats.getTotalOrders() + 1 : 1);
-            
-            int menuItemsInOrder = order.getOrderItems().size();
-            monthStats.setTotalMenuItemsOrdered(monthStats.getTotalMenuItemsOrdered() != null ?
-                    monthStats.getTotalMenuItemsOrdered() + menuItemsInOrder : menuItemsInOrder);
-            
-            monthStats.setTotalRevenue(monthStats.getTotalRevenue() != null ?
-                    monthStats.getTotalRevenue() + (order.getTotalAmount() != null ? order.getTotalAmount() : 0.0) :
-                    (order.getTotalAmount() != null ? order.getTotalAmount() : 0.0));
+
+        DemandHeatmapResponse response = new DemandHeatmapResponse();
+        response.setMenuItemId(menuItemId);
+        response.setCategoryId(categoryId);
+        response.setMetric(metric);
+        response.setZoneId(analyticsZoneId.getId());
+        response.setFrom(from);
+        response.setTo(to);
+        response.setTotal(total);
+        if (total > 0) {
+            response.setPeakDayOfWeek(DayOfWeek.of(peak / DemandHeatmap.HOURS + 1));
+            response.setPeakHour(peak % DemandHeatmap.HOURS);
         }
-        
-        response.setMonthlySummary(monthlySummary);
-        
-        // Calculate totals
-        response.setTotalOrders(orders.size());
-        response.setTotalRevenue(orders.stream()
-                .mapToDouble(order -> order.getTotalAmount() != null ? order.getTotalAmount() : 0.0)
-                .sum());
-        
+        response.setCells(rows);
         return response;
     }
-}
 
+    private static long toEpochHour(LocalDateTime dateTime) {
+        return dateTime.toLocalDate().toEpochDay() * DemandHeatmap.HOURS + dateTime.getHour();
+    }
+
+    /**
+     * Aggregates live orders created in [startMonth, endMonth] from the fact store, plus the
+     * given archived rollups, over dense menu item and month ordinals. Large scans are split
+     * across the aggregation pool.
+     */
+    private DashboardResponse buildDashboardResponse(YearMonth startMonth, YearMonth endMonth,
+                                                     List<OrderMonthlyRollup> rollups) {
+        DashboardAggregator aggregator = orderFactStore.read(table -> {
+            int fromDay = (int) Math.max(startMonth.atDay(1).toEpochDay(), Integer.MIN_VALUE);
+            int toDay = (int) Math.min(endMonth.atEndOfMonth().toEpochDay(), Integer.MAX_VALUE);
+            int[] selection = new int[Math.max(table.lineCount(), table.orderSlots())];
+            int selectedOrders = table.selectOrders(fromDay, toDay, COUNTED_STATUSES, selection);
+
+            // Size the month dimension to the data actually present in the range
+            int minDay = Integer.MAX_VALUE;
+            int maxDay = Integer.MIN_VALUE;
+            int[] orderDays = table.orderDays();
+            for (int i = 0; i < selectedOrders; i++) {
+                minDay = Math.min(minDay, orderDays[selection[i]]);
+                maxDay = Math.max(maxDay, orderDays[selection[i]]);
+            }
+            YearMonth first = selectedOrders > 0 ? YearMonth.from(LocalDate.ofEpochDay(minDay)) : null;
+            YearMonth last = selectedOrders > 0 ? YearMonth.from(LocalDate.ofEpochDay(maxDay)) : null;
+            for (OrderMonthlyRollup rollup : rollups) {
+                YearMonth month = YearMonth.parse(rollup.getMonth());
+                first = first == null || month.isBefore(first) ? month : first;
+                last = last == null || month.isAfter(last) ? month : last;
+            }
+            if (first == null) {
+                first = last = startMonth.isAfter(endMonth) ? endMonth : startMonth;
+            }
+
+            DashboardAggregator monthly = new DashboardAggregator(table, rollups, first, last);
+            aggregationPool.aggregate(monthly, selectedOrders,
+                    (partial, from, to) -> partial.addOrders(table, selection, from, to - from));
+            // Lines share their order's day and status, so they fall inside the same months.
+            // Each range selects its own rows into its own slice of the selection array.
+            aggregationPool.aggregate(monthly, table.lineCount(), (partial, from, to) -> partial.addLines(
+                    table, selection, from, table.selectLines(from, to, fromDay, toDay, COUNTED_STATUSES, selection)));
+            // Months are whole inside the range, so the month sketches match the selection
+            for (YearMonth month = first; !month.isAfter(last); month = month.plusMonths(1)) {
+                CustomerSketches.MonthCustomers customers = customerSketches.month(table, month);
+                if (customers != null) {
+                    monthly.addCustomers(month, customers.getAll(), customers.getByMenuItem());
+                }
+            }
+            return monthly;
+        });
+
+        // Menu lookups run after the read lock is released
+        aggregator.addRollups(rollups);
+        return aggregator.toResponse(currency, this::findMenuItemName);
+    }
+
+    /**
+     * Name of a menu item whose order lines carry no snapshot (written before snapshots existed).
+     */
+    private String findMenuItemName(String menuItemId) {
+        return menuItemRepository.findByIdIncludingDeleted(menuItemId)
+                .map(MenuItem::getName)
+                .orElse(null);
+    }
+}
@@ -0,0 +1,200 @@
+package com.foodordering.service.impl;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodordering.cache.ExpiringLruCache;
+import com.foodordering.model.entity.IdempotencyRecord;
+import com.foodordering.repository.IdempotencyRecordRepository;
+import com.foodordering.service.IdempotencyService;
+import jakarta.annotation.PostConstruct;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
+import org.springframework.stereotype.Service;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.HexFormat;
+import java.util.function.Supplier;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
+
+@Service
+public class IdempotencyServiceImpl implements IdempotencyService {
+
+    @Autowired
+    private IdempotencyRecordRepository idempotencyRecordRepository;
+
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${idempotency.ttl-hours:24}")
+    private long ttlHours;
+
+    @Value("${idempotency.cache-size:10000}")
+    private int cacheSize;
+
+    @Value("${idempotency.lock-timeout-seconds:60}")
+    private long lockTimeoutSeconds;
+
+    // Completed records only, so replays never need a Mongo round trip
+    private ExpiringLruCache<String, IdempotencyRecord> completedRecords;
+
+    @PostConstruct
+    void init() {
+        completedRecords = new ExpiringLruCache<>(cacheSize, Duration.ofHours(ttlHours));
+    }
+
+    @Override
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (key == null || key.isBlank()) {
+            return action.get();
+        }
+
+        String fingerprint = fingerprint(request);
+        IdempotencyRecord record = new IdempotencyRecord(scope, key, fingerprint,
+                Instant.now().plus(Duration.ofHours(ttlHours)));
+        String recordId = record.getId();
+
+        IdempotencyRecord cached = completedRecords.get(recordId);
+        if (cached != null) {
+            return replay(cached, fingerprint, responseType);
+        }
+
+        Instant claimedAt = claim(record);
+        if (claimedAt == null) {
+            IdempotencyRecord existing = idempotencyRecordRepository.findById(recordId)
+                    .orElseThrow(() -> new RuntimeException("Idempotency key is being released, retry the request: " + key));
+            if (existing.getStatus() == IdempotencyRecord.RecordStatus.COMPLETED) {
+                completedRecords.put(recordId, existing);
+            }
+            return replay(existing, fingerprint, responseType);
+        }
+
+        T response;
+        try {
+            response = action.get();
+        } catch (RuntimeException e) {
+            // Let the client retry a failed request with the same key
+            mongoTemplate.remove(owned(recordId, claimedAt), IdempotencyRecord.class);
+            throw e;
+        }
+
+        record.complete(serialize(response));
+        Update completion = new Update()
+                .set("status", record.getStatus())
+                .set("response_body", record.getResponseBody())
+                .set("modified_at", Instant.now());
+        // A retry that took the marker over after the lock timeout owns the key now
+        if (mongoTemplate.updateFirst(owned(recordId, claimedAt), completion, IdempotencyRecord.class)
+                .getModifiedCount() == 1) {
+            completedRecords.put(recordId, record);
+        }
+        return response;
+    }
+
+    /**
+     * The marker as this request wrote it. Once another request takes it over, created_at
+     * no longer matches and this request's completion or release changes nothing.
+     */
+    private static Query owned(String recordId, Instant claimedAt) {
+        return query(where("_id").is(recordId)
+                .and("status").is(IdempotencyRecord.RecordStatus.IN_PROGRESS)
+                .and("created_at").is(claimedAt));
+    }
+
+    /**
+     * Inserts the in-progress marker and returns the created_at it was written with, or null
+     * when another request already owns the key. A marker left behind by a crashed request is
+     * taken over once it is older than the lock timeout.
+     */
+    private Instant claim(IdempotencyRecord record) {
+        try {
+            return insertMarker(record);
+        } catch (DuplicateKeyException e) {
+            IdempotencyRecord existing = idempotencyRecordRepository.findById(record.getId()).orElse(null);
+            if (existing == null) {
+                // Released in the meantime, the next insert decides
+                try {
+                    return insertMarker(record);
+                } catch (DuplicateKeyException ignored) {
+                    return null;
+                }
+            }
+            return isAbandoned(existing) ? takeOver(existing, record) : null;
+        }
+    }
+
+    private Instant insertMarker(IdempotencyRecord record) {
+        idempotencyRecordRepository.insert(record);
+        // Mongo keeps milliseconds, so that is what later filters must match
+        return record.getCreatedAt().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    /**
+     * Replaces an abandoned marker in one conditional write and returns its new created_at,
+     * or null if another retry got there first. The filter pins the stale created_at, so
+     * when several retries race for the same marker only one matches.
+     */
+    private Instant takeOver(IdempotencyRecord abandoned, IdempotencyRecord record) {
+        Instant now = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Query stale = query(where("_id").is(abandoned.getId())
+                .and("status").is(IdempotencyRecord.RecordStatus.IN_PROGRESS)
+                .and("created_at").is(abandoned.getCreatedAt()));
+        Update update = new Update()
+                .set("fingerprint", record.getFingerprint())
+                .set("expires_at", record.getExpiresAt())
+                .set("created_at", now)
+                .set("modified_at", now)
+                .unset("response_body");
+        return mongoTemplate.updateFirst(stale, update, IdempotencyRecord.class).getModifiedCount() == 1 ? now : null;
+    }
+
+    private boolean isAbandoned(IdempotencyRecord record) {
+        return record.getStatus() == IdempotencyRecord.RecordStatus.IN_PROGRESS
+                && record.getCreatedAt() != null
+                && record.getCreatedAt().isBefore(Instant.now().minusSeconds(lockTimeoutSeconds));
+    }
+
+    private <T> T replay(IdempotencyRecord record, String fingerprint, Class<T> responseType) {
+        if (!record.getFingerprint().equals(fingerprint)) {
+            throw new RuntimeException("Idempotency-Key was already used with a different request: " + record.getIdempotencyKey());
+        }
+        if (record.getStatus() != IdempotencyRecord.RecordStatus.COMPLETED) {
+            throw new RuntimeException("A request with this Idempotency-Key is still being processed: " + record.getIdempotencyKey());
+        }
+        try {
+            return objectMapper.readValue(record.getResponseBody(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Stored response for Idempotency-Key could not be read: " + record.getIdempotencyKey(), e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            MessageDigest digest = MessageDigest.getInstance("SHA-256");
+            return HexFormat.of().formatHex(digest.digest(objectMapper.writeValueAsBytes(request)));
+        } catch (JsonProcessingException | NoSuchAlgorithmException e) {
+            throw new RuntimeException("Could not fingerprint request: " + e.getMessage(), e);
+        }
+    }
+
+    private String serialize(Object response) {
+        try {
+            return new String(objectMapper.writeValueAsBytes(response), StandardCharsets.UTF_8);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Could not store response: " + e.getMessage(), e);
+        }
+    }
+}
@@ -0,0 +1,268 @@
+package com.foodordering.service.impl;
+
+import com.foodordering.cache.CollectionChangeListener;
+import com.foodordering.dto.response.KitchenTicketResponse;
+import com.foodordering.dto.response.OrderResponse;
+import com.foodordering.event.OrderChangedEvent;
+import com.foodordering.model.abstraction.BaseEntity;
+import com.foodordering.model.entity.MenuItem;
+import com.foodordering.model.entity.Order;
+import com.foodordering.repository.MenuItemRepository;
+import com.foodordering.repository.OrderRepository;
+import com.foodordering.service.KitchenService;
+import com.foodordering.service.OrderService;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+/**
+ * In-memory kitchen work queue of confirmed orders, one priority queue per station.
+ * <p>
+ * Tickets are ordered by their latest start time: the promised time (or confirmation
+ * time plus the default promise window) minus the prep estimate. Ties go to the
+ * earlier confirmation. An order goes to the station of its slowest item.
+ * <p>
+ * The queue is rebuilt from Mongo at start-up and fed by {@link OrderChangedEvent}
+ * for this node's writes and by the change watcher for every node's: a changed order
+ * is re-read, and a reset of the orders collection rebuilds the queue. Claim and complete are conditional status updates, so a ticket that went stale
+ * (cancelled, or claimed on another node) is dropped instead of being prepared twice.
+ */
+@Service
+public class KitchenServiceImpl implements KitchenService, CollectionChangeListener {
+
+    private static final Comparator<Ticket> PRIORITY = Comparator
+            .comparing((Ticket ticket) -> ticket.startBy)
+            .thenComparing(ticket -> ticket.confirmedAt)
+            .thenComparing(ticket -> ticket.orderId);
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private MenuItemRepository menuItemRepository;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Value("${kitchen.default-station:main}")
+    private String defaultStation;
+
+    @Value("${kitchen.default-prep-minutes:10}")
+    private int defaultPrepMinutes;
+
+    @Value("${kitchen.default-promise-minutes:45}")
+    private int defaultPromiseMinutes;
+
+    private final Map<String, NavigableSet<Ticket>> queues = new ConcurrentHashMap<>();
+    private final Map<String, Ticket> ticketsByOrder = new ConcurrentHashMap<>();
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadConfirmedOrders() {
+        List<Order> confirmed = orderRepository.findByStatus(Order.OrderStatus.CONFIRMED).stream()
+                .filter(order -> !order.isDeleted())
+                .collect(Collectors.toList());
+        Map<String, MenuItem> menuItems = loadMenuItems(confirmed);
+        confirmed.forEach(order -> enqueue(order, menuItems::get));
+    }
+
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        refresh(event.getOrder().getId(), event.getOrder());
+    }
+
+    @Override
+    public Set<String> getWatchedCollections() {
+        return Set.of("orders");
+    }
+
+    @Override
+    public void onDocumentChanged(String collection, String id) {
+        // findById skips soft-deleted orders, which leave the queue as well
+        refresh(id, orderRepository.findById(id).orElse(null));
+    }
+
+    @Override
+    public void onCollectionReset(String collection) {
+        // Deletes and missed changes are unknown, so start over from the stored confirmed orders
+        ticketsByOrder.keySet().forEach(this::dequeue);
+        loadConfirmedOrders();
+    }
+
+    @Override
+    public Map<String, Integer> getStations() {
+        Map<String, Integer> stations = new TreeMap<>();
+        queues.forEach((station, queue) -> stations.put(station, queue.size()));
+        return stations;
+    }
+
+    @Override
+    public List<KitchenTicketResponse> getQueue(String station, Integer limit) {
+        NavigableSet<Ticket> queue = queues.get(station);
+        if (queue == null) {
+            return List.of();
+        }
+        return queue.stream()
+                .limit(limit != null && limit > 0 ? limit : Long.MAX_VALUE)
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public KitchenTicketResponse claim(String station) {
+        NavigableSet<Ticket> queue = queues.get(station);
+        if (queue == null) {
+            return null;
+        }
+        Ticket ticket;
+        while ((ticket = queue.pollFirst()) != null) {
+            ticketsByOrder.remove(ticket.orderId, ticket);
+            OrderResponse claimed;
+            try {
+                claimed = orderService.transitionStatus(
+                        ticket.orderId, Order.OrderStatus.CONFIRMED, Order.OrderStatus.PREPARING);
+            } catch (RuntimeException e) {
+                // The claim failed rather than lost the race; keep the ticket for the next one
+                requeue(ticket);
+                throw e;
+            }
+            if (claimed != null) {
+                return toResponse(ticket);
+            }
+            // Stale ticket: the order moved on elsewhere, try the next one
+        }
+        return null;
+    }
+
+    @Override
+    public OrderResponse complete(String orderId) {
+        OrderResponse completed = orderService.transitionStatus(
+                orderId, Order.OrderStatus.PREPARING, Order.OrderStatus.READY);
+        if (completed == null) {
+            throw new RuntimeException("Order is not being prepared: " + orderId);
+        }
+        return completed;
+    }
+
+    private void refresh(String orderId, Order order) {
+        if (order != null && order.getStatus() == Order.OrderStatus.CONFIRMED && !order.isDeleted()) {
+            Map<String, MenuItem> menuItems = loadMenuItems(List.of(order));
+            enqueue(order, menuItems::get);
+        } else {
+            dequeue(orderId);
+        }
+    }
+
+    private void enqueue(Order order, Function<String, MenuItem> menuItemLookup) {
+        Ticket ticket = new Ticket(order, menuItemLookup);
+        dequeue(order.getId());
+        ticketsByOrder.put(ticket.orderId, ticket);
+        queues.computeIfAbsent(ticket.station, station -> new ConcurrentSkipListSet<>(PRIORITY)).add(ticket);
+    }
+
+    /**
+     * Puts a polled ticket back, unless a newer ticket for the order arrived meanwhile.
+     */
+    private void requeue(Ticket ticket) {
+        if (ticketsByOrder.putIfAbsent(ticket.orderId, ticket) == null) {
+            queues.computeIfAbsent(ticket.station, station -> new ConcurrentSkipListSet<>(PRIORITY)).add(ticket);
+        }
+    }
+
+    private void dequeue(String orderId) {
+        Ticket previous = ticketsByOrder.remove(orderId);
+        if (previous != null) {
+            NavigableSet<Ticket> queue = queues.get(previous.station);
+            if (queue != null) {
+                queue.remove(previous);
+            }
+        }
+    }
+
+    private Map<String, MenuItem> loadMenuItems(List<Order> orders) {
+        Set<String> menuItemIds = new HashSet<>();
+        orders.forEach(order -> order.getOrderItems().forEach(item -> menuItemIds.add(item.getMenuItemId())));
+        return StreamSupport.stream(menuItemRepository.findAllById(menuItemIds).spliterator(), false)
+                .collect(Collectors.toMap(BaseEntity::getId, Function.identity()));
+    }
+
+    private KitchenTicketResponse toResponse(Ticket ticket) {
+        KitchenTicketResponse response = new KitchenTicketResponse();
+        response.setOrderId(ticket.orderId);
+        response.setAccountId(ticket.accountId);
+        response.setStation(ticket.station);
+        response.setConfirmedAt(ticket.confirmedAt);
+        response.setPromisedAt(ticket.promisedAt);
+        response.setStartBy(ticket.startBy);
+        response.setEstimatedPrepMinutes(ticket.prepMinutes);
+        response.setItems(ticket.items);
+        return response;
+    }
+
+    private final class Ticket {
+        private final String orderId;
+        private final String accountId;
+        private final String station;
+        private final Instant confirmedAt;
+        private final Instant promisedAt;
+        private final Instant startBy;
+        private final int prepMinutes;
+        private final List<KitchenTicketResponse.TicketItem> items;
+
+        private Ticket(Order order, Function<String, MenuItem> menuItemLookup) {
+            this.orderId = order.getId();
+            this.accountId = order.getAccountId();
+            // Orders confirmed before confirmed_at was stored fall back to their last modification
+            this.confirmedAt = order.getConfirmedAt() != null ? order.getConfirmedAt()
+                    : order.getModifiedAt() != null ? order.getModifiedAt() : Instant.now();
+            this.promisedAt = order.getPromisedAt() != null
+                    ? order.getPromisedAt()
+                    : confirmedAt.plus(Duration.ofMinutes(defaultPromiseMinutes));
+
+            // Lines cook in parallel, so the slowest item sets both the estimate and the station
+            String slowestStation = null;
+            int slowest = 0;
+            List<KitchenTicketResponse.TicketItem> ticketItems = new ArrayList<>();
+            for (Order.OrderItem orderItem : order.getOrderItems()) {
+                MenuItem menuItem = menuItemLookup.apply(orderItem.getMenuItemId());
+                int prep = menuItem != null && menuItem.getPrepTimeMinutes() != null
+                        ? menuItem.getPrepTimeMinutes() : defaultPrepMinutes;
+                if (prep > slowest || slowestStation == null) {
+                    slowest = prep;
+                    slowestStation = menuItem != null && menuItem.getStation() != null
+                            ? menuItem.getStation() : defaultStation;
+                }
+
+                KitchenTicketResponse.TicketItem item = new KitchenTicketResponse.TicketItem();
+                item.setMenuItemId(orderItem.getMenuItemId());
+                item.setName(orderItem.getMenuItemName() != null ? orderItem.getMenuItemName()
+                        : menuItem != null ? menuItem.getName() : null);
+                item.setQuantity(orderItem.getQuantity());
+                item.setPrepTimeMinutes(prep);
+                ticketItems.add(item);
+            }
+
+            this.station = slowestStation != null ? slowestStation : defaultStation;
+            this.prepMinutes = ticketItems.isEmpty() ? defaultPrepMinutes : slowest;
+            this.startBy = promisedAt.minus(Duration.ofMinutes(prepMinutes));
+            this.items = List.copyOf(ticketItems);
+        }
+    }
+}
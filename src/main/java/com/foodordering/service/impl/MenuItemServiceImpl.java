@@ -1,11 +1,19 @@
 package com.foodordering.service.impl;
 
+import com.foodordering.cache.CatalogResponseCache;
+import com.foodordering.cache.CategoryTreeCache;
+import com.foodordering.cache.SingleFlight;
 import com.foodordering.dto.request.MenuItemRequest;
+import com.foodordering.dto.response.MenuItemFacetResponse;
 import com.foodordering.dto.response.MenuItemResponse;
 import com.foodordering.model.entity.MenuItem;
+import com.foodordering.model.value.Money;
 import com.foodordering.repository.MenuItemRepository;
+import com.foodordering.search.MenuFacetIndex;
+import com.foodordering.search.MenuSearchIndex;
 import com.foodordering.service.MenuItemService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -17,12 +25,30 @@ public class MenuItemServiceImpl implements MenuItemService {
     @Autowired
     private MenuItemRepository menuItemRepository;
 
+    @Autowired
+    private MenuSearchIndex menuSearchIndex;
+
+    @Autowired
+    private MenuFacetIndex menuFacetIndex;
+
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
+
+    @Autowired
+    private CatalogResponseCache catalogResponseCache;
+
+    @Autowired
+    private SingleFlight singleFlight;
+
+    @Value("${money.currency:VND}")
+    private String currency;
+
     @Override
     public MenuItemResponse create(MenuItemRequest request) {
         MenuItem menuItem = new MenuItem();
         menuItem.setName(request.getName());
         menuItem.setDescription(request.getDescription());
-        menuItem.setPrice(request.getPrice());
+        menuItem.setPrice(requireStoreCurrency(request.getPrice()));
         menuItem.setCategoryId(request.getCategoryId());
         if (request.getAvailable() != null) {
             menuItem.setAvailable(request.getAvailable());
@@ -33,53 +59,107 @@ public class MenuItemServiceImpl implements MenuItemService {
         if (request.getTags() != null) {
             menuItem.setTags(request.getTags());
         }
+        if (request.getPrepTimeMinutes() != null) {
+            menuItem.setPrepTimeMinutes(request.getPrepTimeMinutes());
+        }
+        if (request.getStation() != null) {
+            menuItem.setStation(request.getStation());
+        }
 
         MenuItem saved = menuItemRepository.save(menuItem);
+        reindex(saved);
         return toResponse(saved);
     }
 
     @Override
     public MenuItemResponse getById(String id) {
-        MenuItem menuItem = menuItemRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Menu item not found with id: " + id));
-        return toResponse(menuItem);
+        return singleFlight.execute("menu-items", "id:" + id, () -> {
+            MenuItem menuItem = menuItemRepository.findById(id)
+                    .orElseThrow(() -> new RuntimeException("Menu item not found with id: " + id));
+            return toResponse(menuItem);
+        });
     }
 
     @Override
     public List<MenuItemResponse> getAll() {
-        return menuItemRepository.findAll().stream()
+        return singleFlight.execute("menu-items", "all",
+                () -> menuItemRepository.findAll().stream()
+                        .map(this::toResponse)
+                        .collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<MenuItemResponse> getAllIncludingDeleted() {
+        return menuItemRepository.findAllIncludingDeleted().stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<MenuItemResponse> getAvailableItems() {
-        return menuItemRepository.findByAvailableTrue().stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return singleFlight.execute("menu-items", "available",
+                () -> menuItemRepository.findByAvailableTrue().stream()
+                        .map(this::toResponse)
+                        .collect(Collectors.toList()));
     }
 
     @Override
     public List<MenuItemResponse> getByCategory(String categoryId) {
-        return menuItemRepository.findByCategoryId(categoryId).stream()
-                .map(this::toResponse)
-                .collect(Collectors.toList());
+        return singleFlight.execute("menu-items", "category:" + categoryId,
+                () -> menuItemRepository.findByCategoryId(categoryId).stream()
+                        .map(this::toResponse)
+                        .collect(Collectors.toList()));
     }
 
     @Override
     public List<MenuItemResponse> getByCategoryAndAvailable(String categoryId) {
-        return menuItemRepository.findByCategoryIdAndAvailableTrue(categoryId).stream()
+        return singleFlight.execute("menu-items", "category-available:" + categoryId,
+                () -> menuItemRepository.findByCategoryIdAndAvailableTrue(categoryId).stream()
+                        .map(this::toResponse)
+                        .collect(Collectors.toList()));
+    }
+
+    @Override
+    public List<MenuItemResponse> getByCategorySubtree(String categoryId, boolean availableOnly) {
+        if (categoryTreeCache.get(categoryId) == null) {
+            throw new RuntimeException("Category not found with id: " + categoryId);
+        }
+        return menuFacetIndex.itemsInCategories(categoryTreeCache.subtreeIds(categoryId), availableOnly).stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
     @Override
     public List<MenuItemResponse> searchByName(String name) {
-        return menuItemRepository.findByNameContainingIgnoreCase(name).stream()
+        return menuSearchIndex.search(name).stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<String> autocomplete(String prefix, Integer limit) {
+        return menuSearchIndex.autocomplete(prefix, limit != null ? limit : 10);
+    }
+
+    @Override
+    public MenuItemFacetResponse getFacets(List<String> tags, MenuFacetIndex.TagMatch match, String categoryId,
+                                           Boolean available, Integer offset, Integer limit) {
+        MenuFacetIndex.FacetResult result = menuFacetIndex.query(tags,
+                match != null ? match : MenuFacetIndex.TagMatch.ALL,
+                categoryId, available,
+                offset != null ? Math.max(offset, 0) : 0,
+                limit != null ? Math.max(limit, 0) : 100);
+
+        MenuItemFacetResponse response = new MenuItemFacetResponse();
+        response.setTotal(result.getTotal());
+        response.setItems(result.getItems().stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList()));
+        response.setTagCounts(result.getTagCounts());
+        response.setCategoryCounts(result.getCategoryCounts());
+        return response;
+    }
+
     @Override
     public MenuItemResponse update(String id, MenuItemRequest request) {
         MenuItem menuItem = menuItemRepository.findById(id)
@@ -94,7 +174,7 @@ public class MenuItemServiceImpl implements MenuItemService {
         }
 
         if (request.getPrice() != null) {
-            menuItem.setPrice(request.getPrice());
+            menuItem.setPrice(requireStoreCurrency(request.getPrice()));
         }
 
         if (request.getCategoryId() != null) {
@@ -112,17 +192,25 @@ public class MenuItemServiceImpl implements MenuItemService {
         if (request.getTags() != null) {
             menuItem.setTags(request.getTags());
         }
+        if (request.getPrepTimeMinutes() != null) {
+            menuItem.setPrepTimeMinutes(request.getPrepTimeMinutes());
+        }
+        if (request.getStation() != null) {
+            menuItem.setStation(request.getStation());
+        }
 
         MenuItem updated = menuItemRepository.save(menuItem);
+        reindex(updated);
         return toResponse(updated);
     }
 
     @Override
     public void delete(String id) {
-        if (!menuItemRepository.existsById(id)) {
+        if (!menuItemRepository.existsByIdIncludingDeleted(id)) {
             throw new RuntimeException("Menu item not found with id: " + id);
         }
         menuItemRepository.deleteById(id);
+        unindex(id);
     }
 
     @Override
@@ -131,6 +219,29 @@ public class MenuItemServiceImpl implements MenuItemService {
                 .orElseThrow(() -> new RuntimeException("Menu item not found with id: " + id));
         menuItem.softDelete();
         menuItemRepository.save(menuItem);
+        unindex(id);
+    }
+
+    private void reindex(MenuItem menuItem) {
+        menuSearchIndex.index(menuItem);
+        menuFacetIndex.index(menuItem);
+        catalogResponseCache.invalidate();
+    }
+
+    private void unindex(String id) {
+        menuSearchIndex.remove(id);
+        menuFacetIndex.remove(id);
+        catalogResponseCache.invalidate();
+    }
+
+    /**
+     * Orders total their lines in one currency, so every menu price must use the store currency.
+     */
+    private Money requireStoreCurrency(Money price) {
+        if (price != null && !currency.equals(price.getCurrency())) {
+            throw new RuntimeException("Unsupported currency: " + price.getCurrency() + " (expected " + currency + ")");
+        }
+        return price;
     }
 
     private MenuItemResponse toResponse(MenuItem menuItem) {
@@ -143,8 +254,11 @@ public class MenuItemServiceImpl implements MenuItemService {
         response.setAvailable(menuItem.isAvailable());
         response.setImages(menuItem.getImages());
         response.setTags(menuItem.getTags());
+        response.setPrepTimeMinutes(menuItem.getPrepTimeMinutes());
+        response.setStation(menuItem.getStation());
         response.setCreatedAt(menuItem.getCreatedAt());
         response.setModifiedAt(menuItem.getModifiedAt());
+        response.setDeleted(menuItem.isDeleted());
         return response;
     }
 }
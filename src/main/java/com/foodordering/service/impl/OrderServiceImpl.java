@@ -1,18 +1,47 @@
 package com.foodordering.service.impl;
 
+import com.foodordering.archive.OrderArchiver;
+import com.foodordering.cache.AccountExistenceCache;
+import com.foodordering.cache.CategoryTreeCache;
 import com.foodordering.dto.request.OrderRequest;
+import com.foodordering.dto.response.BulkOrderResponse;
 import com.foodordering.dto.response.OrderResponse;
+import com.foodordering.event.OrderChangedEvent;
+import com.foodordering.intake.OrderWriteBehindQueue;
+import com.foodordering.model.abstraction.BaseEntity;
+import com.foodordering.model.entity.Category;
 import com.foodordering.model.entity.MenuItem;
 import com.foodordering.model.entity.Order;
-import com.foodordering.repository.AccountRepository;
+import com.foodordering.model.value.Money;
 import com.foodordering.repository.MenuItemRepository;
 import com.foodordering.repository.OrderRepository;
 import com.foodordering.service.OrderService;
+import com.mongodb.bulk.BulkWriteError;
+import jakarta.validation.ConstraintViolation;
+import jakarta.validation.Validator;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.FindAndModifyOptions;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.Update;
 import org.springframework.stereotype.Service;
 
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
 import java.util.stream.Collectors;
+import java.util.stream.StreamSupport;
+
+import static org.springframework.data.mongodb.core.query.Criteria.where;
+import static org.springframework.data.mongodb.core.query.Query.query;
 
 @Service
 public class OrderServiceImpl implements OrderService {
@@ -21,60 +50,167 @@ public class OrderServiceImpl implements OrderService {
     private OrderRepository orderRepository;
 
     @Autowired
-    private AccountRepository accountRepository;
+    private AccountExistenceCache accountExistenceCache;
 
     @Autowired
     private MenuItemRepository menuItemRepository;
 
+    @Autowired
+    private MongoTemplate mongoTemplate;
+
+    @Autowired
+    private Validator validator;
+
+    @Autowired
+    private OrderWriteBehindQueue orderWriteBehindQueue;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private OrderArchiver orderArchiver;
+
+    @Autowired
+    private CategoryTreeCache categoryTreeCache;
+
+    @Value("${orders.bulk.max-size:1000}")
+    private int bulkMaxSize;
+
+    @Value("${money.currency:VND}")
+    private String currency;
+
     @Override
     public OrderResponse create(OrderRequest request) {
-        // Validate account exists
-        if (!accountRepository.existsById(request.getAccountId())) {
-            throw new RuntimeException("Account not found with id: " + request.getAccountId());
+        // Validate account exists and is active
+        if (!accountExistenceCache.isActive(request.getAccountId())) {
+            throw new RuntimeException("Active account not found with id: " + request.getAccountId());
         }
 
         Order order = new Order();
         order.setAccountId(request.getAccountId());
         order.setDeliveryAddress(request.getDeliveryAddress());
         order.setNotes(request.getNotes());
+        order.setPromisedAt(request.getPromisedAt());
         order.setStatus(Order.OrderStatus.PENDING);
 
         // Convert order items and calculate total
-        double totalAmount = 0.0;
-        List<Order.OrderItem> orderItems = request.getOrderItems().stream()
-                .map(itemRequest -> {
-                    // Validate menu item exists and get price
-                    MenuItem menuItem = menuItemRepository.findById(itemRequest.getMenuItemId())
-                            .orElseThrow(() -> new RuntimeException("Menu item not found with id: " + itemRequest.getMenuItemId()));
+        setOrderItems(order, request.getOrderItems(), this::findMenuItem);
 
-                    if (!menuItem.isAvailable()) {
-                        throw new RuntimeException("Menu item is not available: " + menuItem.getName());
-                    }
+        // Buffered intake returns as soon as the order is journaled
+        if (orderWriteBehindQueue.offer(order)) {
+            eventPublisher.publishEvent(new OrderChangedEvent(order, null));
+            return toResponse(order);
+        }
 
-                    Order.OrderItem orderItem = new Order.OrderItem(
-                            itemRequest.getMenuItemId(),
-                            itemRequest.getQuantity(),
-                            menuItem.getPrice()
-                    );
-                    return orderItem;
-                })
-                .collect(Collectors.toList());
+        Order saved = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderChangedEvent(saved, null));
+        return toResponse(saved);
+    }
 
-        order.setOrderItems(orderItems);
+    @Override
+    public BulkOrderResponse createBulk(List<OrderRequest> requests) {
+        if (requests == null || requests.isEmpty()) {
+            throw new RuntimeException("At least one order is required");
+        }
+        if (requests.size() > bulkMaxSize) {
+            throw new RuntimeException("Too many orders in one request: " + requests.size() + " (max " + bulkMaxSize + ")");
+        }
 
-        // Calculate total amount
-        totalAmount = orderItems.stream()
-                .mapToDouble(Order.OrderItem::getSubtotal)
-                .sum();
-        order.setTotalAmount(totalAmount);
+        String[] errors = new String[requests.size()];
+        Set<String> accountIds = new HashSet<>();
+        Set<String> menuItemIds = new HashSet<>();
+        for (int i = 0; i < requests.size(); i++) {
+            OrderRequest request = requests.get(i);
+            errors[i] = validate(request);
+            if (errors[i] == null) {
+                accountIds.add(request.getAccountId());
+                request.getOrderItems().forEach(item -> menuItemIds.add(item.getMenuItemId()));
+            }
+        }
 
-        Order saved = orderRepository.save(order);
-        return toResponse(saved);
+        // At most one $in query per collection for the whole batch
+        Set<String> activeAccountIds = accountExistenceCache.findActive(accountIds);
+        Map<String, MenuItem> menuItems = StreamSupport.stream(menuItemRepository.findAllById(menuItemIds).spliterator(), false)
+                .collect(Collectors.toMap(BaseEntity::getId, Function.identity()));
+
+        Order[] orders = new Order[requests.size()];
+        List<Order> toInsert = new ArrayList<>();
+        List<Integer> insertIndexes = new ArrayList<>();
+        for (int i = 0; i < requests.size(); i++) {
+            if (errors[i] != null) continue;
+            OrderRequest request = requests.get(i);
+            if (!activeAccountIds.contains(request.getAccountId())) {
+                errors[i] = "Active account not found with id: " + request.getAccountId();
+                continue;
+            }
+
+            Order order = new Order();
+            order.setAccountId(request.getAccountId());
+            order.setDeliveryAddress(request.getDeliveryAddress());
+            order.setNotes(request.getNotes());
+            order.setPromisedAt(request.getPromisedAt());
+            order.setStatus(Order.OrderStatus.PENDING);
+            try {
+                setOrderItems(order, request.getOrderItems(), menuItems::get);
+            } catch (RuntimeException e) {
+                errors[i] = e.getMessage();
+                continue;
+            }
+
+            // Ids are assigned up front because the bulk insert does not write them back
+            order.ensureId();
+            orders[i] = order;
+            toInsert.add(order);
+            insertIndexes.add(i);
+        }
+
+        if (!toInsert.isEmpty()) {
+            BulkOperations bulkOperations = mongoTemplate.bulkOps(BulkOperations.BulkMode.UNORDERED, Order.class);
+            bulkOperations.insert(toInsert);
+            try {
+                bulkOperations.execute();
+            } catch (BulkOperationException e) {
+                for (BulkWriteError error : e.getErrors()) {
+                    int index = insertIndexes.get(error.getIndex());
+                    errors[index] = "Failed to save order: " + error.getMessage();
+                    orders[index] = null;
+                }
+            }
+        }
+
+        List<BulkOrderResponse.OrderResult> results = new ArrayList<>(requests.size());
+        int succeeded = 0;
+        for (int i = 0; i < requests.size(); i++) {
+            BulkOrderResponse.OrderResult result = new BulkOrderResponse.OrderResult();
+            result.setIndex(i);
+            result.setSuccess(errors[i] == null);
+            if (errors[i] == null) {
+                result.setOrder(toResponse(orders[i]));
+                eventPublisher.publishEvent(new OrderChangedEvent(orders[i], null));
+                succeeded++;
+            } else {
+                result.setError(errors[i]);
+            }
+            results.add(result);
+        }
+
+        BulkOrderResponse response = new BulkOrderResponse();
+        response.setReceived(requests.size());
+        response.setSucceeded(succeeded);
+        response.setFailed(requests.size() - succeeded);
+        response.setResults(results);
+        return response;
     }
 
     @Override
     public OrderResponse getById(String id) {
+        Order pending = orderWriteBehindQueue.find(id);
+        if (pending != null) {
+            return toResponse(pending);
+        }
+        // Completed orders may have been moved to the archive
         Order order = orderRepository.findById(id)
+                .or(() -> orderArchiver.find(id))
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
         return toResponse(order);
     }
@@ -86,9 +222,22 @@ public class OrderServiceImpl implements OrderService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<OrderResponse> getAllIncludingDeleted() {
+        return orderRepository.findAllIncludingDeleted().stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<OrderResponse> getByAccount(String accountId) {
-        return orderRepository.findByAccountId(accountId).stream()
+        List<Order> orders = new ArrayList<>(orderRepository.findByAccountId(accountId));
+        // An order being archived is in both collections for a moment; the live copy wins
+        Set<String> liveIds = orders.stream().map(Order::getId).collect(Collectors.toSet());
+        orderArchiver.findByAccount(accountId).stream()
+                .filter(order -> !liveIds.contains(order.getId()))
+                .forEach(orders::add);
+        return orders.stream()
                 .map(this::toResponse)
                 .collect(Collectors.toList());
     }
@@ -109,8 +258,7 @@ public class OrderServiceImpl implements OrderService {
 
     @Override
     public OrderResponse update(String id, OrderRequest request) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+        Order order = findOrder(id);
 
         // Only allow updates to pending orders
         if (order.getStatus() != Order.OrderStatus.PENDING) {
@@ -125,61 +273,157 @@ public class OrderServiceImpl implements OrderService {
             order.setNotes(request.getNotes());
         }
 
+        if (request.getPromisedAt() != null) {
+            order.setPromisedAt(request.getPromisedAt());
+        }
+
         // Update order items if provided
         if (request.getOrderItems() != null && !request.getOrderItems().isEmpty()) {
-            List<Order.OrderItem> orderItems = request.getOrderItems().stream()
-                    .map(itemRequest -> {
-                        MenuItem menuItem = menuItemRepository.findById(itemRequest.getMenuItemId())
-                                .orElseThrow(() -> new RuntimeException("Menu item not found with id: " + itemRequest.getMenuItemId()));
-
-                        if (!menuItem.isAvailable()) {
-                            throw new RuntimeException("Menu item is not available: " + menuItem.getName());
-                        }
-
-                        return new Order.OrderItem(
-                                itemRequest.getMenuItemId(),
-                                itemRequest.getQuantity(),
-                                menuItem.getPrice()
-                        );
-                    })
-                    .collect(Collectors.toList());
-
-            order.setOrderItems(orderItems);
-
-            // Recalculate total
-            double totalAmount = orderItems.stream()
-                    .mapToDouble(Order.OrderItem::getSubtotal)
-                    .sum();
-            order.setTotalAmount(totalAmount);
+            setOrderItems(order, request.getOrderItems(), this::findMenuItem);
         }
 
         Order updated = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderChangedEvent(updated, updated.getStatus()));
         return toResponse(updated);
     }
 
     @Override
     public OrderResponse updateStatus(String id, Order.OrderStatus status) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+        Order order = findOrder(id);
+        Order.OrderStatus previousStatus = order.getStatus();
         order.setStatus(status);
         Order updated = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderChangedEvent(updated, previousStatus));
         return toResponse(updated);
     }
 
     @Override
-    public void delete(String id) {
-        if (!orderRepository.existsById(id)) {
-            throw new RuntimeException("Order not found with id: " + id);
+    public OrderResponse transitionStatus(String id, Order.OrderStatus expected, Order.OrderStatus next) {
+        flushIfPending(id);
+        // Compare-and-set on the stored status so concurrent workers cannot both win
+        Query query = query(where("_id").is(id).and("status").is(expected.name()).and("is_deleted").is(false));
+        Instant now = Instant.now();
+        Update update = new Update()
+                .set("status", next.name())
+                .set("modified_at", now);
+        if (next == Order.OrderStatus.CONFIRMED && expected != Order.OrderStatus.CONFIRMED) {
+            update.set("confirmed_at", now);
+        }
+        Order updated = mongoTemplate.findAndModify(query, update, FindAndModifyOptions.options().returnNew(true), Order.class);
+        if (updated == null) {
+            return null;
         }
+        eventPublisher.publishEvent(new OrderChangedEvent(updated, expected));
+        return toResponse(updated);
+    }
+
+    @Override
+    public void delete(String id) {
+        flushIfPending(id);
+        Order order = orderRepository.findByIdIncludingDeleted(id)
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
         orderRepository.deleteById(id);
+        // Listeners drop deleted orders, so a hard delete is announced like a soft one
+        order.softDelete();
+        eventPublisher.publishEvent(new OrderChangedEvent(order, order.getStatus()));
     }
 
     @Override
     public void softDelete(String id) {
-        Order order = orderRepository.findById(id)
-                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+        Order order = findOrder(id);
         order.softDelete();
-        orderRepository.save(order);
+        Order deleted = orderRepository.save(order);
+        eventPublisher.publishEvent(new OrderChangedEvent(deleted, deleted.getStatus()));
+    }
+
+    /**
+     * Loads an order for modification. An order still held by the write-behind
+     * queue is flushed first so the change applies to the stored document.
+     */
+    private Order findOrder(String id) {
+        flushIfPending(id);
+        return orderRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Order not found with id: " + id));
+    }
+
+    /**
+     * Flushes the write-behind queue when it still holds this order. An order the
+     * flush could not write stays buffered for a retry, so the caller gets a
+     * retryable error instead of "not found" for an order that was accepted.
+     */
+    private void flushIfPending(String id) {
+        if (orderWriteBehindQueue.isPending(id)) {
+            orderWriteBehindQueue.flush();
+            if (orderWriteBehindQueue.isPending(id)) {
+                throw new RuntimeException("Order is still being saved, retry the request: " + id);
+            }
+        }
+    }
+
+    private MenuItem findMenuItem(String menuItemId) {
+        return menuItemRepository.findById(menuItemId).orElse(null);
+    }
+
+    /**
+     * Converts requested items into order lines priced from the menu and sets the total.
+     * The lookup returns null for unknown menu items.
+     */
+    private void setOrderItems(Order order, List<OrderRequest.OrderItemRequest> itemRequests,
+                               Function<String, MenuItem> menuItemLookup) {
+        List<Order.OrderItem> orderItems = itemRequests.stream()
+                .map(itemRequest -> {
+                    // Validate menu item exists and get price
+                    MenuItem menuItem = menuItemLookup.apply(itemRequest.getMenuItemId());
+                    if (menuItem == null) {
+                        throw new RuntimeException("Menu item not found with id: " + itemRequest.getMenuItemId());
+                    }
+
+                    if (!menuItem.isAvailable()) {
+                        throw new RuntimeException("Menu item is not available: " + menuItem.getName());
+                    }
+
+                    Order.OrderItem orderItem = new Order.OrderItem(
+                            itemRequest.getMenuItemId(),
+                            itemRequest.getQuantity(),
+                            menuItem.getPrice()
+                    );
+
+                    // Snapshot the name and category so history survives menu edits
+                    orderItem.setMenuItemName(menuItem.getName());
+                    orderItem.setCategoryId(menuItem.getCategoryId());
+                    Category category = menuItem.getCategoryId() != null
+                            ? categoryTreeCache.get(menuItem.getCategoryId()) : null;
+                    orderItem.setCategoryName(category != null ? category.getName() : null);
+                    return orderItem;
+                })
+                .collect(Collectors.toList());
+
+        order.setOrderItems(orderItems);
+
+        // Calculate total amount in minor units; a line in another currency fails here
+        long totalAmount = 0L;
+        for (Order.OrderItem orderItem : orderItems) {
+            Money subtotal = orderItem.getSubtotal();
+            if (!currency.equals(subtotal.getCurrency())) {
+                throw new RuntimeException("Menu item is not priced in " + currency + ": " + orderItem.getMenuItemId());
+            }
+            totalAmount = Math.addExact(totalAmount, subtotal.getAmount());
+        }
+        order.setTotalAmount(Money.of(totalAmount, currency));
+    }
+
+    private String validate(OrderRequest request) {
+        if (request == null) {
+            return "Order is required";
+        }
+        Set<ConstraintViolation<OrderRequest>> violations = validator.validate(request);
+        if (violations.isEmpty()) {
+            return null;
+        }
+        return violations.stream()
+                .map(ConstraintViolation::getMessage)
+                .sorted()
+                .collect(Collectors.joining("; "));
     }
 
     private OrderResponse toResponse(Order order) {
@@ -190,8 +434,10 @@ public class OrderServiceImpl implements OrderService {
         response.setStatus(order.getStatus());
         response.setDeliveryAddress(order.getDeliveryAddress());
         response.setNotes(order.getNotes());
+        response.setPromisedAt(order.getPromisedAt());
         response.setCreatedAt(order.getCreatedAt());
         response.setModifiedAt(order.getModifiedAt());
+        response.setDeleted(order.isDeleted());
 
         // Convert order items
         List<OrderResponse.OrderItemResponse> orderItemResponses = order.getOrderItems().stream()
@@ -201,6 +447,9 @@ public class OrderServiceImpl implements OrderService {
                     itemResponse.setQuantity(item.getQuantity());
                     itemResponse.setPrice(item.getPrice());
                     itemResponse.setSubtotal(item.getSubtotal());
+                    itemResponse.setMenuItemName(item.getMenuItemName());
+                    itemResponse.setCategoryId(item.getCategoryId());
+                    itemResponse.setCategoryName(item.getCategoryName());
                     return itemResponse;
                 })
                 .collect(Collectors.toList());
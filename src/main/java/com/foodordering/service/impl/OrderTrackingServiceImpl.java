@@ -0,0 +1,421 @@
+package com.foodordering.service.impl;
+
+import com.foodordering.cache.AccountExistenceCache;
+import com.foodordering.dto.response.OrderResponse;
+import com.foodordering.dto.response.OrderStatusEvent;
+import com.foodordering.event.OrderChangedEvent;
+import com.foodordering.model.entity.Order;
+import com.foodordering.service.OrderService;
+import com.foodordering.service.OrderTrackingService;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import java.io.IOException;
+import java.time.Instant;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pushes order status changes to Server-Sent Events subscribers.
+ * <p>
+ * Emitters sit on async servlet requests, so an idle subscriber costs an
+ * emitter and a map entry, not a thread. The opening snapshot is read on the
+ * subscribing request's thread. Status changes are fanned out by appending to
+ * each subscriber's outbox, which never blocks; a small sender pool drains the
+ * outboxes, one send at a time per subscriber. A subscriber whose send has
+ * been stuck longer than the send timeout, or whose outbox has fallen too far
+ * behind, is dropped, so one slow client cannot hold up the others. A single
+ * scheduler thread queues heartbeat comments, which keep proxies from closing
+ * the stream and let dead connections be dropped, and looks for stuck sends.
+ */
+@Service
+public class OrderTrackingServiceImpl implements OrderTrackingService {
+
+    private static final String EVENT_NAME = "order-status";
+    private static final Set<Order.OrderStatus> FINAL_STATUSES =
+            EnumSet.of(Order.OrderStatus.DELIVERED, Order.OrderStatus.CANCELLED);
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private AccountExistenceCache accountExistenceCache;
+
+    @Value("${orders.tracking.timeout-ms:1800000}")
+    private long timeoutMs;
+
+    @Value("${orders.tracking.heartbeat-seconds:20}")
+    private long heartbeatSeconds;
+
+    @Value("${orders.tracking.send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    @Value("${orders.tracking.max-queued-events:100}")
+    private int maxQueuedEvents;
+
+    @Value("${orders.tracking.sender-threads:4}")
+    private int senderThreads;
+
+    private final Map<String, Set<Subscriber>> orderSubscribers = new ConcurrentHashMap<>();
+    private final Map<String, Set<Subscriber>> accountSubscribers = new ConcurrentHashMap<>();
+
+    private ScheduledExecutorService scheduler;
+    private ExecutorService senders;
+
+    @PostConstruct
+    void start() {
+        scheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "order-tracking");
+            thread.setDaemon(true);
+            return thread;
+        });
+        AtomicInteger senderCount = new AtomicInteger();
+        senders = Executors.newFixedThreadPool(senderThreads, runnable -> {
+            Thread thread = new Thread(runnable, "order-tracking-send-" + senderCount.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        });
+        scheduler.scheduleWithFixedDelay(this::sendHeartbeats, heartbeatSeconds, heartbeatSeconds, TimeUnit.SECONDS);
+        long checkMs = Math.max(100, sendTimeoutMs / 2);
+        scheduler.scheduleWithFixedDelay(this::dropStuckSubscribers, checkMs, checkMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    void stop() {
+        scheduler.shutdownNow();
+        senders.shutdownNow();
+        orderSubscribers.values().forEach(subscribers -> subscribers.forEach(Subscriber::drop));
+        accountSubscribers.values().forEach(subscribers -> subscribers.forEach(Subscriber::drop));
+    }
+
+    @Override
+    public SseEmitter subscribeToOrder(String orderId) {
+        // Throws for unknown orders before a stream is opened
+        orderService.getById(orderId);
+
+        Subscriber subscriber = register(orderSubscribers, orderId);
+        // Read after registering, so no status change is missed; changes that arrive
+        // before the snapshot is queued are held and replayed after it
+        try {
+            OrderResponse order = orderService.getById(orderId);
+            subscriber.prime(List.of(toEvent(order)));
+            if (FINAL_STATUSES.contains(order.getStatus())) {
+                subscriber.finish();
+            }
+        } catch (RuntimeException e) {
+            subscriber.fail(e);
+        }
+        return subscriber.emitter;
+    }
+
+    @Override
+    public SseEmitter subscribeToAccount(String accountId) {
+        if (!accountExistenceCache.isActive(accountId)) {
+            throw new RuntimeException("Account not found with id: " + accountId);
+        }
+
+        Subscriber subscriber = register(accountSubscribers, accountId);
+        // Start with a snapshot of the account's active orders, read the same way as for one order
+        try {
+            List<OrderStatusEvent> snapshot = new ArrayList<>();
+            for (OrderResponse order : orderService.getByAccount(accountId)) {
+                if (!FINAL_STATUSES.contains(order.getStatus())) {
+                    snapshot.add(toEvent(order));
+                }
+            }
+            subscriber.prime(snapshot);
+        } catch (RuntimeException e) {
+            subscriber.fail(e);
+        }
+        return subscriber.emitter;
+    }
+
+    @EventListener
+    public void onOrderChanged(OrderChangedEvent event) {
+        if (!event.isStatusChange()) {
+            return;
+        }
+        Order order = event.getOrder();
+        if (!orderSubscribers.containsKey(order.getId()) && !accountSubscribers.containsKey(order.getAccountId())) {
+            return;
+        }
+
+        // Only appends to outboxes, so this is cheap enough for the publishing thread
+        OrderStatusEvent payload = toEvent(order, event.getPreviousStatus());
+        publish(orderSubscribers, order.getId(), payload);
+        publish(accountSubscribers, order.getAccountId(), payload);
+        if (FINAL_STATUSES.contains(order.getStatus())) {
+            // Nothing more will happen to this order; release its streams once the final event is out
+            Set<Subscriber> subscribers = orderSubscribers.remove(order.getId());
+            if (subscribers != null) {
+                subscribers.forEach(Subscriber::finish);
+            }
+        }
+    }
+
+    private Subscriber register(Map<String, Set<Subscriber>> subscribers, String key) {
+        Subscriber subscriber = new Subscriber(new SseEmitter(timeoutMs), subscribers, key);
+        subscribers.computeIfAbsent(key, k -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        subscriber.emitter.onCompletion(subscriber::unregister);
+        subscriber.emitter.onTimeout(subscriber::unregister);
+        subscriber.emitter.onError(error -> subscriber.unregister());
+        return subscriber;
+    }
+
+    private void publish(Map<String, Set<Subscriber>> subscribers, String key, OrderStatusEvent payload) {
+        Set<Subscriber> registered = subscribers.get(key);
+        if (registered == null) {
+            return;
+        }
+        for (Subscriber subscriber : registered) {
+            subscriber.push(payload);
+        }
+    }
+
+    private void sendHeartbeats() {
+        orderSubscribers.values().forEach(subscribers -> subscribers.forEach(Subscriber::heartbeat));
+        accountSubscribers.values().forEach(subscribers -> subscribers.forEach(Subscriber::heartbeat));
+    }
+
+    private void dropStuckSubscribers() {
+        long now = System.nanoTime();
+        orderSubscribers.values().forEach(subscribers -> subscribers.forEach(s -> s.dropIfStuck(now)));
+        accountSubscribers.values().forEach(subscribers -> subscribers.forEach(s -> s.dropIfStuck(now)));
+    }
+
+    private static SseEmitter.SseEventBuilder statusEvent(OrderStatusEvent payload) {
+        return SseEmitter.event()
+                .name(EVENT_NAME)
+                .id(payload.getOrderId() + ":" + payload.getStatus())
+                .data(payload);
+    }
+
+    private OrderStatusEvent toEvent(OrderResponse order) {
+        OrderStatusEvent event = new OrderStatusEvent();
+        event.setOrderId(order.getId());
+        event.setAccountId(order.getAccountId());
+        event.setStatus(order.getStatus());
+        event.setTotalAmount(order.getTotalAmount());
+        event.setModifiedAt(order.getModifiedAt());
+        return event;
+    }
+
+    private OrderStatusEvent toEvent(Order order, Order.OrderStatus previousStatus) {
+        OrderStatusEvent event = new OrderStatusEvent();
+        event.setOrderId(order.getId());
+        event.setAccountId(order.getAccountId());
+        event.setStatus(order.getStatus());
+        event.setPreviousStatus(previousStatus);
+        event.setTotalAmount(order.getTotalAmount());
+        event.setModifiedAt(order.getModifiedAt());
+        return event;
+    }
+
+    /**
+     * One stream and its outbox. Until the snapshot is primed, status changes are
+     * held so they can be replayed after it; at most one sender drains the outbox
+     * at a time, which keeps the stream's events in order. The emitter is only
+     * completed while no send is in progress, since a send holds its write lock.
+     */
+    private final class Subscriber {
+
+        private final SseEmitter emitter;
+        private final Map<String, Set<Subscriber>> subscribers;
+        private final String key;
+
+        // Guarded by this
+        private final Deque<SseEmitter.SseEventBuilder> outbox = new ArrayDeque<>();
+        private List<OrderStatusEvent> held = new ArrayList<>();
+        private boolean draining;
+        private boolean finishing;
+        private boolean closed;
+        private boolean completed;
+
+        // Start of the send in progress, 0 when idle
+        private volatile long sendStartedNanos;
+
+        private Subscriber(SseEmitter emitter, Map<String, Set<Subscriber>> subscribers, String key) {
+            this.emitter = emitter;
+            this.subscribers = subscribers;
+            this.key = key;
+        }
+
+        void prime(List<OrderStatusEvent> snapshot) {
+            synchronized (this) {
+                List<OrderStatusEvent> changes = held;
+                held = null;
+                Map<String, Instant> snapshotAt = new HashMap<>();
+                for (OrderStatusEvent payload : snapshot) {
+                    snapshotAt.put(payload.getOrderId(), payload.getModifiedAt());
+                    enqueue(statusEvent(payload));
+                }
+                for (OrderStatusEvent payload : changes) {
+                    // Changes the snapshot already reflects would only repeat an older state
+                    Instant at = snapshotAt.get(payload.getOrderId());
+                    if (at == null || payload.getModifiedAt() == null || payload.getModifiedAt().isAfter(at)) {
+                        enqueue(statusEvent(payload));
+                    }
+                }
+            }
+            if (overflowed()) {
+                drop();
+            } else {
+                completeIfDone();
+            }
+        }
+
+        void push(OrderStatusEvent payload) {
+            synchronized (this) {
+                if (held == null) {
+                    enqueue(statusEvent(payload));
+                } else if (!closed) {
+                    held.add(payload);
+                }
+            }
+            if (overflowed()) {
+                // Too far behind to catch up; the client can reconnect for a fresh snapshot
+                drop();
+            }
+        }
+
+        synchronized void heartbeat() {
+            // A stream with events already queued does not need one
+            if (held == null && outbox.isEmpty()) {
+                enqueue(SseEmitter.event().comment("heartbeat"));
+            }
+        }
+
+        /**
+         * Completes the stream once everything queued so far has been sent.
+         */
+        void finish() {
+            synchronized (this) {
+                finishing = true;
+            }
+            completeIfDone();
+        }
+
+        void fail(RuntimeException e) {
+            synchronized (this) {
+                closed = true;
+                completed = true;
+            }
+            unregister();
+            emitter.completeWithError(e);
+        }
+
+        void dropIfStuck(long now) {
+            long started = sendStartedNanos;
+            if (started != 0 && now - started > TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs)) {
+                drop();
+            }
+        }
+
+        /**
+         * Stops queueing for this stream. The emitter is completed now if no send is
+         * in progress, or by the sender once the stuck send returns or fails.
+         */
+        void drop() {
+            synchronized (this) {
+                closed = true;
+                outbox.clear();
+                if (held != null) {
+                    held.clear();
+                }
+            }
+            unregister();
+            completeIfDone();
+        }
+
+        void unregister() {
+            subscribers.computeIfPresent(key, (k, registered) -> {
+                registered.remove(this);
+                return registered.isEmpty() ? null : registered;
+            });
+        }
+
+        private synchronized boolean overflowed() {
+            int queued = held == null ? outbox.size() : held.size();
+            return !closed && queued > maxQueuedEvents;
+        }
+
+        private void enqueue(SseEmitter.SseEventBuilder event) {
+            if (closed) {
+                return;
+            }
+            outbox.add(event);
+            if (!draining) {
+                draining = true;
+                try {
+                    senders.execute(this::drain);
+                } catch (RejectedExecutionException e) {
+                    // Shutting down
+                    draining = false;
+                }
+            }
+        }
+
+        private void completeIfDone() {
+            synchronized (this) {
+                boolean done = closed || (finishing && held == null && outbox.isEmpty());
+                if (!done || draining || completed) {
+                    return;
+                }
+                closed = true;
+                completed = true;
+            }
+            unregister();
+            emitter.complete();
+        }
+
+        private void drain() {
+            while (true) {
+                SseEmitter.SseEventBuilder event;
+                synchronized (this) {
+                    event = closed ? null : outbox.poll();
+                    if (event == null) {
+                        draining = false;
+                    }
+                }
+                if (event == null) {
+                    completeIfDone();
+                    return;
+                }
+                sendStartedNanos = System.nanoTime();
+                try {
+                    emitter.send(event);
+                } catch (IOException | IllegalStateException e) {
+                    // Client went away or the emitter already completed
+                    synchronized (this) {
+                        closed = true;
+                        completed = true;
+                        outbox.clear();
+                        draining = false;
+                    }
+                    unregister();
+                    return;
+                } finally {
+                    sendStartedNanos = 0;
+                }
+            }
+        }
+    }
+}
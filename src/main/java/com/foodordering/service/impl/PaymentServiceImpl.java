@@ -2,17 +2,22 @@ package com.foodordering.service.impl;
 
 import com.foodordering.dto.request.PaymentRequest;
 import com.foodordering.dto.response.PaymentResponse;
+import com.foodordering.event.OrderChangedEvent;
+import com.foodordering.intake.OrderWriteBehindQueue;
 import com.foodordering.integration.momo.MomoPayService;
 import com.foodordering.model.entity.Order;
 import com.foodordering.model.entity.Payment;
+import com.foodordering.model.value.Money;
 import com.foodordering.repository.OrderRepository;
 import com.foodordering.repository.PaymentRepository;
 import com.foodordering.service.PaymentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
 import java.util.List;
+import java.util.Optional;
 import java.util.stream.Collectors;
 
 @Service
@@ -27,10 +32,17 @@ public class PaymentServiceImpl implements PaymentService {
     @Autowired
     private MomoPayService momoPayService;
 
+    @Autowired
+    private OrderWriteBehindQueue orderWriteBehindQueue;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
     @Override
     public PaymentResponse create(PaymentRequest request) {
-        // Validate order exists
+        // Validate order exists (it may still be buffered by the write-behind intake)
         Order order = orderRepository.findById(request.getOrderId())
+                .or(() -> Optional.ofNullable(orderWriteBehindQueue.find(request.getOrderId())))
                 .orElseThrow(() -> new RuntimeException("Order not found with id: " + request.getOrderId()));
 
         // Check if order already has a successful payment
@@ -43,8 +55,8 @@ public class PaymentServiceImpl implements PaymentService {
         }
 
         // Get amount from order
-        Double amount = order.getTotalAmount();
-        if (amount == null || amount <= 0) {
+        Money amount = order.getTotalAmount();
+        if (amount == null || !amount.isPositive()) {
             throw new RuntimeException("Order amount is invalid: " + amount);
         }
 
@@ -102,6 +114,13 @@ public class PaymentServiceImpl implements PaymentService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<PaymentResponse> getAllIncludingDeleted() {
+        return paymentRepository.findAllIncludingDeleted().stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public List<PaymentResponse> getByOrder(String orderId) {
         return paymentRepository.findByOrderId(orderId).stream()
@@ -159,11 +178,15 @@ public class PaymentServiceImpl implements PaymentService {
 
         // Update order status if payment successful
         if (payment.getStatus() == Payment.PaymentStatus.SUCCESS) {
+            if (orderWriteBehindQueue.isPending(payment.getOrderId())) {
+                orderWriteBehindQueue.flush();
+            }
             Order order = orderRepository.findById(payment.getOrderId())
                     .orElse(null);
             if (order != null && order.getStatus() == Order.OrderStatus.PENDING) {
                 order.setStatus(Order.OrderStatus.CONFIRMED);
-                orderRepository.save(order);
+                Order confirmed = orderRepository.save(order);
+                eventPublisher.publishEvent(new OrderChangedEvent(confirmed, Order.OrderStatus.PENDING));
             }
         }
 
@@ -190,7 +213,7 @@ public class PaymentServiceImpl implements PaymentService {
 
     @Override
     public void delete(String id) {
-        if (!paymentRepository.existsById(id)) {
+        if (!paymentRepository.existsByIdIncludingDeleted(id)) {
             throw new RuntimeException("Payment not found with id: " + id);
         }
         paymentRepository.deleteById(id);
@@ -220,6 +243,7 @@ public class PaymentServiceImpl implements PaymentService {
         response.setDescription(payment.getDescription());
         response.setCreatedAt(payment.getCreatedAt());
         response.setModifiedAt(payment.getModifiedAt());
+        response.setDeleted(payment.isDeleted());
         return response;
     }
 }
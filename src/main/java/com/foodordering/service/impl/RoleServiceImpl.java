@@ -6,6 +6,7 @@ import com.foodordering.model.entity.Role;
 import com.foodordering.repository.RoleRepository;
 import com.foodordering.service.RoleService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DuplicateKeyException;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
@@ -19,10 +20,6 @@ public class RoleServiceImpl implements RoleService {
 
     @Override
     public RoleResponse create(RoleRequest request) {
-        if (roleRepository.existsByName(request.getName())) {
-            throw new RuntimeException("Role already exists with name: " + request.getName());
-        }
-
         Role role = new Role();
         role.setName(request.getName());
         role.setDescription(request.getDescription());
@@ -30,7 +27,7 @@ public class RoleServiceImpl implements RoleService {
             role.setPermissions(request.getPermissions());
         }
 
-        Role saved = roleRepository.save(role);
+        Role saved = save(role);
         return toResponse(saved);
     }
 
@@ -55,6 +52,13 @@ public class RoleServiceImpl implements RoleService {
                 .collect(Collectors.toList());
     }
 
+    @Override
+    public List<RoleResponse> getAllIncludingDeleted() {
+        return roleRepository.findAllIncludingDeleted().stream()
+                .map(this::toResponse)
+                .collect(Collectors.toList());
+    }
+
     @Override
     public RoleResponse update(String id, RoleRequest request) {
         Role role = roleRepository.findById(id)
@@ -72,13 +76,13 @@ public class RoleServiceImpl implements RoleService {
             role.setPermissions(request.getPermissions());
         }
 
-        Role updated = roleRepository.save(role);
+        Role updated = save(role);
         return toResponse(updated);
     }
 
     @Override
     public void delete(String id) {
-        if (!roleRepository.existsById(id)) {
+        if (!roleRepository.existsByIdIncludingDeleted(id)) {
             throw new RuntimeException("Role not found with id: " + id);
         }
         roleRepository.deleteById(id);
@@ -92,6 +96,17 @@ public class RoleServiceImpl implements RoleService {
         roleRepository.save(role);
     }
 
+    /**
+     * Saves the role; name uniqueness is enforced by the unique name_key index.
+     */
+    private Role save(Role role) {
+        try {
+            return roleRepository.save(role);
+        } catch (DuplicateKeyException e) {
+            throw new RuntimeException("Role already exists with name: " + role.getName());
+        }
+    }
+
     private RoleResponse toResponse(Role role) {
         RoleResponse response = new RoleResponse();
         response.setId(role.getId());
@@ -100,6 +115,7 @@ public class RoleServiceImpl implements RoleService {
         response.setPermissions(role.getPermissions());
         response.setCreatedAt(role.getCreatedAt());
         response.setModifiedAt(role.getModifiedAt());
+        response.setDeleted(role.isDeleted());
         return response;
     }
 }
@@ -0,0 +1,109 @@
+package com.foodordering.analytics;
+
+import com.foodordering.model.entity.Order;
+import com.foodordering.model.value.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Listener callbacks are made in the order OrderFactStore makes them around each table change.
+ */
+class CustomerSketchesTest {
+
+    private static final YearMonth MONTH = YearMonth.of(2026, 3);
+    private static final int DAY = (int) MONTH.atDay(10).toEpochDay();
+    private static final int NEXT_MONTH_DAY = (int) MONTH.plusMonths(1).atDay(2).toEpochDay();
+
+    private OrderFactTable table;
+    private CustomerSketches sketches;
+
+    @BeforeEach
+    void setUp() {
+        table = new OrderFactTable();
+        table.upsert(order("o1", "a1", Order.OrderStatus.DELIVERED, "m1"), DAY, 12);
+        table.upsert(order("o2", "a2", Order.OrderStatus.CONFIRMED, "m1", "m2"), DAY, 13);
+        table.upsert(order("o3", "a3", Order.OrderStatus.CONFIRMED, "m2"), DAY + 5, 19);
+        table.upsert(order("o4", "a3", Order.OrderStatus.CANCELLED, "m1"), DAY + 6, 19);
+        table.upsert(order("o5", "a4", Order.OrderStatus.CONFIRMED, "m1"), NEXT_MONTH_DAY, 9);
+        sketches = new CustomerSketches();
+        sketches.tableLoaded(table);
+    }
+
+    @Test
+    void countsDistinctCustomersOfCountedOrders() {
+        assertEquals(3, customers(MONTH));
+        assertEquals(2, itemCustomers(MONTH, "m1"));
+        assertEquals(2, itemCustomers(MONTH, "m2"));
+        assertEquals(1, customers(MONTH.plusMonths(1)));
+        assertNull(sketches.month(table, MONTH.minusMonths(1)));
+    }
+
+    @Test
+    void aCancellationRebuildsTheStaleMonth() {
+        changeStatus("o3", "a3", Order.OrderStatus.CANCELLED, DAY + 5, "m2");
+
+        assertEquals(2, customers(MONTH));
+        assertEquals(1, itemCustomers(MONTH, "m2"));
+        // a3's cancelled m1 order must not come back with the rebuild
+        assertEquals(2, itemCustomers(MONTH, "m1"));
+        assertEquals(1, customers(MONTH.plusMonths(1)));
+    }
+
+    @Test
+    void aRemovalRebuildsTheStaleMonth() {
+        int ordinal = table.orderOrdinal("o1");
+        sketches.orderRemoving(table, ordinal);
+        table.remove("o1");
+
+        assertEquals(2, customers(MONTH));
+        assertEquals(1, itemCustomers(MONTH, "m1"));
+    }
+
+    @Test
+    void anOrderEnteringACountedStatusIsAddedInPlace() {
+        changeStatus("o4", "a3", Order.OrderStatus.CONFIRMED, DAY + 6, "m1");
+        table.upsert(order("o6", "a5", Order.OrderStatus.PENDING, "m2"), DAY + 7, 10);
+        sketches.orderAdded(table, table.orderOrdinal("o6"));
+
+        assertEquals(4, customers(MONTH));
+        assertEquals(3, itemCustomers(MONTH, "m1"));
+        assertEquals(3, itemCustomers(MONTH, "m2"));
+    }
+
+    private void changeStatus(String id, String accountId, Order.OrderStatus status, int day, String... menuItems) {
+        int ordinal = table.orderOrdinal(id);
+        byte previousStatus = table.orderStatuses()[ordinal];
+        assertTrue(table.updateStatus(order(id, accountId, status, menuItems), day));
+        sketches.orderStatusChanged(table, ordinal, previousStatus);
+    }
+
+    private long customers(YearMonth month) {
+        return sketches.month(table, month).getAll().estimate();
+    }
+
+    private long itemCustomers(YearMonth month, String menuItemId) {
+        return sketches.month(table, month).getByMenuItem().get(table.menuItemOrdinal(menuItemId)).estimate();
+    }
+
+    private static Order order(String id, String accountId, Order.OrderStatus status, String... menuItems) {
+        List<Order.OrderItem> items = new ArrayList<>();
+        for (String menuItem : menuItems) {
+            items.add(new Order.OrderItem(menuItem, 1, Money.of(30_000, "VND")));
+        }
+        Order order = new Order(accountId, items);
+        ReflectionTestUtils.setField(order, "id", id);
+        order.setStatus(status);
+        order.setTotalAmount(Money.of(30_000L * items.size(), "VND"));
+        return order;
+    }
+}
@@ -0,0 +1,81 @@
+package com.foodordering.analytics;
+
+import com.foodordering.dto.response.DashboardResponse;
+import com.foodordering.model.entity.Order;
+import com.foodordering.model.entity.OrderMonthlyRollup;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class DashboardAggregationPoolTest {
+
+    private static final int COUNTED = OrderFactTable.statusMaskExcluding(Order.OrderStatus.CANCELLED);
+    private static final YearMonth FIRST_MONTH = YearMonth.of(2025, 9);
+    private static final YearMonth LAST_MONTH = YearMonth.of(2026, 3);
+
+    @Test
+    void parallelRunMatchesSequentialRun() {
+        DashboardAggregationPool sequential = pool(1, 250_000);
+        DashboardAggregationPool parallel = pool(4, 64);
+        try {
+            for (long seed = 1; seed <= 3; seed++) {
+                Random random = new Random(seed);
+                OrderFactTable table = DashboardAggregatorTest.randomTable(random, 3_000);
+                List<OrderMonthlyRollup> rollups = DashboardAggregatorTest.randomRollups(random);
+                assertTrue(table.lineCount() > 2 * 64 * 4, "table too small to split");
+
+                assertEquals(summary(aggregate(sequential, table, rollups)),
+                        summary(aggregate(parallel, table, rollups)), "seed " + seed);
+            }
+        } finally {
+            sequential.stop();
+            parallel.stop();
+        }
+    }
+
+    private static DashboardAggregationPool pool(int parallelism, int minRowsPerTask) {
+        DashboardAggregationPool pool = new DashboardAggregationPool();
+        ReflectionTestUtils.setField(pool, "parallelism", parallelism);
+        ReflectionTestUtils.setField(pool, "minRowsPerTask", minRowsPerTask);
+        pool.start();
+        return pool;
+    }
+
+    // Same steps as DashboardServiceImpl: orders and lines each go through the pool
+    private static DashboardResponse aggregate(DashboardAggregationPool pool, OrderFactTable table,
+                                               List<OrderMonthlyRollup> rollups) {
+        int fromDay = (int) FIRST_MONTH.atDay(1).toEpochDay();
+        int toDay = (int) LAST_MONTH.atEndOfMonth().toEpochDay();
+        int[] selection = new int[Math.max(table.lineCount(), table.orderSlots())];
+        int selectedOrders = table.selectOrders(fromDay, toDay, COUNTED, selection);
+        DashboardAggregator aggregator = new DashboardAggregator(table, rollups, FIRST_MONTH, LAST_MONTH);
+        pool.aggregate(aggregator, selectedOrders,
+                (partial, from, to) -> partial.addOrders(table, selection, from, to - from));
+        pool.aggregate(aggregator, table.lineCount(), (partial, from, to) -> partial.addLines(
+                table, selection, from, table.selectLines(from, to, fromDay, toDay, COUNTED, selection)));
+        aggregator.addRollups(rollups);
+        return aggregator.toResponse("VND", id -> null);
+    }
+
+    // Everything but list order, which is free among items with equal totals
+    private static Map<String, Object> summary(DashboardResponse response) {
+        Map<String, Object> summary = new TreeMap<>();
+        for (DashboardResponse.MenuItemOrderStats stats : response.getMenuItemStats()) {
+            summary.put("item " + stats.getMenuItemId(), List.of(stats.getMenuItemName(),
+                    new TreeMap<>(stats.getOrdersByMonth()), stats.getTotalOrders(), stats.getTotalQuantity(),
+                    stats.getTotalRevenue().getAmount()));
+        }
+        response.getMonthlySummary().forEach((month, stats) -> summary.put("month " + month, List.of(
+                stats.getTotalOrders(), stats.getTotalMenuItemsOrdered(), stats.getTotalRevenue().getAmount())));
+        summary.put("total", List.of(response.getTotalOrders(), response.getTotalRevenue().getAmount()));
+        return summary;
+    }
+}
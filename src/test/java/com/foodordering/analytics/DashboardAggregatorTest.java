@@ -0,0 +1,216 @@
+package com.foodordering.analytics;
+
+import com.foodordering.dto.response.DashboardResponse;
+import com.foodordering.model.entity.Order;
+import com.foodordering.model.entity.OrderMonthlyRollup;
+import com.foodordering.model.value.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The flat-array aggregation against the nested-map grouping it replaced, on
+ * generated live orders and archived rollups.
+ */
+class DashboardAggregatorTest {
+
+    private static final int COUNTED = OrderFactTable.statusMaskExcluding(Order.OrderStatus.CANCELLED);
+    private static final YearMonth FIRST_LIVE_MONTH = YearMonth.of(2025, 11);
+    private static final YearMonth LAST_MONTH = YearMonth.of(2026, 3);
+    private static final YearMonth FIRST_MONTH = YearMonth.of(2025, 9);
+
+    @Test
+    void matchesNestedMapGrouping() {
+        for (long seed = 1; seed <= 5; seed++) {
+            Random random = new Random(seed);
+            OrderFactTable table = randomTable(random, 600);
+            List<OrderMonthlyRollup> rollups = randomRollups(random);
+
+            DashboardResponse actual = aggregate(table, rollups);
+            Grouping expected = new Grouping(table, rollups);
+
+            assertEquals(expected.itemOrders.size(), actual.getMenuItemStats().size(), "seed " + seed);
+            for (DashboardResponse.MenuItemOrderStats stats : actual.getMenuItemStats()) {
+                String id = stats.getMenuItemId();
+                Map<String, Integer> orders = expected.itemOrders.get(id);
+                assertEquals(orders, stats.getOrdersByMonth(), id);
+                assertEquals(sum(orders), (long) stats.getTotalOrders(), id);
+                assertEquals(sum(expected.itemQuantities.get(id)), (long) stats.getTotalQuantity(), id);
+                assertEquals(sum(expected.itemRevenue.get(id)), stats.getTotalRevenue().getAmount(), id);
+                assertEquals(expected.names.getOrDefault(id, "Unknown Item"), stats.getMenuItemName(), id);
+            }
+            List<DashboardResponse.MenuItemOrderStats> sorted = actual.getMenuItemStats();
+            for (int i = 1; i < sorted.size(); i++) {
+                assertTrue(sorted.get(i - 1).getTotalOrders() >= sorted.get(i).getTotalOrders());
+            }
+
+            assertEquals(expected.monthOrders.keySet(), actual.getMonthlySummary().keySet(), "seed " + seed);
+            actual.getMonthlySummary().forEach((month, stats) -> {
+                assertEquals(expected.monthOrders.get(month), stats.getTotalOrders(), month);
+                assertEquals(expected.monthLines.get(month), stats.getTotalMenuItemsOrdered(), month);
+                assertEquals((long) expected.monthRevenue.get(month), stats.getTotalRevenue().getAmount(), month);
+            });
+            assertEquals(sum(expected.monthOrders), (long) actual.getTotalOrders());
+            assertEquals(sum(expected.monthRevenue), actual.getTotalRevenue().getAmount());
+        }
+    }
+
+    @Test
+    void mergeRejectsAPartialOfAnotherAggregator() {
+        OrderFactTable table = randomTable(new Random(1), 10);
+        DashboardAggregator one = new DashboardAggregator(table, List.of(), FIRST_MONTH, LAST_MONTH);
+        DashboardAggregator other = new DashboardAggregator(table, List.of(), FIRST_MONTH, LAST_MONTH);
+
+        assertThrows(IllegalArgumentException.class, () -> one.merge(other.emptyCopy()));
+    }
+
+    private static DashboardResponse aggregate(OrderFactTable table, List<OrderMonthlyRollup> rollups) {
+        int fromDay = (int) FIRST_MONTH.atDay(1).toEpochDay();
+        int toDay = (int) LAST_MONTH.atEndOfMonth().toEpochDay();
+        int[] selection = new int[Math.max(table.lineCount(), table.orderSlots())];
+        DashboardAggregator aggregator = new DashboardAggregator(table, rollups, FIRST_MONTH, LAST_MONTH);
+        aggregator.addOrders(table, selection, table.selectOrders(fromDay, toDay, COUNTED, selection));
+        aggregator.addLines(table, selection, table.selectLines(fromDay, toDay, COUNTED, selection));
+        aggregator.addRollups(rollups);
+        // Only reached for an item that no line or rollup has a name for
+        return aggregator.toResponse("VND", id -> id.equals("m3") ? "Looked up" : null);
+    }
+
+    /**
+     * The grouping DashboardServiceImpl did before the aggregator: menu item id -> month -> sum.
+     */
+    private static final class Grouping {
+        private final Map<String, Map<String, Integer>> itemOrders = new HashMap<>();
+        private final Map<String, Map<String, Integer>> itemQuantities = new HashMap<>();
+        private final Map<String, Map<String, Long>> itemRevenue = new HashMap<>();
+        private final Map<String, String> names = new HashMap<>();
+        private final Map<String, Integer> monthOrders = new HashMap<>();
+        private final Map<String, Integer> monthLines = new HashMap<>();
+        private final Map<String, Long> monthRevenue = new HashMap<>();
+
+        private Grouping(OrderFactTable table, List<OrderMonthlyRollup> rollups) {
+            for (int row = 0; row < table.lineCount(); row++) {
+                if (!OrderFactTable.inMask(COUNTED, table.lineStatuses()[row])) {
+                    continue;
+                }
+                String id = table.menuItemId(table.lineMenuItems()[row]);
+                String month = month(table.lineDays()[row]);
+                itemOrders.computeIfAbsent(id, k -> new HashMap<>()).merge(month, 1, Integer::sum);
+                itemQuantities.computeIfAbsent(id, k -> new HashMap<>())
+                        .merge(month, table.lineQuantities()[row], Integer::sum);
+                itemRevenue.computeIfAbsent(id, k -> new HashMap<>())
+                        .merge(month, table.lineAmounts()[row], Long::sum);
+                String name = table.menuItemName(table.lineMenuItems()[row]);
+                if (name != null) {
+                    names.put(id, name);
+                }
+            }
+            for (int ordinal = 0; ordinal < table.orderSlots(); ordinal++) {
+                if (!OrderFactTable.inMask(COUNTED, table.orderStatuses()[ordinal])) {
+                    continue;
+                }
+                String month = month(table.orderDays()[ordinal]);
+                monthOrders.merge(month, 1, Integer::sum);
+                monthLines.merge(month, table.orderLineCounts()[ordinal], Integer::sum);
+                monthRevenue.merge(month, table.orderAmounts()[ordinal], Long::sum);
+            }
+            for (OrderMonthlyRollup rollup : rollups) {
+                String month = rollup.getMonth();
+                rollup.getItems().forEach((id, item) -> {
+                    itemOrders.computeIfAbsent(id, k -> new HashMap<>()).merge(month, item.getOrders(), Integer::sum);
+                    itemQuantities.computeIfAbsent(id, k -> new HashMap<>())
+                            .merge(month, item.getQuantity(), Integer::sum);
+                    itemRevenue.computeIfAbsent(id, k -> new HashMap<>())
+                            .merge(month, item.getRevenue().getAmount(), Long::sum);
+                    if (item.getName() != null) {
+                        names.putIfAbsent(id, item.getName());
+                    }
+                });
+                monthOrders.merge(month, rollup.getTotalOrders(), Integer::sum);
+                monthLines.merge(month, rollup.getTotalMenuItemsOrdered(), Integer::sum);
+                monthRevenue.merge(month, rollup.getTotalRevenue().getAmount(), Long::sum);
+            }
+            names.putIfAbsent("m3", "Looked up");
+        }
+
+        private static String month(int day) {
+            return YearMonth.from(LocalDate.ofEpochDay(day)).toString();
+        }
+    }
+
+    static OrderFactTable randomTable(Random random, int orders) {
+        OrderFactTable table = new OrderFactTable();
+        int firstDay = (int) FIRST_LIVE_MONTH.atDay(1).toEpochDay();
+        int days = (int) (LAST_MONTH.atEndOfMonth().toEpochDay() - firstDay + 1);
+        Order.OrderStatus[] statuses = Order.OrderStatus.values();
+        for (int i = 0; i < orders; i++) {
+            List<Order.OrderItem> items = new ArrayList<>();
+            int lines = 1 + random.nextInt(4);
+            for (int line = 0; line < lines; line++) {
+                int menuItem = random.nextInt(20);
+                Order.OrderItem item = new Order.OrderItem("m" + menuItem, 1 + random.nextInt(3),
+                        Money.of(5_000 + random.nextInt(50) * 1_000L, "VND"));
+                // Old lines of the first items predate name snapshots
+                if (menuItem >= 5 || random.nextBoolean()) {
+                    item.setMenuItemName("Item " + menuItem);
+                }
+                items.add(item);
+            }
+            Order order = new Order("a" + random.nextInt(100), items);
+            ReflectionTestUtils.setField(order, "id", "o" + i);
+            order.setStatus(statuses[random.nextInt(statuses.length)]);
+            order.setTotalAmount(Money.of(items.stream().mapToLong(item -> item.getSubtotal().getAmount()).sum(), "VND"));
+            table.upsert(order, firstDay + random.nextInt(days), random.nextInt(24));
+        }
+        // Churn: some orders leave the table, which also leaves dead line runs behind
+        for (int i = 0; i < orders; i += 7) {
+            table.remove("o" + i);
+        }
+        return table;
+    }
+
+    static List<OrderMonthlyRollup> randomRollups(Random random) {
+        List<OrderMonthlyRollup> rollups = new ArrayList<>();
+        for (YearMonth month = FIRST_MONTH; month.isBefore(FIRST_LIVE_MONTH); month = month.plusMonths(1)) {
+            OrderMonthlyRollup rollup = new OrderMonthlyRollup();
+            ReflectionTestUtils.setField(rollup, "month", month.toString());
+            Map<String, OrderMonthlyRollup.ItemRollup> items = new HashMap<>();
+            int totalOrders = 0;
+            long totalRevenue = 0;
+            // Items 20-24 were archived and no live line mentions them any more
+            for (int menuItem = 0; menuItem < 25; menuItem += 1 + random.nextInt(3)) {
+                OrderMonthlyRollup.ItemRollup item = new OrderMonthlyRollup.ItemRollup();
+                int orders = 1 + random.nextInt(30);
+                long revenue = orders * (5_000L + random.nextInt(50) * 1_000L);
+                ReflectionTestUtils.setField(item, "name", menuItem % 4 == 0 ? null : "Archived " + menuItem);
+                ReflectionTestUtils.setField(item, "orders", orders);
+                ReflectionTestUtils.setField(item, "quantity", orders + random.nextInt(10));
+                ReflectionTestUtils.setField(item, "revenue", Money.of(revenue, "VND"));
+                items.put("m" + menuItem, item);
+                totalOrders += orders;
+                totalRevenue += revenue;
+            }
+            ReflectionTestUtils.setField(rollup, "items", items);
+            ReflectionTestUtils.setField(rollup, "totalOrders", totalOrders);
+            ReflectionTestUtils.setField(rollup, "totalMenuItemsOrdered", totalOrders + random.nextInt(10));
+            ReflectionTestUtils.setField(rollup, "totalRevenue", Money.of(totalRevenue, "VND"));
+            rollups.add(rollup);
+        }
+        return rollups;
+    }
+
+    private static long sum(Map<String, ? extends Number> values) {
+        return values.values().stream().mapToLong(Number::longValue).sum();
+    }
+}
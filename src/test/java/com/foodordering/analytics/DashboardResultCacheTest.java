@@ -0,0 +1,73 @@
+package com.foodordering.analytics;
+
+import com.foodordering.cache.SingleFlight;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class DashboardResultCacheTest {
+
+    private static final YearMonth JANUARY = YearMonth.of(2026, 1);
+    private static final YearMonth FEBRUARY = YearMonth.of(2026, 2);
+
+    private DashboardResultCache cache;
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        cache = new DashboardResultCache();
+        ReflectionTestUtils.setField(cache, "singleFlight", new SingleFlight());
+        ReflectionTestUtils.setField(cache, "maxEntries", 16);
+    }
+
+    @Test
+    void servesRepeatedQueriesFromTheCache() {
+        assertEquals("result 1", load("jan", JANUARY, JANUARY));
+        assertEquals("result 1", load("jan", JANUARY, JANUARY));
+        assertEquals(1, loads.get());
+    }
+
+    @Test
+    void aWriteDropsOnlyTheEntriesCoveringItsMonth() {
+        load("jan", JANUARY, JANUARY);
+        load("feb", FEBRUARY, FEBRUARY);
+        load("both", JANUARY, FEBRUARY);
+
+        cache.invalidate(FEBRUARY);
+
+        assertEquals(1, cache.size());
+        assertEquals("result 1", load("jan", JANUARY, JANUARY));
+    }
+
+    @Test
+    void aLoadOverlappingAWriteIsNotKept() {
+        cache.get("jan", JANUARY, JANUARY, () -> {
+            cache.invalidate(JANUARY);
+            return "stale";
+        });
+
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void resettingTheOrdersCollectionDropsEveryEntry() {
+        OrderFactStore store = new OrderFactStore();
+        ReflectionTestUtils.setField(store, "listeners", List.<OrderFactListener>of(cache));
+        load("jan", JANUARY, JANUARY);
+        load("feb", FEBRUARY, FEBRUARY);
+
+        store.onCollectionReset("orders");
+
+        assertEquals(0, cache.size());
+    }
+
+    private String load(String key, YearMonth first, YearMonth last) {
+        return cache.get(key, first, last, () -> "result " + loads.incrementAndGet());
+    }
+}
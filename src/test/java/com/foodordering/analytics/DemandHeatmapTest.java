@@ -0,0 +1,200 @@
+package com.foodordering.analytics;
+
+import com.foodordering.model.entity.Order;
+import com.foodordering.model.value.Money;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+
+/**
+ * The month/day/hour roll-ups against a count over every live line of the fact table,
+ * for ranges that start and end on arbitrary hours.
+ */
+class DemandHeatmapTest {
+
+    private static final int COUNTED = OrderFactTable.statusMaskExcluding(Order.OrderStatus.CANCELLED);
+    private static final int FIRST_DAY = (int) LocalDate.of(2026, 1, 20).toEpochDay();
+    private static final int DAYS = 100;
+
+    @Test
+    void matchesABruteForceCountOverTheFactTable() {
+        for (long seed = 1; seed <= 3; seed++) {
+            Random random = new Random(seed);
+            OrderFactTable table = new OrderFactTable();
+            DemandHeatmap heatmap = new DemandHeatmap();
+            for (int i = 0; i < 400; i++) {
+                table.upsert(randomOrder(random, "o" + i), FIRST_DAY + random.nextInt(DAYS), random.nextInt(24));
+            }
+            heatmap.tableLoaded(table);
+            churn(random, table, heatmap);
+
+            for (long[] range : ranges(random)) {
+                for (MenuItemMetric metric : List.of(MenuItemMetric.ORDERS, MenuItemMetric.QUANTITY)) {
+                    check(table, heatmap, null, null, range, metric);
+                    check(table, heatmap, "m" + random.nextInt(12), null, range, metric);
+                    check(table, heatmap, null, "c" + random.nextInt(4), range, metric);
+                }
+            }
+        }
+    }
+
+    @Test
+    void aCancellationDropsTheOrderAndAReinstatementRestoresIt() {
+        OrderFactTable table = new OrderFactTable();
+        DemandHeatmap heatmap = new DemandHeatmap();
+        Order order = order("o1", Order.OrderStatus.CONFIRMED, item("m1", "c1", 2), item("m2", null, 3));
+        table.upsert(order, FIRST_DAY, 18);
+        heatmap.tableLoaded(table);
+        long[] evening = {FIRST_DAY * 24L + 17, FIRST_DAY * 24L + 20};
+
+        setStatus(table, heatmap, order, Order.OrderStatus.CANCELLED);
+        assertArrayEquals(new int[DemandHeatmap.CELLS],
+                heatmap.heatmap(table, null, null, evening[0], evening[1], MenuItemMetric.QUANTITY));
+        check(table, heatmap, "m1", null, evening, MenuItemMetric.ORDERS);
+
+        setStatus(table, heatmap, order, Order.OrderStatus.DELIVERED);
+        int[] expected = new int[DemandHeatmap.CELLS];
+        expected[(LocalDate.ofEpochDay(FIRST_DAY).getDayOfWeek().getValue() - 1) * 24 + 18] = 5;
+        assertArrayEquals(expected, heatmap.heatmap(table, null, null, evening[0], evening[1], MenuItemMetric.QUANTITY));
+    }
+
+    /**
+     * Cancels, reinstates, edits, removes and adds orders through the listener calls
+     * OrderFactStore makes.
+     */
+    private static void churn(Random random, OrderFactTable table, DemandHeatmap heatmap) {
+        for (int i = 0; i < 400; i++) {
+            String id = "o" + random.nextInt(450);
+            int ordinal = table.orderOrdinal(id);
+            int change = random.nextInt(4);
+            if (ordinal < 0) {
+                table.upsert(randomOrder(random, id), FIRST_DAY + random.nextInt(DAYS), random.nextInt(24));
+                heatmap.orderAdded(table, table.orderOrdinal(id));
+            } else if (change == 0) {
+                heatmap.orderRemoving(table, ordinal);
+                table.remove(id);
+            } else if (change == 1) {
+                // An edit replaces the order's lines
+                heatmap.orderRemoving(table, ordinal);
+                table.upsert(randomOrder(random, id), table.orderDays()[ordinal], table.orderHours()[ordinal]);
+                heatmap.orderAdded(table, table.orderOrdinal(id));
+            } else {
+                byte previousStatus = table.orderStatuses()[ordinal];
+                int first = table.orderFirstLines()[ordinal];
+                List<Order.OrderItem> items = new ArrayList<>();
+                for (int row = first; row < first + table.orderLineCounts()[ordinal]; row++) {
+                    int category = table.lineCategories()[row];
+                    items.add(item(table.menuItemId(table.lineMenuItems()[row]),
+                            category >= 0 ? table.categoryId(category) : null, table.lineQuantities()[row]));
+                }
+                Order.OrderStatus status = change == 2 ? Order.OrderStatus.CANCELLED : Order.OrderStatus.READY;
+                Order order = order(id, status, items.toArray(new Order.OrderItem[0]));
+                order.setAccountId(accountOf(id));
+                if (table.updateStatus(order, table.orderDays()[ordinal])
+                        && table.orderStatuses()[ordinal] != previousStatus) {
+                    heatmap.orderStatusChanged(table, ordinal, previousStatus);
+                }
+            }
+        }
+    }
+
+    /**
+     * Ranges that start and end mid-day and mid-month, span month boundaries, cover
+     * whole months, and are open-ended.
+     */
+    private static List<long[]> ranges(Random random) {
+        long first = FIRST_DAY * 24L;
+        long last = (FIRST_DAY + DAYS) * 24L - 1;
+        List<long[]> ranges = new ArrayList<>();
+        ranges.add(new long[] {Long.MIN_VALUE, Long.MAX_VALUE});
+        ranges.add(new long[] {first + 7, last - 5});
+        ranges.add(new long[] {monthHour(2026, 2, 1), monthHour(2026, 3, 1) - 1});
+        ranges.add(new long[] {monthHour(2026, 2, 1) + 13, monthHour(2026, 4, 1) + 2});
+        ranges.add(new long[] {monthHour(2026, 2, 14) + 9, monthHour(2026, 2, 14) + 9});
+        ranges.add(new long[] {monthHour(2026, 3, 10) + 5, monthHour(2026, 3, 11) + 20});
+        ranges.add(new long[] {last, first});
+        for (int i = 0; i < 40; i++) {
+            long from = first - 48 + random.nextInt(DAYS * 24 + 96);
+            ranges.add(new long[] {from, from + random.nextInt(DAYS * 24)});
+        }
+        return ranges;
+    }
+
+    private static void check(OrderFactTable table, DemandHeatmap heatmap, String menuItemId, String categoryId,
+                              long[] range, MenuItemMetric metric) {
+        int[] expected = new int[DemandHeatmap.CELLS];
+        int menuItem = menuItemId != null ? table.menuItemOrdinal(menuItemId) : -1;
+        int category = categoryId != null ? table.categoryOrdinal(categoryId) : -1;
+        for (int row = 0; row < table.lineCount(); row++) {
+            if (!OrderFactTable.inMask(COUNTED, table.lineStatuses()[row])
+                    || menuItemId != null && table.lineMenuItems()[row] != menuItem
+                    || categoryId != null && table.lineCategories()[row] != category) {
+                continue;
+            }
+            int day = table.lineDays()[row];
+            int hour = table.orderHours()[table.lineOrders()[row]];
+            long localHour = day * 24L + hour;
+            if (localHour < range[0] || localHour > range[1]) {
+                continue;
+            }
+            int cell = (LocalDate.ofEpochDay(day).getDayOfWeek().getValue() - 1) * 24 + hour;
+            expected[cell] += metric == MenuItemMetric.QUANTITY ? table.lineQuantities()[row] : 1;
+        }
+        int[] actual = heatmap.heatmap(table, menuItemId, categoryId, range[0], range[1], metric);
+        assertArrayEquals(expected, actual, menuItemId + "/" + categoryId + " " + metric + " " + Arrays.toString(range));
+    }
+
+    private static void setStatus(OrderFactTable table, DemandHeatmap heatmap, Order order, Order.OrderStatus status) {
+        int ordinal = table.orderOrdinal(order.getId());
+        byte previousStatus = table.orderStatuses()[ordinal];
+        order.setStatus(status);
+        table.updateStatus(order, table.orderDays()[ordinal]);
+        heatmap.orderStatusChanged(table, ordinal, previousStatus);
+    }
+
+    private static long monthHour(int year, int month, int day) {
+        return LocalDate.of(year, month, day).toEpochDay() * 24L;
+    }
+
+    private static Order randomOrder(Random random, String id) {
+        Order.OrderStatus[] statuses = Order.OrderStatus.values();
+        Order.OrderItem[] items = new Order.OrderItem[1 + random.nextInt(3)];
+        for (int line = 0; line < items.length; line++) {
+            int menuItem = random.nextInt(12);
+            // Items 8 and up have no category
+            items[line] = item("m" + menuItem, menuItem < 8 ? "c" + menuItem % 4 : null, 1 + random.nextInt(4));
+        }
+        Order order = order(id, statuses[random.nextInt(statuses.length)], items);
+        order.setAccountId(accountOf(id));
+        return order;
+    }
+
+    private static String accountOf(String orderId) {
+        return "a" + orderId.hashCode() % 50;
+    }
+
+    private static Order order(String id, Order.OrderStatus status, Order.OrderItem... items) {
+        Order order = new Order("a1", new ArrayList<>(List.of(items)));
+        ReflectionTestUtils.setField(order, "id", id);
+        order.setStatus(status);
+        long total = 0;
+        for (Order.OrderItem item : items) {
+            total += item.getSubtotal().getAmount();
+        }
+        order.setTotalAmount(Money.of(total, "VND"));
+        return order;
+    }
+
+    private static Order.OrderItem item(String menuItemId, String categoryId, int quantity) {
+        Order.OrderItem item = new Order.OrderItem(menuItemId, quantity, Money.of(20_000, "VND"));
+        item.setCategoryId(categoryId);
+        return item;
+    }
+}
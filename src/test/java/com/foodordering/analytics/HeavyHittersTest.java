@@ -0,0 +1,102 @@
+package com.foodordering.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static com.foodordering.analytics.SpaceSavingSketchTest.assertBoundsById;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HeavyHittersTest {
+
+    @Test
+    void exactKeepsTheLargestValues() {
+        HeavyHitters summary = HeavyHitters.exact(Map.of("a", 5L, "b", 9L, "c", 2L, "d", 0L), 2);
+
+        assertEquals(2, summary.size());
+        assertEquals("b", summary.id(0));
+        assertEquals("a", summary.id(1));
+        assertEquals(5, summary.lowerBound(1));
+        // "c" was dropped, so the unlisted bound covers it
+        assertEquals(2, summary.unlistedBound());
+    }
+
+    @Test
+    void mergeOfExactPartsIsExact() {
+        HeavyHitters merged = HeavyHitters.merge(List.of(
+                HeavyHitters.exact(Map.of("a", 5L, "b", 1L), 10),
+                HeavyHitters.exact(Map.of("a", 2L, "c", 4L), 10)), 10);
+
+        assertEquals(3, merged.size());
+        assertEquals("a", merged.id(0));
+        assertEquals(7, merged.estimate(0));
+        assertEquals(7, merged.lowerBound(0));
+        assertEquals("c", merged.id(1));
+        assertEquals(4, merged.estimate(1));
+        assertEquals(0, merged.unlistedBound());
+    }
+
+    @Test
+    void mergedSketchesBoundTheTrueTotals() {
+        int capacity = 15;
+        Random random = new Random(3);
+        List<HeavyHitters> days = new ArrayList<>();
+        Map<String, Long> truth = new HashMap<>();
+        long total = 0;
+        for (int day = 0; day < 30; day++) {
+            SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+            // Each day favours different items, so a day's top items are not the month's
+            int shift = day % 5;
+            for (int i = 0; i < 2_000; i++) {
+                int item = ((int) Math.floor(Math.pow(200, random.nextDouble())) + shift * 7) % 200;
+                long weight = 1 + random.nextInt(4);
+                sketch.add(item, weight);
+                truth.merge("m" + item, weight, Long::sum);
+                total += weight;
+            }
+            days.add(sketch.summary(item -> "m" + item));
+        }
+
+        HeavyHitters merged = HeavyHitters.merge(days, capacity);
+
+        assertEquals(capacity, merged.size());
+        assertBoundsById(merged, truth);
+        // Each day's floor is at most its own total / capacity, and the merge charges every day's floor
+        long floors = 0;
+        for (HeavyHitters day : days) {
+            floors += day.unlistedBound();
+        }
+        assertTrue(floors <= total / capacity);
+        assertTrue(merged.unlistedBound() >= floors);
+        long trueTop = truth.values().stream().mapToLong(Long::longValue).max().orElse(0L);
+        assertTrue(merged.estimate(0) >= trueTop);
+    }
+
+    @Test
+    void mergeOfMergesKeepsTheBounds() {
+        int capacity = 10;
+        Random random = new Random(11);
+        Map<String, Long> truth = new HashMap<>();
+        List<HeavyHitters> months = new ArrayList<>();
+        for (int month = 0; month < 4; month++) {
+            List<HeavyHitters> days = new ArrayList<>();
+            for (int day = 0; day < 10; day++) {
+                SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+                for (int i = 0; i < 500; i++) {
+                    int item = random.nextInt(60);
+                    sketch.add(item, 1);
+                    truth.merge("m" + item, 1L, Long::sum);
+                }
+                days.add(sketch.summary(item -> "m" + item));
+            }
+            months.add(HeavyHitters.merge(days, capacity));
+        }
+
+        assertBoundsById(HeavyHitters.merge(months, capacity), truth);
+    }
+}
@@ -0,0 +1,103 @@
+package com.foodordering.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HyperLogLogTest {
+
+    private static final int REGISTERS = 1 << HyperLogLog.PRECISION;
+    // Three standard errors of the raw estimate, 1.04 / sqrt(registers)
+    private static final double TOLERANCE = 3 * 1.04 / Math.sqrt(REGISTERS);
+
+    @Test
+    void estimatesSmallCardinalitiesByLinearCounting() {
+        assertEquals(0, sketch(0, 0).estimate());
+        for (int distinct : new int[] {1, 10, 100, 500}) {
+            long estimate = sketch(0, distinct).estimate();
+            // Three standard deviations of linear counting, which is near exact far below the register count
+            double load = (double) distinct / REGISTERS;
+            double deviation = Math.sqrt(REGISTERS * (Math.exp(load) - load - 1));
+            assertTrue(Math.abs(estimate - distinct) <= Math.max(1, 3 * deviation), distinct + " -> " + estimate);
+        }
+    }
+
+    @Test
+    void estimatesLargeCardinalitiesWithinTheStandardError() {
+        for (int distinct : new int[] {5_000, 50_000, 500_000}) {
+            long estimate = sketch(0, distinct).estimate();
+            assertTrue(Math.abs(estimate - distinct) <= distinct * TOLERANCE, distinct + " -> " + estimate);
+        }
+    }
+
+    @Test
+    void repeatsAndNullIdsDoNotCount() {
+        HyperLogLog sketch = sketch(0, 1_000);
+        long estimate = sketch.estimate();
+
+        for (int i = 0; i < 1_000; i++) {
+            sketch.add(HyperLogLog.hash("customer-" + i));
+        }
+        sketch.add(HyperLogLog.hash(null));
+
+        assertEquals(estimate, sketch.estimate());
+    }
+
+    @Test
+    void mergeEstimatesTheUnion() {
+        HyperLogLog merged = sketch(0, 30_000);
+        merged.merge(sketch(20_000, 50_000));
+
+        assertEquals(sketch(0, 50_000).toSparseRegisters(), merged.toSparseRegisters());
+    }
+
+    @Test
+    void sparseRegistersRoundTrip() {
+        for (int distinct : new int[] {3, 200, 50_000}) {
+            HyperLogLog sketch = sketch(0, distinct);
+            Map<String, Integer> sparse = sketch.toSparseRegisters();
+
+            HyperLogLog restored = new HyperLogLog();
+            restored.merge(sparse);
+
+            assertEquals(sparse, restored.toSparseRegisters());
+            assertEquals(sketch.estimate(), restored.estimate());
+            // Only registers that were hit are persisted
+            assertTrue(sparse.size() <= Math.min(distinct, REGISTERS));
+        }
+    }
+
+    @Test
+    void sparseMergeTakesTheMaximumAndIgnoresOutOfRangeEntries() {
+        HyperLogLog sketch = new HyperLogLog();
+        Map<String, Integer> first = new HashMap<>();
+        first.put("0", 3);
+        first.put("7", 5);
+        Map<String, Integer> second = new HashMap<>();
+        second.put("0", 2);
+        second.put("7", 9);
+        second.put("1023", 99);
+        second.put("1024", 4);
+        second.put("-1", 4);
+        second.put("5", null);
+
+        sketch.merge(first);
+        sketch.merge(second);
+        sketch.merge((Map<String, Integer>) null);
+
+        // Ranks are capped at what a 64-bit hash can produce
+        assertEquals(Map.of("0", 3, "7", 9, "1023", 64 - HyperLogLog.PRECISION + 1), sketch.toSparseRegisters());
+    }
+
+    private static HyperLogLog sketch(int from, int to) {
+        HyperLogLog sketch = new HyperLogLog();
+        for (int i = from; i < to; i++) {
+            sketch.add(HyperLogLog.hash("customer-" + i));
+        }
+        return sketch;
+    }
+}
@@ -0,0 +1,196 @@
+package com.foodordering.analytics;
+
+import com.foodordering.model.entity.Order;
+import com.foodordering.model.value.Money;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class OrderFactTableTest {
+
+    private static final int DAY = 19_800;
+    private static final byte DELIVERED = (byte) Order.OrderStatus.DELIVERED.ordinal();
+
+    private OrderFactTable table;
+
+    @BeforeEach
+    void setUp() {
+        table = new OrderFactTable();
+    }
+
+    @Test
+    void upsertAppendsTheOrderAndOneRunOfLines() {
+        table.upsert(order("o1", "a1", Order.OrderStatus.CONFIRMED,
+                item("m1", "Pho", "c1", 2, 30_000), item("m2", "Tea", null, 1, 10_000)), DAY, 12);
+
+        int ordinal = table.orderOrdinal("o1");
+        assertEquals(0, ordinal);
+        assertEquals(1, table.liveOrderCount());
+        assertEquals(DAY, table.orderDays()[ordinal]);
+        assertEquals(12, table.orderHours()[ordinal]);
+        assertEquals(70_000L, table.orderAmounts()[ordinal]);
+        assertEquals(0, table.orderFirstLines()[ordinal]);
+        assertEquals(2, table.orderLineCounts()[ordinal]);
+
+        assertEquals(2, table.lineCount());
+        assertEquals(table.menuItemOrdinal("m1"), table.lineMenuItems()[0]);
+        assertEquals(table.categoryOrdinal("c1"), table.lineCategories()[0]);
+        assertEquals(2, table.lineQuantities()[0]);
+        assertEquals(60_000L, table.lineAmounts()[0]);
+        assertEquals(-1, table.lineCategories()[1]);
+        assertEquals("Tea", table.menuItemName(table.menuItemOrdinal("m2")));
+        assertEquals(-1, table.menuItemOrdinal("m3"));
+    }
+
+    @Test
+    void upsertOfAChangedOrderReplacesItsRun() {
+        table.upsert(order("o1", "a1", Order.OrderStatus.CONFIRMED, item("m1", "Pho", null, 1, 30_000)), DAY, 12);
+        table.upsert(order("o2", "a2", Order.OrderStatus.CONFIRMED, item("m2", "Tea", null, 1, 10_000)), DAY, 13);
+
+        table.upsert(order("o1", "a1", Order.OrderStatus.CONFIRMED,
+                item("m1", "Pho bo", null, 3, 30_000), item("m2", "Tea", null, 1, 10_000)), DAY, 12);
+
+        int ordinal = table.orderOrdinal("o1");
+        assertEquals(0, ordinal);
+        assertEquals(OrderFactTable.REMOVED, table.lineStatuses()[0]);
+        assertEquals(2, table.orderFirstLines()[ordinal]);
+        assertEquals(2, table.orderLineCounts()[ordinal]);
+        assertEquals(4, table.lineCount());
+        assertEquals(3, table.liveLineCount());
+        assertEquals(3, table.lineQuantities()[2]);
+        assertEquals(ordinal, table.lineOrders()[3]);
+        // The latest name snapshot wins
+        assertEquals("Pho bo", table.menuItemName(table.menuItemOrdinal("m1")));
+    }
+
+    @Test
+    void updateStatusRewritesTheRunInPlace() {
+        table.upsert(order("o1", "a1", Order.OrderStatus.CONFIRMED,
+                item("m1", "Pho", "c1", 2, 30_000), item("m2", "Tea", null, 1, 10_000)), DAY, 12);
+
+        assertTrue(table.updateStatus(order("o1", "a1", Order.OrderStatus.DELIVERED,
+                item("m1", "Pho", "c1", 2, 30_000), item("m2", "Tea", null, 1, 10_000)), DAY));
+
+        int ordinal = table.orderOrdinal("o1");
+        assertEquals(DELIVERED, table.orderStatuses()[ordinal]);
+        assertEquals(DELIVERED, table.lineStatuses()[0]);
+        assertEquals(DELIVERED, table.lineStatuses()[1]);
+        assertEquals(2, table.lineCount());
+        assertEquals(0, table.orderFirstLines()[ordinal]);
+    }
+
+    @Test
+    void updateStatusRefusesAnythingButAStatusChange() {
+        table.upsert(order("o1", "a1", Order.OrderStatus.CONFIRMED, item("m1", "Pho", "c1", 2, 30_000)), DAY, 12);
+
+        assertFalse(table.updateStatus(order("o1", "a1", Order.OrderStatus.DELIVERED,
+                item("m1", "Pho", "c1", 3, 30_000)), DAY));
+        assertFalse(table.updateStatus(order("o1", "a2", Order.OrderStatus.DELIVERED,
+                item("m1", "Pho", "c1", 2, 30_000)), DAY));
+        assertFalse(table.updateStatus(order("o1", "a1", Order.OrderStatus.DELIVERED,
+                item("m1", "Pho", "c2", 2, 30_000)), DAY));
+        assertFalse(table.updateStatus(order("o1", "a1", Order.OrderStatus.DELIVERED,
+                item("m1", "Pho", "c1", 2, 30_000)), DAY + 1));
+        assertFalse(table.updateStatus(order("o2", "a1", Order.OrderStatus.DELIVERED,
+                item("m1", "Pho", "c1", 2, 30_000)), DAY));
+
+        byte confirmed = (byte) Order.OrderStatus.CONFIRMED.ordinal();
+        assertEquals(confirmed, table.orderStatuses()[table.orderOrdinal("o1")]);
+        assertEquals(confirmed, table.lineStatuses()[0]);
+    }
+
+    @Test
+    void removeFreesTheOrdinalForTheNextOrder() {
+        table.upsert(order("o1", "a1", Order.OrderStatus.CONFIRMED, item("m1", "Pho", null, 1, 30_000)), DAY, 12);
+        table.upsert(order("o2", "a2", Order.OrderStatus.CONFIRMED, item("m1", "Pho", null, 1, 30_000)), DAY, 12);
+
+        table.remove("o1");
+
+        assertEquals(-1, table.orderOrdinal("o1"));
+        assertNull(table.orderId(0));
+        assertEquals(OrderFactTable.REMOVED, table.orderStatuses()[0]);
+        assertEquals(OrderFactTable.REMOVED, table.lineStatuses()[0]);
+        assertEquals(1, table.liveOrderCount());
+        assertEquals(1, table.liveLineCount());
+
+        table.upsert(order("o3", "a3", Order.OrderStatus.CONFIRMED, item("m1", "Pho", null, 1, 30_000)), DAY, 12);
+        assertEquals(0, table.orderOrdinal("o3"));
+        assertEquals(2, table.orderSlots());
+    }
+
+    @Test
+    void compactionDropsDeadLinesAndKeepsEveryRunContiguous() {
+        int orders = 2_100;
+        for (int i = 0; i < orders; i++) {
+            table.upsert(order("o" + i, "a" + i, Order.OrderStatus.CONFIRMED,
+                    item("m" + (i % 7), "Item", null, 1 + i % 5, 10_000), item("m7", "Tea", null, 1, 5_000)),
+                    DAY + i % 30, i % 24);
+        }
+        assertEquals(4_200, table.lineCount());
+
+        // Removing every other order leaves half the lines dead, which compacts the table
+        for (int i = 0; i < orders; i += 2) {
+            table.remove("o" + i);
+        }
+
+        assertEquals(table.liveLineCount(), table.lineCount());
+        assertEquals(2_100, table.lineCount());
+        int[] selection = new int[table.lineCount()];
+        int all = OrderFactTable.statusMask(Order.OrderStatus.values());
+        assertEquals(2_100, table.selectLines(Integer.MIN_VALUE, Integer.MAX_VALUE, all, selection));
+        for (int i = 1; i < orders; i += 2) {
+            int ordinal = table.orderOrdinal("o" + i);
+            int first = table.orderFirstLines()[ordinal];
+            assertEquals(2, table.orderLineCounts()[ordinal]);
+            assertEquals(ordinal, table.lineOrders()[first]);
+            assertEquals(ordinal, table.lineOrders()[first + 1]);
+            assertEquals(1 + i % 5, table.lineQuantities()[first]);
+            assertEquals(DAY + i % 30, table.lineDays()[first]);
+            assertEquals(table.menuItemOrdinal("m7"), table.lineMenuItems()[first + 1]);
+        }
+    }
+
+    @Test
+    void selectLinesFiltersByDayAndStatus() {
+        table.upsert(order("o1", "a1", Order.OrderStatus.DELIVERED, item("m1", "Pho", null, 1, 30_000)), DAY, 12);
+        table.upsert(order("o2", "a2", Order.OrderStatus.CANCELLED, item("m1", "Pho", null, 1, 30_000)), DAY, 12);
+        table.upsert(order("o3", "a3", Order.OrderStatus.DELIVERED, item("m1", "Pho", null, 1, 30_000)), DAY + 1, 12);
+        table.remove("o3");
+        table.upsert(order("o4", "a4", Order.OrderStatus.DELIVERED, item("m1", "Pho", null, 1, 30_000)), DAY + 2, 12);
+
+        int[] selection = new int[table.lineCount()];
+        int counted = OrderFactTable.statusMaskExcluding(Order.OrderStatus.CANCELLED);
+        int selected = table.selectLines(DAY, DAY + 1, counted, selection);
+
+        assertEquals(1, selected);
+        assertEquals(table.orderFirstLines()[table.orderOrdinal("o1")], selection[0]);
+        assertFalse(OrderFactTable.inMask(counted, OrderFactTable.REMOVED));
+    }
+
+    private static Order order(String id, String accountId, Order.OrderStatus status, Order.OrderItem... items) {
+        Order order = new Order(accountId, new ArrayList<>(List.of(items)));
+        ReflectionTestUtils.setField(order, "id", id);
+        order.setStatus(status);
+        long total = 0;
+        for (Order.OrderItem item : items) {
+            total += item.getSubtotal().getAmount();
+        }
+        order.setTotalAmount(Money.of(total, "VND"));
+        return order;
+    }
+
+    private static Order.OrderItem item(String menuItemId, String name, String categoryId, int quantity, long price) {
+        Order.OrderItem item = new Order.OrderItem(menuItemId, quantity, Money.of(price, "VND"));
+        item.setMenuItemName(name);
+        item.setCategoryId(categoryId);
+        return item;
+    }
+}
@@ -0,0 +1,104 @@
+package com.foodordering.analytics;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SpaceSavingSketchTest {
+
+    @Test
+    void isExactWhileEveryItemFits() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(10);
+        sketch.add(1, 5);
+        sketch.add(2, 3);
+        sketch.add(1, 2);
+        sketch.add(3, 0);
+
+        HeavyHitters summary = sketch.summary(item -> "m" + item);
+
+        assertEquals(2, summary.size());
+        assertEquals("m1", summary.id(0));
+        assertEquals(7, summary.estimate(0));
+        assertEquals(7, summary.lowerBound(0));
+        assertEquals(3, summary.estimate(1));
+        assertEquals(0, summary.unlistedBound());
+    }
+
+    @Test
+    void boundsHoldOnASkewedStream() {
+        int capacity = 20;
+        SpaceSavingSketch sketch = new SpaceSavingSketch(capacity);
+        Map<Integer, Long> truth = new HashMap<>();
+        Random random = new Random(42);
+        long total = 0;
+        for (int i = 0; i < 20_000; i++) {
+            // Roughly Zipf: low item keys are far more frequent
+            int item = (int) Math.floor(Math.pow(300, random.nextDouble()));
+            long weight = 1 + random.nextInt(5);
+            sketch.add(item, weight);
+            truth.merge(item, weight, Long::sum);
+            total += weight;
+        }
+
+        HeavyHitters summary = sketch.summary(item -> "m" + item);
+        assertBounds(summary, truth);
+        // Space-Saving error bound: no overestimate exceeds total / capacity
+        assertTrue(summary.unlistedBound() <= total / capacity);
+        for (int rank = 0; rank < summary.size(); rank++) {
+            assertTrue(summary.estimate(rank) - summary.lowerBound(rank) <= total / capacity);
+        }
+        // The heaviest item stands far above the error and must be listed first
+        assertEquals("m1", summary.id(0));
+    }
+
+    @Test
+    void boundsHoldAfterSubtractions() {
+        SpaceSavingSketch sketch = new SpaceSavingSketch(8);
+        Map<Integer, Long> truth = new HashMap<>();
+        Random random = new Random(7);
+        for (int i = 0; i < 5_000; i++) {
+            int item = random.nextInt(40);
+            long weight = 1 + random.nextInt(3);
+            long current = truth.getOrDefault(item, 0L);
+            if (random.nextInt(4) == 0 && current >= weight) {
+                sketch.subtract(item, weight);
+                truth.put(item, current - weight);
+            } else {
+                sketch.add(item, weight);
+                truth.put(item, current + weight);
+            }
+        }
+
+        assertBounds(sketch.summary(item -> "m" + item), truth);
+    }
+
+    static void assertBounds(HeavyHitters summary, Map<Integer, Long> truth) {
+        Map<String, Long> byId = new HashMap<>();
+        truth.forEach((item, value) -> byId.put("m" + item, value));
+        assertBoundsById(summary, byId);
+    }
+
+    static void assertBoundsById(HeavyHitters summary, Map<String, Long> truth) {
+        Map<String, Integer> ranks = new HashMap<>();
+        for (int rank = 0; rank < summary.size(); rank++) {
+            String id = summary.id(rank);
+            ranks.put(id, rank);
+            long value = truth.getOrDefault(id, 0L);
+            assertTrue(summary.lowerBound(rank) <= value, id + " lower bound " + summary.lowerBound(rank) + " > " + value);
+            assertTrue(value <= summary.estimate(rank), id + " estimate " + summary.estimate(rank) + " < " + value);
+            if (rank > 0) {
+                assertTrue(summary.estimate(rank - 1) >= summary.estimate(rank));
+            }
+        }
+        truth.forEach((id, value) -> {
+            if (!ranks.containsKey(id)) {
+                assertTrue(value <= summary.unlistedBound(), id + " " + value + " > " + summary.unlistedBound());
+            }
+        });
+    }
+}
@@ -0,0 +1,455 @@
+package com.foodordering.archive;
+
+import com.foodordering.event.OrdersArchivedEvent;
+import com.mongodb.MongoBulkWriteException;
+import com.mongodb.ServerAddress;
+import com.mongodb.bulk.BulkWriteError;
+import com.mongodb.bulk.BulkWriteResult;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.BsonDocument;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.BulkOperationException;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.time.ZoneOffset;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Archival against an in-memory stand-in for the few MongoTemplate calls it makes,
+ * with writes failing at chosen points to simulate a crash between the steps.
+ */
+class OrderArchiverTest {
+
+    private static final Instant OLD = Instant.parse("2024-01-15T10:00:00Z");
+
+    private InMemoryMongo mongo;
+    private OrderArchiver archiver;
+    private final List<OrdersArchivedEvent> events = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        mongo = new InMemoryMongo();
+        archiver = new OrderArchiver();
+        ReflectionTestUtils.setField(archiver, "mongoTemplate", mongo.template);
+        ReflectionTestUtils.setField(archiver, "eventPublisher", (ApplicationEventPublisher) event -> {
+            if (event instanceof OrdersArchivedEvent archived) {
+                events.add(archived);
+            }
+        });
+        ReflectionTestUtils.setField(archiver, "minAgeDays", 180L);
+        ReflectionTestUtils.setField(archiver, "batchSize", 3);
+        ReflectionTestUtils.setField(archiver, "currency", "VND");
+        ReflectionTestUtils.setField(archiver, "analyticsZoneId", ZoneOffset.UTC);
+
+        // Two months, one cancelled order that must not count
+        addOrder("o1", "a1", "DELIVERED", OLD, "m1", 2, 20_000);
+        addOrder("o2", "a2", "DELIVERED", OLD.plus(1, ChronoUnit.DAYS), "m1", 1, 10_000);
+        addOrder("o3", "a1", "DELIVERED", OLD.plus(2, ChronoUnit.DAYS), "m2", 3, 45_000);
+        addOrder("o4", "a3", "CANCELLED", OLD.plus(3, ChronoUnit.DAYS), "m1", 5, 50_000);
+        addOrder("o5", "a2", "DELIVERED", OLD.plus(31, ChronoUnit.DAYS), "m2", 1, 15_000);
+    }
+
+    @Test
+    void archivesAndRollsUpEveryOrderOnce() {
+        assertEquals(5, archiver.archive());
+
+        assertRollupsComplete();
+        assertTrue(mongo.collection("orders").isEmpty());
+        assertEquals(2, events.size());
+    }
+
+    @Test
+    void rerunFinishesABatchWhoseRollupWriteFailed() {
+        mongo.failNextBulk("order_monthly_rollups");
+        assertThrows(DataAccessResourceFailureException.class, () -> archiver.archive());
+
+        // Claimed but not rolled up, and still in "orders"
+        assertEquals(5, mongo.collection("orders").size());
+        assertEquals(3, mongo.collection("orders_archive").size());
+        for (Document archived : mongo.collection("orders_archive").values()) {
+            assertEquals(false, archived.get("rolled_up"));
+            assertTrue(archived.get("rollup_batch") != null);
+        }
+        assertTrue(mongo.collection("order_monthly_rollups").isEmpty());
+
+        archiver.archive();
+
+        assertRollupsComplete();
+        assertTrue(mongo.collection("orders").isEmpty());
+    }
+
+    @Test
+    void rerunDoesNotCountABatchTwiceWhenMarkingItFailed() {
+        mongo.failNextRolledUpMark();
+        assertThrows(DataAccessResourceFailureException.class, () -> archiver.archive());
+
+        archiver.archive();
+        archiver.archive();
+
+        assertRollupsComplete();
+        assertTrue(mongo.collection("orders").isEmpty());
+    }
+
+    @Test
+    void applyingABatchAgainLeavesTheRollupsUnchanged() {
+        archiver.archive();
+        Map<Object, Document> rollups = copy(mongo.collection("order_monthly_rollups"));
+
+        // As if marking the batches rolled up had been lost after their rollups were written
+        mongo.collection("orders_archive").values().forEach(document -> document.put("rolled_up", false));
+        archiver.archive();
+
+        assertEquals(rollups.keySet(), mongo.collection("order_monthly_rollups").keySet());
+        rollups.forEach((month, rollup) -> {
+            Document current = mongo.collection("order_monthly_rollups").get(month);
+            assertEquals(rollup.get("total_orders"), current.get("total_orders"));
+            assertEquals(rollup.get("items", Document.class).toJson(), current.get("items", Document.class).toJson());
+        });
+    }
+
+    private void assertRollupsComplete() {
+        Map<Object, Document> rollups = mongo.collection("order_monthly_rollups");
+        assertEquals(Set.of("2024-01", "2024-02"), rollups.keySet());
+
+        Document january = rollups.get("2024-01");
+        assertEquals(3, number(january, "total_orders"));
+        assertEquals(75_000, number(january, "total_revenue.amount"));
+        assertEquals(3, number(january, "items.m1.quantity"));
+        assertEquals(3, number(january, "items.m2.quantity"));
+
+        Document february = rollups.get("2024-02");
+        assertEquals(1, number(february, "total_orders"));
+        assertEquals(15_000, number(february, "items.m2.revenue.amount"));
+
+        assertEquals(5, mongo.collection("orders_archive").size());
+        for (Document archived : mongo.collection("orders_archive").values()) {
+            assertEquals(true, archived.get("rolled_up"), "rolled_up of " + archived.get("_id"));
+        }
+    }
+
+    private void addOrder(String id, String accountId, String status, Instant createdAt,
+                          String menuItemId, int quantity, long amount) {
+        Document money = new Document("amount", amount).append("currency", "VND");
+        Document item = new Document("menu_item_id", menuItemId)
+                .append("quantity", quantity)
+                .append("subtotal", money)
+                .append("menu_item_name", "Item " + menuItemId);
+        mongo.collection("orders").put(id, new Document("_id", id)
+                .append("account_id", accountId)
+                .append("status", status)
+                .append("order_items", List.of(item))
+                .append("total_amount", money)
+                .append("is_deleted", false)
+                .append("created_at", Date.from(createdAt))
+                .append("modified_at", Date.from(createdAt)));
+    }
+
+    private static long number(Document document, String path) {
+        Object value = InMemoryMongo.get(document, path);
+        return value != null ? ((Number) value).longValue() : 0L;
+    }
+
+    private static Map<Object, Document> copy(Map<Object, Document> collection) {
+        Map<Object, Document> copy = new LinkedHashMap<>();
+        collection.forEach((id, document) -> copy.put(id, Document.parse(document.toJson())));
+        return copy;
+    }
+
+    /**
+     * Just enough of Mongo's query and update language for the archiver: equality,
+     * $in, $ne, $exists and $lt filters, and $set, $setOnInsert, $inc, $max and
+     * $addToSet updates on dotted paths. Upserts whose filter does not match an
+     * existing _id fail with a duplicate key, as they do on the server.
+     */
+    private static final class InMemoryMongo {
+
+        private final Map<String, Map<Object, Document>> collections = new LinkedHashMap<>();
+        private final MappingMongoConverter converter;
+        private final MongoTemplate template;
+        private String failBulkOn;
+        private boolean failRolledUpMark;
+
+        private InMemoryMongo() {
+            MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+            MongoMappingContext mappingContext = new MongoMappingContext();
+            mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+            converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+            converter.setCustomConversions(conversions);
+            converter.afterPropertiesSet();
+            MongoDatabaseFactory unconnected = (MongoDatabaseFactory) Proxy.newProxyInstance(
+                    getClass().getClassLoader(), new Class<?>[] {MongoDatabaseFactory.class},
+                    (proxy, method, args) -> method.getName().equals("getExceptionTranslator")
+                            ? new MongoExceptionTranslator() : null);
+            template = new MongoTemplate(unconnected, converter) {
+                @Override
+                public <T> List<T> find(Query query, Class<T> entityClass) {
+                    return read(InMemoryMongo.this.find(query, name(entityClass)), entityClass);
+                }
+
+                @Override
+                public <T> List<T> find(Query query, Class<T> entityClass, String collectionName) {
+                    return read(InMemoryMongo.this.find(query, collectionName), entityClass);
+                }
+
+                @Override
+                public <T> List<T> findDistinct(Query query, String field, Class<?> entityClass, Class<T> resultClass) {
+                    return InMemoryMongo.this.find(query, name(entityClass)).stream()
+                            .map(document -> resultClass.cast(get(document, field)))
+                            .distinct()
+                            .collect(Collectors.toList());
+                }
+
+                @Override
+                public UpdateResult updateMulti(Query query, UpdateDefinition update, Class<?> entityClass) {
+                    return applyUpdate(query, update, name(entityClass), true);
+                }
+
+                @Override
+                public UpdateResult updateFirst(Query query, UpdateDefinition update, Class<?> entityClass) {
+                    return applyUpdate(query, update, name(entityClass), false);
+                }
+
+                @Override
+                public DeleteResult remove(Query query, Class<?> entityClass) {
+                    List<Document> matched = InMemoryMongo.this.find(query, name(entityClass));
+                    matched.forEach(document -> collection(name(entityClass)).remove(document.get("_id")));
+                    return DeleteResult.acknowledged(matched.size());
+                }
+
+                @Override
+                public BulkOperations bulkOps(BulkOperations.BulkMode mode, Class<?> entityClass) {
+                    return bulk(name(entityClass));
+                }
+
+                @Override
+                public String getCollectionName(Class<?> entityClass) {
+                    return name(entityClass);
+                }
+            };
+        }
+
+        private Map<Object, Document> collection(String name) {
+            return collections.computeIfAbsent(name, n -> new LinkedHashMap<>());
+        }
+
+        private void failNextBulk(String collection) {
+            failBulkOn = collection;
+        }
+
+        private void failNextRolledUpMark() {
+            failRolledUpMark = true;
+        }
+
+        private String name(Class<?> type) {
+            return converter.getMappingContext().getRequiredPersistentEntity(type).getCollection();
+        }
+
+        private <T> List<T> read(List<Document> documents, Class<T> type) {
+            return documents.stream()
+                    .map(document -> type == Document.class ? type.cast(document) : converter.read(type, document))
+                    .collect(Collectors.toList());
+        }
+
+        private List<Document> find(Query query, String collection) {
+            List<Document> matched = collection(collection).values().stream()
+                    .filter(document -> matches(document, query.getQueryObject()))
+                    .collect(Collectors.toList());
+            if (query.getSortObject().containsKey("modified_at")) {
+                matched.sort(Comparator.comparing(document -> (Date) document.get("modified_at")));
+            }
+            return query.getLimit() > 0 ? matched.subList(0, Math.min(query.getLimit(), matched.size())) : matched;
+        }
+
+        private UpdateResult applyUpdate(Query query, UpdateDefinition update, String collection, boolean multi) {
+            Document changes = update.getUpdateObject();
+            if (failRolledUpMark && Boolean.TRUE.equals(get(changes, "$set.rolled_up"))) {
+                failRolledUpMark = false;
+                throw new DataAccessResourceFailureException("Simulated crash before marking rolled up");
+            }
+            List<Document> matched = find(query, collection);
+            if (!multi && matched.size() > 1) {
+                matched = matched.subList(0, 1);
+            }
+            matched.forEach(document -> apply(document, changes, false));
+            return UpdateResult.acknowledged(matched.size(), (long) matched.size(), null);
+        }
+
+        private BulkOperations bulk(String collection) {
+            List<Object[]> upserts = new ArrayList<>();
+            return (BulkOperations) Proxy.newProxyInstance(getClass().getClassLoader(),
+                    new Class<?>[] {BulkOperations.class}, (proxy, method, args) -> {
+                        switch (method.getName()) {
+                            case "upsert" -> {
+                                upserts.add(args);
+                                return proxy;
+                            }
+                            case "execute" -> {
+                                if (collection.equals(failBulkOn)) {
+                                    failBulkOn = null;
+                                    throw new DataAccessResourceFailureException("Simulated crash during bulk write");
+                                }
+                                return executeUpserts(collection, upserts);
+                            }
+                            default -> throw new UnsupportedOperationException(method.getName());
+                        }
+                    });
+        }
+
+        private BulkWriteResult executeUpserts(String collection, List<Object[]> upserts) {
+            List<BulkWriteError> errors = new ArrayList<>();
+            for (int i = 0; i < upserts.size(); i++) {
+                Query query = (Query) upserts.get(i)[0];
+                Document changes = ((UpdateDefinition) upserts.get(i)[1]).getUpdateObject();
+                List<Document> matched = find(query, collection);
+                if (!matched.isEmpty()) {
+                    apply(matched.get(0), changes, false);
+                    continue;
+                }
+                Object id = query.getQueryObject().get("_id");
+                if (collection(collection).containsKey(id)) {
+                    errors.add(new BulkWriteError(11000, "E11000 duplicate key", new BsonDocument(), i));
+                    continue;
+                }
+                Document inserted = new Document("_id", id);
+                apply(inserted, changes, true);
+                collection(collection).put(id, inserted);
+            }
+            BulkWriteResult result = BulkWriteResult.acknowledged(0, 0, 0, 0, List.of(), List.of());
+            if (!errors.isEmpty()) {
+                throw new BulkOperationException("Bulk write failed",
+                        new MongoBulkWriteException(result, errors, null, new ServerAddress(), Set.of()));
+            }
+            return result;
+        }
+
+        private static boolean matches(Document document, Document filter) {
+            for (Map.Entry<String, Object> condition : filter.entrySet()) {
+                Object value = get(document, condition.getKey());
+                if (condition.getValue() instanceof Document operators) {
+                    for (Map.Entry<String, Object> operator : operators.entrySet()) {
+                        Object operand = normalize(operator.getValue());
+                        boolean ok = switch (operator.getKey()) {
+                            case "$in" -> ((Collection<?>) operand).stream().anyMatch(candidate -> equal(value, candidate));
+                            case "$ne" -> !equal(value, operand);
+                            case "$exists" -> (value != null) == (Boolean) operand;
+                            case "$lt" -> value != null && ((Date) value).before((Date) operand);
+                            default -> throw new UnsupportedOperationException(operator.getKey());
+                        };
+                        if (!ok) {
+                            return false;
+                        }
+                    }
+                } else if (!equal(value, normalize(condition.getValue()))) {
+                    return false;
+                }
+            }
+            return true;
+        }
+
+        private static boolean equal(Object value, Object operand) {
+            if (value instanceof Collection<?> values) {
+                return values.contains(operand);
+            }
+            return Objects.equals(value, operand);
+        }
+
+        @SuppressWarnings("unchecked")
+        private static void apply(Document document, Document changes, boolean inserting) {
+            changes.forEach((operator, fields) -> ((Document) fields).forEach((path, raw) -> {
+                Object value = normalize(raw);
+                Object current = get(document, path);
+                switch (operator) {
+                    case "$set" -> set(document, path, value);
+                    case "$setOnInsert" -> {
+                        if (inserting) {
+                            set(document, path, value);
+                        }
+                    }
+                    case "$inc" -> set(document, path, current == null ? value
+                            : value instanceof Long || current instanceof Long
+                            ? ((Number) current).longValue() + ((Number) value).longValue()
+                            : ((Number) current).intValue() + ((Number) value).intValue());
+                    case "$max" -> {
+                        if (current == null || ((Comparable<Object>) current).compareTo(value) < 0) {
+                            set(document, path, value);
+                        }
+                    }
+                    case "$addToSet" -> {
+                        List<Object> values = current != null ? (List<Object>) current : new ArrayList<>();
+                        if (!values.contains(value)) {
+                            values.add(value);
+                        }
+                        set(document, path, values);
+                    }
+                    default -> throw new UnsupportedOperationException(operator);
+                }
+            }));
+        }
+
+        private static Object normalize(Object value) {
+            if (value instanceof Instant instant) {
+                return Date.from(instant);
+            }
+            if (value instanceof Collection<?> values) {
+                return values.stream().map(InMemoryMongo::normalize).collect(Collectors.toList());
+            }
+            return value;
+        }
+
+        private static Object get(Document document, String path) {
+            Object current = document;
+            for (String key : path.split("\\.")) {
+                if (!(current instanceof Document nested)) {
+                    return null;
+                }
+                current = nested.get(key);
+            }
+            return current;
+        }
+
+        private static void set(Document document, String path, Object value) {
+            String[] keys = path.split("\\.");
+            Document current = document;
+            for (int i = 0; i < keys.length - 1; i++) {
+                Object next = current.get(keys[i]);
+                if (!(next instanceof Document)) {
+                    next = new Document();
+                    current.put(keys[i], next);
+                }
+                current = (Document) next;
+            }
+            current.put(keys[keys.length - 1], value);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package com.foodordering.cache;
+
+import com.foodordering.model.entity.Account;
+import com.foodordering.repository.AccountRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class AccountExistenceCacheTest {
+
+    private final Set<String> activeAccounts = new HashSet<>();
+    // Runs inside the next repository lookup, after it has read the accounts
+    private Runnable duringLookup;
+    private int lookups;
+    private AccountExistenceCache cache;
+
+    @BeforeEach
+    void setUp() {
+        cache = new AccountExistenceCache();
+        ReflectionTestUtils.setField(cache, "accountRepository", repository());
+        ReflectionTestUtils.setField(cache, "maxSize", 100);
+        ReflectionTestUtils.setField(cache, "negativeMaxSize", 100);
+        ReflectionTestUtils.setField(cache, "negativeTtlSeconds", 30L);
+        cache.init();
+    }
+
+    @Test
+    void answersRepeatedLookupsFromTheCache() {
+        activeAccounts.add("a1");
+
+        assertTrue(cache.isActive("a1"));
+        assertTrue(cache.isActive("a1"));
+        assertFalse(cache.isActive("a2"));
+        assertFalse(cache.isActive("a2"));
+        assertEquals(2, lookups);
+    }
+
+    @Test
+    void aDeleteDuringTheLookupIsNotOverwritten() {
+        activeAccounts.add("a1");
+        duringLookup = () -> {
+            activeAccounts.remove("a1");
+            cache.invalidate("a1");
+        };
+
+        // The lookup read the account before the delete; its answer must not be kept
+        assertTrue(cache.isActive("a1"));
+        assertFalse(cache.isActive("a1"));
+    }
+
+    @Test
+    void aDeleteDuringABatchLookupIsNotOverwritten() {
+        activeAccounts.add("a1");
+        activeAccounts.add("a2");
+        duringLookup = () -> {
+            activeAccounts.remove("a1");
+            cache.invalidate("a1");
+        };
+
+        assertEquals(Set.of("a1", "a2"), cache.findActive(List.of("a1", "a2")));
+        assertEquals(Set.of("a2"), cache.findActive(List.of("a1", "a2")));
+    }
+
+    private AccountRepository repository() {
+        return (AccountRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {AccountRepository.class}, (proxy, method, args) -> {
+                    lookups++;
+                    Object result = switch (method.getName()) {
+                        case "existsActiveById" -> activeAccounts.contains((String) args[0]);
+                        case "findActiveByIdIn" -> ((Collection<?>) args[0]).stream()
+                                .filter(activeAccounts::contains)
+                                .map(id -> account((String) id))
+                                .toList();
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    };
+                    Runnable concurrent = duringLookup;
+                    duringLookup = null;
+                    if (concurrent != null) {
+                        concurrent.run();
+                    }
+                    return result;
+                });
+    }
+
+    private static Account account(String id) {
+        Account account = new Account();
+        ReflectionTestUtils.setField(account, "id", id);
+        return account;
+    }
+}
@@ -0,0 +1,89 @@
+package com.foodordering.cache;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.servlet.http.HttpServletResponse;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.context.request.NativeWebRequest;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class CatalogResponseCacheTest {
+
+    private final List<String> varyHeaders = new ArrayList<>();
+    private String checkedTag;
+    private CatalogResponseCache.CachedBody body;
+
+    @BeforeEach
+    void setUp() {
+        CatalogResponseCache cache = new CatalogResponseCache();
+        ReflectionTestUtils.setField(cache, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(cache, "maxEntries", 10);
+        cache.init();
+        body = cache.get("menu-items", () -> Map.of("name", "Pho"));
+    }
+
+    @Test
+    void gzipIsUsedOnlyWithANonZeroQValue() {
+        assertTrue(CatalogResponseCache.CachedBody.acceptsGzip("gzip, deflate, br"));
+        assertTrue(CatalogResponseCache.CachedBody.acceptsGzip("br;q=1.0, GZIP;q=0.5"));
+        assertTrue(CatalogResponseCache.CachedBody.acceptsGzip("x-gzip"));
+        assertTrue(CatalogResponseCache.CachedBody.acceptsGzip("*"));
+
+        assertFalse(CatalogResponseCache.CachedBody.acceptsGzip(null));
+        assertFalse(CatalogResponseCache.CachedBody.acceptsGzip("identity"));
+        assertFalse(CatalogResponseCache.CachedBody.acceptsGzip("gzip;q=0"));
+        assertFalse(CatalogResponseCache.CachedBody.acceptsGzip("gzip; q=0.000, deflate"));
+        assertFalse(CatalogResponseCache.CachedBody.acceptsGzip("gzip;q=oops"));
+        // An explicit refusal wins over the wildcard
+        assertFalse(CatalogResponseCache.CachedBody.acceptsGzip("*;q=1, gzip;q=0"));
+        assertFalse(CatalogResponseCache.CachedBody.acceptsGzip("*;q=0"));
+    }
+
+    @Test
+    void aRefusedGzipGetsThePlainBody() {
+        ResponseEntity<byte[]> response = body.toResponse(request("gzip;q=0, identity", false));
+
+        assertArrayEquals(body.getJson(), response.getBody());
+        assertNull(response.getHeaders().getFirst(HttpHeaders.CONTENT_ENCODING));
+        assertEquals(body.getEtag(), checkedTag);
+    }
+
+    @Test
+    void notModifiedCarriesVary() {
+        assertNull(body.toResponse(request("gzip", true)));
+
+        assertEquals(List.of(HttpHeaders.ACCEPT_ENCODING), varyHeaders);
+    }
+
+    private NativeWebRequest request(String acceptEncoding, boolean notModified) {
+        HttpServletResponse response = (HttpServletResponse) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {HttpServletResponse.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getHeaders" -> List.copyOf(varyHeaders);
+                    case "addHeader" -> varyHeaders.add((String) args[1]);
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+        return (NativeWebRequest) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {NativeWebRequest.class}, (proxy, method, args) -> switch (method.getName()) {
+                    case "getHeader" -> HttpHeaders.ACCEPT_ENCODING.equals(args[0]) ? acceptEncoding : null;
+                    case "getNativeResponse" -> response;
+                    case "checkNotModified" -> {
+                        checkedTag = (String) args[0];
+                        yield notModified;
+                    }
+                    default -> throw new UnsupportedOperationException(method.getName());
+                });
+    }
+}
@@ -0,0 +1,161 @@
+package com.foodordering.cache;
+
+import com.mongodb.client.MongoCollection;
+import org.bson.Document;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Hard deletes in polling mode, against a collection kept in a map behind a
+ * MongoTemplate stand-in. Polls are run by hand; the scheduled ones are an hour apart.
+ */
+class CollectionChangeWatcherTest {
+
+    private final Map<String, Document> orders = new LinkedHashMap<>();
+    private final List<String> changed = new ArrayList<>();
+    private int resets;
+    private CollectionChangeWatcher watcher;
+
+    @BeforeEach
+    void setUp() {
+        // Written before the watcher's look-back window
+        Date earlier = new Date(System.currentTimeMillis() - 3 * 3_600_000L);
+        for (String id : List.of("o1", "o2", "o3")) {
+            orders.put(id, new Document("_id", id).append("modified_at", earlier));
+        }
+        watcher = new CollectionChangeWatcher();
+        ReflectionTestUtils.setField(watcher, "mongoTemplate", template());
+        ReflectionTestUtils.setField(watcher, "listeners", List.of(listener()));
+        ReflectionTestUtils.setField(watcher, "mode", "polling");
+        ReflectionTestUtils.setField(watcher, "nodeId", "test");
+        ReflectionTestUtils.setField(watcher, "pollIntervalMs", 3_600_000L);
+        ReflectionTestUtils.setField(watcher, "retryDelayMs", 5_000L);
+        ReflectionTestUtils.setField(watcher, "idScanMaxDocuments", 10L);
+        ReflectionTestUtils.setField(watcher, "pollingResetMs", 3_600_000L);
+    }
+
+    @AfterEach
+    void tearDown() {
+        watcher.stop();
+    }
+
+    @Test
+    void aHardDeleteInASmallCollectionIsReportedAsAChangeOfItsId() {
+        watcher.start();
+
+        // An insert in the same interval keeps the count where it was
+        orders.remove("o2");
+        store("o4");
+        ReflectionTestUtils.invokeMethod(watcher, "pollAll");
+
+        assertEquals(Set.of("o2", "o4"), Set.copyOf(changed));
+        assertEquals(0, resets);
+    }
+
+    @Test
+    void aLargeCollectionIsResetWhenItsCountFalls() {
+        ReflectionTestUtils.setField(watcher, "idScanMaxDocuments", 2L);
+        watcher.start();
+
+        orders.remove("o2");
+        store("o4");
+        ReflectionTestUtils.invokeMethod(watcher, "pollAll");
+        assertEquals(0, resets);
+
+        orders.remove("o1");
+        ReflectionTestUtils.invokeMethod(watcher, "pollAll");
+        assertEquals(1, resets);
+    }
+
+    @Test
+    void aLargeCollectionIsResetPeriodicallyForDeletesTheCountHides() {
+        ReflectionTestUtils.setField(watcher, "idScanMaxDocuments", 2L);
+        ReflectionTestUtils.setField(watcher, "pollingResetMs", 0L);
+        watcher.start();
+
+        orders.remove("o2");
+        store("o4");
+        ReflectionTestUtils.invokeMethod(watcher, "pollAll");
+
+        assertEquals(1, resets);
+    }
+
+    private void store(String id) {
+        orders.put(id, new Document("_id", id).append("modified_at", new Date()));
+    }
+
+    private CollectionChangeListener listener() {
+        return new CollectionChangeListener() {
+            @Override
+            public Set<String> getWatchedCollections() {
+                return Set.of("orders");
+            }
+
+            @Override
+            public void onDocumentChanged(String collection, String id) {
+                changed.add(id);
+            }
+
+            @Override
+            public void onCollectionReset(String collection) {
+                resets++;
+            }
+        };
+    }
+
+    private MongoTemplate template() {
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, new MongoMappingContext());
+        MongoDatabaseFactory unconnected = (MongoDatabaseFactory) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] {MongoDatabaseFactory.class},
+                (proxy, method, args) -> method.getName().equals("getExceptionTranslator")
+                        ? new MongoExceptionTranslator() : null);
+        MongoCollection<?> collection = (MongoCollection<?>) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] {MongoCollection.class}, (proxy, method, args) -> {
+                    if (method.getName().equals("estimatedDocumentCount")) {
+                        return (long) orders.size();
+                    }
+                    throw new UnsupportedOperationException(method.getName());
+                });
+        return new MongoTemplate(unconnected, converter) {
+            @Override
+            @SuppressWarnings("unchecked")
+            public MongoCollection<Document> getCollection(String collectionName) {
+                return (MongoCollection<Document>) collection;
+            }
+
+            @Override
+            @SuppressWarnings("unchecked")
+            public <T> List<T> find(Query query, Class<T> entityClass, String collectionName) {
+                Object since = query.getQueryObject().get("modified_at");
+                List<T> found = new ArrayList<>();
+                for (Document document : orders.values()) {
+                    // The changed-since query; the watcher only ever asks for newer documents
+                    if (since == null || document.getDate("modified_at")
+                            .after(((Document) since).getDate("$gt"))) {
+                        found.add((T) document);
+                    }
+                }
+                return found;
+            }
+        };
+    }
+}
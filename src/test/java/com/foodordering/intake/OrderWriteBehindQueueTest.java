@@ -0,0 +1,168 @@
+package com.foodordering.intake;
+
+import com.foodordering.model.abstraction.MongoEntityListener;
+import com.foodordering.model.entity.Order;
+import com.mongodb.bulk.BulkWriteResult;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DataAccessResourceFailureException;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.BulkOperations;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.lang.reflect.Proxy;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * The queue against a stand-in for bulk inserts that can be switched off to
+ * simulate a Mongo outage, with the journal in a temporary directory.
+ */
+class OrderWriteBehindQueueTest {
+
+    private Path directory;
+    private Path journal;
+    private MongoTemplate mongoTemplate;
+    private final Set<String> inserted = new LinkedHashSet<>();
+    private boolean mongoDown;
+    private final List<OrderWriteBehindQueue> queues = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() throws IOException {
+        directory = Files.createTempDirectory("order-intake");
+        journal = directory.resolve("order-intake.journal");
+
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        MongoDatabaseFactory unconnected = (MongoDatabaseFactory) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] {MongoDatabaseFactory.class},
+                (proxy, method, args) -> method.getName().equals("getExceptionTranslator")
+                        ? new MongoExceptionTranslator() : null);
+        mongoTemplate = new MongoTemplate(unconnected, converter) {
+            @Override
+            public BulkOperations bulkOps(BulkOperations.BulkMode mode, Class<?> entityClass) {
+                List<Order> batch = new ArrayList<>();
+                return (BulkOperations) Proxy.newProxyInstance(getClass().getClassLoader(),
+                        new Class<?>[] {BulkOperations.class}, (proxy, method, args) -> {
+                            if (method.getName().equals("insert")) {
+                                for (Object order : (List<?>) args[0]) {
+                                    batch.add((Order) order);
+                                }
+                                return proxy;
+                            }
+                            if (method.getName().equals("execute")) {
+                                if (mongoDown) {
+                                    throw new DataAccessResourceFailureException("Mongo is down");
+                                }
+                                batch.forEach(order -> inserted.add(order.getId()));
+                                return BulkWriteResult.acknowledged(batch.size(), 0, 0, 0, List.of(), List.of());
+                            }
+                            throw new UnsupportedOperationException(method.getName());
+                        });
+            }
+        };
+    }
+
+    @AfterEach
+    void tearDown() throws IOException {
+        queues.forEach(OrderWriteBehindQueue::stop);
+        try (var files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Test
+    void refusesOrdersOnceCapacityIsHeldDuringAnOutage() {
+        OrderWriteBehindQueue queue = queue(3, Long.MAX_VALUE);
+        mongoDown = true;
+
+        for (int i = 0; i < 3; i++) {
+            assertTrue(queue.offer(order()));
+            // Every flush empties the buffer into the retry list; that must not free capacity
+            queue.flush();
+        }
+        assertFalse(queue.offer(order()));
+
+        mongoDown = false;
+        queue.flush();
+        assertEquals(3, inserted.size());
+        assertTrue(queue.offer(order()));
+    }
+
+    @Test
+    void compactionKeepsTheOrdersStillHeld() throws IOException {
+        OrderWriteBehindQueue queue = queue(100, 1);
+        Order flushed = order();
+        queue.offer(flushed);
+        queue.flush();
+
+        // A busy period: orders keep arriving while earlier ones wait for a retry
+        mongoDown = true;
+        Order first = order();
+        queue.offer(first);
+        queue.flush();
+        Order second = order();
+        queue.offer(second);
+        queue.flush();
+
+        List<String> lines = Files.readAllLines(journal, StandardCharsets.UTF_8);
+        assertEquals(2, lines.stream().filter(line -> line.startsWith("+\t")).count(), String.join("\n", lines));
+        assertFalse(lines.stream().anyMatch(line -> line.contains(flushed.getId())));
+
+        queue.stop();
+        queues.remove(queue);
+        OrderWriteBehindQueue recovered = queue(100, 1);
+        assertNotNull(recovered.find(first.getId()));
+        assertNotNull(recovered.find(second.getId()));
+        assertNull(recovered.find(flushed.getId()));
+    }
+
+    private OrderWriteBehindQueue queue(int capacity, long journalCompactBytes) {
+        OrderWriteBehindQueue queue = new OrderWriteBehindQueue();
+        ReflectionTestUtils.setField(queue, "mongoTemplate", mongoTemplate);
+        ReflectionTestUtils.setField(queue, "mongoEntityListener", new MongoEntityListener());
+        ReflectionTestUtils.setField(queue, "enabled", true);
+        ReflectionTestUtils.setField(queue, "capacity", capacity);
+        ReflectionTestUtils.setField(queue, "batchSize", 10);
+        // Flushes are driven by the test
+        ReflectionTestUtils.setField(queue, "flushIntervalMs", 3_600_000L);
+        ReflectionTestUtils.setField(queue, "journalPath", journal.toString());
+        ReflectionTestUtils.setField(queue, "journalFsync", false);
+        ReflectionTestUtils.setField(queue, "journalCompactBytes", journalCompactBytes);
+        queue.start();
+        queues.add(queue);
+        return queue;
+    }
+
+    private static Order order() {
+        Order order = new Order("a1", new ArrayList<>());
+        order.setStatus(Order.OrderStatus.PENDING);
+        return order;
+    }
+}
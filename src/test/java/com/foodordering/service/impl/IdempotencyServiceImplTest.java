@@ -0,0 +1,182 @@
+package com.foodordering.service.impl;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.foodordering.model.abstraction.MongoEntityListener;
+import com.foodordering.model.entity.IdempotencyRecord;
+import com.foodordering.repository.IdempotencyRecordRepository;
+import com.mongodb.client.result.DeleteResult;
+import com.mongodb.client.result.UpdateResult;
+import org.bson.Document;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.data.mongodb.MongoDatabaseFactory;
+import org.springframework.data.mongodb.core.MongoExceptionTranslator;
+import org.springframework.data.mongodb.core.MongoTemplate;
+import org.springframework.data.mongodb.core.convert.MappingMongoConverter;
+import org.springframework.data.mongodb.core.convert.MongoCustomConversions;
+import org.springframework.data.mongodb.core.convert.NoOpDbRefResolver;
+import org.springframework.data.mongodb.core.mapping.MongoMappingContext;
+import org.springframework.data.mongodb.core.query.Query;
+import org.springframework.data.mongodb.core.query.UpdateDefinition;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * A request that outlives the lock timeout against the retry that took its marker over.
+ * The marker lives in a map behind stand-ins for the repository and the two conditional
+ * MongoTemplate writes the service makes.
+ */
+class IdempotencyServiceImplTest {
+
+    private static final Map<String, String> FIELDS = Map.of(
+            "status", "status",
+            "response_body", "responseBody",
+            "fingerprint", "fingerprint",
+            "expires_at", "expiresAt",
+            "created_at", "createdAt",
+            "modified_at", "modifiedAt");
+
+    private final Map<String, IdempotencyRecord> records = new HashMap<>();
+    private IdempotencyServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        service = new IdempotencyServiceImpl();
+        ReflectionTestUtils.setField(service, "idempotencyRecordRepository", repository());
+        ReflectionTestUtils.setField(service, "mongoTemplate", template());
+        ReflectionTestUtils.setField(service, "objectMapper", new ObjectMapper());
+        ReflectionTestUtils.setField(service, "ttlHours", 24L);
+        ReflectionTestUtils.setField(service, "cacheSize", 100);
+        ReflectionTestUtils.setField(service, "lockTimeoutSeconds", 60L);
+        service.init();
+    }
+
+    @Test
+    void aSlowOriginalDoesNotOverwriteTheRetrysResult() {
+        String original = service.execute("orders", "k1", "request", String.class, () -> {
+            outliveLockTimeout("orders:k1");
+            assertEquals("retry", service.execute("orders", "k1", "request", String.class, () -> "retry"));
+            return "original";
+        });
+
+        // The original caller still gets its own response, but the key keeps the retry's
+        assertEquals("original", original);
+        assertEquals("\"retry\"", records.get("orders:k1").getResponseBody());
+        assertEquals("retry", service.execute("orders", "k1", "request", String.class, () -> "again"));
+    }
+
+    @Test
+    void aSlowOriginalThatFailsDoesNotReleaseTheRetrysMarker() {
+        assertThrows(IllegalStateException.class, () -> service.execute("orders", "k2", "request", String.class, () -> {
+            outliveLockTimeout("orders:k2");
+            service.execute("orders", "k2", "request", String.class, () -> "retry");
+            throw new IllegalStateException("original failed");
+        }));
+
+        assertNotNull(records.get("orders:k2"));
+        assertEquals(IdempotencyRecord.RecordStatus.COMPLETED, records.get("orders:k2").getStatus());
+    }
+
+    @Test
+    void aFailedRequestReleasesItsOwnMarker() {
+        assertThrows(IllegalStateException.class, () -> service.execute("orders", "k3", "request", String.class, () -> {
+            throw new IllegalStateException("failed");
+        }));
+
+        assertEquals(null, records.get("orders:k3"));
+        assertEquals("ok", service.execute("orders", "k3", "request", String.class, () -> "ok"));
+    }
+
+    private void outliveLockTimeout(String recordId) {
+        ReflectionTestUtils.setField(records.get(recordId), "createdAt",
+                Instant.parse("2026-01-01T00:00:00.123Z"));
+    }
+
+    private IdempotencyRecordRepository repository() {
+        MongoEntityListener auditing = new MongoEntityListener();
+        return (IdempotencyRecordRepository) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[] {IdempotencyRecordRepository.class}, (proxy, method, args) -> {
+                    switch (method.getName()) {
+                        case "insert" -> {
+                            IdempotencyRecord record = (IdempotencyRecord) args[0];
+                            if (records.containsKey(record.getId())) {
+                                throw new DuplicateKeyException("E11000 " + record.getId());
+                            }
+                            auditing.stamp(record);
+                            // Stored with millisecond precision, as Mongo does
+                            IdempotencyRecord stored = new IdempotencyRecord(record.getScope(),
+                                    record.getIdempotencyKey(), record.getFingerprint(), record.getExpiresAt());
+                            ReflectionTestUtils.setField(stored, "createdAt",
+                                    Instant.ofEpochMilli(record.getCreatedAt().toEpochMilli()));
+                            records.put(record.getId(), stored);
+                            return record;
+                        }
+                        case "findById" -> {
+                            return Optional.ofNullable(records.get((String) args[0]));
+                        }
+                        default -> throw new UnsupportedOperationException(method.getName());
+                    }
+                });
+    }
+
+    private MongoTemplate template() {
+        MongoCustomConversions conversions = new MongoCustomConversions(List.of());
+        MongoMappingContext mappingContext = new MongoMappingContext();
+        mappingContext.setSimpleTypeHolder(conversions.getSimpleTypeHolder());
+        MappingMongoConverter converter = new MappingMongoConverter(NoOpDbRefResolver.INSTANCE, mappingContext);
+        converter.setCustomConversions(conversions);
+        converter.afterPropertiesSet();
+        MongoDatabaseFactory unconnected = (MongoDatabaseFactory) Proxy.newProxyInstance(
+                getClass().getClassLoader(), new Class<?>[] {MongoDatabaseFactory.class},
+                (proxy, method, args) -> method.getName().equals("getExceptionTranslator")
+                        ? new MongoExceptionTranslator() : null);
+        return new MongoTemplate(unconnected, converter) {
+            @Override
+            public UpdateResult updateFirst(Query query, UpdateDefinition update, Class<?> entityClass) {
+                IdempotencyRecord record = matching(query);
+                if (record == null) {
+                    return UpdateResult.acknowledged(0, 0L, null);
+                }
+                Document operations = update.getUpdateObject();
+                Document set = operations.get("$set", new Document());
+                set.forEach((field, value) -> ReflectionTestUtils.setField(record, FIELDS.get(field),
+                        value instanceof Instant instant ? Instant.ofEpochMilli(instant.toEpochMilli()) : value));
+                operations.get("$unset", new Document()).keySet()
+                        .forEach(field -> ReflectionTestUtils.setField(record, FIELDS.get(field), null));
+                return UpdateResult.acknowledged(1, 1L, null);
+            }
+
+            @Override
+            public DeleteResult remove(Query query, Class<?> entityClass) {
+                IdempotencyRecord record = matching(query);
+                if (record != null) {
+                    records.remove(record.getId());
+                }
+                return DeleteResult.acknowledged(record != null ? 1 : 0);
+            }
+        };
+    }
+
+    private IdempotencyRecord matching(Query query) {
+        Document filter = query.getQueryObject();
+        IdempotencyRecord record = records.get((String) filter.get("_id"));
+        if (record == null
+                || !Objects.equals(filter.get("status"), record.getStatus())
+                || !Objects.equals(filter.get("created_at"), record.getCreatedAt())) {
+            return null;
+        }
+        return record;
+    }
+}